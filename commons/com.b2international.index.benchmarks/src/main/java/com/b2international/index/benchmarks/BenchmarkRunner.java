@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the standard JMH command line options and, unless specified otherwise, writes the results in JSON
+ * format to <code>target/jmh/&lt;timestamp&gt;.json</code>, so that subsequent runs can be compared with each other.
+ *
+ * @since 7.1
+ */
+public final class BenchmarkRunner {
+
+	private static final String RESULT_DIRECTORY = "target/jmh";
+	
+	private BenchmarkRunner() {}
+	
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		final CommandLineOptions cmd = new CommandLineOptions(args);
+		final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+		
+		if (!cmd.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		
+		if (!cmd.getResult().hasValue()) {
+			final File resultDirectory = new File(RESULT_DIRECTORY);
+			resultDirectory.mkdirs();
+			final String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+			options.result(new File(resultDirectory, timestamp + ".json").getPath());
+		}
+		
+		new Runner(options.build()).run();
+	}
+	
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b2international.index.DefaultIndex;
+import com.b2international.index.Doc;
+import com.b2international.index.Index;
+import com.b2international.index.IndexClientFactory;
+import com.b2international.index.Indexes;
+import com.b2international.index.es.EsNode;
+import com.b2international.index.es.client.EsClient;
+import com.b2international.index.mapping.Mappings;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Measures the number of small commits per second when many writers commit to the same index concurrently. Each commit ends with a refresh,
+ * concurrent refresh requests are merged into group refreshes by the index admin.
+ *
+ * @since 7.1
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ConcurrentCommitBenchmark {
+
+	/**
+	 * The time in milliseconds to wait for further refresh requests before refreshing the index.
+	 */
+	@Param({ "0", "5" })
+	public int refreshWindow;
+	
+	private final AtomicLong sequence = new AtomicLong();
+	private Index index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final ObjectMapper mapper = new ObjectMapper();
+		mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		
+		index = new DefaultIndex(Indexes.createIndexClient("benchmark-" + UUID.randomUUID(), mapper, new Mappings(CommitEntry.class), 
+				ImmutableMap.<String, Object>of(IndexClientFactory.REFRESH_WINDOW, refreshWindow)));
+		index.admin().create();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (index != null) {
+			index.admin().delete();
+		}
+		EsClient.closeAll();
+		EsNode.stop();
+	}
+	
+	@Benchmark
+	public Object commit() {
+		final long id = sequence.incrementAndGet();
+		return index.write(writer -> {
+			writer.put(Long.toString(id), new CommitEntry(id, Thread.currentThread().getName()));
+			writer.commit();
+			return null;
+		});
+	}
+	
+	@Doc(type = "commitentry")
+	public static final class CommitEntry {
+		
+		private long sequence;
+		private String writer;
+		
+		CommitEntry() {}
+		
+		CommitEntry(long sequence, String writer) {
+			this.sequence = sequence;
+			this.writer = writer;
+		}
+		
+		public long getSequence() {
+			return sequence;
+		}
+		
+		public String getWriter() {
+			return writer;
+		}
+		
+	}
+	
+}
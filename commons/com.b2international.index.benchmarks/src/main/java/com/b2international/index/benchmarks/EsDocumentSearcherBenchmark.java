@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b2international.index.Hits;
+import com.b2international.index.aggregations.Aggregation;
+import com.b2international.index.aggregations.AggregationBuilder;
+import com.b2international.index.benchmarks.SnomedFixtures.Concept;
+import com.b2international.index.benchmarks.SnomedFixtures.Description;
+import com.b2international.index.benchmarks.SnomedFixtures.Fields;
+import com.b2international.index.benchmarks.SnomedFixtures.Relationship;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionBranch;
+
+/**
+ * Benchmarks the most common query shapes executed by {@link com.b2international.index.es.EsDocumentSearcher} against an embedded node, both
+ * through the raw index and through the revision index on <code>MAIN</code>.
+ *
+ * @since 7.1
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EsDocumentSearcherBenchmark {
+
+	@Benchmark
+	public Hits<Concept> conceptsById(SnomedIndexState state) {
+		return state.index().read(searcher -> searcher.search(Query.select(Concept.class)
+				.where(Expressions.matchAny(Fields.ID, state.sampleConceptIds()))
+				.limit(state.sampleSize)
+				.build()));
+	}
+	
+	@Benchmark
+	public Hits<String> conceptIdsByIdOnMain(SnomedIndexState state) {
+		return state.revisionIndex().read(RevisionBranch.MAIN_PATH, searcher -> searcher.search(Query.select(String.class)
+				.from(Concept.class)
+				.fields(Fields.ID)
+				.where(Expressions.matchAny(Fields.ID, state.sampleConceptIds()))
+				.limit(state.sampleSize)
+				.build()));
+	}
+
+	@Benchmark
+	public Hits<Description> descriptionsByTerm(SnomedIndexState state) {
+		return state.revisionIndex().read(RevisionBranch.MAIN_PATH, searcher -> searcher.search(Query.select(Description.class)
+				.where(Expressions.builder()
+						.filter(Expressions.match(Fields.ACTIVE, true))
+						.must(Expressions.matchTextAll(Fields.TERM, "acute heart"))
+						.build())
+				.limit(50)
+				.build()));
+	}
+
+	@Benchmark
+	public Hits<String[]> descriptionFieldsOfConcepts(SnomedIndexState state) {
+		return state.revisionIndex().read(RevisionBranch.MAIN_PATH, searcher -> searcher.search(Query.select(String[].class)
+				.from(Description.class)
+				.fields(Fields.ID, Fields.CONCEPT_ID, Fields.TYPE_ID)
+				.where(Expressions.matchAny(Fields.CONCEPT_ID, state.sampleConceptIds()))
+				.limit(Integer.MAX_VALUE)
+				.build()));
+	}
+
+	@Benchmark
+	public void scrollRelationshipsOfConcepts(SnomedIndexState state, Blackhole blackhole) {
+		state.revisionIndex().read(RevisionBranch.MAIN_PATH, searcher -> {
+			for (Hits<Relationship> hits : searcher.scroll(Query.select(Relationship.class)
+					.where(Expressions.matchAny(Fields.SOURCE_ID, state.sampleConceptIds()))
+					.limit(100)
+					.build())) {
+				blackhole.consume(hits);
+			}
+			return null;
+		});
+	}
+
+	@Benchmark
+	public Aggregation<Relationship> relationshipsGroupedBySource(SnomedIndexState state) {
+		return state.revisionIndex().read(RevisionBranch.MAIN_PATH, searcher -> searcher.aggregate(AggregationBuilder.bucket("bySource", Relationship.class)
+				.query(Expressions.matchAny(Fields.SOURCE_ID, state.sampleConceptIds()))
+				.onFieldValue(Fields.SOURCE_ID)));
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.benchmarks.SnomedFixtures.Component;
+import com.b2international.index.benchmarks.SnomedFixtures.Concept;
+import com.b2international.index.benchmarks.SnomedFixtures.Description;
+import com.b2international.index.benchmarks.SnomedFixtures.Fields;
+import com.b2international.index.es.HitConverter;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Benchmarks the {@link HitConverter} implementations on prebuilt {@link SearchHit}s, without any network or Elasticsearch node involved.
+ *
+ * @since 7.1
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HitConverterBenchmark {
+
+	private static final List<String> DESCRIPTION_FIELDS = ImmutableList.of(Fields.ID, Fields.CONCEPT_ID, Fields.TYPE_ID);
+	
+	/**
+	 * Number of hits converted in a single benchmark invocation.
+	 */
+	@Param({ "10000" })
+	public int hits;
+
+	private ObjectMapper mapper;
+	private List<SearchHit> conceptSourceHits;
+	private List<SearchHit> descriptionSourceHits;
+	private List<SearchHit> descriptionFieldHits;
+	private List<SearchHit> idOnlyHits;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		mapper = new ObjectMapper();
+		mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		mapper.registerModule(new PrimitiveCollectionModule());
+
+		conceptSourceHits = newArrayListWithCapacity(hits);
+		descriptionSourceHits = newArrayListWithCapacity(hits);
+		descriptionFieldHits = newArrayListWithCapacity(hits);
+		idOnlyHits = newArrayListWithCapacity(hits);
+
+		new SnomedDataGenerator(Math.max(hits, 1_000), 42L).generate(10_000, batch -> {
+			for (Component component : batch) {
+				if (component instanceof Concept && conceptSourceHits.size() < hits) {
+					conceptSourceHits.add(sourceHit(component));
+					idOnlyHits.add(new SearchHit(idOnlyHits.size(), component.getId(), new Text("concept"), Collections.emptyMap()));
+				} else if (component instanceof Description && descriptionSourceHits.size() < hits) {
+					final Description description = (Description) component;
+					descriptionSourceHits.add(sourceHit(description));
+					final Map<String, DocumentField> fields = ImmutableMap.of(
+						Fields.ID, new DocumentField(Fields.ID, ImmutableList.of(description.getId())),
+						Fields.CONCEPT_ID, new DocumentField(Fields.CONCEPT_ID, ImmutableList.of(description.getConceptId())),
+						Fields.TYPE_ID, new DocumentField(Fields.TYPE_ID, ImmutableList.of(description.getTypeId()))
+					);
+					descriptionFieldHits.add(new SearchHit(descriptionFieldHits.size(), description.getId(), new Text("description"), fields));
+				}
+			}
+		});
+	}
+
+	private SearchHit sourceHit(Component component) {
+		try {
+			final SearchHit hit = new SearchHit(0, component.getId(), new Text("doc"), Collections.emptyMap());
+			hit.sourceRef(new BytesArray(mapper.writeValueAsBytes(component)));
+			return hit;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Benchmark
+	public void conceptSourceAsObject(Blackhole blackhole) throws IOException {
+		convert(HitConverter.getConverter(mapper, Concept.class, Concept.class, true, Collections.emptyList()), conceptSourceHits, blackhole);
+	}
+
+	@Benchmark
+	public void descriptionSourceAsObject(Blackhole blackhole) throws IOException {
+		convert(HitConverter.getConverter(mapper, Description.class, Description.class, true, Collections.emptyList()), descriptionSourceHits, blackhole);
+	}
+
+	@Benchmark
+	public void descriptionSourceAsMap(Blackhole blackhole) throws IOException {
+		convert(HitConverter.getConverter(mapper, Map.class, Description.class, true, Collections.emptyList()), descriptionSourceHits, blackhole);
+	}
+
+	@Benchmark
+	public void descriptionFieldsAsStringArray(Blackhole blackhole) throws IOException {
+		convert(HitConverter.getConverter(mapper, String[].class, Description.class, false, DESCRIPTION_FIELDS), descriptionFieldHits, blackhole);
+	}
+
+	@Benchmark
+	public void descriptionFieldsAsObject(Blackhole blackhole) throws IOException {
+		convert(HitConverter.getConverter(mapper, Description.class, Description.class, false, DESCRIPTION_FIELDS), descriptionFieldHits, blackhole);
+	}
+
+	@Benchmark
+	public void conceptIdOnly(Blackhole blackhole) throws IOException {
+		convert(HitConverter.getConverter(mapper, String.class, Concept.class, false, ImmutableList.of("_id")), idOnlyHits, blackhole);
+	}
+
+	private <T> void convert(HitConverter<T> converter, List<SearchHit> hits, Blackhole blackhole) throws IOException {
+		for (SearchHit hit : hits) {
+			blackhole.consume(converter.convert(hit));
+		}
+	}
+
+}
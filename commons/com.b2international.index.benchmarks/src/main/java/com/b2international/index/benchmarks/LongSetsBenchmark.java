@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.commons.collect.LongSets;
+
+/**
+ * Benchmarks the most frequently used {@link LongSets} utility methods on SCTID-like values with different set sizes and overlap ratios.
+ *
+ * @since 7.1
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LongSetsBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int size;
+
+	/**
+	 * Percentage of the elements of the first set that are present in the second set as well.
+	 */
+	@Param({ "10", "90" })
+	public int overlap;
+
+	private LongSet first;
+	private LongSet second;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random random = new Random(size * 31L + overlap);
+		first = PrimitiveSets.newLongOpenHashSetWithExpectedSize(size);
+		second = PrimitiveSets.newLongOpenHashSetWithExpectedSize(size);
+		for (int i = 0; i < size; i++) {
+			final long id = SnomedDataGenerator.conceptId(i);
+			first.add(id);
+			if (random.nextInt(100) < overlap) {
+				second.add(id);
+			} else {
+				second.add(SnomedDataGenerator.conceptId(size + i));
+			}
+		}
+	}
+
+	@Benchmark
+	public LongSet intersection() {
+		return LongSets.intersection(first, second);
+	}
+
+	@Benchmark
+	public LongSet difference() {
+		return LongSets.difference(first, second);
+	}
+
+	@Benchmark
+	public LongSet newLongSet() {
+		return LongSets.newLongSet(first.iterator());
+	}
+
+	@Benchmark
+	public Set<String> toStringSet() {
+		return LongSets.toStringSet(first);
+	}
+
+	@Benchmark
+	public String[] toStringArray() {
+		return LongSets.toStringArray(first);
+	}
+
+}
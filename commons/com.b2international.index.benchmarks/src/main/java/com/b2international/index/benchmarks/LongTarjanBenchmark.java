@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b2international.collections.PrimitiveMaps;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongCollection;
+import com.b2international.collections.longs.LongKeyMap;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.commons.graph.LongTarjan;
+
+/**
+ * Benchmarks {@link LongTarjan} on a synthetic IS A graph where most nodes are acyclic and a small fraction of them participate in cycles, similar
+ * to the input of the taxonomy builders when checking for cycles in the hierarchy.
+ *
+ * @since 7.1
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LongTarjanBenchmark {
+
+	private static final int BATCH_SIZE = 1_000;
+	
+	@Param({ "10000", "100000" })
+	public int nodes;
+
+	private LongSet ids;
+	private LongKeyMap<LongCollection> followers;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random random = new Random(nodes);
+		ids = PrimitiveSets.newLongOpenHashSetWithExpectedSize(nodes);
+		followers = PrimitiveMaps.newLongKeyOpenHashMapWithExpectedSize(nodes);
+		for (int i = 0; i < nodes; i++) {
+			final long id = SnomedDataGenerator.conceptId(i);
+			ids.add(id);
+			final LongSet parents = PrimitiveSets.newLongOpenHashSetWithExpectedSize(2);
+			if (i > 0) {
+				parents.add(SnomedDataGenerator.conceptId(Math.max(0, i - 1 - random.nextInt(Math.min(i, 1_000)))));
+				// introduce a cycle for 1% of the nodes by pointing to a later node which (transitively) points back
+				if (i + 1 < nodes && random.nextInt(100) == 0) {
+					parents.add(SnomedDataGenerator.conceptId(i + 1));
+				}
+			}
+			followers.put(id, parents);
+		}
+	}
+
+	@Benchmark
+	public List<LongSet> run() {
+		return new LongTarjan(BATCH_SIZE, followers::get).run(ids);
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import static com.google.common.collect.Sets.newTreeSet;
+
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.index.query.QueryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b2international.index.benchmarks.SnomedFixtures.Concept;
+import com.b2international.index.es.query.EsQueryBuilder;
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.Expression;
+import com.b2international.index.revision.RevisionBranchRef;
+import com.b2international.index.revision.RevisionSegment;
+
+/**
+ * Benchmarks {@link RevisionBranchRef#toRevisionFilter()} and its translation to an Elasticsearch query for branches with increasing number of
+ * segments (deeply nested branches and branches with lots of rebases/merges).
+ *
+ * @since 7.1
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RevisionFilterBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int segments;
+
+	private RevisionBranchRef ref;
+	private Expression filter;
+	private DocumentMapping mapping;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final SortedSet<RevisionSegment> branchSegments = newTreeSet();
+		long timestamp = 1_000L;
+		for (int i = 0; i < segments; i++) {
+			// every segment belongs to a different ancestor branch, starting from MAIN (0)
+			branchSegments.add(new RevisionSegment(i, timestamp, timestamp + 1_000L));
+			timestamp += 2_000L;
+		}
+		ref = new RevisionBranchRef(segments - 1, "MAIN/branch" + segments, branchSegments);
+		filter = ref.toRevisionFilter();
+		mapping = new DocumentMapping(Concept.class);
+	}
+
+	@Benchmark
+	public Expression toRevisionFilter() {
+		return ref.toRevisionFilter();
+	}
+
+	@Benchmark
+	public QueryBuilder toEsQuery() {
+		return new EsQueryBuilder(mapping).build(filter);
+	}
+
+	@Benchmark
+	public QueryBuilder toRevisionFilterAndEsQuery() {
+		return new EsQueryBuilder(mapping).build(ref.toRevisionFilter());
+	}
+
+}
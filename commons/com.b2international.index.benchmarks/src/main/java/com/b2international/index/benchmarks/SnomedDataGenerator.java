@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.benchmarks.SnomedFixtures.Component;
+import com.b2international.index.benchmarks.SnomedFixtures.Concept;
+import com.b2international.index.benchmarks.SnomedFixtures.Description;
+import com.b2international.index.benchmarks.SnomedFixtures.Relationship;
+
+/**
+ * Deterministic generator of SNOMED CT shaped synthetic content. Each generated concept has one FSN, one PT and optionally an additional synonym,
+ * one or two stated IS A relationships pointing to earlier concepts (the first concept is the root) and a few grouped attribute relationships.
+ * <p>
+ * Identifiers follow the SCTID layout (item identifier, partition identifier and a trailing digit in place of the check digit), so that prefix
+ * and term based queries behave similarly to real content. Generating the same scale with the same seed always produces the same content.
+ *
+ * @since 7.1
+ */
+public final class SnomedDataGenerator {
+
+	public static final String CORE_MODULE = "900000000000207008";
+	public static final String PRIMITIVE = "900000000000074008";
+	public static final String FULLY_DEFINED = "900000000000073002";
+	public static final String FSN = "900000000000003001";
+	public static final String SYNONYM = "900000000000013009";
+	public static final String IS_A = "116680003";
+	public static final String STATED_RELATIONSHIP = "900000000000010007";
+
+	private static final long EFFECTIVE_TIME = 1532995200000L; // 20180731
+	private static final int NUMBER_OF_ATTRIBUTE_TYPES = 50;
+	private static final String[] WORDS = {
+		"acute", "chronic", "disorder", "finding", "structure", "procedure", "of", "left", "right", "upper", "lower", "limb", "heart", "lung",
+		"kidney", "liver", "bone", "fracture", "infection", "bacterial", "viral", "congenital", "malformation", "pain", "severe", "mild",
+		"injury", "entire", "body", "region", "excision", "biopsy", "repair", "examination", "observable", "entity", "substance", "product",
+		"containing", "precisely", "milligram", "tablet", "oral", "dose", "form", "syndrome", "neoplasm", "benign", "malignant", "primary"
+	};
+
+	private final int numberOfConcepts;
+	private final long seed;
+
+	public SnomedDataGenerator(int numberOfConcepts, long seed) {
+		checkArgument(numberOfConcepts > NUMBER_OF_ATTRIBUTE_TYPES, "At least %s concepts are required, got: %s", NUMBER_OF_ATTRIBUTE_TYPES + 1, numberOfConcepts);
+		this.numberOfConcepts = numberOfConcepts;
+		this.seed = seed;
+	}
+
+	public int getNumberOfConcepts() {
+		return numberOfConcepts;
+	}
+
+	/**
+	 * Generates the content and passes it in batches of at most <code>batchSize</code> components to the given consumer.
+	 *
+	 * @param batchSize
+	 * @param batchConsumer
+	 */
+	public void generate(int batchSize, Consumer<List<Component>> batchConsumer) {
+		final Random random = new Random(seed);
+		final LongSet[] ancestorsByIndex = new LongSet[numberOfConcepts];
+		final long[] conceptIds = new long[numberOfConcepts];
+
+		List<Component> batch = newArrayListWithCapacity(batchSize);
+		long descriptionSequence = 0L;
+		long relationshipSequence = 0L;
+
+		for (int i = 0; i < numberOfConcepts; i++) {
+			conceptIds[i] = conceptId(i);
+			final String conceptId = Long.toString(conceptIds[i]);
+
+			final LongSet parents = PrimitiveSets.newLongOpenHashSetWithExpectedSize(2);
+			final LongSet ancestors = PrimitiveSets.newLongOpenHashSet();
+			if (i > 0) {
+				final int numberOfParents = i > 1 && random.nextInt(5) == 0 ? 2 : 1;
+				for (int p = 0; p < numberOfParents; p++) {
+					// prefer recently generated concepts to get a deep, SNOMED CT like hierarchy
+					final int parentIndex = Math.max(0, i - 1 - random.nextInt(Math.min(i, 1_000)));
+					parents.add(conceptIds[parentIndex]);
+					ancestors.add(conceptIds[parentIndex]);
+					ancestors.addAll(ancestorsByIndex[parentIndex]);
+				}
+			}
+			ancestors.removeAll(parents);
+			ancestorsByIndex[i] = ancestors;
+
+			final boolean active = random.nextInt(20) != 0;
+			final boolean released = random.nextInt(10) != 0;
+			batch.add(new Concept(conceptId, active, released, released ? EFFECTIVE_TIME : -1L, CORE_MODULE,
+					random.nextBoolean() ? PRIMITIVE : FULLY_DEFINED, parents, ancestors));
+
+			final String term = randomTerm(random);
+			batch.add(new Description(descriptionId(descriptionSequence++), true, released, released ? EFFECTIVE_TIME : -1L, CORE_MODULE,
+					conceptId, FSN, term + " (disorder)", "en"));
+			batch.add(new Description(descriptionId(descriptionSequence++), true, released, released ? EFFECTIVE_TIME : -1L, CORE_MODULE,
+					conceptId, SYNONYM, term, "en"));
+			if (random.nextBoolean()) {
+				batch.add(new Description(descriptionId(descriptionSequence++), random.nextInt(10) != 0, released, released ? EFFECTIVE_TIME : -1L, CORE_MODULE,
+						conceptId, SYNONYM, randomTerm(random), "en"));
+			}
+
+			for (long parent : parents.toArray()) {
+				batch.add(new Relationship(relationshipId(relationshipSequence++), true, released, released ? EFFECTIVE_TIME : -1L, CORE_MODULE,
+						conceptId, IS_A, Long.toString(parent), 0, STATED_RELATIONSHIP));
+			}
+
+			if (i > NUMBER_OF_ATTRIBUTE_TYPES) {
+				final int numberOfAttributes = random.nextInt(5);
+				for (int a = 0; a < numberOfAttributes; a++) {
+					final String typeId = Long.toString(conceptIds[1 + random.nextInt(NUMBER_OF_ATTRIBUTE_TYPES)]);
+					final String destinationId = Long.toString(conceptIds[random.nextInt(i)]);
+					batch.add(new Relationship(relationshipId(relationshipSequence++), true, released, released ? EFFECTIVE_TIME : -1L, CORE_MODULE,
+							conceptId, typeId, destinationId, 1 + random.nextInt(3), STATED_RELATIONSHIP));
+				}
+			}
+
+			if (batch.size() >= batchSize) {
+				batchConsumer.accept(batch);
+				batch = newArrayListWithCapacity(batchSize);
+			}
+		}
+
+		if (!batch.isEmpty()) {
+			batchConsumer.accept(batch);
+		}
+	}
+
+	/**
+	 * @param index - the zero-based index of the generated concept
+	 * @return the SCTID-like identifier of the concept at the given index
+	 */
+	public static long conceptId(int index) {
+		return sctId(100_000L + index, "00");
+	}
+
+	private static String descriptionId(long sequence) {
+		return Long.toString(sctId(100_000L + sequence, "01"));
+	}
+
+	private static String relationshipId(long sequence) {
+		return Long.toString(sctId(100_000L + sequence, "02"));
+	}
+
+	private static long sctId(long itemId, String partition) {
+		return Long.parseLong(itemId + partition + (itemId % 10));
+	}
+
+	private static String randomTerm(Random random) {
+		final int numberOfWords = 2 + random.nextInt(4);
+		final StringBuilder term = new StringBuilder();
+		for (int w = 0; w < numberOfWords; w++) {
+			if (w > 0) {
+				term.append(' ');
+			}
+			term.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return term.toString();
+	}
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.Analyzers;
+import com.b2international.index.Doc;
+import com.b2international.index.Keyword;
+import com.b2international.index.Text;
+import com.b2international.index.revision.Revision;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * SNOMED CT shaped documents used by the benchmarks. The documents mirror the most frequently queried fields of the concept, description and
+ * relationship index entries without depending on the SNOMED CT bundles.
+ *
+ * @since 7.1
+ */
+public final class SnomedFixtures {
+
+	private SnomedFixtures() {}
+
+	public static final class Fields {
+		public static final String ID = "id";
+		public static final String ACTIVE = "active";
+		public static final String RELEASED = "released";
+		public static final String EFFECTIVE_TIME = "effectiveTime";
+		public static final String MODULE_ID = "moduleId";
+		public static final String DEFINITION_STATUS_ID = "definitionStatusId";
+		public static final String PARENTS = "parents";
+		public static final String ANCESTORS = "ancestors";
+		public static final String CONCEPT_ID = "conceptId";
+		public static final String TYPE_ID = "typeId";
+		public static final String TERM = "term";
+		public static final String LANGUAGE_CODE = "languageCode";
+		public static final String SOURCE_ID = "sourceId";
+		public static final String DESTINATION_ID = "destinationId";
+		public static final String GROUP = "group";
+		public static final String CHARACTERISTIC_TYPE_ID = "characteristicTypeId";
+	}
+
+	/**
+	 * Base class of the SNOMED CT shaped component documents.
+	 */
+	public static abstract class Component extends Revision {
+
+		private final boolean active;
+		private final boolean released;
+		private final long effectiveTime;
+		private final String moduleId;
+
+		protected Component(String id, boolean active, boolean released, long effectiveTime, String moduleId) {
+			super(id);
+			this.active = active;
+			this.released = released;
+			this.effectiveTime = effectiveTime;
+			this.moduleId = moduleId;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public boolean isReleased() {
+			return released;
+		}
+
+		public long getEffectiveTime() {
+			return effectiveTime;
+		}
+
+		public String getModuleId() {
+			return moduleId;
+		}
+
+	}
+
+	@Doc(type = "concept")
+	public static final class Concept extends Component {
+
+		private final String definitionStatusId;
+		private final LongSet parents;
+		private final LongSet ancestors;
+
+		@JsonCreator
+		public Concept(
+				@JsonProperty(Fields.ID) String id,
+				@JsonProperty(Fields.ACTIVE) boolean active,
+				@JsonProperty(Fields.RELEASED) boolean released,
+				@JsonProperty(Fields.EFFECTIVE_TIME) long effectiveTime,
+				@JsonProperty(Fields.MODULE_ID) String moduleId,
+				@JsonProperty(Fields.DEFINITION_STATUS_ID) String definitionStatusId,
+				@JsonProperty(Fields.PARENTS) LongSet parents,
+				@JsonProperty(Fields.ANCESTORS) LongSet ancestors) {
+			super(id, active, released, effectiveTime, moduleId);
+			this.definitionStatusId = definitionStatusId;
+			this.parents = parents;
+			this.ancestors = ancestors;
+		}
+
+		public String getDefinitionStatusId() {
+			return definitionStatusId;
+		}
+
+		public LongSet getParents() {
+			return parents;
+		}
+
+		public LongSet getAncestors() {
+			return ancestors;
+		}
+
+	}
+
+	@Doc(type = "description")
+	public static final class Description extends Component {
+
+		private final String conceptId;
+		private final String typeId;
+
+		@Text(analyzer = Analyzers.TOKENIZED)
+		@Keyword(alias = "exact")
+		private final String term;
+
+		private final String languageCode;
+
+		@JsonCreator
+		public Description(
+				@JsonProperty(Fields.ID) String id,
+				@JsonProperty(Fields.ACTIVE) boolean active,
+				@JsonProperty(Fields.RELEASED) boolean released,
+				@JsonProperty(Fields.EFFECTIVE_TIME) long effectiveTime,
+				@JsonProperty(Fields.MODULE_ID) String moduleId,
+				@JsonProperty(Fields.CONCEPT_ID) String conceptId,
+				@JsonProperty(Fields.TYPE_ID) String typeId,
+				@JsonProperty(Fields.TERM) String term,
+				@JsonProperty(Fields.LANGUAGE_CODE) String languageCode) {
+			super(id, active, released, effectiveTime, moduleId);
+			this.conceptId = conceptId;
+			this.typeId = typeId;
+			this.term = term;
+			this.languageCode = languageCode;
+		}
+
+		public String getConceptId() {
+			return conceptId;
+		}
+
+		public String getTypeId() {
+			return typeId;
+		}
+
+		public String getTerm() {
+			return term;
+		}
+
+		public String getLanguageCode() {
+			return languageCode;
+		}
+
+	}
+
+	@Doc(type = "relationship")
+	public static final class Relationship extends Component {
+
+		private final String sourceId;
+		private final String typeId;
+		private final String destinationId;
+		private final int group;
+		private final String characteristicTypeId;
+
+		@JsonCreator
+		public Relationship(
+				@JsonProperty(Fields.ID) String id,
+				@JsonProperty(Fields.ACTIVE) boolean active,
+				@JsonProperty(Fields.RELEASED) boolean released,
+				@JsonProperty(Fields.EFFECTIVE_TIME) long effectiveTime,
+				@JsonProperty(Fields.MODULE_ID) String moduleId,
+				@JsonProperty(Fields.SOURCE_ID) String sourceId,
+				@JsonProperty(Fields.TYPE_ID) String typeId,
+				@JsonProperty(Fields.DESTINATION_ID) String destinationId,
+				@JsonProperty(Fields.GROUP) int group,
+				@JsonProperty(Fields.CHARACTERISTIC_TYPE_ID) String characteristicTypeId) {
+			super(id, active, released, effectiveTime, moduleId);
+			this.sourceId = sourceId;
+			this.typeId = typeId;
+			this.destinationId = destinationId;
+			this.group = group;
+			this.characteristicTypeId = characteristicTypeId;
+		}
+
+		public String getSourceId() {
+			return sourceId;
+		}
+
+		public String getTypeId() {
+			return typeId;
+		}
+
+		public String getDestinationId() {
+			return destinationId;
+		}
+
+		public int getGroup() {
+			return group;
+		}
+
+		public String getCharacteristicTypeId() {
+			return characteristicTypeId;
+		}
+
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.benchmarks;
+
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.DefaultIndex;
+import com.b2international.index.Index;
+import com.b2international.index.IndexClient;
+import com.b2international.index.Indexes;
+import com.b2international.index.benchmarks.SnomedFixtures.Concept;
+import com.b2international.index.benchmarks.SnomedFixtures.Description;
+import com.b2international.index.benchmarks.SnomedFixtures.Relationship;
+import com.b2international.index.es.EsNode;
+import com.b2international.index.es.client.EsClient;
+import com.b2international.index.mapping.Mappings;
+import com.b2international.index.revision.DefaultRevisionIndex;
+import com.b2international.index.revision.RevisionBranch;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.index.revision.StagingArea;
+import com.b2international.index.revision.TimestampProvider;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Shared benchmark state that starts an embedded Elasticsearch node (data is stored under <code>target/resources/indexes</code> and removed on
+ * tear down) and loads synthetic SNOMED CT content of the configured scale into a revision index on <code>MAIN</code>.
+ *
+ * @since 7.1
+ */
+@State(Scope.Benchmark)
+public class SnomedIndexState {
+
+	private static final int BATCH_SIZE = 10_000;
+	private static final long SEED = 20180731L;
+
+	/**
+	 * Number of generated concepts, each concept comes with 2-3 descriptions and 1-6 relationships.
+	 */
+	@Param({ "10000" })
+	public int scale;
+
+	/**
+	 * Number of sample concept identifiers used by the ID based benchmarks.
+	 */
+	@Param({ "1000" })
+	public int sampleSize;
+
+	private ObjectMapper mapper;
+	private IndexClient client;
+	private Index index;
+	private DefaultRevisionIndex revisionIndex;
+	private List<String> sampleConceptIds;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		mapper = new ObjectMapper();
+		mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		mapper.registerModule(new PrimitiveCollectionModule());
+
+		client = Indexes.createIndexClient("benchmark-" + UUID.randomUUID(), mapper, new Mappings(Concept.class, Description.class, Relationship.class));
+		index = new DefaultIndex(client);
+		revisionIndex = new DefaultRevisionIndex(index, new TimestampProvider.Default(), mapper);
+		revisionIndex.admin().create();
+
+		new SnomedDataGenerator(scale, SEED).generate(BATCH_SIZE, batch -> {
+			final StagingArea staging = revisionIndex.prepareCommit(RevisionBranch.MAIN_PATH);
+			batch.forEach(component -> staging.stageNew(component.getId(), component));
+			staging.commit(revisionIndex.branching().currentTime(), "benchmark", "Load synthetic SNOMED CT content");
+		});
+
+		final Random random = new Random(SEED);
+		sampleConceptIds = newArrayListWithCapacity(sampleSize);
+		for (int i = 0; i < sampleSize; i++) {
+			sampleConceptIds.add(Long.toString(SnomedDataGenerator.conceptId(random.nextInt(scale))));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (revisionIndex != null) {
+			revisionIndex.admin().delete();
+		}
+		EsClient.closeAll();
+		EsNode.stop();
+	}
+
+	public ObjectMapper mapper() {
+		return mapper;
+	}
+
+	public Index index() {
+		return index;
+	}
+
+	public RevisionIndex revisionIndex() {
+		return revisionIndex;
+	}
+
+	public List<String> sampleConceptIds() {
+		return sampleConceptIds;
+	}
+
+}
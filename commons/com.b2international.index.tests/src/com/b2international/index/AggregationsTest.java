@@ -18,21 +18,30 @@ package com.b2international.index;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
 import com.b2international.index.Fixtures.Data;
 import com.b2international.index.aggregations.Aggregation;
 import com.b2international.index.aggregations.AggregationBuilder;
+import com.b2international.index.aggregations.Bucket;
 import com.b2international.index.query.Expressions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * @since 5.12.0
  */
 public class AggregationsTest extends BaseIndexTest {
 
+	private static final int NUMBER_OF_DOCUMENTS = 25;
+	private static final int NUMBER_OF_GROUPS = 10;
+
 	@Override
 	protected Collection<Class<?>> getTypes() {
 		return ImmutableList.of(Data.class);
@@ -112,4 +121,136 @@ public class AggregationsTest extends BaseIndexTest {
 		assertThat(buckets.getBucket(String.format("%s_%s", "field1", "field2"))).containsOnly(dup1, dup2);
 	}
 	
+	@Test
+	public void pagedAggregationOnFieldValue() throws Exception {
+		indexGroupedDocuments();
+		
+		final List<Object> keys = Lists.newArrayList();
+		final Map<Object, Integer> docCounts = Maps.newHashMap();
+		int pages = 0;
+		String afterKey = null;
+		do {
+			final Aggregation<Data> page = aggregate(
+				AggregationBuilder.bucket("pagedAggregationOnFieldValue", Data.class)
+					.query(Expressions.matchAll())
+					.onFieldValue("field1")
+					.setBucketHitsLimit(0)
+					.pageSize(3)
+					.after(afterKey)
+			);
+			for (Bucket<Data> bucket : page.getBuckets().values()) {
+				keys.add(bucket.getKey());
+				docCounts.put(bucket.getKey(), bucket.getDocCount());
+				assertThat(bucket.getHits()).isEmpty();
+			}
+			afterKey = page.getAfterKey();
+			pages++;
+		} while (afterKey != null);
+		
+		assertThat(pages).isEqualTo(4);
+		assertThat(keys).containsExactly("group0", "group1", "group2", "group3", "group4", "group5", "group6", "group7", "group8", "group9");
+		assertThat(docCounts.get("group0")).isEqualTo(3);
+		assertThat(docCounts.get("group9")).isEqualTo(2);
+	}
+	
+	@Test
+	public void pagedAggregationWithMinBucketSize() throws Exception {
+		indexGroupedDocuments();
+		
+		final Aggregation<Data> firstPage = aggregate(
+			AggregationBuilder.bucket("pagedAggregationWithMinBucketSize", Data.class)
+				.query(Expressions.matchAll())
+				.onFieldValue("field1")
+				.minBucketSize(3)
+				.pageSize(NUMBER_OF_GROUPS)
+		);
+		
+		// groups with fewer documents are dropped, but the page was full, so there might be more
+		assertThat(firstPage.getBuckets().keySet()).containsExactly("group0", "group1", "group2", "group3", "group4");
+		assertThat(firstPage.getBucket("group0")).hasSize(3);
+		assertThat(firstPage.getAfterKey()).isNotNull();
+		
+		final Aggregation<Data> secondPage = aggregate(
+			AggregationBuilder.bucket("pagedAggregationWithMinBucketSize", Data.class)
+				.query(Expressions.matchAll())
+				.onFieldValue("field1")
+				.minBucketSize(3)
+				.pageSize(NUMBER_OF_GROUPS)
+				.after(firstPage.getAfterKey())
+		);
+		
+		assertThat(secondPage.getBuckets()).isEmpty();
+		assertThat(secondPage.getAfterKey()).isNull();
+	}
+	
+	@Test
+	public void aggregateMetrics() throws Exception {
+		indexGroupedDocuments();
+		
+		final Aggregation<Data> buckets = aggregate(
+			AggregationBuilder.bucket("aggregateMetrics", Data.class)
+				.query(Expressions.matchAll())
+				.onFieldValue("field1")
+				.setBucketHitsLimit(0)
+				.count("count", "intField")
+				.cardinality("cardinality", "field2")
+				.min("min", "intField")
+				.max("max", "intField")
+		);
+		
+		assertThat(buckets.getBuckets()).hasSize(NUMBER_OF_GROUPS);
+		
+		final Bucket<Data> group3 = buckets.getBucket("group3");
+		assertThat(group3.getDocCount()).isEqualTo(3);
+		assertThat(group3.getMetric("count")).isEqualTo(3L);
+		assertThat(group3.getMetric("cardinality")).isEqualTo(3L);
+		assertThat(group3.getMetric("min")).isEqualTo(3.0);
+		assertThat(group3.getMetric("max")).isEqualTo(23.0);
+		
+		final Bucket<Data> group5 = buckets.getBucket("group5");
+		assertThat(group5.getMetric("count")).isEqualTo(2L);
+		assertThat(group5.getMetric("cardinality")).isEqualTo(2L);
+		assertThat(group5.getMetric("min")).isEqualTo(5.0);
+		assertThat(group5.getMetric("max")).isEqualTo(15.0);
+	}
+	
+	@Test
+	public void aggregateWithSubAggregation() throws Exception {
+		indexGroupedDocuments();
+		
+		final Aggregation<Data> buckets = aggregate(
+			AggregationBuilder.bucket("aggregateWithSubAggregation", Data.class)
+				.query(Expressions.matchAll())
+				.onFieldValue("field1")
+				.setBucketHitsLimit(0)
+				.pageSize(5)
+				.subAggregation(AggregationBuilder.bucket("byField2", Data.class)
+						.onFieldValue("field2")
+						.max("max", "intField"))
+		);
+		
+		assertThat(buckets.getBuckets().keySet()).containsExactly("group0", "group1", "group2", "group3", "group4");
+		
+		final Aggregation<Data> group3 = buckets.getBucket("group3").getSubAggregation("byField2");
+		assertThat(group3.getBuckets().keySet()).containsOnly("mod0", "mod1", "mod2");
+		assertThat(group3.getBucket("mod1")).hasSize(1);
+		assertThat(group3.getBucket("mod1").getMetric("max")).isEqualTo(13.0);
+		assertThat(Iterables.getOnlyElement(group3.getBucket("mod1")).getIntField()).isEqualTo(13);
+	}
+	
+	/*
+	 * Documents are assigned to groups by the remainder of their index divided by the number of groups, and field2 holds the remainder divided by three.
+	 */
+	private void indexGroupedDocuments() {
+		final Map<String, Object> documents = Maps.newHashMap();
+		for (int i = 0; i < NUMBER_OF_DOCUMENTS; i++) {
+			final Data data = new Data();
+			data.setField1("group" + (i % NUMBER_OF_GROUPS));
+			data.setField2("mod" + (i % 3));
+			data.setIntField(i);
+			documents.put("key" + i, data);
+		}
+		indexDocuments(documents);
+	}
+	
 }
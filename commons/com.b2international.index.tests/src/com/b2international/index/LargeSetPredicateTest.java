@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.index.Fixtures.Data;
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Queries with set predicates exceeding the default maximum number of terms in a single terms query ({@value IndexClientFactory#DEFAULT_MAX_TERMS_COUNT}).
+ * 
+ * @since 7.1
+ */
+public class LargeSetPredicateTest extends BaseIndexTest {
+
+	private static final int NUM_DOCS = 20_000;
+	
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.of(Data.class);
+	}
+	
+	@Before
+	public void setup() {
+		final Map<String, Data> docs = newHashMap();
+		for (int i = 0; i < NUM_DOCS; i++) {
+			final Data data = new Data();
+			data.setField1("field" + i);
+			data.setIntField(i);
+			docs.put(Integer.toString(i), data);
+		}
+		indexDocuments(docs);
+	}
+	
+	@Test
+	public void matchTenThousandIds() throws Exception {
+		final Hits<String> hits = searchIds(Expressions.matchAny(DocumentMapping._ID, ids(10_000)), SortBy.DOC_ID, NUM_DOCS);
+		assertThat(hits.getTotal()).isEqualTo(10_000);
+		assertThat(hits.getHits()).isEqualTo(sorted(ids(10_000)));
+	}
+	
+	@Test
+	public void matchHundredThousandIds() throws Exception {
+		final Hits<String> hits = searchIds(Expressions.matchAny(DocumentMapping._ID, ids(100_000)), SortBy.DOC_ID, NUM_DOCS);
+		assertThat(hits.getTotal()).isEqualTo(NUM_DOCS);
+		assertThat(hits.getHits()).isEqualTo(sorted(ids(NUM_DOCS)));
+	}
+	
+	@Test
+	public void matchMillionIds() throws Exception {
+		final Expression where = Expressions.builder()
+				.filter(Expressions.matchAny(DocumentMapping._ID, ids(1_000_000)))
+				.mustNot(Expressions.exactMatch("field1", "field0"))
+				.build();
+		
+		final Hits<String> hits = searchIds(where, SortBy.field("intField", Order.DESC), 100);
+		assertThat(hits.getTotal()).isEqualTo(NUM_DOCS - 1);
+		assertThat(hits.getHits()).isEqualTo(IntStream.range(0, 100)
+				.mapToObj(i -> Integer.toString(NUM_DOCS - 1 - i))
+				.collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void matchHundredThousandIntValues() throws Exception {
+		final List<Integer> values = IntStream.range(-50_000, 50_000).boxed().collect(Collectors.toList());
+		final Hits<String> hits = searchIds(Expressions.matchAnyInt("intField", values), SortBy.field("intField", Order.ASC), 10);
+		assertThat(hits.getTotal()).isEqualTo(NUM_DOCS);
+		assertThat(hits.getHits()).isEqualTo(ids(10));
+	}
+	
+	@Test
+	public void searchAfterWithHundredThousandIds() throws Exception {
+		final Expression where = Expressions.matchAny(DocumentMapping._ID, ids(100_000));
+		final List<String> pagedIds = newArrayList();
+		String searchAfter = null;
+		Hits<String> page;
+		do {
+			page = search(Query.select(String.class)
+					.from(Data.class)
+					.fields(DocumentMapping._ID)
+					.where(where)
+					.searchAfter(searchAfter)
+					.limit(3_000)
+					.build());
+			pagedIds.addAll(page.getHits());
+			searchAfter = page.getSearchAfter();
+		} while (!page.isEmpty());
+		
+		assertThat(pagedIds).isEqualTo(sorted(ids(NUM_DOCS)));
+	}
+	
+	@Test
+	public void scrollWithHundredThousandIds() throws Exception {
+		final List<String> scrolledIds = newArrayList();
+		for (Hits<String> hits : scroll(Query.select(String.class)
+				.from(Data.class)
+				.fields(DocumentMapping._ID)
+				.where(Expressions.matchAny(DocumentMapping._ID, ids(100_000)))
+				.limit(5_000)
+				.build())) {
+			scrolledIds.addAll(hits.getHits());
+		}
+		
+		assertThat(sorted(scrolledIds)).isEqualTo(sorted(ids(NUM_DOCS)));
+	}
+	
+	private Hits<String> searchIds(Expression where, SortBy sortBy, int limit) {
+		return search(Query.select(String.class)
+				.from(Data.class)
+				.fields(DocumentMapping._ID)
+				.where(where)
+				.limit(limit)
+				.sortBy(sortBy)
+				.build());
+	}
+	
+	private static List<String> ids(int count) {
+		return IntStream.range(0, count).mapToObj(Integer::toString).collect(Collectors.toList());
+	}
+	
+	private static List<String> sorted(List<String> ids) {
+		return ids.stream().sorted().collect(Collectors.toList());
+	}
+	
+}
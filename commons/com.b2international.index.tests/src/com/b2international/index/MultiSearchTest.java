@@ -0,0 +1,271 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.script.Script;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.index.Fixtures.Data;
+import com.b2international.index.es.EsDocumentSearcher;
+import com.b2international.index.es.admin.EsIndexAdmin;
+import com.b2international.index.es.client.ClusterClient;
+import com.b2international.index.es.client.EsClient;
+import com.b2international.index.es.client.IndicesClient;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @since 7.1
+ */
+public class MultiSearchTest extends BaseIndexTest {
+
+	private static final int NUM_DOCS = 25;
+	private static final int RESULT_WINDOW = 10;
+	
+	private CountingEsClient client;
+	private EsDocumentSearcher searcher;
+	
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.of(Data.class);
+	}
+	
+	@Before
+	public void setup() {
+		final Map<String, Data> docs = newHashMap(); 
+		for (int i = 0; i < NUM_DOCS; i++) {
+			final Data data = new Data();
+			data.setField1("field" + i);
+			data.setField2(i % 2 == 0 ? "even" : "odd");
+			data.setAnalyzedField("analyzed" + i);
+			data.setIntField(i);
+			docs.put(Integer.toString(i), data);
+		}
+		indexDocuments(docs);
+		
+		// a searcher on the same index, with a small result window to test paging over the result window
+		final EsIndexAdmin admin = (EsIndexAdmin) index().admin();
+		final Map<String, Object> settings = newHashMap(admin.settings());
+		settings.put(IndexClientFactory.RESULT_WINDOW_KEY, Integer.toString(RESULT_WINDOW));
+		client = new CountingEsClient(admin.client());
+		searcher = new EsDocumentSearcher(new EsIndexAdmin(client, admin.name(), admin.mappings(), settings), getMapper());
+	}
+	
+	@Test
+	public void multiSearchInSingleRoundTrip() throws Exception {
+		final List<Query<Data>> queries = ImmutableList.of(
+			Query.select(Data.class).where(Expressions.exactMatch("field2", "even")).limit(NUM_DOCS).build(),
+			Query.select(Data.class).where(Expressions.exactMatch("field2", "odd")).limit(5).build(),
+			Query.select(Data.class).where(Expressions.exactMatch("field1", "field3")).build()
+		);
+		
+		final List<Hits<Data>> expected = ImmutableList.of(searcher.search(queries.get(0)), searcher.search(queries.get(1)), searcher.search(queries.get(2)));
+		assertThat(client.searches.get()).isEqualTo(3);
+		client.reset();
+		
+		final List<Hits<?>> actual = searcher.multiSearch(queries);
+		assertThat(client.multiSearches.get()).isEqualTo(1);
+		assertThat(client.searches.get()).isEqualTo(0);
+		
+		assertThat(actual).hasSize(3);
+		for (int i = 0; i < queries.size(); i++) {
+			assertThat(actual.get(i).getHits()).isEqualTo(expected.get(i).getHits());
+			assertThat(actual.get(i).getTotal()).isEqualTo(expected.get(i).getTotal());
+			assertThat(actual.get(i).getSearchAfter()).isEqualTo(expected.get(i).getSearchAfter());
+		}
+		assertThat(actual.get(0).getTotal()).isEqualTo(13);
+		assertThat(actual.get(1).getHits()).hasSize(5);
+	}
+	
+	@Test
+	public void multiSearchAboveResultWindow() throws Exception {
+		final Query<Data> query = Query.select(Data.class)
+				.where(Expressions.matchAll())
+				.sortBy(SortBy.field("intField", Order.ASC))
+				.limit(Integer.MAX_VALUE)
+				.build();
+		
+		final Hits<Data> expected = searcher.search(query);
+		assertThat(expected.getHits()).hasSize(NUM_DOCS);
+		client.reset();
+		
+		// the first page is part of the multi-search request, the remaining pages are fetched using search after instead of scrolling
+		final List<Hits<?>> actual = searcher.multiSearch(ImmutableList.of(query));
+		assertThat(actual.get(0).getHits()).isEqualTo(expected.getHits());
+		assertThat(client.multiSearches.get()).isEqualTo(1);
+		assertThat(client.searches.get()).isEqualTo(2);
+		assertThat(client.scrolls.get()).isEqualTo(0);
+	}
+	
+	@Test
+	public void searchAsync() throws Exception {
+		final Query<Data> query = Query.select(Data.class).where(Expressions.exactMatch("field2", "odd")).limit(RESULT_WINDOW).build();
+		final Hits<Data> expected = searcher.search(query);
+		client.reset();
+		
+		final Hits<Data> actual = searcher.searchAsync(query).get();
+		assertThat(client.asyncSearches.get()).isEqualTo(1);
+		assertThat(client.searches.get()).isEqualTo(0);
+		assertThat(actual.getHits()).isEqualTo(expected.getHits());
+		assertThat(actual.getTotal()).isEqualTo(12);
+	}
+	
+	@Test
+	public void failuresAreReportedConsistently() throws Exception {
+		// sorting on a text field fails on the ES side
+		final Query<Data> failingQuery = Query.select(Data.class)
+				.where(Expressions.matchAll())
+				.sortBy(SortBy.field("analyzedField", Order.ASC))
+				.build();
+		final Query<Data> query = Query.select(Data.class).where(Expressions.matchAll()).build();
+		
+		try {
+			searcher.search(failingQuery);
+			fail("Expected IndexException");
+		} catch (IndexException expected) {
+			// expected
+		}
+		
+		try {
+			searcher.multiSearch(ImmutableList.of(query, failingQuery));
+			fail("Expected IndexException");
+		} catch (IndexException expected) {
+			// expected
+		}
+		
+		try {
+			searcher.searchAsync(failingQuery).get();
+			fail("Expected ExecutionException");
+		} catch (ExecutionException expected) {
+			assertThat(expected.getCause()).isInstanceOf(IndexException.class);
+		}
+	}
+	
+	/*Counts the requests sent to the cluster*/
+	private static final class CountingEsClient implements EsClient {
+		
+		private final EsClient delegate;
+		private final AtomicInteger searches = new AtomicInteger();
+		private final AtomicInteger asyncSearches = new AtomicInteger();
+		private final AtomicInteger multiSearches = new AtomicInteger();
+		private final AtomicInteger scrolls = new AtomicInteger();
+		
+		CountingEsClient(EsClient delegate) {
+			this.delegate = delegate;
+		}
+		
+		void reset() {
+			searches.set(0);
+			asyncSearches.set(0);
+			multiSearches.set(0);
+			scrolls.set(0);
+		}
+		
+		@Override
+		public void close() throws Exception {
+			// the delegate is closed by the index
+		}
+		
+		@Override
+		public IndicesClient indices() {
+			return delegate.indices();
+		}
+		
+		@Override
+		public ClusterClient cluster() {
+			return delegate.cluster();
+		}
+		
+		@Override
+		public GetResponse get(GetRequest req) throws IOException {
+			return delegate.get(req);
+		}
+		
+		@Override
+		public SearchResponse search(SearchRequest req) throws IOException {
+			searches.incrementAndGet();
+			return delegate.search(req);
+		}
+		
+		@Override
+		public void searchAsync(SearchRequest req, ActionListener<SearchResponse> listener) {
+			asyncSearches.incrementAndGet();
+			delegate.searchAsync(req, listener);
+		}
+		
+		@Override
+		public MultiSearchResponse multiSearch(MultiSearchRequest req) throws IOException {
+			multiSearches.incrementAndGet();
+			return delegate.multiSearch(req);
+		}
+		
+		@Override
+		public SearchResponse scroll(SearchScrollRequest req) throws IOException {
+			scrolls.incrementAndGet();
+			return delegate.scroll(req);
+		}
+		
+		@Override
+		public ClearScrollResponse clearScroll(ClearScrollRequest req) throws IOException {
+			return delegate.clearScroll(req);
+		}
+		
+		@Override
+		public BulkProcessor.Builder bulk(BulkProcessor.Listener listener) {
+			return delegate.bulk(listener);
+		}
+		
+		@Override
+		public BulkByScrollResponse updateByQuery(String index, String type, int batchSize, Script script, int numberOfSlices, QueryBuilder query) throws IOException {
+			return delegate.updateByQuery(index, type, batchSize, script, numberOfSlices, query);
+		}
+		
+		@Override
+		public BulkByScrollResponse deleteByQuery(String index, String type, int batchSize, int numberOfSlices, QueryBuilder query) throws IOException {
+			return delegate.deleteByQuery(index, type, batchSize, numberOfSlices, query);
+		}
+		
+	}
+	
+}
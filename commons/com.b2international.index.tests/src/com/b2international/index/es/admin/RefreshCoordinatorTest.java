@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.es.admin;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.b2international.index.IndexException;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @since 7.1
+ */
+public class RefreshCoordinatorTest {
+
+	private static final int NUMBER_OF_WRITERS = 32;
+	private static final int COMMITS_PER_WRITER = 20;
+	private static final long REFRESH_MILLIS = 10L;
+	
+	private final ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_WRITERS);
+	
+	// simulates the index, writes become visible when a refresh started after them finishes
+	private final AtomicLong writes = new AtomicLong();
+	private final AtomicLong visibleWrites = new AtomicLong();
+	private final AtomicInteger refreshes = new AtomicInteger();
+	private final Set<String> refreshedIndices = ConcurrentHashMap.newKeySet();
+	
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void concurrentRequestsAreMergedAndSeeTheirWrites() throws Exception {
+		final RefreshCoordinator coordinator = new RefreshCoordinator(this::refresh, 0L);
+		
+		final List<Callable<Void>> writers = newArrayList();
+		for (int i = 0; i < NUMBER_OF_WRITERS; i++) {
+			final String index = "index" + (i % 4);
+			writers.add(() -> {
+				for (int j = 0; j < COMMITS_PER_WRITER; j++) {
+					final long write = writes.incrementAndGet();
+					coordinator.refresh(ImmutableList.of(index));
+					assertThat(visibleWrites.get()).isGreaterThanOrEqualTo(write);
+				}
+				return null;
+			});
+		}
+		
+		for (Future<Void> future : executor.invokeAll(writers)) {
+			future.get();
+		}
+		
+		final int commits = NUMBER_OF_WRITERS * COMMITS_PER_WRITER;
+		assertThat(refreshes.get()).isLessThan(commits);
+		assertThat(refreshedIndices).containsOnly("index0", "index1", "index2", "index3");
+	}
+	
+	@Test
+	public void requestsWithinWindowAreMerged() throws Exception {
+		final RefreshCoordinator coordinator = new RefreshCoordinator(this::refresh, TimeUnit.SECONDS.toMillis(1L));
+		final CountDownLatch start = new CountDownLatch(1);
+		
+		final List<Future<?>> futures = newArrayList();
+		for (int i = 0; i < NUMBER_OF_WRITERS; i++) {
+			final String index = "index" + i;
+			futures.add(executor.submit(() -> {
+				start.await();
+				coordinator.refresh(ImmutableList.of(index));
+				return null;
+			}));
+		}
+		
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		
+		assertThat(refreshes.get()).isEqualTo(1);
+		assertThat(refreshedIndices).hasSize(NUMBER_OF_WRITERS);
+	}
+	
+	@Test
+	public void failureIsReportedToAllWaiters() throws Exception {
+		final AtomicBoolean failing = new AtomicBoolean(true);
+		final CountDownLatch refreshStarted = new CountDownLatch(1);
+		final CountDownLatch failRefresh = new CountDownLatch(1);
+		final RefreshCoordinator coordinator = new RefreshCoordinator(indices -> {
+			refreshes.incrementAndGet();
+			if (failing.get()) {
+				refreshStarted.countDown();
+				try {
+					failRefresh.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IndexException("Refresh failed", null);
+			}
+		}, 0L);
+		
+		// the first request starts a refresh, the others are merged into the next one, which fails as well
+		final Future<?> first = executor.submit(() -> coordinator.refresh(Collections.singleton("index")));
+		refreshStarted.await();
+		final List<Future<?>> waiters = newArrayList();
+		for (int i = 0; i < 4; i++) {
+			waiters.add(executor.submit(() -> coordinator.refresh(Collections.singleton("index"))));
+		}
+		Thread.sleep(REFRESH_MILLIS);
+		failRefresh.countDown();
+		
+		assertFailed(first);
+		for (Future<?> waiter : waiters) {
+			assertFailed(waiter);
+		}
+		
+		// later requests are not affected by the failure
+		failing.set(false);
+		final int failedRefreshes = refreshes.get();
+		coordinator.refresh(Collections.singleton("index"));
+		assertThat(refreshes.get()).isEqualTo(failedRefreshes + 1);
+	}
+	
+	private void refresh(String[] indices) {
+		final long writesToRefresh = writes.get();
+		refreshes.incrementAndGet();
+		Collections.addAll(refreshedIndices, indices);
+		try {
+			Thread.sleep(REFRESH_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		visibleWrites.accumulateAndGet(writesToRefresh, Math::max);
+	}
+	
+	private static void assertFailed(Future<?> future) throws InterruptedException {
+		try {
+			future.get();
+			fail("Expected IndexException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(IndexException.class);
+		}
+	}
+	
+}
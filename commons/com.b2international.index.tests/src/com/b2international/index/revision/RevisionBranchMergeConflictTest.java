@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.revision.RevisionFixtures.ComponentData;
+import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.b2international.index.revision.StagingArea.RevisionPropertyDiff;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * Conflicts reported by {@link StagingArea#merge(RevisionBranchRef, RevisionBranchRef, boolean, RevisionConflictProcessor)} and the changes passed
+ * to the {@link RevisionConflictProcessor} callbacks.
+ * 
+ * @since 7.1
+ */
+public class RevisionBranchMergeConflictTest extends BaseRevisionIndexTest {
+
+	private static final String CONTAINER_ID = "container";
+	private static final RevisionData CONTAINER = new RevisionData(CONTAINER_ID, "field1", "field2");
+	private static final ComponentData COMPONENT = new ComponentData(STORAGE_KEY1, null, "field1", "field2");
+	private static final ComponentData CONTAINED_COMPONENT = new ComponentData(STORAGE_KEY1, CONTAINER_ID, "field1", "field2");
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.<Class<?>>of(RevisionData.class, ComponentData.class);
+	}
+	
+	@Test
+	public void addedInSourceAndTarget() throws Exception {
+		final String a = createBranch(MAIN, "a");
+		indexRevision(MAIN, COMPONENT);
+		indexRevision(a, COMPONENT);
+		
+		final Conflict conflict = mergeWithConflict(a, MAIN, new RevisionConflictProcessor.Default());
+		
+		assertTrue(conflict instanceof AddedInSourceAndTargetConflict);
+		assertEquals(componentId(STORAGE_KEY1), conflict.getObjectId());
+	}
+	
+	@Test
+	public void addedInSourceAndDetachedInTarget() throws Exception {
+		indexRevision(MAIN, CONTAINER);
+		final String a = createBranch(MAIN, "a");
+		indexRevision(a, CONTAINED_COMPONENT);
+		indexRemove(MAIN, CONTAINER);
+		
+		final Conflict conflict = mergeWithConflict(a, MAIN, new RevisionConflictProcessor.Default());
+		
+		assertTrue(conflict instanceof AddedInSourceAndDetachedInTargetConflict);
+		assertEquals(componentId(STORAGE_KEY1), ((AddedInSourceAndDetachedInTargetConflict) conflict).getAddedOnSource());
+		assertEquals(containerId(), ((AddedInSourceAndDetachedInTargetConflict) conflict).getDetachedOnTarget());
+	}
+	
+	@Test
+	public void addedInTargetAndDetachedInSource() throws Exception {
+		indexRevision(MAIN, CONTAINER);
+		final String a = createBranch(MAIN, "a");
+		indexRemove(a, CONTAINER);
+		indexRevision(MAIN, CONTAINED_COMPONENT);
+		
+		final Conflict conflict = mergeWithConflict(a, MAIN, new RevisionConflictProcessor.Default());
+		
+		assertTrue(conflict instanceof AddedInTargetAndDetachedInSourceConflict);
+		assertEquals(containerId(), ((AddedInTargetAndDetachedInSourceConflict) conflict).getDetachedOnSource());
+		assertEquals(componentId(STORAGE_KEY1), ((AddedInTargetAndDetachedInSourceConflict) conflict).getAddedOnTarget());
+	}
+	
+	@Test
+	public void changedInSourceAndTarget() throws Exception {
+		indexRevision(MAIN, COMPONENT);
+		final String a = createBranch(MAIN, "a");
+		indexChange(a, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1OnA", "field2"));
+		indexChange(MAIN, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1OnMain", "field2"));
+		
+		final Conflict conflict = mergeWithConflict(a, MAIN, new RevisionConflictProcessor.Default());
+		
+		assertTrue(conflict instanceof ChangedInSourceAndTargetConflict);
+		final ChangedInSourceAndTargetConflict changedConflict = (ChangedInSourceAndTargetConflict) conflict;
+		assertEquals(componentId(STORAGE_KEY1), changedConflict.getObjectId());
+		assertDiff(changedConflict.getSourceChange(), "field1", "field1", "field1OnA");
+		assertDiff(changedConflict.getTargetChange(), "field1", "field1", "field1OnMain");
+	}
+	
+	@Test
+	public void changedInSourceAndTargetToSameValue() throws Exception {
+		indexRevision(MAIN, COMPONENT);
+		final String a = createBranch(MAIN, "a");
+		final ComponentData changed = new ComponentData(STORAGE_KEY1, null, "field1Changed", "field2");
+		indexChange(a, COMPONENT, changed);
+		indexChange(MAIN, COMPONENT, changed);
+		
+		branching().merge(a, MAIN, "Merge");
+		
+		assertDocEquals(changed, getRevision(MAIN, ComponentData.class, STORAGE_KEY1));
+	}
+	
+	@Test
+	public void changedDifferentPropertiesInSourceAndTarget() throws Exception {
+		indexRevision(MAIN, COMPONENT);
+		final String a = createBranch(MAIN, "a");
+		indexChange(a, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1Changed", "field2"));
+		indexChange(MAIN, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1", "field2Changed"));
+		
+		branching().merge(a, MAIN, "Merge");
+		
+		assertDocEquals(new ComponentData(STORAGE_KEY1, null, "field1Changed", "field2Changed"), getRevision(MAIN, ComponentData.class, STORAGE_KEY1));
+	}
+	
+	@Test
+	public void changedInSourceAndTargetResolvedByProcessor() throws Exception {
+		indexRevision(MAIN, COMPONENT);
+		final String a = createBranch(MAIN, "a");
+		indexChange(a, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1OnA", "field2"));
+		indexChange(MAIN, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1OnMain", "field2"));
+		
+		// always keep the target value
+		branching().merge(a, MAIN, "Merge", new RevisionConflictProcessor.Default() {
+			@Override
+			public RevisionPropertyDiff handleChangedInSourceAndTarget(String revisionId, RevisionPropertyDiff sourceChange, RevisionPropertyDiff targetChange) {
+				assertEquals(STORAGE_KEY1, revisionId);
+				return targetChange;
+			}
+		});
+		
+		assertDocEquals(new ComponentData(STORAGE_KEY1, null, "field1OnMain", "field2"), getRevision(MAIN, ComponentData.class, STORAGE_KEY1));
+	}
+	
+	@Test
+	public void changedInSourceAndDetachedInTarget() throws Exception {
+		indexRevision(MAIN, COMPONENT);
+		final String a = createBranch(MAIN, "a");
+		indexChange(a, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1Changed", "field2Changed"));
+		indexRemove(MAIN, COMPONENT);
+		
+		final Conflict conflict = mergeWithConflict(a, MAIN, new RevisionConflictProcessor.Default() {
+			@Override
+			public Conflict handleChangedInSourceDetachedInTarget(ObjectId objectId, List<RevisionPropertyDiff> sourceChanges) {
+				return new ChangedInSourceAndDetachedInTargetConflict(objectId, sourceChanges);
+			}
+		});
+		
+		assertTrue(conflict instanceof ChangedInSourceAndDetachedInTargetConflict);
+		final ChangedInSourceAndDetachedInTargetConflict detachedConflict = (ChangedInSourceAndDetachedInTargetConflict) conflict;
+		assertEquals(componentId(STORAGE_KEY1), detachedConflict.getObjectId());
+		assertEquals(2, detachedConflict.getChanges().size());
+		for (RevisionPropertyDiff change : detachedConflict.getChanges()) {
+			assertDiff(change, change.getProperty(), change.getProperty(), change.getProperty() + "Changed");
+		}
+	}
+	
+	@Test
+	public void changedInSourceAndDetachedInTargetIgnoredByDefault() throws Exception {
+		indexRevision(MAIN, COMPONENT);
+		final String a = createBranch(MAIN, "a");
+		indexChange(a, COMPONENT, new ComponentData(STORAGE_KEY1, null, "field1Changed", "field2"));
+		indexRemove(MAIN, COMPONENT);
+		
+		branching().merge(a, MAIN, "Merge");
+		
+		assertNull(getRevision(MAIN, ComponentData.class, STORAGE_KEY1));
+	}
+	
+	private Conflict mergeWithConflict(String source, String target, RevisionConflictProcessor conflictProcessor) {
+		try {
+			branching().merge(source, target, "Merge", conflictProcessor);
+			fail("Expected a merge conflict when merging " + source + " into " + target);
+			return null;
+		} catch (BranchMergeConflictException e) {
+			assertEquals(1, e.getConflicts().size());
+			return Iterables.getOnlyElement(e.getConflicts());
+		}
+	}
+	
+	private static void assertDiff(RevisionPropertyDiff diff, String property, String oldValue, String newValue) {
+		assertEquals(property, diff.getProperty());
+		assertEquals(oldValue, diff.getOldValue());
+		assertEquals(newValue, diff.getNewValue());
+	}
+	
+	private static ObjectId componentId(String id) {
+		return ObjectId.of(DocumentMapping.getType(ComponentData.class), id);
+	}
+	
+	private static ObjectId containerId() {
+		return ObjectId.of(DocumentMapping.getType(RevisionData.class), CONTAINER_ID);
+	}
+	
+}
@@ -23,7 +23,9 @@ import com.b2international.index.RevisionHash;
 import com.b2international.index.Script;
 import com.b2international.index.Text;
 import com.b2international.index.WithScore;
+import com.b2international.index.mapping.DocumentMapping;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Objects.ToStringHelper;
 
@@ -255,4 +257,106 @@ public class RevisionFixtures {
 		
 	}
 	
+	/**
+	 * Revision with two properties that can be updated independently during merge, optionally contained by a {@link RevisionData} revision.
+	 */
+	@Doc
+	public static class ComponentData extends Revision {
+		
+		private final String container;
+		private final String field1;
+		private final String field2;
+		
+		@JsonCreator
+		public ComponentData(
+				@JsonProperty(Revision.Fields.ID) final String id,
+				@JsonProperty("container") final String container,
+				@JsonProperty("field1") final String field1,
+				@JsonProperty("field2") final String field2) {
+			super(id);
+			this.container = container;
+			this.field1 = field1;
+			this.field2 = field2;
+		}
+		
+		public String getContainer() {
+			return container;
+		}
+		
+		public String getField1() {
+			return field1;
+		}
+		
+		public String getField2() {
+			return field2;
+		}
+		
+		@Override
+		@JsonIgnore
+		protected ObjectId getContainerId() {
+			return container == null ? super.getContainerId() : ObjectId.of(DocumentMapping.getType(RevisionData.class), container);
+		}
+		
+		@Override
+		protected Builder toBuilder() {
+			return new Builder(getId())
+					.container(container)
+					.field1(field1)
+					.field2(field2);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null) return false;
+			if (getClass() != obj.getClass()) return false;
+			ComponentData other = (ComponentData) obj;
+			return Objects.equals(container, other.container) && Objects.equals(field1, other.field1) && Objects.equals(field2, other.field2); 
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(container, field1, field2);
+		}
+		
+		public static final class Builder extends Revision.Builder<Builder, ComponentData> {
+			
+			private final String id;
+			private String container;
+			private String field1;
+			private String field2;
+			
+			public Builder(String id) {
+				this.id = id;
+			}
+			
+			public Builder container(String container) {
+				this.container = container;
+				return getSelf();
+			}
+			
+			public Builder field1(String field1) {
+				this.field1 = field1;
+				return getSelf();
+			}
+			
+			public Builder field2(String field2) {
+				this.field2 = field2;
+				return getSelf();
+			}
+			
+			@Override
+			protected Builder getSelf() {
+				return this;
+			}
+			
+			@Override
+			public ComponentData build() {
+				return new ComponentData(id, container, field1, field2);
+			}
+			
+		}
+		
+	}
+	
 }
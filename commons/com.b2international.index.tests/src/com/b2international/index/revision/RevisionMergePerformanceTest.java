@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.b2international.index.revision.RevisionFixtures.ComponentData;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Merge conflict detection benchmark with an increasing number of revisions changed on both sides.
+ * For each size the test creates the revisions on a new branch, changes 'field1' of each revision on a child branch and 'field2' of each revision
+ * on the parent, then rebases the child, so every changed revision has to be checked for property conflicts. Conflict detection time should grow
+ * linearly with the number of overlapping changes.
+ * The measured times heavily depend on whether you run this test case on a warmed ES cache/index, what are the current JVM settings and what hardware you have.
+ *
+ * @since 7.1
+ */
+@Ignore("Long running benchmark, run manually")
+public class RevisionMergePerformanceTest extends BaseRevisionIndexTest {
+
+	private static final int[] NUMBER_OF_OVERLAPPING_CHANGES = { 1_000, 10_000, 50_000, 100_000 };
+	private static final int BATCH_SIZE = 10_000;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.<Class<?>>of(ComponentData.class);
+	}
+
+	@Test
+	public void rebaseWithOverlappingChanges() throws Exception {
+		for (int numberOfChanges : NUMBER_OF_OVERLAPPING_CHANGES) {
+			final String parent = createBranch(MAIN, "parent" + numberOfChanges);
+			final List<ComponentData> revisions = indexRevisions(parent, numberOfChanges);
+			final String child = createBranch(parent, "child");
+
+			indexChanges(child, revisions, revision -> new ComponentData(revision.getId(), null, "field1-changed", revision.getField2()));
+			indexChanges(parent, revisions, revision -> new ComponentData(revision.getId(), null, revision.getField1(), "field2-changed"));
+
+			final Stopwatch w = Stopwatch.createStarted();
+			branching().merge(parent, child, "Rebase");
+			System.err.println("Rebasing " + numberOfChanges + " revisions changed on both sides took: " + w);
+		}
+	}
+
+	private List<ComponentData> indexRevisions(String branch, int numberOfRevisions) {
+		final List<ComponentData> revisions = newArrayListWithCapacity(numberOfRevisions);
+		for (int from = 0; from < numberOfRevisions; from += BATCH_SIZE) {
+			final int to = Math.min(numberOfRevisions, from + BATCH_SIZE);
+			final List<Revision> batch = newArrayListWithCapacity(to - from);
+			for (int i = from; i < to; i++) {
+				final ComponentData revision = new ComponentData(Integer.toString(i), null, "field1-" + i, "field2-" + i);
+				batch.add(revision);
+				revisions.add(revision);
+			}
+			commit(branch, batch);
+		}
+		return revisions;
+	}
+
+	private void indexChanges(String branch, List<ComponentData> revisions, Function<ComponentData, ComponentData> change) {
+		for (int from = 0; from < revisions.size(); from += BATCH_SIZE) {
+			final int to = Math.min(revisions.size(), from + BATCH_SIZE);
+			final StagingArea staging = index().prepareCommit(branch);
+			for (ComponentData oldRevision : revisions.subList(from, to)) {
+				staging.stageChange(oldRevision, change.apply(oldRevision));
+			}
+			staging.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Sequential vs. sliced parallel purge benchmark.
+ * The test creates 500_000 documents on two branches and changes each of them twice, which results in 1_000_000 superseded revisions per branch.
+ * The measured times heavily depend on whether you run this test case on a warmed ES cache/index, what are the current JVM settings and what hardware you have.
+ *
+ * @since 7.1
+ */
+@Ignore("Long running benchmark, run manually")
+public class RevisionPurgePerformanceTest extends BaseRevisionIndexTest {
+
+	private static final int NUMBER_OF_DOCUMENTS = 500_000;
+	private static final int NUMBER_OF_CHANGES = 2;
+	private static final int BATCH_SIZE = 10_000;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.<Class<?>>of(RevisionData.class);
+	}
+
+	@Test
+	public void purgeMillionSupersededRevisions() throws Exception {
+		final String sequentialBranch = createBranch(MAIN, "sequential");
+		final String parallelBranch = createBranch(MAIN, "parallel");
+
+		Stopwatch w = Stopwatch.createStarted();
+		indexSupersededRevisions(sequentialBranch);
+		indexSupersededRevisions(parallelBranch);
+		System.err.println("Indexing 2x" + NUMBER_OF_DOCUMENTS * (NUMBER_OF_CHANGES + 1) + " revisions took: " + w);
+
+		w.reset().start();
+		((DefaultRevisionIndex) index()).purge(sequentialBranch, Purge.ALL, 1, new NullProgressMonitor());
+		System.err.println("Sequential purge took: " + w);
+
+		final int maxSlices = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+		w.reset().start();
+		((DefaultRevisionIndex) index()).purge(parallelBranch, Purge.ALL, maxSlices, new NullProgressMonitor());
+		System.err.println("Parallel purge with " + maxSlices + " slices took: " + w);
+	}
+
+	private void indexSupersededRevisions(final String branch) {
+		for (int from = 0; from < NUMBER_OF_DOCUMENTS; from += BATCH_SIZE) {
+			final int to = Math.min(NUMBER_OF_DOCUMENTS, from + BATCH_SIZE);
+			final List<Revision> revisions = newArrayListWithCapacity(to - from);
+			for (int i = from; i < to; i++) {
+				revisions.add(new RevisionData(Integer.toString(i), "field1-0", "field2-" + i));
+			}
+			commit(branch, revisions);
+
+			for (int change = 1; change <= NUMBER_OF_CHANGES; change++) {
+				final StagingArea staging = index().prepareCommit(branch);
+				for (int i = 0; i < revisions.size(); i++) {
+					final Revision oldRevision = revisions.get(i);
+					final Revision newRevision = new RevisionData(oldRevision.getId(), "field1-" + change, "field2-" + oldRevision.getId());
+					staging.stageChange(oldRevision, newRevision);
+					revisions.set(i, newRevision);
+				}
+				staging.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+			}
+		}
+	}
+
+}
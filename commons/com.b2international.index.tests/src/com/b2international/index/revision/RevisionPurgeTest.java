@@ -15,19 +15,26 @@
  */
 package com.b2international.index.revision;
 
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Query;
 import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
 
 /**
  * @since 5.0
@@ -148,4 +155,81 @@ public class RevisionPurgeTest extends BaseRevisionIndexTest {
 		assertEquals(2, revisionsInSegment2);
 	}
 	
+	@Test
+	public void parallelPurgeIsIdenticalToSequentialPurge() throws Exception {
+		final String sequentialBranch = createBranch(MAIN, "sequential");
+		final String parallelBranch = createBranch(MAIN, "parallel");
+		
+		indexSupersededRevisions(sequentialBranch, 50, 3);
+		indexSupersededRevisions(parallelBranch, 50, 3);
+		
+		purge(sequentialBranch, Purge.ALL, 1);
+		purge(parallelBranch, Purge.ALL, 4);
+		
+		assertEquals(getRevisionsCreatedOn(sequentialBranch), getRevisionsCreatedOn(parallelBranch));
+		for (int i = 0; i < 50; i++) {
+			final String id = "purge" + i;
+			assertDocEquals(getRevision(sequentialBranch, RevisionData.class, id), getRevision(parallelBranch, RevisionData.class, id));
+		}
+	}
+	
+	@Test
+	public void parallelPurgeWithSingleSliceIsIdenticalToParallelPurge() throws Exception {
+		final String singleSliceBranch = createBranch(MAIN, "single");
+		final String parallelBranch = createBranch(MAIN, "parallel");
+		
+		indexSupersededRevisions(singleSliceBranch, 20, 2);
+		indexSupersededRevisions(parallelBranch, 20, 2);
+		
+		purge(singleSliceBranch, Purge.HISTORY, 1);
+		purge(parallelBranch, Purge.HISTORY, 8);
+		
+		assertEquals(getRevisionsCreatedOn(singleSliceBranch), getRevisionsCreatedOn(parallelBranch));
+	}
+	
+	@Test(expected = OperationCanceledException.class)
+	public void cancelParallelPurge() throws Exception {
+		final String branch = createBranch(MAIN, "a");
+		indexSupersededRevisions(branch, 10, 2);
+		
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		index().purge(branch, Purge.ALL, monitor);
+	}
+	
+	private void indexSupersededRevisions(final String branch, final int numberOfDocuments, final int numberOfRevisions) {
+		final List<Revision> revisions = newArrayListWithCapacity(numberOfDocuments);
+		for (int i = 0; i < numberOfDocuments; i++) {
+			revisions.add(new RevisionData("purge" + i, "field1-0", "field2-" + i));
+		}
+		commit(branch, revisions);
+		
+		// each subsequent change supersedes the previous revision of the same document
+		for (int revision = 1; revision < numberOfRevisions; revision++) {
+			final StagingArea staging = index().prepareCommit(branch);
+			for (int i = 0; i < numberOfDocuments; i++) {
+				final Revision oldRevision = revisions.get(i);
+				final Revision newRevision = new RevisionData("purge" + i, "field1-" + revision, "field2-" + i);
+				staging.stageChange(oldRevision, newRevision);
+				revisions.set(i, newRevision);
+			}
+			staging.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+		}
+	}
+	
+	private void purge(final String branch, final Purge purge, final int maxSlices) {
+		((DefaultRevisionIndex) index()).purge(branch, purge, maxSlices, new NullProgressMonitor());
+	}
+	
+	private Multimap<String, RevisionData> getRevisionsCreatedOn(final String branch) {
+		final Multimap<String, RevisionData> revisionsById = HashMultimap.create();
+		for (RevisionData revision : searchRaw(Query.select(RevisionData.class)
+				.where(getBranch(branch).ref().toCreatedInFilter())
+				.limit(Integer.MAX_VALUE)
+				.build())) {
+			revisionsById.put(revision.getId(), revision);
+		}
+		return revisionsById;
+	}
+	
 }
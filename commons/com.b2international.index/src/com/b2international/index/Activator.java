@@ -88,7 +88,7 @@ public class Activator implements BundleActivator {
 	public static void withTccl(Runnable runnable) {
 		final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 		try {
-			Thread.currentThread().setContextClassLoader(bundleClassLoader);
+			Thread.currentThread().setContextClassLoader(getClassLoader());
 			runnable.run();
 		} finally {
 			Thread.currentThread().setContextClassLoader(contextClassLoader);
@@ -98,7 +98,7 @@ public class Activator implements BundleActivator {
 	public static <T> T withTccl(Callable<T> callable) {
 		final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 		try {
-			Thread.currentThread().setContextClassLoader(bundleClassLoader);
+			Thread.currentThread().setContextClassLoader(getClassLoader());
 
 			try {
 				return callable.call();
@@ -110,4 +110,11 @@ public class Activator implements BundleActivator {
 			Thread.currentThread().setContextClassLoader(contextClassLoader);
 		}
 	}
+	
+	/*
+	 * Falls back to the class loader of this class when running outside of an OSGi container (eg. in standalone benchmarks).
+	 */
+	private static ClassLoader getClassLoader() {
+		return bundleClassLoader != null ? bundleClassLoader : Activator.class.getClassLoader();
+	}
 }
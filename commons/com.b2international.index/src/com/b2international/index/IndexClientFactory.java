@@ -56,6 +56,12 @@ public interface IndexClientFactory {
 	 */
 	String RESULT_WINDOW_KEY = "max_result_window";
 	
+	/**
+	 * Configuration key to specify the maximum number of terms in a single terms query. Larger sets of values are split into multiple
+	 * queries.
+	 */
+	String MAX_TERMS_COUNT_KEY = "max_terms_count";
+	
 	/**
 	 * Configuration key to specify the number of shards for the index.
 	 * Currently only the index.es fragment supports.
@@ -66,6 +72,21 @@ public interface IndexClientFactory {
 	 * Configuration key to specify the concurrency level for bulk commit operations.
 	 */
 	String COMMIT_CONCURRENCY_LEVEL = "concurrencyLevel";
+	
+	/**
+	 * Configuration key to specify the number of slices processed concurrently when purging revisions from a branch.
+	 */
+	String PURGE_CONCURRENCY_LEVEL = "purgeConcurrencyLevel";
+	
+	/**
+	 * Configuration key to specify the number of concurrently executed searches when a query is split by its values.
+	 */
+	String SEARCH_CONCURRENCY_LEVEL = "searchConcurrencyLevel";
+	
+	/**
+	 * Configuration key to specify the time in milliseconds to wait for refresh requests of other committers before refreshing the indexes.
+	 */
+	String REFRESH_WINDOW = "refreshWindow";
 
 	/**
 	 * Configuration key to specify the name of the embedded or TCP based Elasticsearch cluster to connect to.
@@ -122,12 +143,32 @@ public interface IndexClientFactory {
 	 */
 	int DEFAULT_RESULT_WINDOW = 100_099;
 	
+	/**
+	 * The default maximum number of terms in a terms query (same as the Elasticsearch default)
+	 */
+	int DEFAULT_MAX_TERMS_COUNT = 65_536;
+	
 	/**
 	 * The default concurrency level for the bulk operations depends on the number of cores you have <code>max(1, cores / 4)</code>.
 	 * Elasticsearch module only configuration key.
 	 */
 	int DEFAULT_COMMIT_CONCURRENCY_LEVEL = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
 	
+	/**
+	 * The default number of concurrently purged slices depends on the number of cores you have <code>max(1, cores / 2)</code>.
+	 */
+	int DEFAULT_PURGE_CONCURRENCY_LEVEL = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	
+	/**
+	 * The default number of concurrently executed split searches depends on the number of cores you have <code>max(1, cores / 2)</code>.
+	 */
+	int DEFAULT_SEARCH_CONCURRENCY_LEVEL = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	
+	/**
+	 * By default refresh requests are only merged while another refresh is running.
+	 */
+	int DEFAULT_REFRESH_WINDOW = 0;
+	
 	/**
 	 * The default index prefix is empty
 	 */
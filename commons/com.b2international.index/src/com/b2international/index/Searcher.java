@@ -15,8 +15,12 @@
  */
 package com.b2international.index;
 
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.b2international.index.aggregations.Aggregation;
 import com.b2international.index.aggregations.AggregationBuilder;
@@ -38,6 +42,44 @@ public interface Searcher {
 	 */
 	<T> Hits<T> search(Query<T> query) throws IOException;
 	
+	/**
+	 * Executes the given independent queries together, in a single round trip if the implementation supports it. Each query is executed the
+	 * same way as via {@link #search(Query)}.
+	 * 
+	 * @param queries
+	 *            - the queries to execute
+	 * @return the hits of each query, in the same order as the queries
+	 * @throws IOException
+	 *             - if something goes wrong during the execution of any of the queries
+	 * @since 7.1
+	 */
+	default List<Hits<?>> multiSearch(List<? extends Query<?>> queries) throws IOException {
+		final List<Hits<?>> hits = newArrayListWithCapacity(queries.size());
+		for (Query<?> query : queries) {
+			hits.add(search(query));
+		}
+		return hits;
+	}
+	
+	/**
+	 * Executes the given query without waiting for its result, if the implementation supports it. Failures complete the returned future
+	 * exceptionally with the same exception {@link #search(Query)} would throw.
+	 * 
+	 * @param query
+	 *            - the query to execute
+	 * @return a future of the matching values
+	 * @since 7.1
+	 */
+	default <T> CompletableFuture<Hits<T>> searchAsync(Query<T> query) {
+		final CompletableFuture<Hits<T>> future = new CompletableFuture<>();
+		try {
+			future.complete(search(query));
+		} catch (IOException | RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+	
 	/**
 	 * Scrolls to the next page of a query using the given {@link Scroll} configuration.
 	 * 
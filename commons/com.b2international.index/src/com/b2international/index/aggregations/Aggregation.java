@@ -25,10 +25,16 @@ public final class Aggregation<T> {
 
 	private final String name;
 	private final Map<Object, Bucket<T>> buckets;
+	private final String afterKey;
 	
 	public Aggregation(String name, Map<Object, Bucket<T>> buckets) {
+		this(name, buckets, null);
+	}
+	
+	public Aggregation(String name, Map<Object, Bucket<T>> buckets, String afterKey) {
 		this.name = name;
 		this.buckets = buckets;
+		this.afterKey = afterKey;
 	}
 	
 	public String getName() {
@@ -43,4 +49,12 @@ public final class Aggregation<T> {
 		return buckets.get(key);
 	}
 	
+	/**
+	 * Returns the key to pass to {@link AggregationBuilder#after(String)} to retrieve the next page of a {@link AggregationBuilder#pageSize(int)
+	 * paged} aggregation, or <code>null</code> if this was the last page.
+	 */
+	public String getAfterKey() {
+		return afterKey;
+	}
+	
 }
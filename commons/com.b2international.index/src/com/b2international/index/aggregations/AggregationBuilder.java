@@ -15,6 +15,9 @@
  */
 package com.b2international.index.aggregations;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayList;
+
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +41,10 @@ public final class AggregationBuilder<T> implements ScriptExpression {
 	private String groupByScript;
 	private int minBucketSize = 1;
 	private int bucketHitsLimit = 10;
+	private int pageSize = -1;
+	private String after;
+	private final List<Metric> metrics = newArrayList();
+	private final List<AggregationBuilder<?>> subAggregations = newArrayList();
 
 	AggregationBuilder(String name, Class<T> select, Class<?> from) {
 		this.name = name;
@@ -79,6 +86,80 @@ public final class AggregationBuilder<T> implements ScriptExpression {
 		return this;
 	}
 	
+	/**
+	 * Returns the buckets of this aggregation in pages of the given size, ordered by their key, instead of returning all of them at once.
+	 * Use {@link Aggregation#getAfterKey()} with {@link #after(String)} to retrieve the next page. Only top level aggregations can be paged.
+	 * <p>
+	 * Buckets smaller than the {@link #minBucketSize(int) minimum bucket size} are dropped from the returned page, so a page might have fewer
+	 * buckets than the page size even if there are more pages to retrieve.
+	 * 
+	 * @param pageSize - the maximum number of buckets to return in a single page
+	 * @return this builder
+	 */
+	public AggregationBuilder<T> pageSize(int pageSize) {
+		checkArgument(pageSize > 0, "Page size must be greater than zero, was: %s", pageSize);
+		this.pageSize = pageSize;
+		return this;
+	}
+	
+	/**
+	 * Continues a {@link #pageSize(int) paged} aggregation after the bucket identified by the given key.
+	 * 
+	 * @param after - the {@link Aggregation#getAfterKey() after key} of the previous page
+	 * @return this builder
+	 */
+	public AggregationBuilder<T> after(String after) {
+		this.after = after;
+		return this;
+	}
+	
+	/**
+	 * Computes the number of values of the given field in each bucket.
+	 */
+	public AggregationBuilder<T> count(String name, String field) {
+		return metric(new Metric(name, Metric.Type.COUNT, field));
+	}
+	
+	/**
+	 * Computes the (approximate) number of distinct values of the given field in each bucket.
+	 */
+	public AggregationBuilder<T> cardinality(String name, String field) {
+		return metric(new Metric(name, Metric.Type.CARDINALITY, field));
+	}
+	
+	/**
+	 * Computes the minimum value of the given numeric field in each bucket.
+	 */
+	public AggregationBuilder<T> min(String name, String field) {
+		return metric(new Metric(name, Metric.Type.MIN, field));
+	}
+	
+	/**
+	 * Computes the maximum value of the given numeric field in each bucket.
+	 */
+	public AggregationBuilder<T> max(String name, String field) {
+		return metric(new Metric(name, Metric.Type.MAX, field));
+	}
+	
+	private AggregationBuilder<T> metric(Metric metric) {
+		this.metrics.add(metric);
+		return this;
+	}
+	
+	/**
+	 * Groups the documents of each bucket further by the given sub-aggregation. The query of the sub-aggregation is ignored, and it can not be
+	 * paged.
+	 * 
+	 * @param subAggregation - the aggregation to compute for each bucket of this aggregation
+	 * @return this builder
+	 */
+	public AggregationBuilder<T> subAggregation(AggregationBuilder<?> subAggregation) {
+		checkArgument(subAggregation.getFrom() == from, "Sub-aggregation '%s' must aggregate the same document type", subAggregation.getName());
+		checkArgument(!subAggregation.isPaged(), "Sub-aggregation '%s' can not be paged", subAggregation.getName());
+		this.subAggregations.add(subAggregation);
+		return this;
+	}
+	
 	public Class<T> getSelect() {
 		return select;
 	}
@@ -125,6 +206,26 @@ public final class AggregationBuilder<T> implements ScriptExpression {
 		return query;
 	}
 	
+	public boolean isPaged() {
+		return pageSize > 0;
+	}
+	
+	public int getPageSize() {
+		return pageSize;
+	}
+	
+	public String getAfter() {
+		return after;
+	}
+	
+	public List<Metric> getMetrics() {
+		return metrics;
+	}
+	
+	public List<AggregationBuilder<?>> getSubAggregations() {
+		return subAggregations;
+	}
+	
 	public static <T> AggregationBuilder<T> bucket(String name, Class<T> from) {
 		return bucket(name, from, from);
 	}
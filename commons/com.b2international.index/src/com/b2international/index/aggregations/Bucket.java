@@ -15,7 +15,9 @@
  */
 package com.b2international.index.aggregations;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import com.b2international.index.Hits;
@@ -27,10 +29,18 @@ public final class Bucket<T> implements Iterable<T> {
 
 	private final Object key;
 	private final Hits<T> hits;
+	private final Map<String, Number> metrics;
+	private final Map<String, Aggregation<?>> subAggregations;
 	
 	public Bucket(Object key, Hits<T> hits) {
+		this(key, hits, Collections.emptyMap(), Collections.emptyMap());
+	}
+	
+	public Bucket(Object key, Hits<T> hits, Map<String, Number> metrics, Map<String, Aggregation<?>> subAggregations) {
 		this.key = key;
 		this.hits = hits;
+		this.metrics = metrics;
+		this.subAggregations = subAggregations;
 	}
 	
 	public Object getKey() {
@@ -41,6 +51,34 @@ public final class Bucket<T> implements Iterable<T> {
 		return hits;
 	}
 	
+	/**
+	 * Returns the number of documents in this bucket.
+	 */
+	public int getDocCount() {
+		return hits.getTotal();
+	}
+	
+	public Map<String, Number> getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Returns the value of the metric with the given name. {@link Metric.Type#COUNT Count} and {@link Metric.Type#CARDINALITY cardinality}
+	 * metrics are returned as {@link Long}, {@link Metric.Type#MIN minimum} and {@link Metric.Type#MAX maximum} as {@link Double} values.
+	 */
+	public Number getMetric(String name) {
+		return metrics.get(name);
+	}
+	
+	public Map<String, Aggregation<?>> getSubAggregations() {
+		return subAggregations;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public <S> Aggregation<S> getSubAggregation(String name) {
+		return (Aggregation<S>) subAggregations.get(name);
+	}
+	
 	@Override
 	public Iterator<T> iterator() {
 		return hits.iterator();
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.aggregations;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Strings;
+
+/**
+ * Represents a single-value metric computed over the documents of each bucket of an {@link AggregationBuilder aggregation}.
+ * 
+ * @since 7.1
+ */
+public final class Metric {
+
+	public enum Type {
+		/**
+		 * The number of values of the field in the bucket.
+		 */
+		COUNT,
+		/**
+		 * The approximate number of distinct values of the field in the bucket.
+		 */
+		CARDINALITY,
+		/**
+		 * The minimum numeric value of the field in the bucket.
+		 */
+		MIN,
+		/**
+		 * The maximum numeric value of the field in the bucket.
+		 */
+		MAX
+	}
+	
+	private final String name;
+	private final Type type;
+	private final String field;
+	
+	Metric(String name, Type type, String field) {
+		checkArgument(!Strings.isNullOrEmpty(name), "Metric name may not be null or empty");
+		checkArgument(!Strings.isNullOrEmpty(field), "Field of metric '%s' may not be null or empty", name);
+		this.name = name;
+		this.type = type;
+		this.field = field;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public Type getType() {
+		return type;
+	}
+	
+	public String getField() {
+		return field;
+	}
+	
+}
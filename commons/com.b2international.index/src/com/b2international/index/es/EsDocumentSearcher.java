@@ -24,16 +24,23 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 import org.apache.solr.common.util.JavaBinCodec;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
@@ -41,12 +48,19 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.NumericMetricsAggregation;
 import org.elasticsearch.search.aggregations.metrics.tophits.TopHits;
 import org.elasticsearch.search.aggregations.metrics.tophits.TopHitsAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.search.sort.ScriptSortBuilder.ScriptSortType;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
@@ -64,6 +78,7 @@ import com.b2international.index.WithScore;
 import com.b2international.index.aggregations.Aggregation;
 import com.b2international.index.aggregations.AggregationBuilder;
 import com.b2international.index.aggregations.Bucket;
+import com.b2international.index.aggregations.Metric;
 import com.b2international.index.es.admin.EsIndexAdmin;
 import com.b2international.index.es.client.EsClient;
 import com.b2international.index.es.query.EsQueryBuilder;
@@ -82,6 +97,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @since 5.10
@@ -92,15 +112,20 @@ public class EsDocumentSearcher implements Searcher {
 	private static final List<String> STORED_FIELDS_NONE = ImmutableList.of("_none_");
 
 	private static final String[] EXCLUDED_SOURCE_FIELDS = { DocumentMapping._HASH };
+	private static final TimeValue LOCAL_SCROLL_TIME = TimeValue.timeValueSeconds(60);
 	
 	private final EsIndexAdmin admin;
 	private final ObjectMapper mapper;
 	private final int resultWindow;
+	private final int maxTermsCount;
+	private final int searchConcurrencyLevel;
 
 	public EsDocumentSearcher(EsIndexAdmin admin, ObjectMapper mapper) {
 		this.admin = admin;
 		this.mapper = mapper;
 		this.resultWindow = Integer.parseInt((String) admin.settings().get(IndexClientFactory.RESULT_WINDOW_KEY));
+		this.maxTermsCount = Integer.parseInt((String) admin.settings().get(IndexClientFactory.MAX_TERMS_COUNT_KEY));
+		this.searchConcurrencyLevel = (int) admin.settings().get(IndexClientFactory.SEARCH_CONCURRENCY_LEVEL);
 	}
 
 	@Override
@@ -126,14 +151,172 @@ public class EsDocumentSearcher implements Searcher {
 
 	@Override
 	public <T> Hits<T> search(Query<T> query) throws IOException {
-		final EsClient client = admin.client();
 		final DocumentMapping mapping = admin.mappings().getDocumentMapping(query);
 		
+		// Queries with very large sets of values are executed in parts, see SetPredicateSplitter
+		final List<Query<T>> splitQueries = new SetPredicateSplitter(mapping, maxTermsCount).split(query);
+		final SearchResult result = splitQueries.isEmpty() ? searchHits(query, mapping) : searchHits(query, splitQueries, mapping);
+		return toHits(query, result);
+	}
+	
+	@Override
+	public List<Hits<?>> multiSearch(List<? extends Query<?>> queries) throws IOException {
+		final Hits<?>[] hits = new Hits<?>[queries.size()];
+		final MultiSearchRequest req = new MultiSearchRequest();
+		final List<Integer> batchedQueries = newArrayList();
+		
+		for (int i = 0; i < queries.size(); i++) {
+			final Query<?> query = queries.get(i);
+			final DocumentMapping mapping = admin.mappings().getDocumentMapping(query);
+			if (isBatchable(query, mapping)) {
+				req.add(toBatchedSearchRequest(query, mapping));
+				batchedQueries.add(i);
+			} else {
+				hits[i] = search(query);
+			}
+		}
+		
+		if (!batchedQueries.isEmpty()) {
+			MultiSearchResponse response = null;
+			try {
+				response = admin.client().multiSearch(req);
+			} catch (Exception e) {
+				throw toIndexException(e);
+			}
+			
+			final MultiSearchResponse.Item[] items = response.getResponses();
+			for (int i = 0; i < items.length; i++) {
+				final int queryIndex = batchedQueries.get(i);
+				final Query<?> query = queries.get(queryIndex);
+				if (items[i].isFailure()) {
+					throw toIndexException(items[i].getFailure());
+				}
+				hits[queryIndex] = toHits(query, toSearchResult(query, admin.mappings().getDocumentMapping(query), items[i].getResponse()));
+			}
+		}
+		
+		return ImmutableList.copyOf(hits);
+	}
+	
+	@Override
+	public <T> CompletableFuture<Hits<T>> searchAsync(Query<T> query) {
+		final DocumentMapping mapping = admin.mappings().getDocumentMapping(query);
+		if (!isBatchable(query, mapping) || query.getLimit() > resultWindow) {
+			// queries requiring several requests are executed synchronously
+			return Searcher.super.searchAsync(query);
+		}
+		
+		final CompletableFuture<Hits<T>> future = new CompletableFuture<>();
+		final SearchRequest req;
+		try {
+			req = toSearchRequest(query, mapping);
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		
+		admin.client().searchAsync(req, new ActionListener<SearchResponse>() {
+			@Override
+			public void onResponse(SearchResponse response) {
+				try {
+					future.complete(toHits(query, toSearchResult(query, mapping, response)));
+				} catch (IOException | RuntimeException e) {
+					future.completeExceptionally(e);
+				}
+			}
+			
+			@Override
+			public void onFailure(Exception e) {
+				future.completeExceptionally(toIndexException(e));
+			}
+		});
+		
+		return future;
+	}
+	
+	/*
+	 * Returns true if the query can be executed as part of a multi-search request, ie. it does not need to be split into parts, and it does not
+	 * request a scroll context.
+	 */
+	private boolean isBatchable(Query<?> query, DocumentMapping mapping) {
+		return Strings.isNullOrEmpty(query.getScrollKeepAlive())
+				&& new SetPredicateSplitter(mapping, maxTermsCount).split(query).isEmpty();
+	}
+	
+	/*
+	 * Multi-search requests can not open scroll contexts, hits above the result window are retrieved using search after instead.
+	 */
+	private SearchRequest toBatchedSearchRequest(Query<?> query, DocumentMapping mapping) {
+		return toSearchRequest(query, mapping).scroll((org.elasticsearch.search.Scroll) null);
+	}
+	
+	private IndexException toIndexException(Exception e) {
+		admin.log().error("Couldn't execute query", e);
+		return new IndexException("Couldn't execute query: " + e.getMessage(), null);
+	}
+	
+	private <T> Hits<T> toHits(Query<T> query, SearchResult result) throws IOException {
+		return toHits(query.getSelect(), query.getFrom(), query.getFields(), result.fetchSource, query.getLimit(), result.totalHits, result.scrollId, query.getSortBy(), result.hits);
+	}
+	
+	private <T> SearchResult searchHits(Query<T> query, List<Query<T>> splitQueries, DocumentMapping mapping) throws IOException {
+		final int threads = Math.min(splitQueries.size(), searchConcurrencyLevel);
+		final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads, 
+				new ThreadFactoryBuilder().setNameFormat(String.format("%s-split-search-%%d", admin.name())).build()));
+		final List<ListenableFuture<SearchResult>> futures = newArrayList();
+		
+		final List<SearchResult> results;
+		try {
+			for (Query<T> splitQuery : splitQueries) {
+				futures.add(executor.submit(() -> searchHits(splitQuery, mapping)));
+			}
+			results = Futures.allAsList(futures).get();
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			Throwables.propagateIfPossible(e.getCause(), IOException.class);
+			throw new IndexException("Couldn't execute query: " + e.getCause().getMessage(), e.getCause());
+		} catch (InterruptedException e) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IndexException("Interrupted while executing query", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		// Each part is sorted already, merge them and keep the top hits only
+		final List<SearchHit> hits = newArrayList();
+		int totalHits = 0;
+		for (SearchResult result : results) {
+			hits.addAll(result.hits);
+			totalHits += result.totalHits;
+		}
+		hits.sort(getHitComparator(query.getSortBy()));
+		
+		final int limit = query.getLimit();
+		final List<SearchHit> topHits = hits.size() > limit ? hits.subList(0, limit) : hits;
+		return new SearchResult(ImmutableList.copyOf(topHits), totalHits, null, results.get(0).fetchSource);
+	}
+	
+	private <T> SearchResult searchHits(Query<T> query, DocumentMapping mapping) throws IOException {
+		final SearchRequest req = toSearchRequest(query, mapping);
+		
+		// fetch phase
+		SearchResponse response = null; 
+		try {
+			response = admin.client().search(req);
+		} catch (Exception e) {
+			throw toIndexException(e);
+		}
+		
+		return toSearchResult(query, mapping, response);
+	}
+	
+	private SearchRequest toSearchRequest(Query<?> query, DocumentMapping mapping) {
 		// Restrict variables to the theoretical maximum
 		final int limit = query.getLimit();
 		final int toRead = Ints.min(limit, resultWindow);
 		
-		final EsQueryBuilder esQueryBuilder = new EsQueryBuilder(mapping);
+		final EsQueryBuilder esQueryBuilder = new EsQueryBuilder(mapping, maxTermsCount);
 		final QueryBuilder esQuery = esQueryBuilder.build(query.getWhere());
 		
 		final SearchRequest req = new SearchRequest(admin.getTypeIndex(mapping))
@@ -160,47 +343,63 @@ public class EsDocumentSearcher implements Searcher {
 		addSort(mapping, reqSource, query.getSortBy());
 		
 		// scrolling
-		final TimeValue scrollTime = TimeValue.timeValueSeconds(60);
 		final boolean isLocalScroll = limit > resultWindow;
 		final boolean isScrolled = !Strings.isNullOrEmpty(query.getScrollKeepAlive());
 		final boolean isLiveScrolled = !Strings.isNullOrEmpty(query.getSearchAfter());
 		if (isLocalScroll) {
 			checkArgument(!isScrolled, "Cannot fetch more than '%s' items when scrolling is specified. You requested '%s' items.", resultWindow, limit);
 			checkArgument(!isLiveScrolled, "Cannot use search after when requesting more number of items (%s) than the max result window (%s).", limit, resultWindow);
-			req.scroll(scrollTime);
+			req.scroll(LOCAL_SCROLL_TIME);
 		} else if (isScrolled) {
 			checkArgument(!isLiveScrolled, "Cannot scroll and live scroll at the same time");
 			req.scroll(query.getScrollKeepAlive());
+			if (query.isSliced()) {
+				reqSource.slice(new SliceBuilder(query.getSliceId(), query.getMaxSlices()));
+			}
 		} else if (isLiveScrolled) {
 			checkArgument(!isScrolled, "Cannot scroll and live scroll at the same time");
 			reqSource.searchAfter(fromSearchAfterToken(query.getSearchAfter()));
 		}
 		
+		checkArgument(!query.isSliced() || isScrolled, "Sliced queries require scrolling");
+		
 		// disable explain explicitly, just in case
 		reqSource.explain(false);
 		// disable version field explicitly, just in case
 		reqSource.version(false);
 		
-		// fetch phase
-		SearchResponse response = null; 
-		try {
-			response = client.search(req);
-		} catch (Exception e) {
-			admin.log().error("Couldn't execute query", e);
-			throw new IndexException("Couldn't execute query: " + e.getMessage(), null);
-		}
+		return req;
+	}
+	
+	/*
+	 * Converts the response of a request created by toSearchRequest or toBatchedSearchRequest, fetching the remaining hits of local scrolls.
+	 */
+	private SearchResult toSearchResult(Query<?> query, DocumentMapping mapping, SearchResponse response) throws IOException {
+		final EsClient client = admin.client();
+		final int limit = query.getLimit();
+		final boolean isLocalScroll = limit > resultWindow;
+		final boolean fetchSource = query.getFields().isEmpty() || (!query.isDocIdOnly() && requiresDocumentSourceField(mapping, query.getFields()));
 		
 		final int totalHits = (int) response.getHits().getTotalHits();
+		admin.log().debug("Executed '{}' query in {} ({} hits).", mapping.typeAsString(), response.getTook(), totalHits);
 		int numDocsToFetch = Math.min(limit, totalHits) - response.getHits().getHits().length;
 		
 		final ImmutableList.Builder<SearchHit> allHits = ImmutableList.builder();
 		allHits.add(response.getHits().getHits());
 
 		while (isLocalScroll && numDocsToFetch > 0) {
-			final SearchScrollRequest searchScrollRequest = new SearchScrollRequest(response.getScrollId())
-					.scroll(scrollTime);
-			
-			response = client.scroll(searchScrollRequest);
+			if (response.getScrollId() != null) {
+				final SearchScrollRequest searchScrollRequest = new SearchScrollRequest(response.getScrollId())
+						.scroll(LOCAL_SCROLL_TIME);
+				
+				response = client.scroll(searchScrollRequest);
+			} else {
+				final SearchHit[] previousHits = response.getHits().getHits();
+				final SearchRequest searchAfterRequest = toBatchedSearchRequest(query, mapping);
+				searchAfterRequest.source().searchAfter(previousHits[previousHits.length - 1].getSortValues());
+				
+				response = client.search(searchAfterRequest);
+			}
 			int fetchedDocs = response.getHits().getHits().length;
 			if (fetchedDocs == 0) {
 				break;
@@ -210,16 +409,13 @@ public class EsDocumentSearcher implements Searcher {
 		}
 		
 		// clear the custom local scroll
-		if (isLocalScroll) {
+		if (isLocalScroll && response.getScrollId() != null) {
 			final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
 			clearScrollRequest.addScrollId(response.getScrollId());
 			client.clearScroll(clearScrollRequest);
 		}
 		
-		final Class<T> select = query.getSelect();
-		final Class<?> from = query.getFrom();
-		
-		return toHits(select, from, query.getFields(), fetchSource, limit, totalHits, response.getScrollId(), query.getSortBy(), allHits.build());
+		return new SearchResult(allHits.build(), totalHits, response.getScrollId(), fetchSource);
 	}
 
 	private <T> boolean applySourceFiltering(List<String> fields, boolean isDocIdOnly, final DocumentMapping mapping, final SearchSourceBuilder reqSource) {
@@ -400,6 +596,58 @@ public class EsDocumentSearcher implements Searcher {
         }
 	}
 	
+	/*
+	 * Compares hits by their sort values, in the same order as Elasticsearch does. Missing values are sorted last, regardless of the order.
+	 */
+	private Comparator<SearchHit> getHitComparator(SortBy sortBy) {
+		final List<Order> orders = newArrayList();
+		for (final SortBy item : getSortFields(sortBy)) {
+			if (item instanceof SortByField) {
+				orders.add(((SortByField) item).getOrder());
+			} else if (item instanceof SortByScript) {
+				orders.add(((SortByScript) item).getOrder());
+			} else {
+				throw new UnsupportedOperationException("Unsupported SortBy implementation " + item);
+			}
+		}
+		
+		return (hit1, hit2) -> {
+			final Object[] sortValues1 = hit1.getSortValues();
+			final Object[] sortValues2 = hit2.getSortValues();
+			for (int i = 0; i < orders.size(); i++) {
+				final Object value1 = i < sortValues1.length ? sortValues1[i] : null;
+				final Object value2 = i < sortValues2.length ? sortValues2[i] : null;
+				if (value1 == null || value2 == null) {
+					if (value1 != value2) {
+						return value1 == null ? 1 : -1;
+					}
+					continue;
+				}
+				
+				final int result = compareSortValues(value1, value2);
+				if (result != 0) {
+					return orders.get(i) == Order.DESC ? -result : result;
+				}
+			}
+			return 0;
+		};
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static int compareSortValues(Object value1, Object value2) {
+		if (isIntegral(value1) && isIntegral(value2)) {
+			return Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+		} else if (value1 instanceof Number && value2 instanceof Number) {
+			return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+		} else {
+			return ((Comparable<Object>) value1).compareTo(value2);
+		}
+	}
+
+	private static boolean isIntegral(Object value) {
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+	}
+	
 	private Iterable<SortBy> getSortFields(SortBy sortBy) {
 		final List<SortBy> items = newArrayList();
 
@@ -426,11 +674,10 @@ public class EsDocumentSearcher implements Searcher {
 	
 	@Override
 	public <T> Aggregation<T> aggregate(AggregationBuilder<T> aggregation) throws IOException {
-		final String aggregationName = aggregation.getName();
 		final EsClient client = admin.client();
 		final DocumentMapping mapping = admin.mappings().getMapping(aggregation.getFrom());
 		
-		final EsQueryBuilder esQueryBuilder = new EsQueryBuilder(mapping);
+		final EsQueryBuilder esQueryBuilder = new EsQueryBuilder(mapping, maxTermsCount);
 		final QueryBuilder esQuery = esQueryBuilder.build(aggregation.getQuery());
 		
 		final SearchRequest req = new SearchRequest(admin.getTypeIndex(mapping))
@@ -454,38 +701,109 @@ public class EsDocumentSearcher implements Searcher {
 		}
 		
 		
-		ImmutableMap.Builder<Object, Bucket<T>> buckets = ImmutableMap.builder();
-		Terms aggregationResult = response.getAggregations().<Terms>get(aggregationName);
-		for (org.elasticsearch.search.aggregations.bucket.terms.Terms.Bucket bucket : aggregationResult.getBuckets()) {
-			final TopHits topHits = bucket.getAggregations().get(topHitsAggName(aggregation));
-			Hits<T> hits;
-			if (topHits != null) {
-				hits = toHits(aggregation.getSelect(), aggregation.getFrom(), aggregation.getFields(), fetchSource, aggregation.getBucketHitsLimit(), (int) bucket.getDocCount(), null, null, topHits.getHits()); 
-			} else {
-				hits = new Hits<>(Collections.emptyList(), null, null, aggregation.getBucketHitsLimit(), (int) bucket.getDocCount());
+		return toAggregation(mapping, aggregation, fetchSource, response.getAggregations());
+	}
+	
+	private <T> Aggregation<T> toAggregation(DocumentMapping mapping, AggregationBuilder<T> aggregation, boolean fetchSource, Aggregations aggregations) throws IOException {
+		final String aggregationName = aggregation.getName();
+		final ImmutableMap.Builder<Object, Bucket<T>> buckets = ImmutableMap.builder();
+		String afterKey = null;
+		
+		if (aggregation.isPaged()) {
+			final CompositeAggregation aggregationResult = aggregations.get(aggregationName);
+			for (CompositeAggregation.Bucket bucket : aggregationResult.getBuckets()) {
+				// composite aggregations do not support min_doc_count, filter buckets here
+				if (bucket.getDocCount() >= aggregation.getMinBucketSize()) {
+					final Object key = bucket.getKey().get(aggregationName);
+					buckets.put(key, toBucket(mapping, aggregation, fetchSource, key, bucket.getDocCount(), bucket.getAggregations()));
+				}
+			}
+			
+			// a partial page is always the last one
+			if (aggregationResult.getBuckets().size() == aggregation.getPageSize() && aggregationResult.afterKey() != null) {
+				afterKey = toSearchAfterToken(new Object[] { aggregationResult.afterKey().get(aggregationName) });
+			}
+		} else {
+			final Terms aggregationResult = aggregations.get(aggregationName);
+			for (Terms.Bucket bucket : aggregationResult.getBuckets()) {
+				buckets.put(bucket.getKey(), toBucket(mapping, aggregation, fetchSource, bucket.getKey(), bucket.getDocCount(), bucket.getAggregations()));
 			}
-			buckets.put(bucket.getKey(), new Bucket<>(bucket.getKey(), hits));
 		}
 		
-		return new Aggregation<>(aggregationName, buckets.build());
+		return new Aggregation<>(aggregationName, buckets.build(), afterKey);
+	}
+
+	private <T> Bucket<T> toBucket(DocumentMapping mapping, AggregationBuilder<T> aggregation, boolean fetchSource, Object key, long docCount, Aggregations bucketAggregations) throws IOException {
+		final TopHits topHits = bucketAggregations.get(topHitsAggName(aggregation));
+		Hits<T> hits;
+		if (topHits != null) {
+			hits = toHits(aggregation.getSelect(), aggregation.getFrom(), aggregation.getFields(), fetchSource, aggregation.getBucketHitsLimit(), (int) docCount, null, null, topHits.getHits()); 
+		} else {
+			hits = new Hits<>(Collections.emptyList(), null, null, aggregation.getBucketHitsLimit(), (int) docCount);
+		}
+		
+		final ImmutableMap.Builder<String, Number> metrics = ImmutableMap.builder();
+		for (Metric metric : aggregation.getMetrics()) {
+			final double value = bucketAggregations.<NumericMetricsAggregation.SingleValue>get(metric.getName()).value();
+			switch (metric.getType()) {
+			case COUNT: //$FALL-THROUGH$
+			case CARDINALITY:
+				metrics.put(metric.getName(), (long) value);
+				break;
+			default:
+				metrics.put(metric.getName(), value);
+			}
+		}
+		
+		final ImmutableMap.Builder<String, Aggregation<?>> subAggregations = ImmutableMap.builder();
+		for (AggregationBuilder<?> subAggregation : aggregation.getSubAggregations()) {
+			final boolean subFetchSource = subAggregation.getFields().isEmpty() || requiresDocumentSourceField(mapping, subAggregation.getFields());
+			subAggregations.put(subAggregation.getName(), toAggregation(mapping, subAggregation, subFetchSource, bucketAggregations));
+		}
+		
+		return new Bucket<>(key, hits, metrics.build(), subAggregations.build());
 	}
 
 	private org.elasticsearch.search.aggregations.AggregationBuilder toEsAggregation(DocumentMapping mapping, AggregationBuilder<?> aggregation, boolean fetchSource) {
-		final TermsAggregationBuilder termsAgg = AggregationBuilders
-				.terms(aggregation.getName())
-				.minDocCount(aggregation.getMinBucketSize())
-				.size(Integer.MAX_VALUE);
 		boolean isFieldAgg = !Strings.isNullOrEmpty(aggregation.getGroupByField());
 		boolean isScriptAgg = !Strings.isNullOrEmpty(aggregation.getGroupByScript());
 		if (isFieldAgg) {
 			checkArgument(!isScriptAgg, "Specify either field or script parameter, not both");
-			termsAgg.field(aggregation.getGroupByField());
-		} else if (isScriptAgg) {
-			termsAgg.script(aggregation.toEsScript(mapping));
-		} else {
+		} else if (!isScriptAgg) {
 			throw new IllegalArgumentException("Specify either field or script parameter");
 		}
 		
+		final org.elasticsearch.search.aggregations.AggregationBuilder esAggregation;
+		if (aggregation.isPaged()) {
+			// composite aggregations return the buckets in key order, one page at a time
+			final TermsValuesSourceBuilder source = new TermsValuesSourceBuilder(aggregation.getName());
+			if (isFieldAgg) {
+				source.field(aggregation.getGroupByField());
+			} else {
+				source.script(aggregation.toEsScript(mapping));
+			}
+			
+			final CompositeAggregationBuilder compositeAgg = AggregationBuilders
+					.composite(aggregation.getName(), ImmutableList.<CompositeValuesSourceBuilder<?>>of(source))
+					.size(aggregation.getPageSize());
+			final Object[] after = fromSearchAfterToken(aggregation.getAfter());
+			if (after != null) {
+				compositeAgg.aggregateAfter(Collections.singletonMap(aggregation.getName(), after[0]));
+			}
+			esAggregation = compositeAgg;
+		} else {
+			final TermsAggregationBuilder termsAgg = AggregationBuilders
+					.terms(aggregation.getName())
+					.minDocCount(aggregation.getMinBucketSize())
+					.size(Integer.MAX_VALUE);
+			if (isFieldAgg) {
+				termsAgg.field(aggregation.getGroupByField());
+			} else {
+				termsAgg.script(aggregation.toEsScript(mapping));
+			}
+			esAggregation = termsAgg;
+		}
+		
 		// add top hits agg to get the top N items for each bucket
 		if (aggregation.getBucketHitsLimit() > 0) {
 			TopHitsAggregationBuilder topHitsAgg = AggregationBuilders.topHits(topHitsAggName(aggregation))
@@ -504,14 +822,52 @@ public class EsDocumentSearcher implements Searcher {
 				
 			}
 			
-			termsAgg.subAggregation(topHitsAgg);
+			esAggregation.subAggregation(topHitsAgg);
+		}
+		
+		for (Metric metric : aggregation.getMetrics()) {
+			esAggregation.subAggregation(toEsMetric(metric));
 		}
 		
-		return termsAgg;
+		for (AggregationBuilder<?> subAggregation : aggregation.getSubAggregations()) {
+			final boolean subFetchSource = subAggregation.getFields().isEmpty() || requiresDocumentSourceField(mapping, subAggregation.getFields());
+			esAggregation.subAggregation(toEsAggregation(mapping, subAggregation, subFetchSource));
+		}
+		
+		return esAggregation;
+	}
+
+	private org.elasticsearch.search.aggregations.AggregationBuilder toEsMetric(Metric metric) {
+		switch (metric.getType()) {
+		case COUNT: return AggregationBuilders.count(metric.getName()).field(metric.getField());
+		case CARDINALITY: return AggregationBuilders.cardinality(metric.getName()).field(metric.getField());
+		case MIN: return AggregationBuilders.min(metric.getName()).field(metric.getField());
+		case MAX: return AggregationBuilders.max(metric.getName()).field(metric.getField());
+		default: throw new UnsupportedOperationException("Unsupported metric type " + metric.getType());
+		}
 	}
 
 	private String topHitsAggName(AggregationBuilder<?> aggregation) {
 		return aggregation.getName() + "-top-hits";
 	}
+	
+	/*
+	 * Raw search hits of a query, before converting them to the selected type.
+	 */
+	private static final class SearchResult {
+		
+		private final List<SearchHit> hits;
+		private final int totalHits;
+		private final String scrollId;
+		private final boolean fetchSource;
+		
+		private SearchResult(List<SearchHit> hits, int totalHits, String scrollId, boolean fetchSource) {
+			this.hits = hits;
+			this.totalHits = totalHits;
+			this.scrollId = scrollId;
+			this.fetchSource = fetchSource;
+		}
+		
+	}
 
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.es;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import com.b2international.collections.PrimitiveCollection;
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.BoolExpression;
+import com.b2international.index.query.DecimalSetPredicate;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Expressions.ExpressionBuilder;
+import com.b2international.index.query.IntSetPredicate;
+import com.b2international.index.query.LongSetPredicate;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SetPredicate;
+import com.b2international.index.query.StringSetPredicate;
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
+
+/**
+ * Splits queries with a very large set predicate into several queries, each of them matching a disjoint part of the predicate's values.
+ * <p>
+ * Only set predicates which are required clauses of the query expression (the expression itself, or a <code>must</code> or
+ * <code>filter</code> clause of a required boolean expression) on a single-valued field are split. Each document matching the original
+ * query matches exactly one of the split queries then, so the results can be merged without removing duplicates, and the total hit count
+ * is the sum of the partial hit counts.
+ * 
+ * @since 7.1
+ */
+final class SetPredicateSplitter {
+
+	private final DocumentMapping mapping;
+	private final int maxTermsCount;
+
+	SetPredicateSplitter(DocumentMapping mapping, int maxTermsCount) {
+		this.mapping = mapping;
+		this.maxTermsCount = maxTermsCount;
+	}
+	
+	/**
+	 * Splits the given query by its largest required set predicate, if it has more than the maximum number of terms allowed in a single
+	 * terms query.
+	 * 
+	 * @param query - the query to split
+	 * @return the queries to execute instead of the given query, or an empty list if the query should be executed as is
+	 */
+	<T> List<Query<T>> split(Query<T> query) {
+		// scroll contexts are kept on the server side, they can not be merged
+		if (!Strings.isNullOrEmpty(query.getScrollKeepAlive())) {
+			return Collections.emptyList();
+		}
+		
+		final SetPredicate<?> predicate = findLargestRequiredSetPredicate(query.getWhere(), null);
+		if (predicate == null || predicate.values().size() <= maxTermsCount || !isSingleValued(predicate.getField())) {
+			return Collections.emptyList();
+		}
+		
+		final List<Query<T>> queries = newArrayList();
+		for (Expression chunk : partition(predicate)) {
+			queries.add(Query.select(query.getSelect())
+					.from(query.getFrom())
+					.parent(query.getParentType())
+					.fields(query.getFields())
+					.where(replace(query.getWhere(), predicate, chunk))
+					.searchAfter(query.getSearchAfter())
+					.limit(query.getLimit())
+					.sortBy(query.getSortBy())
+					.withScores(query.isWithScores())
+					.build());
+		}
+		return queries;
+	}
+
+	private SetPredicate<?> findLargestRequiredSetPredicate(Expression expression, SetPredicate<?> largest) {
+		if (expression instanceof SetPredicate) {
+			final SetPredicate<?> predicate = (SetPredicate<?>) expression;
+			return (largest == null || predicate.values().size() > largest.values().size()) ? predicate : largest;
+		} else if (expression instanceof BoolExpression) {
+			final BoolExpression bool = (BoolExpression) expression;
+			SetPredicate<?> result = largest;
+			for (Expression must : bool.mustClauses()) {
+				result = findLargestRequiredSetPredicate(must, result);
+			}
+			for (Expression filter : bool.filterClauses()) {
+				result = findLargestRequiredSetPredicate(filter, result);
+			}
+			return result;
+		} else {
+			return largest;
+		}
+	}
+	
+	private boolean isSingleValued(String field) {
+		if (DocumentMapping._ID.equals(field)) {
+			return true;
+		}
+		
+		if (!mapping.getFields().stream().anyMatch(f -> f.getName().equals(field))) {
+			return false;
+		}
+		
+		final Class<?> fieldType = mapping.getFieldType(field);
+		return !Iterable.class.isAssignableFrom(fieldType) 
+				&& !PrimitiveCollection.class.isAssignableFrom(fieldType)
+				&& !fieldType.isArray();
+	}
+	
+	private List<Expression> partition(SetPredicate<?> predicate) {
+		final String field = predicate.getField();
+		final List<Expression> chunks = newArrayList();
+		if (predicate instanceof StringSetPredicate) {
+			for (List<String> chunk : Iterables.partition(((StringSetPredicate) predicate).values(), maxTermsCount)) {
+				chunks.add(Expressions.matchAny(field, chunk));
+			}
+		} else if (predicate instanceof LongSetPredicate) {
+			for (List<Long> chunk : Iterables.partition(((LongSetPredicate) predicate).values(), maxTermsCount)) {
+				chunks.add(Expressions.matchAnyLong(field, chunk));
+			}
+		} else if (predicate instanceof IntSetPredicate) {
+			for (List<Integer> chunk : Iterables.partition(((IntSetPredicate) predicate).values(), maxTermsCount)) {
+				chunks.add(Expressions.matchAnyInt(field, chunk));
+			}
+		} else if (predicate instanceof DecimalSetPredicate) {
+			for (List<BigDecimal> chunk : Iterables.partition(((DecimalSetPredicate) predicate).values(), maxTermsCount)) {
+				chunks.add(Expressions.matchAnyDecimal(field, chunk));
+			}
+		} else {
+			throw new IllegalArgumentException("Unexpected set predicate: " + predicate);
+		}
+		return chunks;
+	}
+	
+	private static Expression replace(Expression expression, SetPredicate<?> predicate, Expression replacement) {
+		if (expression == predicate) {
+			return replacement;
+		} else if (expression instanceof BoolExpression) {
+			final BoolExpression bool = (BoolExpression) expression;
+			final ExpressionBuilder builder = Expressions.builder();
+			bool.mustClauses().forEach(must -> builder.must(replace(must, predicate, replacement)));
+			bool.mustNotClauses().forEach(builder::mustNot);
+			bool.shouldClauses().forEach(builder::should);
+			bool.filterClauses().forEach(filter -> builder.filter(replace(filter, predicate, replacement)));
+			return builder.setMinimumNumberShouldMatch(bool.minShouldMatch()).build();
+		} else {
+			return expression;
+		}
+	}
+	
+}
@@ -32,6 +32,7 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest.Level;
@@ -91,6 +92,7 @@ public final class EsIndexAdmin implements IndexAdmin {
 	
 	private final Logger log;
 	private final String prefix;
+	private final RefreshCoordinator refreshCoordinator;
 
 	public EsIndexAdmin(EsClient client, String name, Mappings mappings, Map<String, Object> settings) {
 		this.client = client;
@@ -101,11 +103,17 @@ public final class EsIndexAdmin implements IndexAdmin {
 		this.log = LoggerFactory.getLogger(String.format("index.%s", this.name));
 		
 		this.settings.putIfAbsent(IndexClientFactory.COMMIT_CONCURRENCY_LEVEL, IndexClientFactory.DEFAULT_COMMIT_CONCURRENCY_LEVEL);
+		this.settings.putIfAbsent(IndexClientFactory.PURGE_CONCURRENCY_LEVEL, IndexClientFactory.DEFAULT_PURGE_CONCURRENCY_LEVEL);
+		this.settings.putIfAbsent(IndexClientFactory.SEARCH_CONCURRENCY_LEVEL, IndexClientFactory.DEFAULT_SEARCH_CONCURRENCY_LEVEL);
+		this.settings.putIfAbsent(IndexClientFactory.REFRESH_WINDOW, IndexClientFactory.DEFAULT_REFRESH_WINDOW);
 		this.settings.putIfAbsent(IndexClientFactory.RESULT_WINDOW_KEY, ""+IndexClientFactory.DEFAULT_RESULT_WINDOW);
+		this.settings.putIfAbsent(IndexClientFactory.MAX_TERMS_COUNT_KEY, ""+IndexClientFactory.DEFAULT_MAX_TERMS_COUNT);
 		this.settings.putIfAbsent(IndexClientFactory.TRANSLOG_SYNC_INTERVAL_KEY, IndexClientFactory.DEFAULT_TRANSLOG_SYNC_INTERVAL);
 		
 		final String prefix = (String) settings.getOrDefault(IndexClientFactory.INDEX_PREFIX, IndexClientFactory.DEFAULT_INDEX_PREFIX);
 		this.prefix = prefix.isEmpty() ? "" : prefix + ".";
+		
+		this.refreshCoordinator = new RefreshCoordinator(this::doRefresh, (int) this.settings.get(IndexClientFactory.REFRESH_WINDOW));
 	}
 	
 	@Override
@@ -200,6 +208,7 @@ public final class EsIndexAdmin implements IndexAdmin {
 				// disable es refresh, we will do it manually on each commit
 				.put("refresh_interval", "-1")
 				.put(IndexClientFactory.RESULT_WINDOW_KEY, settings().get(IndexClientFactory.RESULT_WINDOW_KEY))
+				.put(IndexClientFactory.MAX_TERMS_COUNT_KEY, settings().get(IndexClientFactory.MAX_TERMS_COUNT_KEY))
 				.put(IndexClientFactory.TRANSLOG_SYNC_INTERVAL_KEY, settings().get(IndexClientFactory.TRANSLOG_SYNC_INTERVAL_KEY))
 				.put("translog.durability", "async")
 				.put("write.wait_for_active_shards", "all")
@@ -451,32 +460,37 @@ public final class EsIndexAdmin implements IndexAdmin {
 	
 	public void refresh(Set<DocumentMapping> typesToRefresh) {
 		if (!CompareUtils.isEmpty(typesToRefresh)) {
-			final String[] indicesToRefresh;
+			final List<String> indicesToRefresh;
 			
 			synchronized (typesToRefresh) {
 				indicesToRefresh = typesToRefresh.stream()
 						.map(this::getTypeIndex)
 						.distinct()
-						.toArray(String[]::new);
+						.collect(Collectors.toList());
 			}
 			
-			if (log.isTraceEnabled()) {
-				log.trace("Refreshing indexes '{}'", Arrays.toString(indicesToRefresh));
+			// concurrent commits are refreshed together
+			refreshCoordinator.refresh(indicesToRefresh);
+		}
+	}
+	
+	private void doRefresh(String[] indicesToRefresh) {
+		if (log.isTraceEnabled()) {
+			log.trace("Refreshing indexes '{}'", Arrays.toString(indicesToRefresh));
+		}
+		
+		try {
+		
+			final RefreshRequest refreshRequest = new RefreshRequest(indicesToRefresh);
+			final RefreshResponse refreshResponse = client()
+					.indices()
+					.refresh(refreshRequest);
+			if (RestStatus.OK != refreshResponse.getStatus() && log.isErrorEnabled()) {
+				log.error("Index refresh request of '{}' returned with status {}", Joiner.on(", ").join(indicesToRefresh), refreshResponse.getStatus());
 			}
 			
-			try {
-			
-				final RefreshRequest refreshRequest = new RefreshRequest(indicesToRefresh);
-				final RefreshResponse refreshResponse = client()
-						.indices()
-						.refresh(refreshRequest);
-				if (RestStatus.OK != refreshResponse.getStatus() && log.isErrorEnabled()) {
-					log.error("Index refresh request of '{}' returned with status {}", Joiner.on(", ").join(indicesToRefresh), refreshResponse.getStatus());
-				}
-				
-			} catch (Exception e) {
-				throw new IndexException(String.format("Failed to refresh ES indexes '%s'.", Arrays.toString(indicesToRefresh)), e);
-			}
+		} catch (Exception e) {
+			throw new IndexException(String.format("Failed to refresh ES indexes '%s'.", Arrays.toString(indicesToRefresh)), e);
 		}
 	}
 	
@@ -498,7 +512,8 @@ public final class EsIndexAdmin implements IndexAdmin {
 			final Set<DocumentMapping> mappingsToRefresh) {
 		
 		final DocumentMapping mapping = mappings().getMapping(op.getType());
-		final QueryBuilder query = new EsQueryBuilder(mapping).build(op.getFilter());
+		final int maxTermsCount = Integer.parseInt((String) settings().get(IndexClientFactory.MAX_TERMS_COUNT_KEY));
+		final QueryBuilder query = new EsQueryBuilder(mapping, maxTermsCount).build(op.getFilter());
 		
 		long versionConflicts = 0;
 		int attempts = DEFAULT_MAX_NUMBER_OF_VERSION_CONFLICT_RETRIES;
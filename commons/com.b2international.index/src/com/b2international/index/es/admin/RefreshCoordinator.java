@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.es.admin;
+
+import static com.google.common.collect.Sets.newLinkedHashSet;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.b2international.index.IndexException;
+
+/**
+ * Coalesces refresh requests of concurrent committers into group refreshes. At most one refresh is executed at a time, requests arriving while
+ * it is running (or within the configured window before it starts) are collected, and refreshed together by one of the waiting callers
+ * afterwards. Each caller returns only after a refresh started after its request has finished, so changes committed before calling
+ * {@link #refresh(Collection)} are visible to searches when it returns.
+ * 
+ * @since 7.1
+ */
+final class RefreshCoordinator {
+
+	private final Consumer<String[]> refresher;
+	private final long windowMillis;
+	
+	private final Object lock = new Object();
+	
+	// guarded by lock
+	private Batch pending;
+	private boolean refreshing;
+	
+	/**
+	 * @param refresher - refreshes the given indices
+	 * @param windowMillis - the time to wait for further requests before starting a refresh, can be zero
+	 */
+	RefreshCoordinator(Consumer<String[]> refresher, long windowMillis) {
+		this.refresher = refresher;
+		this.windowMillis = windowMillis;
+	}
+	
+	/**
+	 * Refreshes the given indices, possibly together with indices requested by other callers. Blocks until the refresh is finished.
+	 * 
+	 * @param indices - the indices to refresh
+	 * @throws IndexException - if the refresh failed, or the calling thread was interrupted while waiting for it
+	 */
+	void refresh(Collection<String> indices) {
+		final Batch batch;
+		synchronized (lock) {
+			if (pending == null) {
+				pending = new Batch();
+			}
+			batch = pending;
+			batch.indices.addAll(indices);
+			
+			while (refreshing && !batch.done) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IndexException("Interrupted while waiting for the refresh of indexes " + indices, e);
+				}
+			}
+			
+			if (batch.done) {
+				batch.checkSuccess();
+				return;
+			}
+			
+			// no refresh is running and the batch of this caller has not been started yet, refresh it now
+			refreshing = true;
+		}
+		
+		RuntimeException failure = null;
+		try {
+			final String[] indicesToRefresh;
+			synchronized (lock) {
+				if (windowMillis > 0) {
+					awaitWindow();
+				}
+				// requests arriving from now on go to the next batch
+				pending = null;
+				indicesToRefresh = batch.indices.toArray(new String[batch.indices.size()]);
+			}
+			refresher.accept(indicesToRefresh);
+		} catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			synchronized (lock) {
+				if (pending == batch) {
+					pending = null;
+				}
+				batch.done = true;
+				batch.failure = failure;
+				refreshing = false;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	// waits with the lock released, so that other callers can join the current batch
+	private void awaitWindow() {
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		long remainingNanos;
+		while ((remainingNanos = deadline - System.nanoTime()) > 0) {
+			try {
+				TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IndexException("Interrupted while collecting indexes to refresh", e);
+			}
+		}
+	}
+	
+	private static final class Batch {
+		
+		private final Set<String> indices = newLinkedHashSet();
+		private boolean done;
+		private RuntimeException failure;
+		
+		private void checkSuccess() {
+			if (failure != null) {
+				throw new IndexException("Group refresh of indexes " + indices + " failed: " + failure.getMessage(), failure);
+			}
+		}
+		
+	}
+	
+}
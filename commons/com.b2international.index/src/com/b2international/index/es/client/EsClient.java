@@ -20,11 +20,14 @@ import static com.google.common.base.Preconditions.checkState;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
@@ -63,6 +66,20 @@ public interface EsClient extends AutoCloseable {
 	
 	SearchResponse search(SearchRequest req) throws IOException;
 	
+	/**
+	 * Executes the given search request without blocking the calling thread, the listener is notified when the response arrives.
+	 * 
+	 * @since 7.1
+	 */
+	void searchAsync(SearchRequest req, ActionListener<SearchResponse> listener);
+	
+	/**
+	 * Executes all search requests of the given multi-search request in a single round trip.
+	 * 
+	 * @since 7.1
+	 */
+	MultiSearchResponse multiSearch(MultiSearchRequest req) throws IOException;
+	
 	SearchResponse scroll(SearchScrollRequest req) throws IOException;
 	
 	ClearScrollResponse clearScroll(ClearScrollRequest req) throws IOException;
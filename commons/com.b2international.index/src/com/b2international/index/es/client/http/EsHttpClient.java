@@ -30,6 +30,7 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkProcessor.Builder;
 import org.elasticsearch.action.bulk.BulkProcessor.Listener;
@@ -37,6 +38,8 @@ import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
@@ -148,6 +151,16 @@ public final class EsHttpClient implements EsClient {
 		return client.search(req, RequestOptions.DEFAULT);
 	}
 	
+	@Override
+	public void searchAsync(SearchRequest req, ActionListener<SearchResponse> listener) {
+		client.searchAsync(req, RequestOptions.DEFAULT, listener);
+	}
+	
+	@Override
+	public MultiSearchResponse multiSearch(MultiSearchRequest req) throws IOException {
+		return client.msearch(req, RequestOptions.DEFAULT);
+	}
+	
 	@Override
 	public SearchResponse scroll(SearchScrollRequest req) throws IOException {
 		return client.scroll(req, RequestOptions.DEFAULT);
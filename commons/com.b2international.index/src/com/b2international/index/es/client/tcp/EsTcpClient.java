@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.concurrent.ExecutionException;
 
 import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkProcessor.Builder;
 import org.elasticsearch.action.bulk.BulkProcessor.Listener;
@@ -26,6 +27,8 @@ import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
@@ -82,6 +85,16 @@ public final class EsTcpClient implements EsClient {
 	public SearchResponse search(SearchRequest req) throws IOException {
 		return execute(client.search(req));
 	}
+	
+	@Override
+	public void searchAsync(SearchRequest req, ActionListener<SearchResponse> listener) {
+		client.search(req, listener);
+	}
+	
+	@Override
+	public MultiSearchResponse multiSearch(MultiSearchRequest req) throws IOException {
+		return execute(client.multiSearch(req));
+	}
 
 	@Override
 	public SearchResponse scroll(SearchScrollRequest req) throws IOException {
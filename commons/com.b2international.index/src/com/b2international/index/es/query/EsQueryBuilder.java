@@ -21,6 +21,7 @@ import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.List;
 
 import org.apache.lucene.search.join.ScoreMode;
 import org.elasticsearch.common.lucene.search.function.CombineFunction;
@@ -34,6 +35,7 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders;
 
 import com.b2international.commons.exceptions.FormattedRuntimeException;
+import com.b2international.index.IndexClientFactory;
 import com.b2international.index.compat.TextConstants;
 import com.b2international.index.mapping.DocumentMapping;
 import com.b2international.index.query.BoolExpression;
@@ -66,6 +68,7 @@ import com.b2international.index.query.StringSetPredicate;
 import com.b2international.index.query.TextPredicate;
 import com.b2international.index.query.TextPredicate.MatchType;
 import com.b2international.index.util.DecimalUtils;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Queues;
 
 /**
@@ -79,16 +82,29 @@ public final class EsQueryBuilder {
 	private final Deque<QueryBuilder> deque = Queues.newLinkedBlockingDeque();
 	private final DocumentMapping mapping;
 	private final String path;
+	private final int maxTermsCount;
 	
 	private boolean needsScoring;
 	
 	public EsQueryBuilder(DocumentMapping mapping) {
-		this(mapping, "");
+		this(mapping, IndexClientFactory.DEFAULT_MAX_TERMS_COUNT);
 	}
 	
-	private EsQueryBuilder(DocumentMapping mapping, String path) {
+	/**
+	 * Creates a query builder which splits set predicates with more than the specified number of values into multiple <code>terms</code>
+	 * queries, as a single <code>terms</code> query is not allowed to have more terms than the <code>index.max_terms_count</code> setting.
+	 * 
+	 * @param mapping - the mapping of the queried document type
+	 * @param maxTermsCount - the maximum number of terms in a single <code>terms</code> query
+	 */
+	public EsQueryBuilder(DocumentMapping mapping, int maxTermsCount) {
+		this(mapping, "", maxTermsCount);
+	}
+	
+	private EsQueryBuilder(DocumentMapping mapping, String path, int maxTermsCount) {
 		this.mapping = mapping;
 		this.path = path;
+		this.maxTermsCount = maxTermsCount;
 	}
 	
 	private FormattedRuntimeException newIllegalStateException() {
@@ -185,7 +201,7 @@ public final class EsQueryBuilder {
 		final BoolQueryBuilder query = QueryBuilders.boolQuery();
 		for (Expression must : bool.mustClauses()) {
 			// visit the item and immediately pop the deque item back
-			final EsQueryBuilder innerQueryBuilder = new EsQueryBuilder(mapping);
+			final EsQueryBuilder innerQueryBuilder = new EsQueryBuilder(mapping, maxTermsCount);
 			innerQueryBuilder.visit(must);
 			if (innerQueryBuilder.needsScoring) {
 				needsScoring = innerQueryBuilder.needsScoring;
@@ -220,7 +236,7 @@ public final class EsQueryBuilder {
 	private void visit(NestedPredicate predicate) {
 		final String nestedPath = toFieldPath(predicate);
 		final DocumentMapping nestedMapping = mapping.getNestedMapping(predicate.getField());
-		final EsQueryBuilder nestedQueryBuilder = new EsQueryBuilder(nestedMapping, nestedPath);
+		final EsQueryBuilder nestedQueryBuilder = new EsQueryBuilder(nestedMapping, nestedPath, maxTermsCount);
 		nestedQueryBuilder.visit(predicate.getExpression());
 		needsScoring = nestedQueryBuilder.needsScoring;
 		final QueryBuilder nestedQuery = nestedQueryBuilder.deque.pop();
@@ -287,7 +303,20 @@ public final class EsQueryBuilder {
 	}
 	
 	private void visit(SetPredicate<?> predicate) {
-		deque.push(QueryBuilders.termsQuery(toFieldPath(predicate), predicate.values()));
+		deque.push(toTermsQuery(toFieldPath(predicate), predicate.values()));
+	}
+	
+	private QueryBuilder toTermsQuery(String field, Collection<?> terms) {
+		if (terms.size() <= maxTermsCount) {
+			return QueryBuilders.termsQuery(field, terms);
+		}
+		
+		// a document matches if any of the chunks match
+		final BoolQueryBuilder query = QueryBuilders.boolQuery();
+		for (List<?> chunk : Iterables.partition(terms, maxTermsCount)) {
+			query.should(QueryBuilders.termsQuery(field, chunk));
+		}
+		return query.minimumShouldMatch(1);
 	}
 	
 	private void visit(DecimalPredicate predicate) {
@@ -299,7 +328,7 @@ public final class EsQueryBuilder {
 		for (BigDecimal decimal : predicate.values()) {
 			terms.add(DecimalUtils.encode(decimal));
 		}
-		deque.push(QueryBuilders.termsQuery(toFieldPath(predicate), terms));
+		deque.push(toTermsQuery(toFieldPath(predicate), terms));
 	}
 	
 	private void visit(PrefixPredicate predicate) {
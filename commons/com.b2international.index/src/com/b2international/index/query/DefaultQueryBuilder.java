@@ -15,6 +15,8 @@
  */
 package com.b2international.index.query;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.util.Collections;
 import java.util.List;
 
@@ -39,6 +41,8 @@ class DefaultQueryBuilder<T> implements QueryBuilder<T>, AfterWhereBuilder<T> {
 	private Expression where;
 	private SortBy sortBy = SortBy.DOC_ID;
 	private boolean withScores = false;
+	private int sliceId = 0;
+	private int maxSlices = 1;
 
 	private List<String> fields = Collections.emptyList();
 
@@ -101,6 +105,15 @@ class DefaultQueryBuilder<T> implements QueryBuilder<T>, AfterWhereBuilder<T> {
 		return this;
 	}
 
+	@Override
+	public AfterWhereBuilder<T> slice(int sliceId, int maxSlices) {
+		checkArgument(maxSlices > 0, "Number of slices must be greater than zero, was: %s", maxSlices);
+		checkArgument(sliceId >= 0 && sliceId < maxSlices, "Slice identifier must be in range [0, %s), was: %s", maxSlices, sliceId);
+		this.sliceId = sliceId;
+		this.maxSlices = maxSlices;
+		return this;
+	}
+
 	@Override
 	public Query<T> build() {
 		Query<T> query = new Query<T>();
@@ -114,6 +127,8 @@ class DefaultQueryBuilder<T> implements QueryBuilder<T>, AfterWhereBuilder<T> {
 		query.setSortBy(sortBy);
 		query.setWithScores(withScores);
 		query.setFields(fields);
+		query.setSliceId(sliceId);
+		query.setMaxSlices(maxSlices);
 		return query;
 	}
 }
\ No newline at end of file
@@ -107,6 +107,16 @@ public final class Query<T> {
 		 * @return
 		 */
 		AfterWhereBuilder<T> withScores(boolean withScores);
+		
+		/**
+		 * Restricts a {@link #scroll(String) scrolled} query to a single slice of the entire result set. Each slice can be scrolled independently
+		 * (and concurrently) from the others, the union of all <code>maxSlices</code> slices is equal to the unsliced result set.
+		 * 
+		 * @param sliceId - the zero-based identifier of the slice to return
+		 * @param maxSlices - the number of slices the result set should be split into
+		 * @return
+		 */
+		AfterWhereBuilder<T> slice(int sliceId, int maxSlices);
 	}
 
 	private String scrollKeepAlive;
@@ -119,6 +129,8 @@ public final class Query<T> {
 	private Class<?> parentType;
 	private boolean withScores;
 	private List<String> fields;
+	private int sliceId;
+	private int maxSlices = 1;
 
 	Query() {}
 
@@ -202,6 +214,26 @@ public final class Query<T> {
 		this.searchAfter = searchAfter;
 	}
 	
+	public int getSliceId() {
+		return sliceId;
+	}
+	
+	void setSliceId(int sliceId) {
+		this.sliceId = sliceId;
+	}
+	
+	public int getMaxSlices() {
+		return maxSlices;
+	}
+	
+	void setMaxSlices(int maxSlices) {
+		this.maxSlices = maxSlices;
+	}
+	
+	public boolean isSliced() {
+		return maxSlices > 1;
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -215,6 +247,9 @@ public final class Query<T> {
 		if (!Strings.isNullOrEmpty(scrollKeepAlive)) {
 			sb.append(" SCROLL("+scrollKeepAlive+") ");
 		}
+		if (isSliced()) {
+			sb.append(" SLICE(" + sliceId + "/" + maxSlices + ")");
+		}
 		if (parentType != null) {
 			sb.append(" HAS_PARENT(" + DocumentMapping.getType(parentType) + ")");
 		}
@@ -17,18 +17,28 @@ package com.b2international.index.revision;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
 
 import com.b2international.index.Hits;
 import com.b2international.index.Index;
+import com.b2international.index.IndexClientFactory;
+import com.b2international.index.IndexException;
 import com.b2international.index.Searcher;
-import com.b2international.index.Writer;
 import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Expressions.ExpressionBuilder;
 import com.b2international.index.query.Query;
@@ -36,8 +46,14 @@ import com.b2international.index.query.SortBy;
 import com.b2international.index.query.SortBy.Order;
 import com.b2international.index.revision.RevisionCompare.Builder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @since 4.7
@@ -207,36 +223,46 @@ public final class DefaultRevisionIndex implements InternalRevisionIndex, Hooks
 	}
 
 	@Override
-	public void purge(final String branchPath, final Purge purge) {
+	public void purge(final String branchPath, final Purge purge, final IProgressMonitor monitor) {
+		purge(branchPath, purge, getPurgeConcurrencyLevel(), monitor);
+	}
+	
+	/**
+	 * Purges the selected revisions of the given branch by splitting the candidate set of each revision type into <code>maxSlices</code> scroll
+	 * slices and deleting them concurrently. A <code>maxSlices</code> value of <code>1</code> runs the purge sequentially on the calling thread.
+	 */
+	void purge(final String branchPath, final Purge purge, final int maxSlices, final IProgressMonitor monitor) {
+		checkArgument(maxSlices > 0, "Number of purge slices must be greater than zero, was: %s", maxSlices);
 		final RevisionBranchRef branch = getBranchRef(branchPath);
-		index.write(index -> {
-			// TODO support selective type purging
-			final Set<Class<? extends Revision>> typesToPurge = getRevisionTypes();
-			
+		// TODO support selective type purging
+		final Set<Class<? extends Revision>> typesToPurge = getRevisionTypes();
+		
+		try {
 			switch (purge) {
 			case ALL: 
-				purge(index, branch, typesToPurge);
+				purge(branch, typesToPurge, maxSlices, monitor);
 				break;
 			case HISTORY:
-				purge(index, branch.historyRef(), typesToPurge);
+				purge(branch.historyRef(), typesToPurge, maxSlices, monitor);
 				break;
 			case LATEST:
-				purge(index, branch.lastRef(), typesToPurge);
+				purge(branch.lastRef(), typesToPurge, maxSlices, monitor);
 				break;
 			default: throw new UnsupportedOperationException("Unsupported purge: " + purge);
 			}
-			return null;
-		});
+		} finally {
+			if (monitor != null) {
+				monitor.done();
+			}
+		}
 	}
 	
-	private void purge(Writer writer, final RevisionBranchRef refToPurge, Set<Class<? extends Revision>> typesToPurge) throws IOException {
+	private void purge(final RevisionBranchRef refToPurge, Set<Class<? extends Revision>> typesToPurge, int maxSlices, IProgressMonitor monitor) {
 		// if nothing to purge return
 		if (typesToPurge.isEmpty() || refToPurge.isEmpty()) {
 			return;
 		}
 		
-		final Searcher searcher = writer.searcher();
-		
 		final ExpressionBuilder purgeQuery = Expressions.builder();
 		// purge only documents added to the selected branch
 		for (RevisionSegment segmentToPurge : refToPurge.segments()) {
@@ -245,28 +271,98 @@ public final class DefaultRevisionIndex implements InternalRevisionIndex, Hooks
 				.filter(segmentToPurge.toRangeExpression(Revision.Fields.REVISED))
 				.build());
 		}
-		for (Class<? extends Revision> revisionType : typesToPurge) {
-			final String type = DocumentMapping.getType(revisionType);
-			
-			final Query<String> query = Query.select(String.class)
-				.from(revisionType)
-				.fields(DocumentMapping._ID)
-				.where(purgeQuery.build())
-				.scroll(SCROLL_KEEP_ALIVE) 
-				.limit(PURGE_LIMIT)
-				.build();
-			
-			int purged = 0;
-			for (Hits<String> revisionsToPurge : searcher.scroll(query)) {
-				purged += revisionsToPurge.getHits().size();
-				admin().log().info("Purging {}/{} '{}' documents...", purged, revisionsToPurge.getTotal(), type);
+		final Expression purgeExpression = purgeQuery.build();
+		
+		final SubMonitor subMonitor = SubMonitor.convert(monitor, String.format("Purging revisions of '%s'...", refToPurge.path()), typesToPurge.size() * maxSlices);
+		
+		if (maxSlices == 1) {
+			for (Class<? extends Revision> revisionType : typesToPurge) {
+				purgeSlice(revisionType, purgeExpression, 0, 1, new AtomicInteger(), subMonitor);
+			}
+			return;
+		}
+		
+		final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(maxSlices, 
+				new ThreadFactoryBuilder().setNameFormat(String.format("%s-purge-%%d", name())).build()));
+		try {
+			for (Class<? extends Revision> revisionType : typesToPurge) {
+				final AtomicInteger purged = new AtomicInteger();
+				final List<ListenableFuture<?>> sliceFutures = newArrayListWithCapacity(maxSlices);
+				for (int sliceId = 0; sliceId < maxSlices; sliceId++) {
+					final int currentSliceId = sliceId;
+					sliceFutures.add(executor.submit(() -> purgeSlice(revisionType, purgeExpression, currentSliceId, maxSlices, purged, subMonitor)));
+				}
+				
+				try {
+					Futures.allAsList(sliceFutures).get();
+				} catch (ExecutionException e) {
+					sliceFutures.forEach(future -> future.cancel(true));
+					Throwables.propagateIfPossible(e.getCause());
+					throw new IndexException(String.format("Failed to purge '%s' documents", DocumentMapping.getType(revisionType)), e.getCause());
+				} catch (InterruptedException e) {
+					sliceFutures.forEach(future -> future.cancel(true));
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Scrolls through a single slice of the candidate set of the given revision type and deletes each page of it in its own write transaction.
+	 * Cancellation is checked before the slice starts and between each page. 
+	 */
+	private void purgeSlice(Class<? extends Revision> revisionType, Expression purgeExpression, int sliceId, int maxSlices, AtomicInteger purged, SubMonitor monitor) {
+		checkCanceled(monitor);
+		
+		final String type = DocumentMapping.getType(revisionType);
+		final Query<String> query = Query.select(String.class)
+			.from(revisionType)
+			.fields(DocumentMapping._ID)
+			.where(purgeExpression)
+			.scroll(SCROLL_KEEP_ALIVE) 
+			.limit(PURGE_LIMIT)
+			.slice(sliceId, maxSlices)
+			.build();
+		
+		index.write(writer -> {
+			for (Hits<String> revisionsToPurge : writer.searcher().scroll(query)) {
+				if (isCanceled(monitor)) {
+					writer.searcher().cancelScroll(revisionsToPurge.getScrollId());
+					throw new OperationCanceledException();
+				}
+				final int purgedSoFar = purged.addAndGet(revisionsToPurge.getHits().size());
+				admin().log().info("Purging {} '{}' documents (slice {}/{})...", purgedSoFar, type, sliceId + 1, maxSlices);
 				writer.removeAll(ImmutableMap.of(revisionType, newHashSet(revisionsToPurge)));
 				writer.commit();
 			}
-			
+			return null;
+		});
+		
+		synchronized (monitor) {
+			monitor.subTask(String.format("Purged %d '%s' documents", purged.get(), type));
+			monitor.worked(1);
 		}
 	}
 	
+	private void checkCanceled(IProgressMonitor monitor) {
+		if (isCanceled(monitor)) {
+			throw new OperationCanceledException();
+		}
+	}
+	
+	private boolean isCanceled(IProgressMonitor monitor) {
+		synchronized (monitor) {
+			return monitor.isCanceled();
+		}
+	}
+	
+	private int getPurgeConcurrencyLevel() {
+		return (int) admin().settings().getOrDefault(IndexClientFactory.PURGE_CONCURRENCY_LEVEL, IndexClientFactory.DEFAULT_PURGE_CONCURRENCY_LEVEL);
+	}
+	
 	@Override
 	public BaseRevisionBranching branching() {
 		return branching;
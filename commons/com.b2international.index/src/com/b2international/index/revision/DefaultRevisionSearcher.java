@@ -16,9 +16,12 @@
 package com.b2international.index.revision;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.b2international.index.Hits;
 import com.b2international.index.Scroll;
@@ -70,6 +73,24 @@ public class DefaultRevisionSearcher implements RevisionSearcher {
 
 	@Override
 	public <T> Hits<T> search(Query<T> query) throws IOException {
+		return searcher.search(toRevisionQuery(query));
+	}
+	
+	@Override
+	public List<Hits<?>> multiSearch(List<? extends Query<?>> queries) throws IOException {
+		final List<Query<?>> revisionQueries = newArrayListWithCapacity(queries.size());
+		for (Query<?> query : queries) {
+			revisionQueries.add(toRevisionQuery(query));
+		}
+		return searcher.multiSearch(revisionQueries);
+	}
+	
+	@Override
+	public <T> CompletableFuture<Hits<T>> searchAsync(Query<T> query) {
+		return searcher.searchAsync(toRevisionQuery(query));
+	}
+	
+	private <T> Query<T> toRevisionQuery(Query<T> query) {
 		if (query.getParentType() == null && Revision.class.isAssignableFrom(query.getFrom())) {
 			// rewrite query if we are looking for revision, otherwise if we are looking for unversioned nested use it as is
 			query = Query.select(query.getSelect())
@@ -86,6 +107,7 @@ public class DefaultRevisionSearcher implements RevisionSearcher {
 					.scroll(query.getScrollKeepAlive())
 					.searchAfter(query.getSearchAfter())
 					.withScores(query.isWithScores())
+					.slice(query.getSliceId(), query.getMaxSlices())
 					.build();
 		} else {
 			checkArgument(Revision.class.isAssignableFrom(query.getParentType()), "Searching non-revision documents require a revision parent type: %s", query);
@@ -102,9 +124,10 @@ public class DefaultRevisionSearcher implements RevisionSearcher {
 					.scroll(query.getScrollKeepAlive())
 					.searchAfter(query.getSearchAfter())
 					.withScores(query.isWithScores())
+					.slice(query.getSliceId(), query.getMaxSlices())
 					.build();
 		}
-		return searcher.search(query);
+		return query;
 	}
 	
 	@Override
@@ -17,6 +17,10 @@ package com.b2international.index.revision;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
 import com.b2international.index.Index;
 import com.b2international.index.admin.Administrable;
 import com.google.common.base.Strings;
@@ -76,7 +80,24 @@ public interface RevisionIndex extends Administrable<RevisionIndexAdmin> {
 	 * @param purge
 	 *            - the type of purge to execute
 	 */
-	void purge(String branchPath, Purge purge);
+	default void purge(String branchPath, Purge purge) {
+		purge(branchPath, purge, new NullProgressMonitor());
+	}
+	
+	/**
+	 * Purges selected revisions from the given branch in this index. The candidate revisions of each type are split into slices that are purged
+	 * concurrently, progress is reported to the given monitor after each completed slice. Cancelling the monitor stops the purge between pages of
+	 * the slices with an {@link OperationCanceledException}, leaving the already purged revisions removed.
+	 * 
+	 * @param branchPath
+	 *            - the branch to purge
+	 * @param purge
+	 *            - the type of purge to execute
+	 * @param monitor
+	 *            - the monitor to report progress to and to check for cancellation
+	 * @since 7.1
+	 */
+	void purge(String branchPath, Purge purge, IProgressMonitor monitor);
 
 	/**
 	 * Compares the given branch with its parent branch as base. The {@link RevisionCompare} response will contain the difference from the branch
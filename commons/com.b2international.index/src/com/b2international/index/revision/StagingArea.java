@@ -51,12 +51,14 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.flipkart.zjsonpatch.DiffFlags;
 import com.flipkart.zjsonpatch.JsonDiff;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
@@ -425,7 +427,10 @@ public final class StagingArea {
 			this.newRevision = newRevision;
 		}
 
-		public ArrayNode diff() {
+		/*
+		 * The diff is computed lazily on first access, and it can be accessed by multiple threads when change set processors read the staging area concurrently.
+		 */
+		public synchronized ArrayNode diff() {
 			if (changes == null) {
 				final DocumentMapping mapping = index.admin().mappings().getMapping(newRevision.getClass());
 				final Set<String> diffFields = mapping.getHashedFields();
@@ -452,7 +457,7 @@ public final class StagingArea {
 			return this.changes;
 		}
 
-		public RevisionPropertyDiff getRevisionPropertyDiff(String property) {
+		public synchronized RevisionPropertyDiff getRevisionPropertyDiff(String property) {
 			if (propertyChanges == null) {
 				propertyChanges = newHashMapWithExpectedSize(2);
 			}
@@ -576,19 +581,21 @@ public final class StagingArea {
 		// check property conflicts
 		final Map<Class<? extends Revision>, Multimap<String, RevisionPropertyDiff>> propertyUpdatesToApply = newHashMap();
 		
+		// index property changes by object ID once, instead of scanning all details for each object changed on both sides
+		final ListMultimap<String, RevisionCompareDetail> sourcePropertyChangesById = indexPropertyChanges(fromChangeDetails);
+		final ListMultimap<String, RevisionCompareDetail> targetPropertyChangesById = indexPropertyChanges(toChangeDetails);
+		
 		Set<String> changedRevisionIdsToCheck = newHashSet(toChangeSet.getChangedIds());
 		Set<String> removedRevisionIdsToCheck = newHashSet(toChangeSet.getRemovedIds());
 		for (Class<? extends Revision> type : fromChangeSet.getChangedTypes()) {
 			final String docType = DocumentMapping.getType(type);
 			Set<String> changedRevisionIdsToMerge = newHashSet(fromChangeSet.getChangedIds(type));
 			// first handle changed vs. removed
-			Set<String> changedInSourceDetachedInTargetIds = Sets.intersection(changedRevisionIdsToMerge, removedRevisionIdsToCheck);
+			Set<String> changedInSourceDetachedInTargetIds = ImmutableSet.copyOf(Sets.intersection(changedRevisionIdsToMerge, removedRevisionIdsToCheck));
 			if (!changedInSourceDetachedInTargetIds.isEmpty()) {
 				// report any conflicts
 				changedInSourceDetachedInTargetIds.forEach(changedInSourceDetachedInTargetId -> {
-					List<RevisionPropertyDiff> sourceChanges = fromChangeDetails.stream()
-							.filter(detail -> detail.getObject().id().equals(changedInSourceDetachedInTargetId))
-							.filter(detail -> !detail.isComponentChange())
+					List<RevisionPropertyDiff> sourceChanges = sourcePropertyChangesById.get(changedInSourceDetachedInTargetId).stream()
 							.map(change -> new RevisionPropertyDiff(change.getProperty(), change.getFromValue(), change.getValue()))
 							.collect(Collectors.toList());
 					Conflict conflict = conflictProcessor.handleChangedInSourceDetachedInTarget(ObjectId.of(docType, changedInSourceDetachedInTargetId), sourceChanges);
@@ -605,13 +612,9 @@ public final class StagingArea {
 			Set<String> changedInSourceAndTargetIds = Sets.intersection(changedRevisionIdsToMerge, changedRevisionIdsToCheck);
 			if (!changedInSourceAndTargetIds.isEmpty()) {
 				for (String changedInSourceAndTargetId : changedInSourceAndTargetIds) {
-					Map<String, RevisionCompareDetail> sourcePropertyChanges = fromChangeDetails.stream()
-							.filter(detail -> detail.getObject().id().equals(changedInSourceAndTargetId))
-							.filter(detail -> !detail.isComponentChange())
+					Map<String, RevisionCompareDetail> sourcePropertyChanges = sourcePropertyChangesById.get(changedInSourceAndTargetId).stream()
 							.collect(Collectors.toMap(RevisionCompareDetail::getProperty, d -> d));
-					Map<String, RevisionCompareDetail> targetPropertyChanges = toChangeDetails.stream()
-							.filter(detail -> detail.getObject().id().equals(changedInSourceAndTargetId))
-							.filter(detail -> !detail.isComponentChange())
+					Map<String, RevisionCompareDetail> targetPropertyChanges = targetPropertyChangesById.get(changedInSourceAndTargetId).stream()
 							.collect(Collectors.toMap(RevisionCompareDetail::getProperty, d -> d));
 					
 					for (Entry<String, RevisionCompareDetail> sourceChange : Iterables.consumingIterable(sourcePropertyChanges.entrySet())) {
@@ -707,5 +710,18 @@ public final class StagingArea {
 		
 		return stagedChanges ? -1L : fastForwardCommitTimestamp;
 	}
+	
+	/*
+	 * Groups the property change details by object ID in a single pass, keeping the original order of the details
+	 */
+	private static ListMultimap<String, RevisionCompareDetail> indexPropertyChanges(List<RevisionCompareDetail> details) {
+		final ListMultimap<String, RevisionCompareDetail> propertyChangesById = ArrayListMultimap.create();
+		for (RevisionCompareDetail detail : details) {
+			if (!detail.isComponentChange()) {
+				propertyChangesById.put(detail.getObject().id(), detail);
+			}
+		}
+		return propertyChangesById;
+	}
 
 }
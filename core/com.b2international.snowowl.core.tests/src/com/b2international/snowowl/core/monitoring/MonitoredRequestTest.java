@@ -0,0 +1,251 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.commons.exceptions.BadRequestException;
+import com.b2international.snowowl.core.ServiceProvider;
+import com.b2international.snowowl.core.events.DelegatingRequest;
+import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.core.events.util.Promise;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry.Phase;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @since 7.1
+ */
+public class MonitoredRequestTest {
+
+	private static final String REPOSITORY = "snomedStore";
+	
+	private MockClock clock;
+	private SimpleMeterRegistry registry;
+	private MonitoringConfiguration config;
+	private ObjectMapper mapper;
+	private ServiceProvider context;
+	
+	@Before
+	public void setup() {
+		clock = new MockClock();
+		registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+		config = new MonitoringConfiguration();
+		mapper = new ObjectMapper();
+		context = ServiceProvider.EMPTY.inject()
+				.bind(MeterRegistry.class, registry)
+				.bind(MonitoringConfiguration.class, config)
+				.bind(ObjectMapper.class, mapper)
+				.build();
+	}
+	
+	@Test
+	public void recordRequestTimeWithTags() throws Exception {
+		execute("MAIN/project/task", ctx -> clock.add(50, TimeUnit.MILLISECONDS));
+		
+		final Timer timer = requestTimer("MAIN/project", MonitoredRequest.OUTCOME_SUCCESS);
+		assertNotNull(timer);
+		assertEquals(1L, timer.count());
+		assertEquals(50.0, timer.totalTime(TimeUnit.MILLISECONDS), 0.0);
+	}
+	
+	@Test
+	public void recordOutcomeOfFailedRequests() throws Exception {
+		try {
+			execute("MAIN", ctx -> { throw new BadRequestException("Invalid request"); });
+			fail("Expected BadRequestException");
+		} catch (BadRequestException expected) {
+			// expected
+		}
+		try {
+			execute("MAIN", ctx -> { throw new IllegalStateException("Failure"); });
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException expected) {
+			// expected
+		}
+		
+		assertEquals(1L, requestTimer("MAIN", MonitoredRequest.OUTCOME_CLIENT_ERROR).count());
+		assertEquals(1L, requestTimer("MAIN", MonitoredRequest.OUTCOME_SERVER_ERROR).count());
+		assertNull(requestTimer("MAIN", MonitoredRequest.OUTCOME_SUCCESS));
+	}
+	
+	@Test
+	public void recordPhases() throws Exception {
+		execute("MAIN", ctx -> {
+			RequestTelemetry.measure(Phase.INDEX_READ, () -> RequestTelemetry.measure(Phase.INDEX_READ, () -> "nested"));
+			RequestTelemetry.measure(Phase.INDEX_READ, () -> "read");
+			Promise.immediate("result").getSync();
+		});
+		
+		assertEquals(1L, phaseTimer(Phase.INDEX_READ).count());
+		assertEquals(1L, phaseTimer(Phase.EVENT_BUS_WAIT).count());
+		assertNull(phaseTimer(Phase.INDEX_WRITE));
+	}
+	
+	@Test
+	public void countOutermostMeasurementsOnly() throws Exception {
+		final RequestTelemetry telemetry = RequestTelemetry.start();
+		try {
+			RequestTelemetry.measure(Phase.INDEX_READ, () -> RequestTelemetry.measure(Phase.INDEX_READ, () -> "nested"));
+			RequestTelemetry.measure(Phase.INDEX_READ, () -> RequestTelemetry.measure(Phase.EVENT_BUS_WAIT, () -> "other phase"));
+		} finally {
+			telemetry.stop();
+		}
+		
+		assertEquals(2, telemetry.getCount(Phase.INDEX_READ));
+		assertEquals(1, telemetry.getCount(Phase.EVENT_BUS_WAIT));
+		assertEquals(0, telemetry.getCount(Phase.INDEX_WRITE));
+		
+		// measurements outside of monitored requests only execute the action
+		assertEquals("result", RequestTelemetry.measure(Phase.INDEX_READ, () -> "result"));
+		assertEquals(2, telemetry.getCount(Phase.INDEX_READ));
+	}
+	
+	@Test
+	public void summarizeSmallRequest() throws Exception {
+		final TestRequest request = new TestRequest(Collections.singletonList("1"), ctx -> {});
+		final String summary = MonitoredRequest.summarize(mapper, request, config.getMaxRequestSummaryLength());
+		assertEquals(mapper.writeValueAsString(request), summary);
+	}
+	
+	@Test
+	public void summarizeLargeRequest() throws Exception {
+		final List<String> ids = IntStream.range(0, 500_000).mapToObj(Integer::toString).collect(Collectors.toList());
+		final String summary = MonitoredRequest.summarize(mapper, new TestRequest(ids, ctx -> {}), config.getMaxRequestSummaryLength());
+		assertTrue(summary, summary.startsWith("{"));
+		assertTrue(summary, summary.endsWith("...(truncated)"));
+		assertEquals(config.getMaxRequestSummaryLength() + "...(truncated)".length(), summary.length());
+	}
+	
+	@Test
+	public void slowRequests() throws Exception {
+		config.setSlowRequestThreshold(1000L);
+		assertFalse(MonitoredRequest.isSlow(config, 999L));
+		assertTrue(MonitoredRequest.isSlow(config, 1000L));
+		
+		config.setSlowRequestThreshold(0L);
+		assertFalse(MonitoredRequest.isSlow(config, Long.MAX_VALUE));
+	}
+	
+	@Test
+	public void sampledRequests() throws Exception {
+		config.setRequestSampleRate(0.0);
+		assertFalse(MonitoredRequest.isSampled(config));
+		config.setRequestSampleRate(1.0);
+		assertTrue(MonitoredRequest.isSampled(config));
+	}
+	
+	@Test
+	public void branchTags() throws Exception {
+		assertEquals(MonitoredRequest.NO_BRANCH, MonitoredRequest.toBranchTag(null));
+		assertEquals("MAIN", MonitoredRequest.toBranchTag("MAIN"));
+		assertEquals("MAIN/project", MonitoredRequest.toBranchTag("MAIN/project"));
+		assertEquals("MAIN/project", MonitoredRequest.toBranchTag("MAIN/project/task"));
+	}
+	
+	private void execute(String branch, Consumer<ServiceProvider> action) {
+		new MonitoredRequest<>(new BranchTestRequest<>(branch, new TestRequest(Collections.emptyList(), action))).execute(context);
+	}
+	
+	private Timer requestTimer(String branch, String outcome) {
+		return registry.find(MonitoredRequest.REQUEST_TIME)
+				.tags(MonitoredRequest.TAG_TYPE, TestRequest.class.getSimpleName(),
+						MonitoredRequest.TAG_REPOSITORY, REPOSITORY,
+						MonitoredRequest.TAG_BRANCH, branch,
+						MonitoredRequest.TAG_OUTCOME, outcome)
+				.timer();
+	}
+	
+	private Timer phaseTimer(Phase phase) {
+		return registry.find(MonitoredRequest.REQUEST_PHASE_TIME)
+				.tags(MonitoredRequest.TAG_TYPE, TestRequest.class.getSimpleName(),
+						MonitoredRequest.TAG_REPOSITORY, REPOSITORY,
+						MonitoredRequest.TAG_PHASE, phase.getTag())
+				.timer();
+	}
+	
+	private static final class BranchTestRequest<R> extends DelegatingRequest<ServiceProvider, ServiceProvider, R> {
+
+		private static final long serialVersionUID = 1L;
+		
+		private final String branch;
+		
+		BranchTestRequest(String branch, Request<ServiceProvider, R> next) {
+			super(next);
+			this.branch = branch;
+		}
+		
+		@Override
+		public String getContextId() {
+			return REPOSITORY;
+		}
+		
+		@Override
+		public String getBranch() {
+			return branch;
+		}
+		
+		@Override
+		public R execute(ServiceProvider context) {
+			return next(context);
+		}
+		
+	}
+	
+	private static final class TestRequest implements Request<ServiceProvider, String> {
+
+		private static final long serialVersionUID = 1L;
+		
+		@JsonProperty
+		private final List<String> ids;
+		
+		private final transient Consumer<ServiceProvider> action;
+		
+		TestRequest(List<String> ids, Consumer<ServiceProvider> action) {
+			this.ids = ids;
+			this.action = action;
+		}
+		
+		@Override
+		public String execute(ServiceProvider context) {
+			action.accept(context);
+			return "result";
+		}
+		
+	}
+	
+}
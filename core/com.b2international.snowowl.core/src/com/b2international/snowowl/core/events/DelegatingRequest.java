@@ -57,6 +57,18 @@ public abstract class DelegatingRequest<C extends ServiceProvider, T extends Ser
 			return DEFAULT_CONTEXT_ID;
 		}
 	}
+	
+	/**
+	 * @return the path of the branch where the next request will be executed, or <code>null</code> if it is not executed on a branch.
+	 */
+	@JsonIgnore
+	public String getBranch() {
+		if (next() instanceof DelegatingRequest<?, ?, ?>) {
+			return ((DelegatingRequest<?, ?, ?>) next()).getBranch();
+		} else {
+			return null;
+		}
+	}
 
 	/**
 	 * Execute the wrapped next {@link Request}.
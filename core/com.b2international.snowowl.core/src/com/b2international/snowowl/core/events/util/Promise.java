@@ -25,6 +25,8 @@ import java.util.concurrent.TimeoutException;
 import com.b2international.commons.exceptions.ApiException;
 import com.b2international.commons.exceptions.RequestTimeoutException;
 import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry.Phase;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.AbstractFuture;
@@ -47,21 +49,23 @@ public final class Promise<T> extends AbstractFuture<T> {
 	 */
 	@Beta
 	public T getSync() {
-		try {
-			return get();
-		} catch (InterruptedException e) {
-			throw new SnowowlRuntimeException(e);
-		} catch (ExecutionException e) {
-			final Throwable cause = e.getCause();
-			if (cause instanceof ApiException) {
-				throw (ApiException) cause;
+		return RequestTelemetry.measure(Phase.EVENT_BUS_WAIT, () -> {
+			try {
+				return get();
+			} catch (InterruptedException e) {
+				throw new SnowowlRuntimeException(e);
+			} catch (ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof ApiException) {
+					throw (ApiException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else {
+					throw new SnowowlRuntimeException(cause);
+				} 
 			}
-			if (cause instanceof RuntimeException) {
-				throw (RuntimeException) cause;
-			} else {
-				throw new SnowowlRuntimeException(cause);
-			} 
-		}
+		});
 	}
 	
 	/**
@@ -72,19 +76,21 @@ public final class Promise<T> extends AbstractFuture<T> {
 	 */
 	@Beta
 	public T getSync(long timeout, TimeUnit unit) {
-		try {
-			return get(timeout, unit);
-		} catch (TimeoutException e) {
-			throw new RequestTimeoutException(e);
-		} catch (InterruptedException e) {
-			throw new SnowowlRuntimeException(e);
-		} catch (ExecutionException e) {
-			final Throwable cause = e.getCause();
-			if (cause instanceof ApiException) {
-				throw (ApiException) cause;
+		return RequestTelemetry.measure(Phase.EVENT_BUS_WAIT, () -> {
+			try {
+				return get(timeout, unit);
+			} catch (TimeoutException e) {
+				throw new RequestTimeoutException(e);
+			} catch (InterruptedException e) {
+				throw new SnowowlRuntimeException(e);
+			} catch (ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof ApiException) {
+					throw (ApiException) cause;
+				}
+				throw new SnowowlRuntimeException(cause);
 			}
-			throw new SnowowlRuntimeException(cause);
-		}
+		});
 	}
 	
 	/**
@@ -65,6 +65,7 @@ public final class SnowOwlPlugin extends Plugin {
 		env.services().registerService(TerminologyRegistry.class, TerminologyRegistry.INSTANCE);
 		
 		final MonitoringConfiguration monitoringConfig = configuration.getModuleConfig(MonitoringConfiguration.class);
+		env.services().registerService(MonitoringConfiguration.class, monitoringConfig);
 		if (monitoringConfig.isEnabled()) {
 			final PrometheusMeterRegistry registry = createRegistry(monitoringConfig);
 			env.services().registerService(MeterRegistry.class, registry);
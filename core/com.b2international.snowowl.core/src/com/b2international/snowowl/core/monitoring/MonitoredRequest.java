@@ -15,26 +15,57 @@
  */
 package com.b2international.snowowl.core.monitoring;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.b2international.commons.exceptions.ApiException;
 import com.b2international.snowowl.core.ServiceProvider;
 import com.b2international.snowowl.core.events.DelegatingRequest;
 import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry.Phase;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
-import io.micrometer.core.instrument.Timer;
-import io.micrometer.core.instrument.Timer.Sample;
 
 /**
+ * Records the duration and outcome of the wrapped request along with the time spent in index reads, index writes and event bus waits, and logs a
+ * one line summary of it. The serialized form of the request (truncated to a configurable length) is only logged for slow and sampled requests,
+ * see {@link MonitoringConfiguration}.
+ * 
  * @since 4.5
  */
 public final class MonitoredRequest<R> extends DelegatingRequest<ServiceProvider, ServiceProvider, R> {
 
 	private static final Logger LOG = LoggerFactory.getLogger("request");
 	
+	static final String REQUEST_TIME = "request_time";
+	static final String REQUEST_PHASE_TIME = "request_phase_time";
+	
+	static final String TAG_TYPE = "type";
+	static final String TAG_REPOSITORY = "repository";
+	static final String TAG_BRANCH = "branch";
+	static final String TAG_OUTCOME = "outcome";
+	static final String TAG_PHASE = "phase";
+	
+	static final String OUTCOME_SUCCESS = "success";
+	static final String OUTCOME_CLIENT_ERROR = "client_error";
+	static final String OUTCOME_SERVER_ERROR = "server_error";
+	
+	static final String NO_BRANCH = "none";
+	
+	// task branches are tagged with their parent's path (eg. MAIN/project/task as MAIN/project) to keep the number of meters bounded
+	private static final int BRANCH_TAG_DEPTH = 2;
+	
+	private static final String MESSAGE = "{} repository={} branch={} outcome={} took={}ms";
+	private static final String DETAILED_MESSAGE = MESSAGE + " phases=[{}] request={}";
+	
+	private static final String TRUNCATED_SUFFIX = "...(truncated)";
+	
 	public MonitoredRequest(Request<ServiceProvider, R> next) {
 		super(next);
 	}
@@ -42,22 +73,112 @@ public final class MonitoredRequest<R> extends DelegatingRequest<ServiceProvider
 	@Override
 	public R execute(ServiceProvider context) {
 		final MeterRegistry registry = context.service(MeterRegistry.class);
-		final Sample responseTimeSample = Timer.start(registry);
+		final Clock clock = registry.config().clock();
+		final long start = clock.monotonicTime();
+		final RequestTelemetry telemetry = RequestTelemetry.start();
+		Throwable failure = null;
 		try {
 			return next(context);
+		} catch (RuntimeException | Error e) {
+			failure = e;
+			throw e;
 		} finally {
-			final Tags tags = Tags.of("context", getContextId());
-			tags.and("context", DEFAULT_CONTEXT_ID);
-			responseTimeSample.stop(registry.timer("request_time", tags));
-			LOG.info(getMessage(context));
+			telemetry.stop();
+			final long tookNanos = clock.monotonicTime() - start;
+			final String type = getRequestType();
+			final String outcome = toOutcome(failure);
+			record(registry, type, outcome, telemetry, tookNanos);
+			log(context, type, outcome, telemetry, TimeUnit.NANOSECONDS.toMillis(tookNanos));
 		}
 	}
 
-	private String getMessage(ServiceProvider context) {
+	private void record(MeterRegistry registry, String type, String outcome, RequestTelemetry telemetry, long tookNanos) {
+		final Tags tags = Tags.of(TAG_TYPE, type, TAG_REPOSITORY, getContextId());
+		registry.timer(REQUEST_TIME, tags.and(TAG_BRANCH, toBranchTag(getBranch()), TAG_OUTCOME, outcome)).record(tookNanos, TimeUnit.NANOSECONDS);
+		for (Phase phase : Phase.values()) {
+			if (telemetry.getCount(phase) > 0) {
+				registry.timer(REQUEST_PHASE_TIME, tags.and(TAG_PHASE, phase.getTag())).record(telemetry.getNanos(phase), TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+	
+	private void log(ServiceProvider context, String type, String outcome, RequestTelemetry telemetry, long tookMillis) {
+		final MonitoringConfiguration config = context.service(MonitoringConfiguration.class);
+		final boolean slow = isSlow(config, tookMillis);
+		if (slow ? !LOG.isWarnEnabled() : !LOG.isInfoEnabled()) {
+			return;
+		}
+		
+		if (slow || isSampled(config)) {
+			final String request = summarize(context.service(ObjectMapper.class), next(), config.getMaxRequestSummaryLength());
+			final Object[] args = { type, getContextId(), getBranch(), outcome, tookMillis, telemetry, request };
+			if (slow) {
+				LOG.warn(DETAILED_MESSAGE, args);
+			} else {
+				LOG.info(DETAILED_MESSAGE, args);
+			}
+		} else {
+			LOG.info(MESSAGE, type, getContextId(), getBranch(), outcome, tookMillis);
+		}
+	}
+	
+	/**
+	 * @return the type of the innermost request, which is the actual operation wrapped by context-providing requests
+	 */
+	private String getRequestType() {
+		Request<?, ?> request = next();
+		while (request instanceof DelegatingRequest<?, ?, ?>) {
+			request = ((DelegatingRequest<?, ?, ?>) request).next();
+		}
+		return request.getType();
+	}
+	
+	static boolean isSlow(MonitoringConfiguration config, long tookMillis) {
+		return config.getSlowRequestThreshold() > 0 && tookMillis >= config.getSlowRequestThreshold();
+	}
+	
+	static boolean isSampled(MonitoringConfiguration config) {
+		final double rate = config.getRequestSampleRate();
+		return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+	}
+	
+	static String toOutcome(Throwable failure) {
+		if (failure == null) {
+			return OUTCOME_SUCCESS;
+		} else if (failure instanceof ApiException) {
+			final Integer status = ((ApiException) failure).toApiError().getStatus();
+			return status != null && status < 500 ? OUTCOME_CLIENT_ERROR : OUTCOME_SERVER_ERROR;
+		} else {
+			return OUTCOME_SERVER_ERROR;
+		}
+	}
+	
+	static String toBranchTag(String branch) {
+		if (branch == null) {
+			return NO_BRANCH;
+		}
+		int separator = -1;
+		for (int i = 0; i < BRANCH_TAG_DEPTH; i++) {
+			separator = branch.indexOf('/', separator + 1);
+			if (separator < 0) {
+				return branch;
+			}
+		}
+		return branch.substring(0, separator);
+	}
+	
+	/**
+	 * Serializes the given request, but stops as soon as the serialized form exceeds the given number of characters.
+	 */
+	static String summarize(ObjectMapper mapper, Object request, int maxLength) {
+		final TruncatingWriter writer = new TruncatingWriter(maxLength);
 		try {
-			final ObjectMapper mapper = context.service(ObjectMapper.class);
-			return mapper.writeValueAsString(next());
+			mapper.writeValue(writer, request);
+			return writer.toString();
 		} catch (Throwable e) {
+			if (writer.isTruncated()) {
+				return writer.toString() + TRUNCATED_SUFFIX;
+			}
 			return "Unable to get request description: " + e.getMessage();
 		}
 	}
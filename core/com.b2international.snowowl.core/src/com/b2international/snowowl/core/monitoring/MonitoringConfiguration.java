@@ -27,6 +27,12 @@ public class MonitoringConfiguration {
 	
 	private Map<String, String> tags = Collections.emptyMap();
 	
+	private long slowRequestThreshold = 1000L;
+	
+	private double requestSampleRate = 0.0;
+	
+	private int maxRequestSummaryLength = 1024;
+	
 	public void setEnabled(boolean endabled) {
 		this.enabled = endabled;
 	}
@@ -42,5 +48,39 @@ public class MonitoringConfiguration {
 	public void setTags(Map<String, String> tags) {
 		this.tags = tags;
 	}
+
+	/**
+	 * @return the duration in milliseconds above which requests are logged with their details, zero or a negative value disables slow request
+	 *         logging
+	 */
+	public long getSlowRequestThreshold() {
+		return slowRequestThreshold;
+	}
+	
+	public void setSlowRequestThreshold(long slowRequestThreshold) {
+		this.slowRequestThreshold = slowRequestThreshold;
+	}
+	
+	/**
+	 * @return the ratio (between 0 and 1) of requests that are logged with their details regardless of their duration
+	 */
+	public double getRequestSampleRate() {
+		return requestSampleRate;
+	}
+	
+	public void setRequestSampleRate(double requestSampleRate) {
+		this.requestSampleRate = requestSampleRate;
+	}
+	
+	/**
+	 * @return the maximum number of characters of a request's serialized form to include in detailed request logs
+	 */
+	public int getMaxRequestSummaryLength() {
+		return maxRequestSummaryLength;
+	}
+	
+	public void setMaxRequestSummaryLength(int maxRequestSummaryLength) {
+		this.maxRequestSummaryLength = maxRequestSummaryLength;
+	}
 	
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.monitoring;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the time a request spends in index reads, index writes and event bus waits on the thread executing it. Instrumented operations report
+ * their duration via {@link #measure(Phase, Action)}, which is a no-op (apart from executing the action) when no request is being monitored on the
+ * current thread. Nested measurements of the same phase are counted only once.
+ * 
+ * @since 7.1
+ */
+public final class RequestTelemetry {
+
+	/**
+	 * The measured phases of a request's execution.
+	 */
+	public enum Phase {
+		INDEX_READ("index_read"),
+		INDEX_WRITE("index_write"),
+		EVENT_BUS_WAIT("event_bus_wait");
+		
+		private final String tag;
+
+		private Phase(String tag) {
+			this.tag = tag;
+		}
+		
+		/**
+		 * @return the value of the meter tag identifying this phase
+		 */
+		public String getTag() {
+			return tag;
+		}
+	}
+	
+	/**
+	 * An operation to measure.
+	 *
+	 * @param <T> - the type of the result
+	 * @param <E> - the type of the checked exception the operation can throw
+	 */
+	@FunctionalInterface
+	public interface Action<T, E extends Exception> {
+		T run() throws E;
+	}
+	
+	private static final Phase[] PHASES = Phase.values();
+	
+	private static final ThreadLocal<RequestTelemetry> CURRENT = new ThreadLocal<>();
+	
+	private final RequestTelemetry previous;
+	private final long[] nanos = new long[PHASES.length];
+	private final int[] counts = new int[PHASES.length];
+	private final int[] depths = new int[PHASES.length];
+	
+	private RequestTelemetry(RequestTelemetry previous) {
+		this.previous = previous;
+	}
+	
+	/**
+	 * Starts collecting telemetry on the current thread. The returned instance must be {@link #stop() stopped} on the same thread.
+	 */
+	static RequestTelemetry start() {
+		final RequestTelemetry telemetry = new RequestTelemetry(CURRENT.get());
+		CURRENT.set(telemetry);
+		return telemetry;
+	}
+	
+	/**
+	 * Stops collecting telemetry on the current thread, and restores the telemetry of the enclosing request, if any.
+	 */
+	void stop() {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+	
+	/**
+	 * @return the number of (outermost) measured operations in the given phase
+	 */
+	int getCount(Phase phase) {
+		return counts[phase.ordinal()];
+	}
+	
+	/**
+	 * @return the total time spent in the given phase in nanoseconds
+	 */
+	long getNanos(Phase phase) {
+		return nanos[phase.ordinal()];
+	}
+	
+	/**
+	 * Executes the given action and adds its duration to the given phase of the request being monitored on the current thread.
+	 * 
+	 * @param phase - the phase the action belongs to
+	 * @param action - the action to execute
+	 * @return the result of the action
+	 * @throws E - if the action fails
+	 */
+	public static <T, E extends Exception> T measure(Phase phase, Action<T, E> action) throws E {
+		final RequestTelemetry telemetry = CURRENT.get();
+		if (telemetry == null) {
+			return action.run();
+		}
+		
+		final int idx = phase.ordinal();
+		if (telemetry.depths[idx]++ > 0) {
+			try {
+				return action.run();
+			} finally {
+				telemetry.depths[idx]--;
+			}
+		}
+		
+		final long start = System.nanoTime();
+		try {
+			return action.run();
+		} finally {
+			telemetry.nanos[idx] += System.nanoTime() - start;
+			telemetry.counts[idx]++;
+			telemetry.depths[idx]--;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		for (Phase phase : PHASES) {
+			final int idx = phase.ordinal();
+			if (counts[idx] > 0) {
+				if (builder.length() > 0) {
+					builder.append(", ");
+				}
+				builder.append(phase.getTag())
+					.append('=')
+					.append(TimeUnit.NANOSECONDS.toMillis(nanos[idx]))
+					.append("ms/")
+					.append(counts[idx]);
+			}
+		}
+		return builder.toString();
+	}
+	
+}
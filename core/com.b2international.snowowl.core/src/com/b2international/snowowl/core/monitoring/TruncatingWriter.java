@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.monitoring;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link Writer} that keeps at most the given number of characters, and aborts writing by throwing an {@link IOException} when more characters
+ * would be written, so that serializing large objects stops early.
+ * 
+ * @since 7.1
+ */
+final class TruncatingWriter extends Writer {
+
+	private final StringBuilder builder;
+	private final int maxLength;
+	private boolean truncated;
+	
+	TruncatingWriter(int maxLength) {
+		this.builder = new StringBuilder(Math.min(maxLength, 1024));
+		this.maxLength = maxLength;
+	}
+	
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		final int remaining = maxLength - builder.length();
+		if (len > remaining) {
+			builder.append(cbuf, off, remaining);
+			truncated = true;
+			throw new IOException("Maximum length of " + maxLength + " characters reached");
+		}
+		builder.append(cbuf, off, len);
+	}
+	
+	@Override
+	public void flush() {
+	}
+	
+	@Override
+	public void close() {
+	}
+	
+	boolean isTruncated() {
+		return truncated;
+	}
+	
+	@Override
+	public String toString() {
+		return builder.toString();
+	}
+	
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.oplock.impl;
+
+import static com.b2international.snowowl.datastore.oplock.IOperationLockManager.NO_TIMEOUT;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.b2international.snowowl.datastore.BranchPathUtils;
+import com.b2international.snowowl.datastore.oplock.IOperationLockTarget;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+
+/**
+ * Compares the throughput of {@link DatastoreOperationLockManager} and {@link StripedDatastoreOperationLockManager} (both fair and non-fair)
+ * when many threads lock and unlock branches of the same repository. Locks are either released immediately, in which case the measured times
+ * are dominated by the bookkeeping of the lock managers, or held for a millisecond, in which case waking up blocked requests dominates.
+ * The measured times heavily depend on the number of available processors.
+ *
+ * @since 7.1
+ */
+@Ignore("Long running benchmark, run manually")
+public class OperationLockManagerContentionBenchmark {
+
+	private static final String REPOSITORY = "repository";
+	private static final int NUMBER_OF_THREADS = 64;
+
+	@Test
+	public void fewBranches() throws Exception {
+		benchmark(8, 10_000, 0L);
+	}
+
+	@Test
+	public void hundredsOfBranches() throws Exception {
+		benchmark(500, 10_000, 0L);
+	}
+
+	@Test
+	public void fewBranchesHeldForAMillisecond() throws Exception {
+		benchmark(8, 100, 1L);
+	}
+
+	@Test
+	public void hundredsOfBranchesHeldForAMillisecond() throws Exception {
+		benchmark(500, 1_000, 1L);
+	}
+
+	private void benchmark(int numberOfBranches, int iterations, long holdMillis) throws Exception {
+		final DatastoreOperationLockManager monitorManager = new DatastoreOperationLockManager();
+		final StripedDatastoreOperationLockManager fairManager = new StripedDatastoreOperationLockManager(true);
+		final StripedDatastoreOperationLockManager nonFairManager = new StripedDatastoreOperationLockManager(false);
+
+		try {
+			// warm up all implementations first
+			run(monitorManager, numberOfBranches, iterations, holdMillis);
+			run(fairManager, numberOfBranches, iterations, holdMillis);
+			run(nonFairManager, numberOfBranches, iterations, holdMillis);
+
+			System.err.println(String.format("%d threads locking %d branches for %d ms, %d times each", NUMBER_OF_THREADS, numberOfBranches, holdMillis, iterations));
+			System.err.println("Monitor based lock manager took: " + run(monitorManager, numberOfBranches, iterations, holdMillis));
+			System.err.println("Fair striped lock manager took: " + run(fairManager, numberOfBranches, iterations, holdMillis) + " (" + fairManager.getWaitStatistics() + ")");
+			System.err.println("Non-fair striped lock manager took: " + run(nonFairManager, numberOfBranches, iterations, holdMillis) + " (" + nonFairManager.getWaitStatistics() + ")");
+		} finally {
+			monitorManager.dispose();
+			fairManager.dispose();
+			nonFairManager.dispose();
+		}
+	}
+
+	private Stopwatch run(IDatastoreOperationLockManager manager, int numberOfBranches, int iterations, long holdMillis) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+		final List<Future<?>> workers = Lists.newArrayList();
+		final Stopwatch w = Stopwatch.createStarted();
+
+		try {
+			for (int t = 0; t < NUMBER_OF_THREADS; t++) {
+				final int seed = t;
+				workers.add(executor.submit(() -> {
+					final Random random = new Random(seed);
+					final DatastoreLockContext context = new DatastoreLockContext("user" + seed, "benchmark operation");
+					for (int i = 0; i < iterations; i++) {
+						final IOperationLockTarget target = new SingleRepositoryAndBranchLockTarget(REPOSITORY,
+								BranchPathUtils.createPath("MAIN/branch" + random.nextInt(numberOfBranches)));
+						manager.lock(context, NO_TIMEOUT, target);
+						if (holdMillis > 0L) {
+							Thread.sleep(holdMillis);
+						}
+						manager.unlock(context, target);
+					}
+					return null;
+				}));
+			}
+
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1L, TimeUnit.MINUTES);
+		}
+
+		return w;
+	}
+
+}
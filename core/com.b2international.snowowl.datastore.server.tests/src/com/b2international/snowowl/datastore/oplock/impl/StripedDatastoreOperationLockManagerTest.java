@@ -0,0 +1,394 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.oplock.impl;
+
+import static com.b2international.snowowl.datastore.oplock.IOperationLockManager.IMMEDIATE;
+import static com.b2international.snowowl.datastore.oplock.IOperationLockManager.NO_TIMEOUT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.snowowl.datastore.BranchPathUtils;
+import com.b2international.snowowl.datastore.oplock.IOperationLockTarget;
+import com.b2international.snowowl.datastore.oplock.OperationLockException;
+import com.b2international.snowowl.datastore.oplock.OperationLockInfo;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * @since 7.1
+ */
+public class StripedDatastoreOperationLockManagerTest {
+
+	private static final String REPOSITORY = "repository";
+	private static final String OTHER_REPOSITORY = "otherRepository";
+
+	private static final DatastoreLockContext USER_1 = new DatastoreLockContext("user1", "first operation");
+	private static final DatastoreLockContext USER_1_NESTED = new DatastoreLockContext("user1", "nested operation", "first operation");
+	private static final DatastoreLockContext USER_2 = new DatastoreLockContext("user2", "second operation");
+
+	private StripedDatastoreOperationLockManager manager;
+	private ExecutorService executor;
+
+	@Before
+	public void setup() {
+		manager = new StripedDatastoreOperationLockManager();
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void teardown() {
+		executor.shutdownNow();
+		manager.dispose();
+	}
+
+	@Test
+	public void differentBranchesDoNotConflict() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.lock(USER_2, IMMEDIATE, branch(REPOSITORY, "MAIN/b"));
+		manager.lock(USER_2, IMMEDIATE, branch(OTHER_REPOSITORY, "MAIN/a"));
+		assertThat(manager.getLocks()).hasSize(3);
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void sameBranchConflicts() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.lock(USER_2, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void repositoryConflictsWithBranch() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.lock(USER_2, IMMEDIATE, new SingleRepositoryLockTarget(REPOSITORY));
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void branchConflictsWithRepository() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, new SingleRepositoryLockTarget(REPOSITORY));
+		manager.lock(USER_2, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void allRepositoriesConflictsWithBranch() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(OTHER_REPOSITORY, "MAIN/a"));
+		manager.lock(USER_2, IMMEDIATE, AllRepositoriesLockTarget.INSTANCE);
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void branchConflictsWithAllRepositories() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, AllRepositoriesLockTarget.INSTANCE);
+		manager.lock(USER_2, IMMEDIATE, branch(OTHER_REPOSITORY, "MAIN/a"));
+	}
+
+	@Test
+	public void compatibleContextCanLockHeldTarget() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.lock(USER_1_NESTED, IMMEDIATE, branch(REPOSITORY, "MAIN/a"), new SingleRepositoryLockTarget(REPOSITORY));
+
+		final List<OperationLockInfo<DatastoreLockContext>> locks = manager.getLocks();
+		assertThat(locks).hasSize(2);
+		for (OperationLockInfo<DatastoreLockContext> lock : locks) {
+			assertThat(lock.getLevel()).isEqualTo(lock.getTarget() instanceof SingleRepositoryAndBranchLockTarget ? 2 : 1);
+		}
+
+		manager.unlock(USER_1_NESTED, branch(REPOSITORY, "MAIN/a"), new SingleRepositoryLockTarget(REPOSITORY));
+		manager.unlock(USER_1, branch(REPOSITORY, "MAIN/a"));
+		assertThat(manager.getLocks()).isEmpty();
+	}
+
+	@Test
+	public void multiRepositoryRequestIsAtomic() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(OTHER_REPOSITORY, "MAIN"));
+
+		try {
+			manager.lock(USER_2, IMMEDIATE, branch(REPOSITORY, "MAIN"), branch(OTHER_REPOSITORY, "MAIN"));
+			throw new AssertionError("Expected the request to be refused");
+		} catch (DatastoreOperationLockException e) {
+			assertThat(e.getContext(branch(OTHER_REPOSITORY, "MAIN"))).isEqualTo(USER_1);
+		}
+
+		assertThat(manager.getLocks()).hasSize(1);
+	}
+
+	@Test(expected = OperationLockException.class)
+	public void unlockNotHeldTarget() throws Exception {
+		manager.unlock(USER_1, branch(REPOSITORY, "MAIN/a"));
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void unlockByOtherUser() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.unlock(USER_2, branch(REPOSITORY, "MAIN/a"));
+	}
+
+	@Test
+	public void unlockById() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.lock(USER_2, IMMEDIATE, branch(OTHER_REPOSITORY, "MAIN/a"));
+
+		final int id = manager.getLocks().get(0).getId();
+		assertThat(manager.unlockById(id)).isTrue();
+		assertThat(manager.unlockById(id)).isFalse();
+		assertThat(manager.getLocks()).hasSize(1);
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void disposedManagerRefusesLocks() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		manager.dispose();
+		assertThat(manager.getLocks()).isEmpty();
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+	}
+
+	@Test
+	public void waiterAcquiresReleasedLock() throws Exception {
+		final IOperationLockTarget target = branch(REPOSITORY, "MAIN/a");
+		manager.lock(USER_1, IMMEDIATE, target);
+
+		final Future<?> waiter = executor.submit(() -> {
+			manager.lock(USER_2, NO_TIMEOUT, target);
+			return null;
+		});
+
+		awaitWaiters(1);
+		manager.unlock(USER_1, target);
+		waiter.get(10L, TimeUnit.SECONDS);
+
+		assertThat(manager.getLocks().get(0).getContext()).isEqualTo(USER_2);
+		assertThat(manager.getWaitStatistics().getDelayedAcquisitions()).isEqualTo(1L);
+	}
+
+	@Test(expected = DatastoreOperationLockException.class)
+	public void waiterTimesOut() throws Exception {
+		manager.lock(USER_1, IMMEDIATE, branch(REPOSITORY, "MAIN/a"));
+		try {
+			manager.lock(USER_2, 50L, branch(REPOSITORY, "MAIN/a"));
+		} finally {
+			assertThat(manager.getWaitStatistics().getFailedAcquisitions()).isEqualTo(1L);
+			assertThat(manager.getWaitStatistics().getMaxWaitMillis()).isGreaterThanOrEqualTo(49L);
+		}
+	}
+
+	@Test
+	public void waitersAreServedInArrivalOrder() throws Exception {
+		final IOperationLockTarget target = branch(REPOSITORY, "MAIN/a");
+		final List<String> order = new CopyOnWriteArrayList<>();
+		final List<Future<?>> waiters = Lists.newArrayList();
+		manager.lock(USER_1, IMMEDIATE, target);
+
+		for (int i = 0; i < 5; i++) {
+			final DatastoreLockContext context = new DatastoreLockContext("waiter" + i, "waiting operation");
+			waiters.add(executor.submit(() -> {
+				manager.lock(context, NO_TIMEOUT, target);
+				order.add(context.getUserId());
+				manager.unlock(context, target);
+				return null;
+			}));
+			awaitWaiters(i + 1);
+		}
+
+		manager.unlock(USER_1, target);
+		for (Future<?> waiter : waiters) {
+			waiter.get(10L, TimeUnit.SECONDS);
+		}
+
+		assertThat(order).containsExactly("waiter0", "waiter1", "waiter2", "waiter3", "waiter4");
+	}
+
+	@Test
+	public void newRequestDoesNotOvertakeWaiter() throws Exception {
+		final IOperationLockTarget target = branch(REPOSITORY, "MAIN/a");
+		manager.lock(USER_1, IMMEDIATE, target);
+
+		final Future<?> waiter = executor.submit(() -> {
+			manager.lock(USER_2, NO_TIMEOUT, target);
+			return null;
+		});
+
+		awaitWaiters(1);
+		manager.unlock(USER_1, target);
+
+		try {
+			// Either the waiter holds the lock, or the lock has been handed off to it
+			manager.lock(new DatastoreLockContext("user3", "barging operation"), IMMEDIATE, target);
+			throw new AssertionError("Expected the request to be refused");
+		} catch (DatastoreOperationLockException expected) {
+			// ignored
+		}
+
+		waiter.get(10L, TimeUnit.SECONDS);
+		assertThat(manager.getLocks().get(0).getContext()).isEqualTo(USER_2);
+	}
+
+	@Test
+	public void waiterBlockedByOtherTargetDoesNotHoldUpQueue() throws Exception {
+		final IOperationLockTarget firstTarget = branch(REPOSITORY, "MAIN/a");
+		final IOperationLockTarget secondTarget = branch(REPOSITORY, "MAIN/b");
+		final DatastoreLockContext multiTargetContext = new DatastoreLockContext("waiter1", "merge operation");
+		final DatastoreLockContext singleTargetContext = new DatastoreLockContext("waiter2", "waiting operation");
+		manager.lock(USER_1, IMMEDIATE, firstTarget, secondTarget);
+
+		// The head of the second target's queue also waits for the first target
+		final Future<?> multiTargetWaiter = executor.submit(() -> {
+			manager.lock(multiTargetContext, NO_TIMEOUT, firstTarget, secondTarget);
+			return null;
+		});
+		awaitWaiters(1);
+
+		final Future<?> singleTargetWaiter = executor.submit(() -> {
+			manager.lock(singleTargetContext, NO_TIMEOUT, secondTarget);
+			return null;
+		});
+		awaitWaiters(2);
+
+		manager.unlock(USER_1, secondTarget);
+
+		try {
+			// The second target is either held by or handed off to one of the waiters
+			manager.lock(new DatastoreLockContext("user3", "barging operation"), IMMEDIATE, secondTarget);
+			throw new AssertionError("Expected the request to be refused");
+		} catch (DatastoreOperationLockException expected) {
+			// ignored
+		}
+
+		// The first target is still held, so the second waiter acquires the second target
+		singleTargetWaiter.get(10L, TimeUnit.SECONDS);
+		assertThat(multiTargetWaiter.isDone()).isFalse();
+		assertThat(getLockContexts()).containsOnly(USER_1, singleTargetContext);
+
+		manager.unlock(USER_1, firstTarget);
+		manager.unlock(singleTargetContext, secondTarget);
+		multiTargetWaiter.get(10L, TimeUnit.SECONDS);
+
+		assertThat(getLockContexts()).hasSize(2).containsOnly(multiTargetContext);
+	}
+
+	@Test
+	public void hundredsOfBranchesUnderContention() throws Exception {
+		final int numberOfBranches = 500;
+		final int numberOfThreads = 32;
+		final int iterations = 1_000;
+
+		final AtomicInteger[] holders = new AtomicInteger[numberOfBranches];
+		final AtomicInteger violations = new AtomicInteger();
+		for (int i = 0; i < numberOfBranches; i++) {
+			holders[i] = new AtomicInteger();
+		}
+
+		final List<Future<?>> workers = Lists.newArrayList();
+		for (int t = 0; t < numberOfThreads; t++) {
+			final int seed = t;
+			workers.add(executor.submit(() -> {
+				final Random random = new Random(seed);
+				final DatastoreLockContext context = new DatastoreLockContext("user" + seed, "stress operation");
+
+				for (int i = 0; i < iterations; i++) {
+					// Every tenth request locks two branches at once (eg. a merge)
+					final int firstBranch = random.nextInt(numberOfBranches);
+					final int secondBranch = i % 10 == 9 ? (firstBranch + 1 + random.nextInt(numberOfBranches - 1)) % numberOfBranches : firstBranch;
+					final List<IOperationLockTarget> targets = firstBranch == secondBranch
+							? ImmutableList.of(branch(REPOSITORY, "MAIN/branch" + firstBranch))
+							: ImmutableList.of(branch(REPOSITORY, "MAIN/branch" + firstBranch), branch(REPOSITORY, "MAIN/branch" + secondBranch));
+
+					manager.lock(context, NO_TIMEOUT, targets);
+					if (holders[firstBranch].incrementAndGet() != 1) {
+						violations.incrementAndGet();
+					}
+					if (firstBranch != secondBranch && holders[secondBranch].incrementAndGet() != 1) {
+						violations.incrementAndGet();
+					}
+					Thread.yield();
+					if (firstBranch != secondBranch) {
+						holders[secondBranch].decrementAndGet();
+					}
+					holders[firstBranch].decrementAndGet();
+					manager.unlock(context, targets);
+				}
+				return null;
+			}));
+		}
+
+		// Repository-wide requests wait until all branch locks are released, then exclude branch locks while being held
+		final IOperationLockTarget repository = new SingleRepositoryLockTarget(REPOSITORY);
+		for (int i = 0; i < 10; i++) {
+			try {
+				manager.lock(USER_1, 100L, repository);
+			} catch (DatastoreOperationLockException e) {
+				continue;
+			}
+			for (AtomicInteger holder : holders) {
+				if (holder.get() != 0) {
+					violations.incrementAndGet();
+				}
+			}
+			manager.unlock(USER_1, repository);
+		}
+
+		for (Future<?> worker : workers) {
+			worker.get(60L, TimeUnit.SECONDS);
+		}
+
+		assertThat(violations.get()).isZero();
+		assertThat(manager.getLocks()).isEmpty();
+
+		final StripedDatastoreOperationLockManager.WaitStatistics statistics = manager.getWaitStatistics();
+		assertThat(statistics.getImmediateAcquisitions() + statistics.getDelayedAcquisitions()).isGreaterThanOrEqualTo((long) numberOfThreads * iterations);
+	}
+
+	private List<DatastoreLockContext> getLockContexts() {
+		return manager.getLocks().stream().map(OperationLockInfo::getContext).collect(Collectors.toList());
+	}
+
+	private void awaitWaiters(int expectedWaiters) throws InterruptedException {
+		// Waiting threads are parked on their own semaphore, detect them through the thread states of the executor
+		final long deadline = System.currentTimeMillis() + 10_000L;
+		while (System.currentTimeMillis() < deadline) {
+			int waiting = 0;
+			for (Thread thread : ImmutableList.copyOf(Thread.getAllStackTraces().keySet())) {
+				if (thread.getState() == Thread.State.WAITING || thread.getState() == Thread.State.TIMED_WAITING) {
+					for (StackTraceElement element : thread.getStackTrace()) {
+						if ("await".equals(element.getMethodName()) && element.getClassName().endsWith("StripedDatastoreOperationLockManager$Waiter")) {
+							waiting++;
+							break;
+						}
+					}
+				}
+			}
+			if (waiting >= expectedWaiters) {
+				return;
+			}
+			Thread.sleep(10L);
+		}
+		throw new AssertionError("Expected " + expectedWaiters + " waiting lock requests");
+	}
+
+	private static IOperationLockTarget branch(String repositoryUuid, String path) {
+		return new SingleRepositoryAndBranchLockTarget(repositoryUuid, BranchPathUtils.createPath(path));
+	}
+
+}
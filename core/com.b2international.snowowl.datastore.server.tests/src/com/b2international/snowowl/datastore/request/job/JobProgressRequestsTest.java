@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.request.job;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.index.Index;
+import com.b2international.index.IndexRead;
+import com.b2international.index.IndexWrite;
+import com.b2international.index.Indexes;
+import com.b2international.index.admin.IndexAdmin;
+import com.b2international.index.mapping.Mappings;
+import com.b2international.snowowl.core.ServiceProvider;
+import com.b2international.snowowl.core.repository.JsonSupport;
+import com.b2international.snowowl.datastore.remotejobs.RemoteJobEntry;
+import com.b2international.snowowl.datastore.remotejobs.RemoteJobState;
+import com.b2international.snowowl.datastore.remotejobs.RemoteJobTracker;
+import com.b2international.snowowl.eventbus.EventBusUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * @since 7.1
+ */
+public class JobProgressRequestsTest {
+
+	private static final String RESULT = "result";
+	private static final int NUMBER_OF_JOBS = 200;
+	private static final int TOTAL_WORK = 100;
+	private static final long PROGRESS_FLUSH_INTERVAL = 100L;
+
+	private ServiceProvider context;
+	private RemoteJobTracker tracker;
+	private CountingIndex index;
+
+	@Before
+	public void setup() {
+		final ObjectMapper mapper = JsonSupport.getDefaultObjectMapper();
+		this.index = new CountingIndex(Indexes.createIndex("jobs", mapper, new Mappings(RemoteJobEntry.class)));
+		this.tracker = new RemoteJobTracker(index, EventBusUtil.getBus(), mapper, TimeUnit.MINUTES.toMillis(1L), PROGRESS_FLUSH_INTERVAL);
+		this.context = ServiceProvider.EMPTY.inject()
+				.bind(ObjectMapper.class, mapper)
+				.bind(RemoteJobTracker.class, tracker)
+				.build();
+	}
+
+	@After
+	public void after() {
+		this.tracker.dispose();
+	}
+
+	@Test
+	public void coalesceProgressOfConcurrentJobs() throws Exception {
+		index.commits.set(0);
+		final long start = System.nanoTime();
+
+		final List<String> jobIds = newArrayList();
+		for (int i = 0; i < NUMBER_OF_JOBS; i++) {
+			jobIds.add(JobRequests.prepareSchedule()
+					.setUser("test@b2i.sg")
+					.setDescription("coalesceProgressOfConcurrentJobs " + i)
+					.setRequest(context -> {
+						final IProgressMonitor monitor = context.service(IProgressMonitor.class);
+						monitor.beginTask("Reporting progress...", TOTAL_WORK);
+						for (int work = 0; work < TOTAL_WORK; work++) {
+							try {
+								Thread.sleep(1);
+							} catch (InterruptedException e) {
+								throw new RuntimeException(e);
+							}
+							monitor.worked(1);
+						}
+						monitor.done();
+						return RESULT;
+					})
+					.build()
+					.execute(context));
+		}
+
+		for (String jobId : jobIds) {
+			final RemoteJobEntry entry = waitDone(jobId);
+			assertEquals(RemoteJobState.FINISHED, entry.getState());
+			assertEquals(RemoteJobEntry.MAX_COMPLETION_LEVEL, entry.getCompletionLevel());
+		}
+
+		final double seconds = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1L) / 1000.0;
+		final int actualCommits = index.commits.get();
+
+		// three state changes per job, plus at most one progress commit per flush interval
+		final long maxProgressCommits = (long) (seconds * 1000 / PROGRESS_FLUSH_INTERVAL) + 1;
+		assertTrue("Too many commits: " + actualCommits, actualCommits <= NUMBER_OF_JOBS * 3 + maxProgressCommits);
+	}
+
+	private RemoteJobEntry waitDone(final String jobId) throws InterruptedException {
+		RemoteJobEntry entry = null;
+		do {
+			Thread.sleep(20);
+			entry = JobRequests.prepareGet(jobId).build().execute(context);
+		} while (!entry.isDone());
+		return entry;
+	}
+
+	/*Counts write transactions, each of them ends with a single commit in the tracker*/
+	private static final class CountingIndex implements Index {
+
+		private final Index delegate;
+		private final AtomicInteger commits = new AtomicInteger();
+
+		CountingIndex(Index delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public IndexAdmin admin() {
+			return delegate.admin();
+		}
+
+		@Override
+		public String name() {
+			return delegate.name();
+		}
+
+		@Override
+		public <T> T read(IndexRead<T> read) {
+			return delegate.read(read);
+		}
+
+		@Override
+		public <T> T write(IndexWrite<T> write) {
+			commits.incrementAndGet();
+			return delegate.write(write);
+		}
+
+	}
+
+}
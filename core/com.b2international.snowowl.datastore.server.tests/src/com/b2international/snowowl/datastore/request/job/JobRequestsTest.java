@@ -21,6 +21,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -63,7 +64,8 @@ public class JobRequestsTest {
 		mapper = JsonSupport.getDefaultObjectMapper();
 		final Index index = Indexes.createIndex("jobs", mapper, new Mappings(RemoteJobEntry.class));
 		this.bus = EventBusUtil.getBus();
-		this.tracker = new RemoteJobTracker(index, bus, mapper, 200);
+		// progress is only written to the index along with state changes during these tests
+		this.tracker = new RemoteJobTracker(index, bus, mapper, 200, TimeUnit.MINUTES.toMillis(1L));
 		this.context = ServiceProvider.EMPTY.inject()
 				.bind(ObjectMapper.class, mapper)
 				.bind(RemoteJobTracker.class, tracker)
@@ -174,9 +176,8 @@ public class JobRequestsTest {
 		// verify job events
 		// 1 added
 		// 1 changed - RUNNING
-		// 10 changed - PROGRESS updates
-		// 1 changed - FINISHED
-		verifyJobEvents(jobId, 1, 12, 0);
+		// 1 changed - FINISHED (including the last PROGRESS update)
+		verifyJobEvents(jobId, 1, 2, 0);
 	}
 
 	private void verifyJobEvents(String jobId, int expectedAdded, int expectedChanged, int expectedRemoved) {
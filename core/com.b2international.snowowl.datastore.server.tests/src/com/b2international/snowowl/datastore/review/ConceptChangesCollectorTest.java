@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.review;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.b2international.index.revision.ObjectId;
+import com.b2international.index.revision.Operation;
+import com.b2international.index.revision.RevisionCompareDetail;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * @since 7.1
+ */
+public class ConceptChangesCollectorTest {
+
+	private static final String CONCEPT = "concept";
+	private static final String DESCRIPTION = "description";
+
+	private static final int NUMBER_OF_DETAILS = 1_000_000;
+	private static final int CHUNK_SIZE = 10_000;
+
+	private static final long NEW_CONCEPT_BASE = 100_000_000L;
+	private static final long DELETED_CONCEPT_BASE = 200_000_000L;
+	private static final long CHANGED_CONCEPT_BASE = 300_000_000L;
+
+	@Test
+	public void collectMillionDetails() throws Exception {
+		final ConceptChangesCollector collector = new ConceptChangesCollector();
+
+		// details are generated one by one and dropped right after collecting them, only the collected identifiers are retained
+		for (int i = 0; i < NUMBER_OF_DETAILS; i++) {
+			collector.accept(detail(i));
+		}
+
+		assertThat(collector.getNewConceptCount()).isEqualTo(NUMBER_OF_DETAILS / 10);
+		assertThat(collector.getDeletedConceptCount()).isEqualTo(NUMBER_OF_DETAILS / 10);
+		assertThat(collector.getChangedConceptCount()).isEqualTo(NUMBER_OF_DETAILS / 10);
+
+		final List<ConceptChangesChunk> chunks = Lists.newArrayList();
+		collector.forEachChunk("review", CHUNK_SIZE, chunks::add);
+
+		assertThat(chunks).hasSize(NUMBER_OF_DETAILS / 10 / CHUNK_SIZE);
+		long previousNewConcept = 0L;
+		for (int i = 0; i < chunks.size(); i++) {
+			final ConceptChangesChunk chunk = chunks.get(i);
+			assertThat(chunk.id()).isEqualTo(ConceptChangesChunk.toId("review", i));
+			assertThat(chunk.reviewId()).isEqualTo("review");
+			assertThat(chunk.chunk()).isEqualTo(i);
+			assertThat(chunk.newConcepts()).hasSize(CHUNK_SIZE);
+			assertThat(chunk.changedConcepts()).hasSize(CHUNK_SIZE);
+			assertThat(chunk.deletedConcepts()).hasSize(CHUNK_SIZE);
+
+			// chunks follow each other in ascending identifier order
+			for (String newConcept : chunk.newConcepts()) {
+				assertThat(Long.parseLong(newConcept)).isGreaterThan(previousNewConcept);
+			}
+			previousNewConcept = chunk.newConcepts().stream().mapToLong(Long::parseLong).max().getAsLong();
+		}
+	}
+
+	@Test
+	public void subComponentChangesOfNewAndDeletedConceptsAreNotChanges() throws Exception {
+		final ConceptChangesCollector collector = new ConceptChangesCollector();
+		collector.accept(componentChange(Operation.ADD, ObjectId.rootOf(CONCEPT), "1"));
+		collector.accept(componentChange(Operation.ADD, ObjectId.of(CONCEPT, "1"), "2"));
+		collector.accept(componentChange(Operation.REMOVE, ObjectId.rootOf(CONCEPT), "3"));
+		collector.accept(componentChange(Operation.REMOVE, ObjectId.of(CONCEPT, "3"), "4"));
+		collector.accept(componentChange(Operation.ADD, ObjectId.of(CONCEPT, "5"), "6"));
+		collector.accept(componentChange(Operation.REMOVE, ObjectId.of(CONCEPT, "7"), "8"));
+		collector.accept(propertyChange(ObjectId.of(CONCEPT, "9")));
+
+		final ConceptChanges changes = singleChunk(collector).toConceptChanges();
+		assertThat(changes.id()).isEqualTo("review");
+		assertThat(changes.newConcepts()).containsOnly("1");
+		assertThat(changes.deletedConcepts()).containsOnly("3");
+		assertThat(changes.changedConcepts()).containsOnly("5", "7", "9");
+	}
+
+	@Test
+	public void nonNumericIdentifiers() throws Exception {
+		final ConceptChangesCollector collector = new ConceptChangesCollector();
+		collector.accept(componentChange(Operation.ADD, ObjectId.rootOf(CONCEPT), "A1"));
+		collector.accept(componentChange(Operation.ADD, ObjectId.rootOf(CONCEPT), "0123"));
+		collector.accept(componentChange(Operation.ADD, ObjectId.of(CONCEPT, "0123"), "2"));
+		collector.accept(componentChange(Operation.ADD, ObjectId.of(CONCEPT, "123"), "3"));
+		collector.accept(componentChange(Operation.REMOVE, ObjectId.rootOf(CONCEPT), "12345678901234567890"));
+
+		final ConceptChangesChunk chunk = singleChunk(collector);
+		assertThat(chunk.newConcepts()).containsOnly("A1", "0123");
+		assertThat(chunk.changedConcepts()).containsOnly("123");
+		assertThat(chunk.deletedConcepts()).containsOnly("12345678901234567890");
+	}
+
+	@Test
+	public void emptyChangesProduceSingleChunk() throws Exception {
+		final ConceptChangesChunk chunk = singleChunk(new ConceptChangesCollector());
+		assertThat(chunk.id()).isEqualTo(ConceptChangesChunk.toId("review", 0));
+		assertThat(chunk.newConcepts()).isEmpty();
+		assertThat(chunk.changedConcepts()).isEmpty();
+		assertThat(chunk.deletedConcepts()).isEmpty();
+	}
+
+	@Test
+	public void chunksAreFilledIndependentlyPerCategory() throws Exception {
+		final ConceptChangesCollector collector = new ConceptChangesCollector();
+		for (int i = 1; i <= 5; i++) {
+			collector.accept(componentChange(Operation.ADD, ObjectId.rootOf(CONCEPT), Integer.toString(i)));
+		}
+		collector.accept(propertyChange(ObjectId.of(CONCEPT, "10")));
+
+		final List<ConceptChangesChunk> chunks = Lists.newArrayList();
+		collector.forEachChunk("review", 2, chunks::add);
+
+		assertThat(chunks).hasSize(3);
+		assertThat(chunks.get(0).newConcepts()).isEqualTo(ImmutableSet.of("1", "2"));
+		assertThat(chunks.get(0).changedConcepts()).isEqualTo(ImmutableSet.of("10"));
+		assertThat(chunks.get(1).newConcepts()).isEqualTo(ImmutableSet.of("3", "4"));
+		assertThat(chunks.get(1).changedConcepts()).isEmpty();
+		assertThat(chunks.get(2).newConcepts()).isEqualTo(ImmutableSet.of("5"));
+	}
+
+	/*
+	 * Every tenth detail adds a new concept, followed by a description of the same concept, then a concept is deleted along with one of its
+	 * descriptions, and the remaining six details change the same existing concept.
+	 */
+	private static RevisionCompareDetail detail(int i) {
+		switch (i % 10) {
+		case 0: return componentChange(Operation.ADD, ObjectId.rootOf(CONCEPT), Long.toString(NEW_CONCEPT_BASE + i));
+		case 1: return componentChange(Operation.ADD, ObjectId.of(CONCEPT, Long.toString(NEW_CONCEPT_BASE + i - 1)), Long.toString(i));
+		case 2: return componentChange(Operation.REMOVE, ObjectId.rootOf(CONCEPT), Long.toString(DELETED_CONCEPT_BASE + i));
+		case 3: return componentChange(Operation.REMOVE, ObjectId.of(CONCEPT, Long.toString(DELETED_CONCEPT_BASE + i - 1)), Long.toString(i));
+		case 4: return componentChange(Operation.ADD, ObjectId.of(CONCEPT, Long.toString(CHANGED_CONCEPT_BASE + i / 10)), Long.toString(i));
+		case 5: return componentChange(Operation.REMOVE, ObjectId.of(CONCEPT, Long.toString(CHANGED_CONCEPT_BASE + i / 10)), Long.toString(i));
+		default: return propertyChange(ObjectId.of(CONCEPT, Long.toString(CHANGED_CONCEPT_BASE + i / 10)));
+		}
+	}
+
+	private static RevisionCompareDetail componentChange(Operation op, ObjectId object, String componentId) {
+		final String componentType = object.isRoot() ? CONCEPT : DESCRIPTION;
+		return RevisionCompareDetail.componentChange("author", 0L, "comment", op, object, ObjectId.of(componentType, componentId));
+	}
+
+	private static RevisionCompareDetail propertyChange(ObjectId object) {
+		return RevisionCompareDetail.propertyChange("author", 0L, "comment", Operation.CHANGE, object, "active", "true", "false");
+	}
+
+	private static ConceptChangesChunk singleChunk(ConceptChangesCollector collector) {
+		final List<ConceptChangesChunk> chunks = Lists.newArrayList();
+		collector.forEachChunk("review", CHUNK_SIZE, chunks::add);
+		assertThat(chunks).hasSize(1);
+		return chunks.get(0);
+	}
+
+}
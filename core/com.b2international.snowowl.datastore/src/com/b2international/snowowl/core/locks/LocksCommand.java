@@ -36,10 +36,10 @@ import com.b2international.snowowl.datastore.oplock.OperationLockInfo;
 import com.b2international.snowowl.datastore.oplock.impl.AllRepositoriesLockTarget;
 import com.b2international.snowowl.datastore.oplock.impl.DatastoreLockContext;
 import com.b2international.snowowl.datastore.oplock.impl.DatastoreLockContextDescriptions;
-import com.b2international.snowowl.datastore.oplock.impl.DatastoreOperationLockManager;
 import com.b2international.snowowl.datastore.oplock.impl.IDatastoreOperationLockManager;
 import com.b2international.snowowl.datastore.oplock.impl.SingleRepositoryAndBranchLockTarget;
 import com.b2international.snowowl.datastore.oplock.impl.SingleRepositoryLockTarget;
+import com.b2international.snowowl.datastore.oplock.impl.StripedDatastoreOperationLockManager;
 import com.b2international.snowowl.identity.domain.User;
 import com.google.common.base.Strings;
 import com.google.common.primitives.Ints;
@@ -71,11 +71,12 @@ public final class LocksCommand extends Command {
 	
 	@Override
 	public void run(CommandLineStream out) {
-		final IDatastoreOperationLockManager lockManager = ApplicationContext.getInstance().getService(IDatastoreOperationLockManager.class);
-		final List<OperationLockInfo<DatastoreLockContext>> locks = ((DatastoreOperationLockManager) lockManager).getLocks();
+		final StripedDatastoreOperationLockManager lockManager = getLockManager();
+		final List<OperationLockInfo<DatastoreLockContext>> locks = lockManager.getLocks();
 		
 		if (locks.isEmpty()) {
 			out.println("No locks are currently granted on this server.");
+			out.println("Lock wait statistics: %s", lockManager.getWaitStatistics());
 			return;
 		}
 		
@@ -96,6 +97,8 @@ public final class LocksCommand extends Command {
 			
 			out.println(Strings.repeat("-", 135));
 		}
+		
+		out.println("Lock wait statistics: %s", lockManager.getWaitStatistics());
 	}
 	
 	@CommandLine.Command(
@@ -175,8 +178,8 @@ public final class LocksCommand extends Command {
 		
 	}
 
-	private static DatastoreOperationLockManager getLockManager() {
-		return (DatastoreOperationLockManager) ApplicationContext.getInstance().getService(IDatastoreOperationLockManager.class);
+	private static StripedDatastoreOperationLockManager getLockManager() {
+		return (StripedDatastoreOperationLockManager) ApplicationContext.getInstance().getService(IDatastoreOperationLockManager.class);
 	}
 	
 	private static IOperationLockTarget parseLockTarget(final String lockTargetOrAll) {
@@ -32,7 +32,7 @@ import com.b2international.snowowl.core.setup.Environment;
 import com.b2international.snowowl.datastore.CodeSystemEntry;
 import com.b2international.snowowl.datastore.CodeSystemVersionEntry;
 import com.b2international.snowowl.datastore.request.IndexReadRequest;
-import com.b2international.snowowl.datastore.review.ConceptChanges;
+import com.b2international.snowowl.datastore.review.ConceptChangesChunk;
 import com.b2international.snowowl.datastore.review.Review;
 import com.b2international.snowowl.datastore.version.VersioningRequestBuilder;
 
@@ -54,7 +54,7 @@ public final class RepositoryBuilder {
 	
 	private final Mappings mappings = new Mappings(
 		Review.class, 
-		ConceptChanges.class, 
+		ConceptChangesChunk.class, 
 		CodeSystemEntry.class, 
 		CodeSystemVersionEntry.class
 	);
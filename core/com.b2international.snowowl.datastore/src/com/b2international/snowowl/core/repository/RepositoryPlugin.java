@@ -271,13 +271,15 @@ public final class RepositoryPlugin extends Plugin {
 		final Index index = Indexes.createIndex("jobs", env.service(ObjectMapper.class), new Mappings(RemoteJobEntry.class), env.service(IndexSettings.class));
 		// TODO make this configurable
 		final long defaultJobCleanUpInterval = TimeUnit.MINUTES.toMillis(1);
+		final long jobProgressFlushInterval = configuration.getModuleConfig(RepositoryConfiguration.class).getJobProgressFlushInterval();
 		env.services()
 			.registerService(RemoteJobTracker.class, 
 				new RemoteJobTracker(
 					index, 
 					env.service(IEventBus.class), 
 					env.service(ObjectMapper.class), 
-					defaultJobCleanUpInterval)
+					defaultJobCleanUpInterval,
+					jobProgressFlushInterval)
 			);
 	}
 
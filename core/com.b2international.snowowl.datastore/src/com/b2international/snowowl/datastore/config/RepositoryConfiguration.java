@@ -54,6 +54,10 @@ public class RepositoryConfiguration {
 	@Pattern(regexp = "^[a-zA-Z0-9_-]{0,32}$")
 	private String deploymentId = "";
 	
+	@Min(10)
+	@Max(60_000)
+	private long jobProgressFlushInterval = 1_000L;
+	
 	/**
 	 * @return the host
 	 */
@@ -145,4 +149,17 @@ public class RepositoryConfiguration {
 	public void setDeploymentId(String deploymentId) {
 		this.deploymentId = deploymentId;
 	}
+	
+	/**
+	 * @return the interval in milliseconds between writing the latest progress of running remote jobs to the index
+	 */
+	@JsonProperty
+	public long getJobProgressFlushInterval() {
+		return jobProgressFlushInterval;
+	}
+	
+	@JsonProperty
+	public void setJobProgressFlushInterval(long jobProgressFlushInterval) {
+		this.jobProgressFlushInterval = jobProgressFlushInterval;
+	}
 }
@@ -18,6 +18,7 @@ package com.b2international.snowowl.datastore.index;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 
@@ -25,6 +26,9 @@ import com.b2international.index.revision.Hooks;
 import com.b2international.index.revision.RevisionSearcher;
 import com.b2international.index.revision.StagingArea;
 import com.b2international.snowowl.core.Repository;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Base {@link Repository} pre-commit hook. It allows terminology plugin developers to attach custom precommit hooks to the underlying
@@ -88,20 +92,11 @@ public abstract class BaseRepositoryPreCommitHook implements Hooks.PreCommitHook
 //				indexCommitChangeSet.putRemovedComponent(ComponentIdentifier.of(CodeSystemVersionEntry.TERMINOLOGY_COMPONENT_ID, removed.getVersionId()), removed);
 //			});
 		
-		for (ChangeSetProcessor processor : getChangeSetProcessors(staging, index)) {
-			log.trace("Collecting {}...", processor.description());
-			processor.process(staging, index);
-			// register additions, deletions from the sub processor
-			
-			for (RevisionDocument revision : processor.getNewMappings().values()) {
-				staging.stageNew(revision);
-			}
-			
-			for (RevisionDocumentChange revisionChange : processor.getChangedMappings().values()) {
-				staging.stageChange(((RevisionDocumentChange) revisionChange).getOldRevision(), ((RevisionDocumentChange) revisionChange).getNewRevision());
-			}
-			
-			processor.getDeletions().forEach(staging::stageRemove);
+		final ListeningExecutorService executor = createExecutor();
+		try {
+			getChangeSetProcessorPipeline(staging, index, executor).run(staging, index, executor, log);
+		} finally {
+			executor.shutdownNow();
 		}
 
 		postUpdateDocuments(staging);
@@ -118,6 +113,37 @@ public abstract class BaseRepositoryPreCommitHook implements Hooks.PreCommitHook
 	protected Collection<ChangeSetProcessor> getChangeSetProcessors(StagingArea stagingArea, RevisionSearcher index) throws IOException {
 		return Collections.emptySet();
 	}
+	
+	/**
+	 * Return the {@link ChangeSetProcessorPipeline} to process the commit changeset. By default the processors returned by
+	 * {@link #getChangeSetProcessors(StagingArea, RevisionSearcher)} are executed one after another.
+	 * 
+	 * @param stagingArea - the staging area to process
+	 * @param index - the revision index searcher to query previous state of the revisions
+	 * @param executor - an executor with at most {@link #getParallelism()} threads, which can be used to prepare the processors concurrently
+	 * @return
+	 */
+	protected ChangeSetProcessorPipeline getChangeSetProcessorPipeline(StagingArea stagingArea, RevisionSearcher index, ListeningExecutorService executor) throws IOException {
+		return ChangeSetProcessorPipeline.sequential(getChangeSetProcessors(stagingArea, index));
+	}
+	
+	/**
+	 * Subclasses may override this method to allow processing the changeset on multiple threads. 
+	 * 
+	 * @return the maximum number of threads used to process a single changeset, {@code 1} by default
+	 */
+	protected int getParallelism() {
+		return 1;
+	}
+	
+	private ListeningExecutorService createExecutor() {
+		final int parallelism = getParallelism();
+		if (parallelism < 2) {
+			return MoreExecutors.sameThreadExecutor();
+		}
+		return MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(parallelism, 
+				new ThreadFactoryBuilder().setNameFormat(getClass().getSimpleName() + "-%d").setDaemon(true).build()));
+	}
 
 	/**
 	 * Subclasses may override this method to execute additional logic after the processing of the changeset, but before committing it.
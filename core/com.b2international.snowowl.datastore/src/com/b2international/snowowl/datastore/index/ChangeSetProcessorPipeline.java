@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.index.revision.StagingArea;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * A list of {@link ChangeSetProcessor}s, where each processor declares the processors whose staged results it depends on.
+ * <p>
+ * Processors are executed in waves. A wave consists of all remaining processors whose dependencies have already been staged, and its processors
+ * run concurrently against the same staging area, which is not modified while the wave is running. Processor results are staged on the calling
+ * thread, in the order the processors were added to the pipeline. The staged documents are therefore the same as when running the processors
+ * one after another in the order they were added, as long as each processor declares all processors whose staged results it reads.
+ *
+ * @since 7.1
+ */
+public final class ChangeSetProcessorPipeline {
+
+	private final List<ChangeSetProcessor> processors;
+	private final Map<ChangeSetProcessor, Set<ChangeSetProcessor>> dependencies;
+
+	private ChangeSetProcessorPipeline(List<ChangeSetProcessor> processors, Map<ChangeSetProcessor, Set<ChangeSetProcessor>> dependencies) {
+		this.processors = processors;
+		this.dependencies = dependencies;
+	}
+
+	/**
+	 * @return the processors of this pipeline in the order they were added
+	 */
+	public List<ChangeSetProcessor> getProcessors() {
+		return processors;
+	}
+
+	/**
+	 * Runs the processors of this pipeline and stages their results.
+	 *
+	 * @param staging
+	 *            - the current state of the commit staging area
+	 * @param index
+	 *            - the revision index searcher to query previous state of the revisions, if required
+	 * @param executor
+	 *            - the executor to run the processors of a wave on
+	 * @param log
+	 *            - the logger to report the progress to
+	 * @throws IOException
+	 */
+	public void run(StagingArea staging, RevisionSearcher index, ListeningExecutorService executor, Logger log) throws IOException {
+		final Set<ChangeSetProcessor> processed = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Set<ChangeSetProcessor> staged = Collections.newSetFromMap(new IdentityHashMap<>());
+		int nextToStage = 0;
+
+		while (nextToStage < processors.size()) {
+			final List<ChangeSetProcessor> wave = newArrayList();
+			for (ChangeSetProcessor processor : processors) {
+				if (!processed.contains(processor) && staged.containsAll(dependencies.get(processor))) {
+					wave.add(processor);
+				}
+			}
+			// the first processor that is not staged yet only depends on already staged processors
+			checkState(!wave.isEmpty(), "No processor can be executed in change set processor pipeline.");
+
+			runWave(wave, staging, index, executor, log);
+			processed.addAll(wave);
+
+			while (nextToStage < processors.size() && processed.contains(processors.get(nextToStage))) {
+				final ChangeSetProcessor processor = processors.get(nextToStage++);
+				stage(processor, staging);
+				staged.add(processor);
+			}
+		}
+	}
+
+	private void runWave(List<ChangeSetProcessor> wave, StagingArea staging, RevisionSearcher index, ListeningExecutorService executor, Logger log) throws IOException {
+		if (wave.size() == 1) {
+			final ChangeSetProcessor processor = wave.get(0);
+			log.trace("Collecting {}...", processor.description());
+			processor.process(staging, index);
+			return;
+		}
+
+		final List<ListenableFuture<Void>> futures = newArrayListWithCapacity(wave.size());
+		try {
+			for (ChangeSetProcessor processor : wave) {
+				futures.add(executor.submit(() -> {
+					log.trace("Collecting {}...", processor.description());
+					processor.process(staging, index);
+					return null;
+				}));
+			}
+			Futures.allAsList(futures).get();
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			Throwables.propagateIfPossible(e.getCause(), IOException.class);
+			throw new SnowowlRuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new SnowowlRuntimeException(e);
+		}
+	}
+
+	private void stage(ChangeSetProcessor processor, StagingArea staging) {
+		// register additions, deletions from the sub processor
+		for (RevisionDocument revision : processor.getNewMappings().values()) {
+			staging.stageNew(revision);
+		}
+
+		for (RevisionDocumentChange revisionChange : processor.getChangedMappings().values()) {
+			staging.stageChange(revisionChange.getOldRevision(), revisionChange.getNewRevision());
+		}
+
+		processor.getDeletions().forEach(staging::stageRemove);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Creates a pipeline where each processor depends on the previous one, so they are executed one after another.
+	 *
+	 * @param processors
+	 * @return
+	 */
+	public static ChangeSetProcessorPipeline sequential(Iterable<? extends ChangeSetProcessor> processors) {
+		final Builder builder = builder();
+		ChangeSetProcessor previous = null;
+		for (ChangeSetProcessor processor : processors) {
+			if (previous == null) {
+				builder.add(processor);
+			} else {
+				builder.add(processor, previous);
+			}
+			previous = processor;
+		}
+		return builder.build();
+	}
+
+	public static final class Builder {
+
+		private final ImmutableList.Builder<ChangeSetProcessor> processors = ImmutableList.builder();
+		private final Map<ChangeSetProcessor, Set<ChangeSetProcessor>> dependencies = new IdentityHashMap<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Adds a processor to the pipeline.
+		 *
+		 * @param processor
+		 *            - the processor to add
+		 * @param dependencies
+		 *            - the already added processors, whose staged results are read by the processor
+		 * @return this builder
+		 */
+		public Builder add(ChangeSetProcessor processor, ChangeSetProcessor... dependencies) {
+			checkArgument(!this.dependencies.containsKey(processor), "Processor '%s' has already been added to the pipeline.", processor.description());
+			for (ChangeSetProcessor dependency : dependencies) {
+				checkArgument(this.dependencies.containsKey(dependency), "Dependency '%s' of processor '%s' has to be added to the pipeline first.",
+						dependency.description(), processor.description());
+			}
+			final Set<ChangeSetProcessor> processorDependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+			Collections.addAll(processorDependencies, dependencies);
+			this.dependencies.put(processor, processorDependencies);
+			this.processors.add(processor);
+			return this;
+		}
+
+		/**
+		 * Adds a processor to the pipeline.
+		 *
+		 * @param processor
+		 *            - the processor to add
+		 * @param dependencies
+		 *            - the already added processors, whose staged results are read by the processor
+		 * @return this builder
+		 */
+		public Builder add(ChangeSetProcessor processor, Iterable<? extends ChangeSetProcessor> dependencies) {
+			return add(processor, ImmutableSet.copyOf(dependencies).toArray(new ChangeSetProcessor[0]));
+		}
+
+		public ChangeSetProcessorPipeline build() {
+			return new ChangeSetProcessorPipeline(processors.build(), new IdentityHashMap<>(dependencies));
+		}
+
+	}
+
+}
@@ -34,7 +34,7 @@ public final class LockPlugin extends Plugin {
 	@Override
 	public void preRun(SnowOwlConfiguration configuration, Environment env) throws Exception {
 		if (env.isServer() || env.isEmbedded()) {
-			final DatastoreOperationLockManager lockManager = new DatastoreOperationLockManager();
+			final StripedDatastoreOperationLockManager lockManager = new StripedDatastoreOperationLockManager();
 			final RemoteLockTargetListener remoteLockTargetListener = new RemoteLockTargetListener();
 			lockManager.addLockTargetListener(new Slf4jOperationLockTargetListener());
 			lockManager.addLockTargetListener(remoteLockTargetListener);
@@ -50,7 +50,7 @@ public final class LockPlugin extends Plugin {
 			});
 			env.services().registerService(IDatastoreOperationLockManager.class, lockManager);
 			final RpcSession session = RpcUtil.getInitialServerSession(env.container());
-			session.registerClassLoader(IDatastoreOperationLockManager.class, DatastoreOperationLockManager.class.getClassLoader());
+			session.registerClassLoader(IDatastoreOperationLockManager.class, StripedDatastoreOperationLockManager.class.getClassLoader());
 		}
 		
 		if (!env.isEmbedded()) {
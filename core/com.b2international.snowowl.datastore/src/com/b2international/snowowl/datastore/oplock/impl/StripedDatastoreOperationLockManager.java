@@ -0,0 +1,908 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.oplock.impl;
+
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.core.runtime.ListenerList;
+
+import com.b2international.snowowl.core.IDisposableService;
+import com.b2international.snowowl.core.api.IBranchPath;
+import com.b2international.snowowl.datastore.oplock.IOperationLock;
+import com.b2international.snowowl.datastore.oplock.IOperationLockTarget;
+import com.b2international.snowowl.datastore.oplock.IOperationLockTargetListener;
+import com.b2international.snowowl.datastore.oplock.OperationLockException;
+import com.b2international.snowowl.datastore.oplock.OperationLockInfo;
+import com.b2international.snowowl.datastore.oplock.ReentrantOperationLock;
+import com.b2international.snowowl.identity.domain.User;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Controls cross-cutting exclusive write access to the terminology stores, similarly to {@link DatastoreOperationLockManager}, but without a
+ * single monitor shared by all lock requests.
+ * <p>
+ * Granted locks are indexed by repository and branch path. Each repository has its own stripe, guarded by a separate mutex, so requests for
+ * branches of different repositories never contend with each other, and a request for a branch is only checked against the lock of the same
+ * branch, the lock of its repository and the {@link AllRepositoriesLockTarget all repositories} lock instead of all granted locks. Requests that
+ * span more than one repository, or target all repositories or an unknown target type, are evaluated exclusively, against all granted locks.
+ * <p>
+ * Blocked requests wait in first-in-first-out queues of the requested targets. When a lock is released, only the waiter at the head of each
+ * affected queue is woken up. If the lock manager is fair, the target is also handed off to the woken up waiter: new requests for the same
+ * target are refused until the waiter had a chance to acquire it. A woken up waiter which is still blocked by one of its other targets passes
+ * the free targets on to the next waiter of their queues. Requests that are {@link DatastoreLockContext#isCompatible(DatastoreLockContext) compatible} with the current owner of
+ * a target (nested operations) are granted immediately, as in {@link DatastoreOperationLockManager}.
+ * <p>
+ * This implementation unlocks all held locks on disposal.
+ *
+ * @since 7.1
+ */
+public class StripedDatastoreOperationLockManager implements IDatastoreOperationLockManager, IDisposableService {
+
+	private static final String ACQUIRE_FAILED_MESSAGE = "Could not acquire requested lock(s).";
+
+	private static final String RELEASE_FAILED_MESSAGE = "Could not release requested lock(s).";
+
+	private static final String LOCK_NOT_HELD_MESSAGE = "Can''t release lock for {0} because it is not held.";
+
+	private static final String LOCK_EXISTS_BUT_NOT_HELD_MESSAGE = "Lock for target {0} exists, but no lock is held.";
+
+	private static final int EXPECTED_LOCKS = 128;
+
+	/**
+	 * Snapshot of the wait time statistics of a lock manager.
+	 */
+	public static final class WaitStatistics {
+
+		private final long immediateAcquisitions;
+		private final long delayedAcquisitions;
+		private final long failedAcquisitions;
+		private final long totalWaitMillis;
+		private final long maxWaitMillis;
+
+		private WaitStatistics(long immediateAcquisitions, long delayedAcquisitions, long failedAcquisitions, long totalWaitMillis, long maxWaitMillis) {
+			this.immediateAcquisitions = immediateAcquisitions;
+			this.delayedAcquisitions = delayedAcquisitions;
+			this.failedAcquisitions = failedAcquisitions;
+			this.totalWaitMillis = totalWaitMillis;
+			this.maxWaitMillis = maxWaitMillis;
+		}
+
+		/**
+		 * @return the number of lock requests granted without waiting
+		 */
+		public long getImmediateAcquisitions() {
+			return immediateAcquisitions;
+		}
+
+		/**
+		 * @return the number of lock requests granted after waiting for other locks to be released
+		 */
+		public long getDelayedAcquisitions() {
+			return delayedAcquisitions;
+		}
+
+		/**
+		 * @return the number of lock requests refused because of a conflict or an exceeded timeout
+		 */
+		public long getFailedAcquisitions() {
+			return failedAcquisitions;
+		}
+
+		/**
+		 * @return the total time spent waiting by lock requests, in milliseconds
+		 */
+		public long getTotalWaitMillis() {
+			return totalWaitMillis;
+		}
+
+		/**
+		 * @return the longest time a single lock request spent waiting, in milliseconds
+		 */
+		public long getMaxWaitMillis() {
+			return maxWaitMillis;
+		}
+
+		/**
+		 * @return the average time spent waiting by lock requests that had to wait, in milliseconds
+		 */
+		public long getAverageWaitMillis() {
+			final long waits = delayedAcquisitions + failedAcquisitions;
+			return waits == 0L ? 0L : totalWaitMillis / waits;
+		}
+
+		@Override
+		public String toString() {
+			return MessageFormat.format("immediate: {0}, delayed: {1}, failed: {2}, average wait: {3} ms, max wait: {4} ms",
+					immediateAcquisitions, delayedAcquisitions, failedAcquisitions, getAverageWaitMillis(), maxWaitMillis);
+		}
+	}
+
+	/**
+	 * A blocked lock request. Waiters are signalled individually instead of waking up all blocked requests.
+	 */
+	private static final class Waiter {
+
+		private final DatastoreLockContext context;
+		private final Semaphore signal = new Semaphore(0);
+		private boolean queued;
+		private boolean waited;
+		private boolean handedOff;
+
+		private Waiter(DatastoreLockContext context) {
+			this.context = context;
+		}
+
+		private void signal() {
+			handedOff = true;
+			if (signal.availablePermits() == 0) {
+				signal.release();
+			}
+		}
+
+		private void await(long timeoutMillis) throws InterruptedException {
+			if (NO_TIMEOUT == timeoutMillis) {
+				signal.acquire();
+			} else {
+				signal.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+			}
+			// Collapse any additional signals that arrived in the meantime
+			signal.drainPermits();
+		}
+	}
+
+	/**
+	 * Granted locks and wait queues of a single repository.
+	 */
+	private static final class Stripe {
+
+		private final Lock mutex = new ReentrantLock();
+		private final IOperationLockTarget repositoryTarget;
+		private IOperationLock<DatastoreLockContext> repositoryLock;
+		private final Map<IBranchPath, IOperationLock<DatastoreLockContext>> branchLocks = Maps.newHashMap();
+		private final Map<IOperationLockTarget, Deque<Waiter>> waitQueues = Maps.newHashMap();
+
+		private void collectLocks(Collection<IOperationLock<DatastoreLockContext>> locks) {
+			if (repositoryLock != null) {
+				locks.add(repositoryLock);
+			}
+			locks.addAll(branchLocks.values());
+		}
+
+		private Stripe(String repositoryUuid) {
+			this.repositoryTarget = new SingleRepositoryLockTarget(repositoryUuid);
+		}
+
+		private boolean isEmpty() {
+			return repositoryLock == null && branchLocks.isEmpty() && waitQueues.isEmpty();
+		}
+
+		private void signalHead(IOperationLockTarget target) {
+			final Deque<Waiter> waitQueue = waitQueues.get(target);
+			if (waitQueue != null) {
+				waitQueue.peekFirst().signal();
+			}
+		}
+
+		private void signalNext(IOperationLockTarget target, Waiter waiter) {
+			final Deque<Waiter> waitQueue = waitQueues.get(target);
+			if (waitQueue != null) {
+				final Iterator<Waiter> itr = waitQueue.iterator();
+				while (itr.hasNext()) {
+					if (itr.next() == waiter) {
+						if (itr.hasNext()) {
+							itr.next().signal();
+						}
+						return;
+					}
+				}
+			}
+		}
+
+		private void signalHeads() {
+			for (final Deque<Waiter> waitQueue : waitQueues.values()) {
+				waitQueue.peekFirst().signal();
+			}
+		}
+	}
+
+	private final boolean fair;
+
+	private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+	/*
+	 * Lock requests limited to a single repository hold the read lock and the mutex of the repository's stripe; all other requests, and
+	 * administrative operations hold the write lock.
+	 */
+	private final ReentrantReadWriteLock globalLock = new ReentrantReadWriteLock();
+
+	private final ConcurrentMap<String, Stripe> stripes = new ConcurrentHashMap<>();
+
+	// Locks of targets which do not belong to a single repository; modified only while holding the write lock
+	private final Map<IOperationLockTarget, IOperationLock<DatastoreLockContext>> globalLocks = Maps.newHashMap();
+
+	private final Collection<Waiter> globalWaiters = new ConcurrentLinkedQueue<>();
+
+	private final ListenerList listenerList = new ListenerList();
+
+	private final BitSet assignedIds = new BitSet(EXPECTED_LOCKS);
+
+	private int lastAssignedId = 0;
+
+	private final LongAdder immediateAcquisitions = new LongAdder();
+	private final LongAdder delayedAcquisitions = new LongAdder();
+	private final LongAdder failedAcquisitions = new LongAdder();
+	private final LongAdder totalWaitMillis = new LongAdder();
+	private final AtomicLong maxWaitMillis = new AtomicLong();
+
+	/**
+	 * Creates a new lock manager which hands off released targets to waiting requests in arrival order.
+	 */
+	public StripedDatastoreOperationLockManager() {
+		this(true);
+	}
+
+	/**
+	 * Creates a new lock manager.
+	 *
+	 * @param fair {@code true} if released targets should be handed off to waiting requests in arrival order, {@code false} if new requests
+	 *        may acquire a free target before the woken up waiter does (higher throughput if locks are held only briefly, but waiting requests
+	 *        may starve)
+	 */
+	public StripedDatastoreOperationLockManager(final boolean fair) {
+		this.fair = fair;
+	}
+
+	@Override
+	public void lock(final DatastoreLockContext context, final long timeoutMillis, final IOperationLockTarget firstTarget, final IOperationLockTarget... restTargets) throws OperationLockException, InterruptedException {
+		lock(context, timeoutMillis, Lists.asList(firstTarget, restTargets));
+	}
+
+	@Override
+	public void lock(final DatastoreLockContext context, final long timeoutMillis, final Iterable<? extends IOperationLockTarget> targets) throws OperationLockException, InterruptedException {
+
+		final List<IOperationLockTarget> targetsToLock = ImmutableList.copyOf(targets);
+		final String repositoryUuid = getSingleRepositoryUuid(targetsToLock);
+		final Map<IOperationLockTarget, DatastoreLockContext> alreadyLockedTargets = Maps.newHashMap();
+		final Waiter waiter = new Waiter(context);
+		// Requests which fail immediately do not need to wait in line
+		final boolean enqueue = IMMEDIATE != timeoutMillis;
+		final long startTimeMillis = getCurrentTimeMillis();
+
+		while (true) {
+
+			checkNotDisposed(targetsToLock);
+			alreadyLockedTargets.clear();
+
+			if (repositoryUuid != null) {
+				tryLock(repositoryUuid, waiter, targetsToLock, enqueue, alreadyLockedTargets);
+			} else {
+				tryLockExclusively(waiter, targetsToLock, enqueue, alreadyLockedTargets);
+			}
+
+			final long waitMillis = getCurrentTimeMillis() - startTimeMillis;
+
+			if (alreadyLockedTargets.isEmpty()) {
+				recordAcquisition(waiter, waitMillis);
+				return;
+			}
+
+			final long remainingTimeoutMillis = timeoutMillis - waitMillis;
+
+			if (NO_TIMEOUT != timeoutMillis && remainingTimeoutMillis < 1L) {
+				dequeue(repositoryUuid, waiter, targetsToLock);
+				recordFailure(waitMillis);
+				throw new DatastoreOperationLockException(ACQUIRE_FAILED_MESSAGE, alreadyLockedTargets);
+			}
+
+			try {
+				waiter.await(NO_TIMEOUT == timeoutMillis ? NO_TIMEOUT : remainingTimeoutMillis);
+			} catch (final InterruptedException e) {
+				dequeue(repositoryUuid, waiter, targetsToLock);
+				recordFailure(getCurrentTimeMillis() - startTimeMillis);
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public void unlock(final DatastoreLockContext context, final IOperationLockTarget firstTarget, final IOperationLockTarget... restTargets) throws OperationLockException {
+		unlock(context, Lists.asList(firstTarget, restTargets));
+	}
+
+	@Override
+	public void unlock(final DatastoreLockContext context, final Iterable<? extends IOperationLockTarget> targets) throws OperationLockException {
+
+		final List<IOperationLockTarget> targetsToUnlock = ImmutableList.copyOf(targets);
+		final String repositoryUuid = getSingleRepositoryUuid(targetsToUnlock);
+
+		if (repositoryUuid != null) {
+			globalLock.readLock().lock();
+			final Stripe stripe = getStripe(repositoryUuid);
+			stripe.mutex.lock();
+			try {
+				release(context, targetsToUnlock);
+			} finally {
+				signalWaiters(stripe, targetsToUnlock);
+				stripe.mutex.unlock();
+				globalLock.readLock().unlock();
+			}
+		} else {
+			globalLock.writeLock().lock();
+			try {
+				release(context, targetsToUnlock);
+			} finally {
+				signalAllWaiters();
+				globalLock.writeLock().unlock();
+			}
+		}
+
+		signalGlobalWaiters();
+	}
+
+	/**
+	 * (non-API)
+	 * <p>
+	 * Releases all lock targets tracked by this lock manager.
+	 */
+	public void unlockAll() {
+		globalLock.writeLock().lock();
+		try {
+			for (final IOperationLock<DatastoreLockContext> lockToRemove : getAllGrantedLocks()) {
+				if (!lockToRemove.isLocked()) {
+					throw new IllegalStateException(MessageFormat.format(LOCK_EXISTS_BUT_NOT_HELD_MESSAGE, lockToRemove.getTarget()));
+				} else {
+					removeLock(lockToRemove);
+				}
+			}
+		} finally {
+			signalAllWaiters();
+			globalLock.writeLock().unlock();
+		}
+
+		signalGlobalWaiters();
+	}
+
+	/**
+	 * (non-API)
+	 * <p>
+	 * Forces lock removal for the target with the specified identifier.
+	 *
+	 * @param id the lock identifier to forcefully unlock
+	 * @return {@code true} if a lock with the given identifier was found and removed, {@code false} otherwise
+	 */
+	public boolean unlockById(final int id) {
+		globalLock.writeLock().lock();
+		try {
+			for (final IOperationLock<DatastoreLockContext> lockToRemove : getAllGrantedLocks()) {
+				if (!lockToRemove.isLocked()) {
+					throw new IllegalStateException(MessageFormat.format(LOCK_EXISTS_BUT_NOT_HELD_MESSAGE, lockToRemove.getTarget()));
+				}
+
+				if (id == lockToRemove.getId()) {
+					removeLock(lockToRemove);
+					signalAllWaiters();
+					signalGlobalWaiters();
+					return true;
+				}
+			}
+		} finally {
+			globalLock.writeLock().unlock();
+		}
+
+		return false;
+	}
+
+	/**
+	 * (non-API)
+	 * <p>
+	 * Collects a snapshot of currently granted locks.
+	 * <p>
+	 * @return a list of granted locks information objects, sorted by lock identifer (never {@code null})
+	 */
+	public List<OperationLockInfo<DatastoreLockContext>> getLocks() {
+
+		final List<OperationLockInfo<DatastoreLockContext>> result = Lists.newArrayList();
+
+		globalLock.writeLock().lock();
+		try {
+			for (final IOperationLock<DatastoreLockContext> existingLock : getAllGrantedLocks()) {
+				result.add(new OperationLockInfo<DatastoreLockContext>(existingLock.getId(), existingLock.getLevel(),
+						existingLock.getCreationDate(), existingLock.getTarget(), existingLock.getContext()));
+			}
+		} finally {
+			globalLock.writeLock().unlock();
+		}
+
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * (non-API)
+	 * <p>
+	 * @return a snapshot of the wait time statistics collected since this lock manager was created
+	 */
+	public WaitStatistics getWaitStatistics() {
+		return new WaitStatistics(immediateAcquisitions.sum(),
+				delayedAcquisitions.sum(),
+				failedAcquisitions.sum(),
+				totalWaitMillis.sum(),
+				maxWaitMillis.get());
+	}
+
+	public void addLockTargetListener(final IOperationLockTargetListener<DatastoreLockContext> listener) {
+		listenerList.add(listener);
+	}
+
+	public void removeLockTargetListener(final IOperationLockTargetListener<DatastoreLockContext> listener) {
+		listenerList.remove(listener);
+	}
+
+	@Override
+	public void dispose() {
+		if (disposed.compareAndSet(false, true)) {
+			unlockAll();
+			listenerList.clear();
+		}
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return disposed.get();
+	}
+
+	private void checkNotDisposed(final List<IOperationLockTarget> targets) {
+		if (isDisposed()) {
+			final DatastoreLockContext disposedContext = new DatastoreLockContext(User.SYSTEM.getUsername(), DatastoreLockContextDescriptions.DISPOSE_LOCK_MANAGER);
+			final Map<IOperationLockTarget, DatastoreLockContext> alreadyLockedTargets = Maps.newHashMap();
+			for (final IOperationLockTarget target : targets) {
+				alreadyLockedTargets.put(target, disposedContext);
+			}
+
+			throw new DatastoreOperationLockException(ACQUIRE_FAILED_MESSAGE, alreadyLockedTargets);
+		}
+	}
+
+	private void tryLock(final String repositoryUuid, final Waiter waiter, final List<IOperationLockTarget> targets, final boolean enqueue, final Map<IOperationLockTarget, DatastoreLockContext> alreadyLockedTargets) {
+		globalLock.readLock().lock();
+		final Stripe stripe = getStripe(repositoryUuid);
+		stripe.mutex.lock();
+		try {
+
+			for (final IOperationLockTarget newTarget : targets) {
+				final List<IOperationLock<DatastoreLockContext>> overlappingLocks = getOverlappingLocks(stripe, newTarget);
+
+				for (final IOperationLock<DatastoreLockContext> existingLock : overlappingLocks) {
+					if (!canContextLock(waiter.context, existingLock)) {
+						alreadyLockedTargets.put(newTarget, existingLock.getContext());
+					}
+				}
+
+				/*
+				 * If the target is free, but it has been handed off to a waiter, the waiter goes first. Nested requests for a target held by a
+				 * compatible context can not be queued behind other waiters, as those are waiting for the outer request to complete.
+				 */
+				if (fair && overlappingLocks.isEmpty()) {
+					final Waiter handedOffWaiter = getHandedOffWaiter(stripe, newTarget, waiter);
+					if (handedOffWaiter != null) {
+						alreadyLockedTargets.put(newTarget, handedOffWaiter.context);
+					}
+				}
+			}
+
+			if (alreadyLockedTargets.isEmpty()) {
+				for (final IOperationLockTarget newTarget : targets) {
+					acquire(stripe, newTarget, waiter.context);
+				}
+				removeWaiter(stripe, waiter, targets);
+			} else {
+				// The waiter could not use the targets handed off to it, others may acquire them until it is signalled again
+				final boolean signalled = waiter.handedOff;
+				waiter.handedOff = false;
+				if (signalled && waiter.queued) {
+					/*
+					 * Targets which are free for the waiter, but can not be acquired because of its other targets, are passed on to the next
+					 * waiter of the target's queue, so the waiter does not hold up requests behind it while it is blocked elsewhere.
+					 */
+					for (final IOperationLockTarget newTarget : targets) {
+						if (!alreadyLockedTargets.containsKey(newTarget)) {
+							stripe.signalNext(newTarget, waiter);
+						}
+					}
+				}
+				if (enqueue && !waiter.queued) {
+					for (final IOperationLockTarget newTarget : targets) {
+						stripe.waitQueues.computeIfAbsent(newTarget, key -> new ArrayDeque<>()).addLast(waiter);
+					}
+					waiter.queued = true;
+					waiter.waited = true;
+				}
+			}
+
+		} finally {
+			stripe.mutex.unlock();
+			globalLock.readLock().unlock();
+		}
+	}
+
+	private void tryLockExclusively(final Waiter waiter, final List<IOperationLockTarget> targets, final boolean enqueue, final Map<IOperationLockTarget, DatastoreLockContext> alreadyLockedTargets) {
+		globalLock.writeLock().lock();
+		try {
+
+			final List<IOperationLock<DatastoreLockContext>> existingLocks = getAllGrantedLocks();
+			for (final IOperationLockTarget newTarget : targets) {
+				for (final IOperationLock<DatastoreLockContext> existingLock : existingLocks) {
+					if (existingLock.targetConflicts(newTarget) && !canContextLock(waiter.context, existingLock)) {
+						alreadyLockedTargets.put(newTarget, existingLock.getContext());
+					}
+				}
+			}
+
+			if (alreadyLockedTargets.isEmpty()) {
+				for (final IOperationLockTarget newTarget : targets) {
+					final String repositoryUuid = getRepositoryUuid(newTarget);
+					if (repositoryUuid != null) {
+						acquire(getStripe(repositoryUuid), newTarget, waiter.context);
+					} else {
+						final IOperationLock<DatastoreLockContext> existingLock = globalLocks.computeIfAbsent(newTarget, this::createLock);
+						existingLock.acquire(waiter.context);
+						fireTargetAcquired(existingLock.getTarget(), waiter.context);
+					}
+				}
+				globalWaiters.remove(waiter);
+				waiter.queued = false;
+			} else if (enqueue && !waiter.queued) {
+				globalWaiters.add(waiter);
+				waiter.queued = true;
+				waiter.waited = true;
+			}
+
+		} finally {
+			globalLock.writeLock().unlock();
+		}
+	}
+
+	private void release(final DatastoreLockContext context, final List<IOperationLockTarget> targets) {
+
+		final Map<IOperationLockTarget, DatastoreLockContext> notUnlockedTargets = Maps.newHashMap();
+
+		for (final IOperationLockTarget targetToUnlock : targets) {
+			final IOperationLock<DatastoreLockContext> existingLock = getExistingLock(targetToUnlock);
+			if (existingLock != null && !canContextUnlock(context, existingLock)) {
+				notUnlockedTargets.put(existingLock.getTarget(), existingLock.getContext());
+			}
+		}
+
+		if (!notUnlockedTargets.isEmpty()) {
+			throw new DatastoreOperationLockException(RELEASE_FAILED_MESSAGE, notUnlockedTargets);
+		}
+
+		for (final IOperationLockTarget targetToUnlock : targets) {
+
+			final IOperationLock<DatastoreLockContext> existingLock = getExistingLock(targetToUnlock);
+			if (existingLock == null) {
+				throw new OperationLockException(MessageFormat.format(LOCK_NOT_HELD_MESSAGE, targetToUnlock));
+			}
+
+			try {
+				existingLock.release(context);
+				fireTargetReleased(existingLock.getTarget(), context);
+			} finally {
+				if (!existingLock.isLocked()) {
+					removeLock(existingLock);
+				}
+			}
+		}
+	}
+
+	private boolean canContextLock(final DatastoreLockContext context, final IOperationLock<DatastoreLockContext> existingLock) {
+		return context.isCompatible(existingLock.getContext());
+	}
+
+	private boolean canContextUnlock(final DatastoreLockContext context, final IOperationLock<DatastoreLockContext> existingLock) {
+		return context.userMatches(existingLock.getContext());
+	}
+
+	/*
+	 * Returns the granted locks conflicting with the given target of the stripe's repository: the lock of the same branch, the lock of the
+	 * repository, all branch locks if the repository itself is requested, and the locks of targets not belonging to a single repository.
+	 */
+	private List<IOperationLock<DatastoreLockContext>> getOverlappingLocks(final Stripe stripe, final IOperationLockTarget target) {
+		final List<IOperationLock<DatastoreLockContext>> overlappingLocks = Lists.newArrayList();
+
+		for (final IOperationLock<DatastoreLockContext> existingLock : globalLocks.values()) {
+			if (existingLock.targetConflicts(target)) {
+				overlappingLocks.add(existingLock);
+			}
+		}
+
+		if (target instanceof SingleRepositoryAndBranchLockTarget) {
+			if (stripe.repositoryLock != null) {
+				overlappingLocks.add(stripe.repositoryLock);
+			}
+			final IOperationLock<DatastoreLockContext> branchLock = stripe.branchLocks.get(((SingleRepositoryAndBranchLockTarget) target).getBranchPath());
+			if (branchLock != null) {
+				overlappingLocks.add(branchLock);
+			}
+		} else {
+			stripe.collectLocks(overlappingLocks);
+		}
+
+		return overlappingLocks;
+	}
+
+	private Waiter getHandedOffWaiter(final Stripe stripe, final IOperationLockTarget target, final Waiter waiter) {
+		final Deque<Waiter> waitQueue = stripe.waitQueues.get(target);
+		if (waitQueue == null) {
+			return null;
+		}
+
+		// Only waiters ahead of the requesting one in the queue go first; the head may have passed the target on if it is blocked elsewhere
+		for (final Waiter queuedWaiter : waitQueue) {
+			if (queuedWaiter == waiter) {
+				return null;
+			} else if (queuedWaiter.handedOff) {
+				return queuedWaiter;
+			}
+		}
+
+		return null;
+	}
+
+	private void acquire(final Stripe stripe, final IOperationLockTarget target, final DatastoreLockContext context) {
+		final IOperationLock<DatastoreLockContext> existingLock;
+
+		if (target instanceof SingleRepositoryAndBranchLockTarget) {
+			existingLock = stripe.branchLocks.computeIfAbsent(((SingleRepositoryAndBranchLockTarget) target).getBranchPath(), key -> createLock(target));
+		} else {
+			if (stripe.repositoryLock == null) {
+				stripe.repositoryLock = createLock(target);
+			}
+			existingLock = stripe.repositoryLock;
+		}
+
+		existingLock.acquire(context);
+		fireTargetAcquired(existingLock.getTarget(), context);
+	}
+
+	private IOperationLock<DatastoreLockContext> getExistingLock(final IOperationLockTarget target) {
+		final String repositoryUuid = getRepositoryUuid(target);
+		if (repositoryUuid == null) {
+			return globalLocks.get(target);
+		}
+
+		final Stripe stripe = stripes.get(repositoryUuid);
+		if (stripe == null) {
+			return null;
+		} else if (target instanceof SingleRepositoryAndBranchLockTarget) {
+			return stripe.branchLocks.get(((SingleRepositoryAndBranchLockTarget) target).getBranchPath());
+		} else {
+			return stripe.repositoryLock;
+		}
+	}
+
+	private IOperationLock<DatastoreLockContext> createLock(final IOperationLockTarget target) {
+		synchronized (assignedIds) {
+			final int id = assignedIds.nextClearBit(lastAssignedId);
+			assignedIds.set(id);
+			lastAssignedId = id % EXPECTED_LOCKS;
+			return new ReentrantOperationLock<DatastoreLockContext>(id, target);
+		}
+	}
+
+	private void removeLock(final IOperationLock<DatastoreLockContext> existingLock) {
+		final IOperationLockTarget target = existingLock.getTarget();
+		final String repositoryUuid = getRepositoryUuid(target);
+
+		final boolean removed;
+		if (repositoryUuid == null) {
+			removed = globalLocks.remove(target, existingLock);
+		} else {
+			final Stripe stripe = stripes.get(repositoryUuid);
+			if (stripe == null) {
+				removed = false;
+			} else if (target instanceof SingleRepositoryAndBranchLockTarget) {
+				removed = stripe.branchLocks.remove(((SingleRepositoryAndBranchLockTarget) target).getBranchPath(), existingLock);
+			} else if (stripe.repositoryLock == existingLock) {
+				stripe.repositoryLock = null;
+				removed = true;
+			} else {
+				removed = false;
+			}
+		}
+
+		if (removed) {
+			synchronized (assignedIds) {
+				assignedIds.clear(existingLock.getId());
+			}
+			for (final DatastoreLockContext context : existingLock.getAllContexts()) {
+				fireTargetReleased(target, context);
+			}
+		}
+	}
+
+	// Requires the write lock
+	private List<IOperationLock<DatastoreLockContext>> getAllGrantedLocks() {
+		final List<IOperationLock<DatastoreLockContext>> locks = Lists.newArrayList(globalLocks.values());
+		for (final Stripe stripe : stripes.values()) {
+			stripe.collectLocks(locks);
+		}
+		return locks;
+	}
+
+	private Stripe getStripe(final String repositoryUuid) {
+		return stripes.computeIfAbsent(repositoryUuid, Stripe::new);
+	}
+
+	private void dequeue(final String repositoryUuid, final Waiter waiter, final List<IOperationLockTarget> targets) {
+		if (repositoryUuid != null) {
+			globalLock.readLock().lock();
+			final Stripe stripe = getStripe(repositoryUuid);
+			stripe.mutex.lock();
+			try {
+				removeWaiter(stripe, waiter, targets);
+			} finally {
+				stripe.mutex.unlock();
+				globalLock.readLock().unlock();
+			}
+		} else {
+			globalWaiters.remove(waiter);
+		}
+	}
+
+	// Removes a waiter from its queues, and lets the next waiter of each queue know that it may be able to proceed
+	private void removeWaiter(final Stripe stripe, final Waiter waiter, final List<IOperationLockTarget> targets) {
+		if (!waiter.queued) {
+			return;
+		}
+
+		for (final IOperationLockTarget target : targets) {
+			final Deque<Waiter> waitQueue = stripe.waitQueues.get(target);
+			if (waitQueue == null) {
+				continue;
+			}
+
+			waitQueue.remove(waiter);
+			if (waitQueue.isEmpty()) {
+				stripe.waitQueues.remove(target);
+			} else {
+				waitQueue.peekFirst().signal();
+			}
+		}
+
+		waiter.queued = false;
+	}
+
+	// Wakes up the first waiter of each queue with a target overlapping the released ones
+	private void signalWaiters(final Stripe stripe, final List<IOperationLockTarget> releasedTargets) {
+		if (stripe.waitQueues.isEmpty()) {
+			return;
+		}
+
+		for (final IOperationLockTarget releasedTarget : releasedTargets) {
+			if (releasedTarget instanceof SingleRepositoryAndBranchLockTarget) {
+				stripe.signalHead(releasedTarget);
+				stripe.signalHead(stripe.repositoryTarget);
+			} else {
+				stripe.signalHeads();
+				return;
+			}
+		}
+	}
+
+	// Requires the write lock
+	private void signalAllWaiters() {
+		final Iterator<Stripe> itr = stripes.values().iterator();
+		while (itr.hasNext()) {
+			final Stripe stripe = itr.next();
+			stripe.signalHeads();
+			if (stripe.isEmpty()) {
+				itr.remove();
+			}
+		}
+	}
+
+	private void signalGlobalWaiters() {
+		for (final Waiter waiter : globalWaiters) {
+			waiter.signal();
+		}
+	}
+
+	private void recordAcquisition(final Waiter waiter, final long waitMillis) {
+		if (!waiter.waited) {
+			immediateAcquisitions.increment();
+		} else {
+			delayedAcquisitions.increment();
+			recordWait(waitMillis);
+		}
+	}
+
+	private void recordFailure(final long waitMillis) {
+		failedAcquisitions.increment();
+		recordWait(waitMillis);
+	}
+
+	private void recordWait(final long waitMillis) {
+		totalWaitMillis.add(waitMillis);
+		maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void fireTargetAcquired(final IOperationLockTarget target, final DatastoreLockContext context) {
+		for (final Object listener : listenerList.getListeners()) {
+			((IOperationLockTargetListener<DatastoreLockContext>) listener).targetAcquired(target, context);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void fireTargetReleased(final IOperationLockTarget target, final DatastoreLockContext context) {
+		for (final Object listener : listenerList.getListeners()) {
+			((IOperationLockTargetListener<DatastoreLockContext>) listener).targetReleased(target, context);
+		}
+	}
+
+	private static String getSingleRepositoryUuid(final List<IOperationLockTarget> targets) {
+		String repositoryUuid = null;
+
+		for (final IOperationLockTarget target : targets) {
+			final String targetRepositoryUuid = getRepositoryUuid(target);
+			if (targetRepositoryUuid == null) {
+				return null;
+			} else if (repositoryUuid == null) {
+				repositoryUuid = targetRepositoryUuid;
+			} else if (!repositoryUuid.equals(targetRepositoryUuid)) {
+				return null;
+			}
+		}
+
+		return repositoryUuid;
+	}
+
+	private static String getRepositoryUuid(final IOperationLockTarget target) {
+		// Subclasses of the known repository targets may define additional conflicts, evaluate those exclusively
+		final Class<?> targetClass = target.getClass();
+		if (targetClass == SingleRepositoryLockTarget.class || targetClass == SingleRepositoryAndBranchLockTarget.class) {
+			return ((SingleRepositoryLockTarget) target).getRepositoryUuid();
+		} else {
+			return null;
+		}
+	}
+
+	private static long getCurrentTimeMillis() {
+		return System.nanoTime() / (1000L * 1000L);
+	}
+}
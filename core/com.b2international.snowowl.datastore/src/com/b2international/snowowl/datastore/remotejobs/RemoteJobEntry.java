@@ -51,6 +51,10 @@ import com.google.common.collect.ImmutableSet;
 		+ " ctx._source.state = params.newState; "
 		+ "}")
 @Script(name=RemoteJobEntry.WITH_COMPLETION_LEVEL, script="ctx._source.completionLevel = params.completionLevel")
+@Script(name=RemoteJobEntry.WITH_COMPLETION_LEVELS, script=""
+		+ "if (params.completionLevels[ctx._source.id] > ctx._source.completionLevel) {"
+		+ " ctx._source.completionLevel = params.completionLevels[ctx._source.id]; "
+		+ "}")
 @Script(name=RemoteJobEntry.WITH_RUNNING, script="ctx._source.state = params.state;ctx._source.startDate = params.startDate")
 @Script(name=RemoteJobEntry.WITH_DONE, script="ctx._source.state = params.state;ctx._source.finishDate = params.finishDate;ctx._source.result = params.result")
 public final class RemoteJobEntry implements Serializable {
@@ -58,6 +62,7 @@ public final class RemoteJobEntry implements Serializable {
 	public static final String WITH_STATE = "withState";
 	public static final String WITH_DELETED = "withDeleted";
 	public static final String WITH_COMPLETION_LEVEL = "withCompletionLevel";
+	public static final String WITH_COMPLETION_LEVELS = "withCompletionLevels";
 	public static final String WITH_RUNNING = "withRunning";
 	public static final String WITH_DONE = "withDone";
 
@@ -23,6 +23,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -62,8 +65,11 @@ public final class RemoteJobTracker implements IDisposableService {
 
 	private static final Logger LOG = LoggerFactory.getLogger("jobs");
 	
+	private static final long DEFAULT_PROGRESS_FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(1L);
+	
 	private static class Holder {
 		private static final Timer CLEANUP_TIMER = new Timer("Remote job cleanup", true);
+		private static final Timer PROGRESS_TIMER = new Timer("Remote job progress", true);
 	}
 	
 	private final class CleanUpTask extends TimerTask {
@@ -94,14 +100,33 @@ public final class RemoteJobTracker implements IDisposableService {
 		}
 	}
 	
+	private final class ProgressFlushTask extends TimerTask {
+		@Override
+		public void run() {
+			try {
+				flushProgress();
+			} catch (IllegalStateException e) {
+				cancel();
+			}
+		}
+	}
+	
 	private final AtomicBoolean disposed = new AtomicBoolean(false);
 	private final Index index;
 	private final RemoteJobChangeAdapter listener;
 	private final CleanUpTask cleanUp;
+	private final ProgressFlushTask progressFlush;
 	private final IEventBus events;
 	private final ObjectMapper mapper;
+	
+	// latest completion level of running jobs, not yet written to the index
+	private final ConcurrentMap<String, Integer> pendingCompletionLevels = new ConcurrentHashMap<>();
 
 	public RemoteJobTracker(Index index, IEventBus events, ObjectMapper mapper, final long remoteJobCleanUpInterval) {
+		this(index, events, mapper, remoteJobCleanUpInterval, DEFAULT_PROGRESS_FLUSH_INTERVAL);
+	}
+	
+	public RemoteJobTracker(Index index, IEventBus events, ObjectMapper mapper, final long remoteJobCleanUpInterval, final long progressFlushInterval) {
 		this.index = index;
 		this.events = events;
 		this.mapper = mapper;
@@ -126,6 +151,8 @@ public final class RemoteJobTracker implements IDisposableService {
 		Job.getJobManager().addJobChangeListener(listener);
 		this.cleanUp = new CleanUpTask();
 		Holder.CLEANUP_TIMER.schedule(cleanUp, remoteJobCleanUpInterval, remoteJobCleanUpInterval);
+		this.progressFlush = new ProgressFlushTask();
+		Holder.PROGRESS_TIMER.schedule(progressFlush, progressFlushInterval, progressFlushInterval);
 	}
 	
 	public RemoteJobs search(Expression query, int limit) {
@@ -138,7 +165,7 @@ public final class RemoteJobTracker implements IDisposableService {
 	}
 	
 	private Hits<RemoteJobEntry> searchHits(Expression query, List<String> fields, SortBy sortBy, int limit) {
-		return index.read(searcher -> {
+		final Hits<RemoteJobEntry> hits = index.read(searcher -> {
 			return searcher.search(
 					Query.select(RemoteJobEntry.class)
 					.fields(fields)
@@ -151,12 +178,29 @@ public final class RemoteJobTracker implements IDisposableService {
 					.build()
 					);
 		});
+		if (pendingCompletionLevels.isEmpty()) {
+			return hits;
+		}
+		final List<RemoteJobEntry> entries = FluentIterable.from(hits).transform(this::withPendingProgress).toList();
+		return new Hits<>(entries, hits.getScrollId(), hits.getSearchAfter(), hits.getLimit(), hits.getTotal());
 	}
 	
 	
 	@VisibleForTesting
 	public RemoteJobEntry get(String jobId) {
-		return index.read(searcher -> searcher.get(RemoteJobEntry.class, jobId));
+		return withPendingProgress(index.read(searcher -> searcher.get(RemoteJobEntry.class, jobId)));
+	}
+	
+	/*Returns the entry with the latest completion level reported by the job, if it is ahead of the indexed one*/
+	private RemoteJobEntry withPendingProgress(RemoteJobEntry entry) {
+		if (entry == null) {
+			return null;
+		}
+		final Integer completionLevel = pendingCompletionLevels.get(entry.getId());
+		if (completionLevel == null || completionLevel <= entry.getCompletionLevel()) {
+			return entry;
+		}
+		return RemoteJobEntry.from(entry).completionLevel(completionLevel).build();
 	}
 	
 	public void requestCancel(String jobId) {
@@ -183,6 +227,7 @@ public final class RemoteJobTracker implements IDisposableService {
 		}
 		// delete all other jobs, that dont need to be cancelled
 		final Set<String> remoteJobsToDelete = Sets.difference(Sets.newHashSet(jobIds), remoteJobsToCancel);
+		pendingCompletionLevels.keySet().removeAll(remoteJobsToDelete);
 		index.write(writer -> {
 			// if the job still running or scheduled, then mark it deleted and the done handler will delete it
 			LOG.trace("Deleting jobs {}", remoteJobsToDelete);
@@ -208,20 +253,55 @@ public final class RemoteJobTracker implements IDisposableService {
 		notifyAdded(jobId);
 	}
 	
+	/*Updates the state of a job, writing its pending progress (if any) in the same commit*/
 	private void update(String jobId, String script, Map<String, Object> params) {
+		final Integer completionLevel = pendingCompletionLevels.get(jobId);
 		index.write(writer -> {
+			if (completionLevel != null) {
+				writer.bulkUpdate(completionLevelUpdate(ImmutableMap.of(jobId, completionLevel)));
+			}
 			writer.bulkUpdate(new BulkUpdate<>(RemoteJobEntry.class, DocumentMapping.matchId(jobId), RemoteJobEntry.Fields.ID, script, params));
 			writer.commit();
 			return null;
 		});
+		if (completionLevel != null) {
+			pendingCompletionLevels.remove(jobId, completionLevel);
+		}
 		notifyChanged(jobId);
 	}
+	
+	/*Writes the latest progress of all jobs that reported progress since the last flush in a single commit*/
+	@VisibleForTesting
+	synchronized void flushProgress() {
+		if (pendingCompletionLevels.isEmpty()) {
+			return;
+		}
+		final Map<String, Integer> completionLevels = ImmutableMap.copyOf(pendingCompletionLevels);
+		index.write(writer -> {
+			writer.bulkUpdate(completionLevelUpdate(completionLevels));
+			writer.commit();
+			return null;
+		});
+		// keep entries that received a newer progress value in the meantime
+		completionLevels.forEach(pendingCompletionLevels::remove);
+		notifyChanged(completionLevels.keySet());
+	}
+	
+	private BulkUpdate<RemoteJobEntry> completionLevelUpdate(Map<String, Integer> completionLevels) {
+		return new BulkUpdate<>(RemoteJobEntry.class, 
+				RemoteJobEntry.Expressions.ids(completionLevels.keySet()), 
+				RemoteJobEntry.Fields.ID, 
+				RemoteJobEntry.WITH_COMPLETION_LEVELS, 
+				ImmutableMap.of("completionLevels", completionLevels));
+	}
 
 	@Override
 	public void dispose() {
 		if (disposed.compareAndSet(false, true)) {
 			this.cleanUp.cancel();
+			this.progressFlush.cancel();
 			Job.getJobManager().removeJobChangeListener(listener);
+			flushProgress();
 			this.index.admin().close();
 		}
 	}
@@ -239,12 +319,17 @@ public final class RemoteJobTracker implements IDisposableService {
 		RemoteJobNotification.changed(jobId).publish(events);
 	}
 	
+	private void notifyChanged(Set<String> jobIds) {
+		RemoteJobNotification.changed(jobIds).publish(events);
+	}
+	
 	private void notifyRemoved(Set<String> jobIds) {
 		RemoteJobNotification.removed(jobIds).publish(events);
 	}
 	
 	IProgressMonitor createMonitor(String jobId, IProgressMonitor monitor) {
-		return new RemoteJobProgressMonitor(monitor, percentComplete -> update(jobId, RemoteJobEntry.WITH_COMPLETION_LEVEL, ImmutableMap.of("completionLevel", percentComplete)));
+		// progress is kept in memory and written to the index periodically, or along with the next state change of the job
+		return new RemoteJobProgressMonitor(monitor, percentComplete -> pendingCompletionLevels.merge(jobId, percentComplete, Math::max));
 	}
 	
 	private class RemoteJobChangeAdapter extends JobChangeAdapter {
@@ -311,6 +396,7 @@ public final class RemoteJobTracker implements IDisposableService {
 				params.put("state", newState.name());
 				params.put("finishDate", System.currentTimeMillis());
 				update(jobId, RemoteJobEntry.WITH_DONE, params.build());
+				pendingCompletionLevels.remove(jobId);
 			}
 		}
 		
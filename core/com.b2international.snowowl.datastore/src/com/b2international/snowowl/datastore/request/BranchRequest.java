@@ -44,6 +44,11 @@ public final class BranchRequest<B> extends DelegatingRequest<RepositoryContext,
 		this.branchPath = checkNotNull(branchPath, "branchPath");
 	}
 	
+	@Override
+	public String getBranch() {
+		return branchPath;
+	}
+	
 	@Override
 	public B execute(RepositoryContext context) {
 		final Branch branch = ensureAvailability(context);
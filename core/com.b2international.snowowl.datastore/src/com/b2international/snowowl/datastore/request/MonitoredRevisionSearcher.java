@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.request;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.b2international.index.Hits;
+import com.b2international.index.Scroll;
+import com.b2international.index.Searcher;
+import com.b2international.index.aggregations.Aggregation;
+import com.b2international.index.aggregations.AggregationBuilder;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry.Phase;
+
+/**
+ * {@link RevisionSearcher} that reports the time spent in each read operation of the delegate as {@link Phase#INDEX_READ index read} time of the
+ * currently monitored request.
+ * 
+ * @since 7.1
+ */
+final class MonitoredRevisionSearcher implements RevisionSearcher {
+
+	private final RevisionSearcher delegate;
+
+	MonitoredRevisionSearcher(RevisionSearcher delegate) {
+		this.delegate = delegate;
+	}
+	
+	@Override
+	public <T> Hits<T> scroll(Scroll<T> scroll) throws IOException {
+		return RequestTelemetry.measure(Phase.INDEX_READ, () -> delegate.scroll(scroll));
+	}
+	
+	@Override
+	public void cancelScroll(String scrollId) {
+		delegate.cancelScroll(scrollId);
+	}
+	
+	@Override
+	public <T> Aggregation<T> aggregate(AggregationBuilder<T> aggregation) throws IOException {
+		return RequestTelemetry.measure(Phase.INDEX_READ, () -> delegate.aggregate(aggregation));
+	}
+	
+	@Override
+	public Searcher searcher() {
+		return delegate.searcher();
+	}
+	
+	@Override
+	public <T> Hits<T> search(Query<T> query) throws IOException {
+		return RequestTelemetry.measure(Phase.INDEX_READ, () -> delegate.search(query));
+	}
+	
+	@Override
+	public List<Hits<?>> multiSearch(List<? extends Query<?>> queries) throws IOException {
+		return RequestTelemetry.measure(Phase.INDEX_READ, () -> delegate.multiSearch(queries));
+	}
+	
+	@Override
+	public <T> CompletableFuture<Hits<T>> searchAsync(Query<T> query) {
+		// the caller's time is spent waiting for the returned future, not here
+		return delegate.searchAsync(query);
+	}
+	
+	@Override
+	public <T> T get(Class<T> type, String key) throws IOException {
+		return RequestTelemetry.measure(Phase.INDEX_READ, () -> delegate.get(type, key));
+	}
+	
+	@Override
+	public <T> Iterable<T> get(Class<T> type, Iterable<String> keys) throws IOException {
+		return RequestTelemetry.measure(Phase.INDEX_READ, () -> delegate.get(type, keys));
+	}
+	
+	@Override
+	public String branch() {
+		return delegate.branch();
+	}
+	
+}
@@ -16,6 +16,7 @@
 package com.b2international.snowowl.datastore.request;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.b2international.commons.exceptions.IllegalQueryParameterException;
 import com.b2international.index.Hits;
@@ -62,7 +63,7 @@ public final class RevisionIndexReadRequest<B> extends DelegatingRequest<BranchC
 			return index.read(branchPath, searcher -> {
 				try {
 					return next(context.inject()
-							.bind(RevisionSearcher.class, searcher)
+							.bind(RevisionSearcher.class, new MonitoredRevisionSearcher(searcher))
 							.build());
 				} catch (QueryParseException e) {
 					throw new IllegalQueryParameterException(e.getMessage());
@@ -70,7 +71,7 @@ public final class RevisionIndexReadRequest<B> extends DelegatingRequest<BranchC
 			});
 		} else {
 			return next(context.inject()
-					.bind(RevisionSearcher.class, new RevisionSearcher() {
+					.bind(RevisionSearcher.class, new MonitoredRevisionSearcher(new RevisionSearcher() {
 						
 						@Override
 						public <T> Hits<T> scroll(Scroll<T> scroll) throws IOException {
@@ -100,6 +101,11 @@ public final class RevisionIndexReadRequest<B> extends DelegatingRequest<BranchC
 							return index.read(branchPath, searcher -> searcher.search(query));
 						}
 						
+						@Override
+						public List<Hits<?>> multiSearch(List<? extends Query<?>> queries) throws IOException {
+							return index.read(branchPath, searcher -> searcher.multiSearch(queries));
+						}
+						
 						@Override
 						public <T> Iterable<T> get(Class<T> type, Iterable<String> keys) throws IOException {
 							return index.read(branchPath, searcher -> searcher.get(type, keys));
@@ -114,7 +120,7 @@ public final class RevisionIndexReadRequest<B> extends DelegatingRequest<BranchC
 						public String branch() {
 							return branchPath;
 						}
-					})
+					}))
 					.build());
 		}
 	}
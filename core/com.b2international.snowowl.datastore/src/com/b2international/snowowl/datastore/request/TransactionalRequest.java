@@ -26,6 +26,8 @@ import com.b2international.snowowl.core.domain.TransactionContext;
 import com.b2international.snowowl.core.domain.TransactionContextProvider;
 import com.b2international.snowowl.core.events.Request;
 import com.b2international.snowowl.core.monitoring.MonitoringThreadLocal;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry;
+import com.b2international.snowowl.core.monitoring.RequestTelemetry.Phase;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -75,7 +77,7 @@ public final class TransactionalRequest implements Request<BranchContext, Commit
 			 * FIXME: at this point, the component identifier might have changed even though the input 
 			 * required an exact ID to be assigned. What to do?
 			 */
-			final long commitTimestamp = context.commit(userId, commitComment, parentContextDescription);
+			final long commitTimestamp = RequestTelemetry.measure(Phase.INDEX_WRITE, () -> context.commit(userId, commitComment, parentContextDescription));
 			return new CommitResult(commitTimestamp, body);
 		} finally {
 			MonitoringThreadLocal.release();
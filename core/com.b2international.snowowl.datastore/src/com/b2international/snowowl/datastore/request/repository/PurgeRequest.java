@@ -15,6 +15,8 @@
  */
 package com.b2international.snowowl.datastore.request.repository;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import com.b2international.index.revision.Purge;
 import com.b2international.index.revision.RevisionIndex;
 import com.b2international.snowowl.core.domain.RepositoryContext;
@@ -40,7 +42,7 @@ public final class PurgeRequest implements Request<RepositoryContext, Boolean> {
 	
 	@Override
 	public Boolean execute(RepositoryContext context) {
-		context.service(RevisionIndex.class).purge(branchPath, purge);
+		context.service(RevisionIndex.class).purge(branchPath, purge, context.service(IProgressMonitor.class));
 		return Boolean.TRUE;
 	}
 
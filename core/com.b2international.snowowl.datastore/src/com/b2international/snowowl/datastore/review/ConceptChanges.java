@@ -17,14 +17,14 @@ package com.b2international.snowowl.datastore.review;
 
 import java.util.Set;
 
-import com.b2international.index.Doc;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
+ * Represents the concept changes computed for a review. Instances are stored in the index as one or more {@link ConceptChangesChunk chunks}.
+ * 
  * @since 4.2
  */
-@Doc(type="conceptchanges")
 public final class ConceptChanges {
 
 	private final String id;
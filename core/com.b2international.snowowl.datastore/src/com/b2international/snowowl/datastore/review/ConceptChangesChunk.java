@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.review;
+
+import static com.b2international.index.query.Expressions.matchAny;
+
+import java.util.Set;
+
+import com.b2international.index.Doc;
+import com.b2international.index.query.Expression;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A page of the concept changes computed for a review. Large change sets are split into several chunks, so that none of the documents grows too
+ * large to index, and the changes can be read back one chunk at a time.
+ *
+ * @since 7.1
+ */
+@Doc(type="conceptchangeschunk")
+public final class ConceptChangesChunk {
+
+	public static class Fields {
+		public static final String REVIEW_ID = "reviewId";
+	}
+
+	public static class Expressions {
+		public static Expression reviewIds(final Iterable<String> reviewIds) {
+			return matchAny(Fields.REVIEW_ID, reviewIds);
+		}
+	}
+
+	private final String id;
+	private final String reviewId;
+	private final int chunk;
+	private final Set<String> newConcepts;
+	private final Set<String> changedConcepts;
+	private final Set<String> deletedConcepts;
+
+	@JsonCreator
+	public ConceptChangesChunk(
+			@JsonProperty("id") final String id,
+			@JsonProperty("reviewId") final String reviewId,
+			@JsonProperty("chunk") final int chunk,
+			@JsonProperty("newConcepts") final Set<String> newConcepts,
+			@JsonProperty("changedConcepts") final Set<String> changedConcepts,
+			@JsonProperty("deletedConcepts") final Set<String> deletedConcepts) {
+		this.id = id;
+		this.reviewId = reviewId;
+		this.chunk = chunk;
+		this.newConcepts = newConcepts;
+		this.changedConcepts = changedConcepts;
+		this.deletedConcepts = deletedConcepts;
+	}
+
+	/**
+	 * Returns the identifier of the chunk of the given review with the given (zero-based) index.
+	 */
+	public static String toId(final String reviewId, final int chunk) {
+		return String.format("%s_%d", reviewId, chunk);
+	}
+
+	@JsonProperty
+	public String id() {
+		return id;
+	}
+
+	/**
+	 * Returns the associated review's unique identifier.
+	 */
+	@JsonProperty
+	public String reviewId() {
+		return reviewId;
+	}
+
+	/**
+	 * Returns the zero-based index of this chunk.
+	 */
+	@JsonProperty
+	public int chunk() {
+		return chunk;
+	}
+
+	@JsonProperty
+	public Set<String> newConcepts() {
+		return newConcepts;
+	}
+
+	@JsonProperty
+	public Set<String> changedConcepts() {
+		return changedConcepts;
+	}
+
+	@JsonProperty
+	public Set<String> deletedConcepts() {
+		return deletedConcepts;
+	}
+
+	/**
+	 * Converts this chunk to a {@link ConceptChanges} instance of the associated review.
+	 */
+	public ConceptChanges toConceptChanges() {
+		return new ConceptChanges(reviewId, newConcepts, changedConcepts, deletedConcepts);
+	}
+
+}
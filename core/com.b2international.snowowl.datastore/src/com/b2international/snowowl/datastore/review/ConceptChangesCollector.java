@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.datastore.review;
+
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.revision.RevisionCompareDetail;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+
+/**
+ * Classifies {@link RevisionCompareDetail compare details} into new, changed and deleted concept identifiers in a single pass, and splits the
+ * result into {@link ConceptChangesChunk chunks} of bounded size.
+ * <p>
+ * Numeric identifiers are kept in primitive sets, other identifiers fall back to a regular {@link Set}.
+ *
+ * @since 7.1
+ */
+final class ConceptChangesCollector implements Consumer<RevisionCompareDetail> {
+
+	private final IdSet newConcepts = new IdSet();
+	private final IdSet changedConcepts = new IdSet();
+	private final IdSet deletedConcepts = new IdSet();
+
+	// ROOT objects of added and removed sub components, registered as changed if the ROOT itself is not new or deleted
+	private final IdSet objectsWithNewComponents = new IdSet();
+	private final IdSet objectsWithDeletedComponents = new IdSet();
+
+	private boolean completed;
+
+	@Override
+	public void accept(RevisionCompareDetail detail) {
+		if (detail.isChange()) {
+			changedConcepts.add(detail.getObject().isRoot() ? detail.getComponent().id() : detail.getObject().id());
+		} else if (detail.isComponentChange()) {
+			final boolean root = detail.getObject().isRoot();
+			if (detail.isAdd()) {
+				if (root) {
+					newConcepts.add(detail.getComponent().id());
+				} else {
+					objectsWithNewComponents.add(detail.getObject().id());
+				}
+			} else if (detail.isRemove()) {
+				if (root) {
+					deletedConcepts.add(detail.getComponent().id());
+				} else {
+					objectsWithDeletedComponents.add(detail.getObject().id());
+				}
+			}
+		}
+	}
+
+	private void complete() {
+		if (!completed) {
+			objectsWithNewComponents.forEach(id -> {
+				if (!newConcepts.contains(id)) {
+					changedConcepts.add(id);
+				}
+			});
+			objectsWithDeletedComponents.forEach(id -> {
+				if (!deletedConcepts.contains(id)) {
+					changedConcepts.add(id);
+				}
+			});
+			objectsWithNewComponents.clear();
+			objectsWithDeletedComponents.clear();
+			completed = true;
+		}
+	}
+
+	int getNewConceptCount() {
+		complete();
+		return newConcepts.size();
+	}
+
+	int getChangedConceptCount() {
+		complete();
+		return changedConcepts.size();
+	}
+
+	int getDeletedConceptCount() {
+		complete();
+		return deletedConcepts.size();
+	}
+
+	/**
+	 * Splits the collected changes into chunks holding at most {@code chunkSize} new, changed and deleted concept identifiers each, in
+	 * ascending identifier order. At least one (possibly empty) chunk is always produced.
+	 *
+	 * @param reviewId - the review to create the chunks for
+	 * @param chunkSize - the maximum number of identifiers per change category in a single chunk
+	 * @param chunkConsumer - receives the chunks in order
+	 */
+	void forEachChunk(String reviewId, int chunkSize, Consumer<ConceptChangesChunk> chunkConsumer) {
+		complete();
+
+		final Iterator<String> newIds = newConcepts.sortedIterator();
+		final Iterator<String> changedIds = changedConcepts.sortedIterator();
+		final Iterator<String> deletedIds = deletedConcepts.sortedIterator();
+
+		int chunk = 0;
+		do {
+			chunkConsumer.accept(new ConceptChangesChunk(ConceptChangesChunk.toId(reviewId, chunk),
+					reviewId,
+					chunk,
+					next(newIds, chunkSize),
+					next(changedIds, chunkSize),
+					next(deletedIds, chunkSize)));
+			chunk++;
+		} while (newIds.hasNext() || changedIds.hasNext() || deletedIds.hasNext());
+	}
+
+	private static Set<String> next(Iterator<String> ids, int chunkSize) {
+		final Set<String> chunk = newHashSet();
+		Iterators.addAll(chunk, Iterators.limit(ids, chunkSize));
+		return chunk;
+	}
+
+	/**
+	 * A set of identifiers storing numeric values without leading zeros as primitive longs.
+	 */
+	private static final class IdSet {
+
+		private static final int MAX_NUMERIC_LENGTH = 18;
+
+		private final LongSet numericIds = PrimitiveSets.newLongOpenHashSet();
+		private final Set<String> otherIds = newHashSet();
+
+		void add(String id) {
+			if (isNumeric(id)) {
+				numericIds.add(Long.parseLong(id));
+			} else {
+				otherIds.add(id);
+			}
+		}
+
+		boolean contains(String id) {
+			return isNumeric(id) ? numericIds.contains(Long.parseLong(id)) : otherIds.contains(id);
+		}
+
+		int size() {
+			return numericIds.size() + otherIds.size();
+		}
+
+		void clear() {
+			numericIds.clear();
+			otherIds.clear();
+		}
+
+		void forEach(Consumer<String> action) {
+			final LongIterator it = numericIds.iterator();
+			while (it.hasNext()) {
+				action.accept(Long.toString(it.next()));
+			}
+			otherIds.forEach(action);
+		}
+
+		Iterator<String> sortedIterator() {
+			final long[] sortedNumericIds = numericIds.toArray();
+			Arrays.sort(sortedNumericIds);
+			final Iterator<String> numericIterator = Arrays.stream(sortedNumericIds).mapToObj(Long::toString).iterator();
+			return Iterators.concat(numericIterator, Ordering.natural().sortedCopy(otherIds).iterator());
+		}
+
+		private static boolean isNumeric(String id) {
+			final int length = id.length();
+			if (length == 0 || length > MAX_NUMERIC_LENGTH || (id.charAt(0) == '0' && length > 1)) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				final char c = id.charAt(i);
+				if (c < '0' || c > '9') {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
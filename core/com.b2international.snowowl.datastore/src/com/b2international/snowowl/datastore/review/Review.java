@@ -18,6 +18,7 @@ package com.b2international.snowowl.datastore.review;
 import java.util.Date;
 
 import com.b2international.index.Doc;
+import com.b2international.index.Script;
 import com.b2international.snowowl.core.branch.Branch;
 import com.fasterxml.jackson.databind.util.ISO8601Utils;
 
@@ -27,9 +28,15 @@ import com.fasterxml.jackson.databind.util.ISO8601Utils;
  * @since 4.2
  */
 @Doc(type="review")
+@Script(name=Review.Scripts.STALE, script="ctx._source.status = 'STALE'; ctx._source.lastUpdated = params.lastUpdated")
 public class Review {
 
+	public static class Scripts {
+		public static final String STALE = "stale";
+	}
+
 	public static class Fields {
+		public static final String ID = "id";
 		public static final String LAST_UPDATED = "lastUpdated";
 		public static final String STATUS = "status";
 	}
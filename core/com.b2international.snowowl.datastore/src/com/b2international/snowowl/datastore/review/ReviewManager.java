@@ -66,6 +66,18 @@ public interface ReviewManager extends IDisposableService {
 	 */
 	ConceptChanges getConceptChanges(String id);
 
+	/**
+	 * Retrieves computed concept changes for a review in pages. Each page is loaded from the index lazily, when the returned {@link Iterable}'s
+	 * iterator reaches it, so large change sets can be processed without loading all of them into memory at once.
+	 * 
+	 * @param id
+	 *            the review identifier to look for
+	 * @return the concept changes associated with the terminology review object, split into one or more pages
+	 * @throws NotFoundException
+	 *             if no change set exists currently for the review
+	 */
+	Iterable<ConceptChanges> getConceptChangeChunks(String id);
+
 	/**
 	 * Delets a review by its ID.
 	 * 
@@ -17,6 +17,7 @@ package com.b2international.snowowl.datastore.review;
 
 import static com.google.common.collect.Sets.newHashSet;
 
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.Date;
@@ -26,6 +27,7 @@ import java.util.TimerTask;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -39,18 +41,22 @@ import org.slf4j.LoggerFactory;
 
 import com.b2international.commons.exceptions.BadRequestException;
 import com.b2international.commons.exceptions.NotFoundException;
+import com.b2international.index.BulkDelete;
+import com.b2international.index.BulkUpdate;
 import com.b2international.index.Hits;
 import com.b2international.index.Index;
+import com.b2international.index.Writer;
 import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Query;
 import com.b2international.index.revision.RevisionCompare;
-import com.b2international.index.revision.RevisionCompareDetail;
 import com.b2international.index.revision.RevisionIndex;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.branch.Branch;
 import com.b2international.snowowl.core.repository.InternalRepository;
 import com.b2international.snowowl.datastore.events.BranchChangedEvent;
 import com.fasterxml.jackson.databind.util.ISO8601Utils;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
 import com.google.inject.Provider;
 
@@ -78,14 +84,21 @@ public class ReviewManagerImpl implements ReviewManager {
 
 		@Override
 		protected IStatus run(final IProgressMonitor monitor) {
+			createConceptChanges(reviewId, collectConceptChanges());
+			return Status.OK_STATUS;
+		}
+
+		private ConceptChangesCollector collectConceptChanges() {
 			final RevisionCompare compare;
 			if (branchAsBase != null) {
 				compare = index.compare(branchAsBase, branchToCompare); 
 			} else {
 				compare = index.compare(branchToCompare);
 			}
-			createConceptChanges(reviewId, branchToCompare, compare);
-			return Status.OK_STATUS;
+			// the compare result is not referenced after this method returns, only the collected identifiers are kept
+			final ConceptChangesCollector changes = new ConceptChangesCollector();
+			compare.getDetails().forEach(changes);
+			return changes;
 		}
 
 		public String getReviewId() {
@@ -128,11 +141,8 @@ public class ReviewManagerImpl implements ReviewManager {
 							ids.add(r.id());
 						}
 					
-						index.removeAll(ImmutableMap.of(
-								Review.class, ids,
-								ConceptChanges.class, ids
-								));
-						
+						index.remove(Review.class, ids);
+						index.bulkDelete(new BulkDelete<>(ConceptChangesChunk.class, ConceptChangesChunk.Expressions.reviewIds(ids)));
 						index.commit();
 					}
 					return null;
@@ -160,6 +170,11 @@ public class ReviewManagerImpl implements ReviewManager {
 	private final Disposable notificationSubscription;
 
 	private static final long CLEANUP_INTERVAL = TimeUnit.MINUTES.toMillis(1L);
+	
+	// maximum number of new, changed and deleted concept IDs stored in a single concept changes document
+	private static final int CONCEPT_CHANGES_CHUNK_SIZE = 10_000;
+	// number of concept changes documents to send to the index in a single commit
+	private static final int CONCEPT_CHANGES_CHUNKS_PER_COMMIT = 10;
 
 	private final long keepOtherMillis;
 	private final long keepCurrentMillis;
@@ -202,23 +217,26 @@ public class ReviewManagerImpl implements ReviewManager {
 	/*Handles repository specific branch change events*/
 	private void onBranchChange(BranchChangedEvent event) {
 		final String path = event.getBranch();
+		final Expression affectedReviews = Expressions.builder()
+				.should(Expressions.nestedMatch("source", Expressions.exactMatch("path", path)))
+				.should(Expressions.nestedMatch("target", Expressions.exactMatch("path", path)))
+				.mustNot(Expressions.exactMatch(Review.Fields.STATUS, ReviewStatus.STALE.toString()))
+				.build();
 		store.get().write(index -> {
-			final Hits<Review> affectedReviews = index.searcher().search(
-					Query.select(Review.class)
-					.where(Expressions.builder()
-							.should(Expressions.nestedMatch("source", Expressions.exactMatch("path", path)))
-							.should(Expressions.nestedMatch("target", Expressions.exactMatch("path", path)))
-							.build()
-							)
-					.limit(Integer.MAX_VALUE)
+			// most branch changes do not touch any review, skip the update and the commit in that case
+			final Hits<Review> hits = index.searcher().search(Query.select(Review.class)
+					.where(affectedReviews)
+					.limit(0)
 					.build());
-			
-			for (final Review affectedReview : affectedReviews) {
-				Review newReview = updateStatus(affectedReview, ReviewStatus.STALE);
-				if (newReview != null) {
-					index.put(newReview.id(), newReview);
-				}
+			if (hits.getTotal() == 0) {
+				return null;
 			}
+			// mark all reviews touching the branch stale on the index side, without loading them
+			index.bulkUpdate(new BulkUpdate<>(Review.class, 
+					affectedReviews,
+					Review.Fields.ID,
+					Review.Scripts.STALE,
+					ImmutableMap.of("lastUpdated", ISO8601Utils.format(new Date()))));
 			index.commit();
 			return null;
 		});
@@ -281,59 +299,34 @@ public class ReviewManagerImpl implements ReviewManager {
 		});
 	}
 
-	void createConceptChanges(final String id, final String branch, final RevisionCompare compare) {
-		final Set<String> newConcepts = newHashSet();
-		final Set<String> changedConcepts = newHashSet();
-		final Set<String> deletedConcepts = newHashSet();
-		
-		// register new ROOT objects first as new
-		for (RevisionCompareDetail detail : compare.getDetails()) {
-			if (detail.isAdd() && detail.isComponentChange() && detail.getObject().isRoot()) {
-				newConcepts.add(detail.getComponent().id());
-			}
-		}
-		
-		// register new sub components as ROOT changes if the ROOT is not new
-		for (RevisionCompareDetail detail : compare.getDetails()) {
-			if (detail.isAdd() && detail.isComponentChange() && !detail.getObject().isRoot() && !newConcepts.contains(detail.getObject().id())) {
-				changedConcepts.add(detail.getObject().id());
-			}
-		}
-		
-		// register all changes
-		for (RevisionCompareDetail detail : compare.getDetails()) {
-			if (detail.isChange()) {
-				changedConcepts.add(detail.getObject().isRoot() ? detail.getComponent().id() : detail.getObject().id());
-			}
-		}
-
-		// register removed ROOT objects first as deleted
-		for (RevisionCompareDetail detail : compare.getDetails()) {
-			if (detail.isRemove() && detail.isComponentChange() && detail.getObject().isRoot()) {
-				deletedConcepts.add(detail.getComponent().id());
-			}
-		}
-		
-		// register deleted sub components as ROOT changes if the ROOT is not deleted
-		for (RevisionCompareDetail detail : compare.getDetails()) {
-			if (detail.isRemove() && detail.isComponentChange() && !detail.getObject().isRoot() && !deletedConcepts.contains(detail.getObject().id())) {
-				changedConcepts.add(detail.getObject().id());
-			}
-		}
-		
-		final ConceptChanges convertedChanges = new ConceptChanges(id, newConcepts, changedConcepts, deletedConcepts);
-
+	void createConceptChanges(final String id, final ConceptChangesCollector changes) {
 		try {
 			getReview(id);
 			store.get().write(index -> {
-				index.put(id, convertedChanges);
+				final AtomicInteger chunks = new AtomicInteger();
+				changes.forEachChunk(id, CONCEPT_CHANGES_CHUNK_SIZE, chunk -> {
+					index.put(chunk.id(), chunk);
+					if (chunks.incrementAndGet() % CONCEPT_CHANGES_CHUNKS_PER_COMMIT == 0) {
+						commit(index);
+					}
+				});
 				index.commit();
+				LOG.debug("Stored {} new, {} changed and {} deleted concepts of review '{}' in {} chunk(s).", 
+						changes.getNewConceptCount(), changes.getChangedConceptCount(), changes.getDeletedConceptCount(), id, chunks.get());
 				return null;
 			});
 		} catch (NotFoundException ignored) {
 		}
 	}
 
+	private void commit(final Writer index) {
+		try {
+			index.commit();
+		} catch (final IOException e) {
+			throw new SnowowlRuntimeException(e);
+		}
+	}
+
 	@Override
 	public Review getReview(final String id) {
 		final Review review= store.get().read(index -> index.get(Review.class, id));
@@ -347,21 +340,52 @@ public class ReviewManagerImpl implements ReviewManager {
 
 	@Override
 	public ConceptChanges getConceptChanges(final String id) {
-		final ConceptChanges conceptChanges = store.get().read(index -> index.get(ConceptChanges.class, id));
-
-		if (conceptChanges == null) {
+		final Set<String> newConcepts = newHashSet();
+		final Set<String> changedConcepts = newHashSet();
+		final Set<String> deletedConcepts = newHashSet();
+		
+		for (ConceptChanges chunk : getConceptChangeChunks(id)) {
+			newConcepts.addAll(chunk.newConcepts());
+			changedConcepts.addAll(chunk.changedConcepts());
+			deletedConcepts.addAll(chunk.deletedConcepts());
+		}
+		
+		return new ConceptChanges(id, newConcepts, changedConcepts, deletedConcepts);
+	}
+	
+	@Override
+	public Iterable<ConceptChanges> getConceptChangeChunks(final String id) {
+		final ConceptChangesChunk firstChunk = getConceptChangesChunk(id, 0);
+		
+		if (firstChunk == null) {
 			throw new NotFoundException("Concept changes", id);
-		} else {
-			return conceptChanges;
 		}
+		
+		return () -> new AbstractIterator<ConceptChanges>() {
+			
+			private ConceptChangesChunk nextChunk = firstChunk;
+			
+			@Override
+			protected ConceptChanges computeNext() {
+				if (nextChunk == null) {
+					return endOfData();
+				}
+				final ConceptChangesChunk chunk = nextChunk;
+				nextChunk = getConceptChangesChunk(id, chunk.chunk() + 1);
+				return chunk.toConceptChanges();
+			}
+		};
+	}
+	
+	private ConceptChangesChunk getConceptChangesChunk(final String id, final int chunk) {
+		return store.get().read(index -> index.get(ConceptChangesChunk.class, ConceptChangesChunk.toId(id, chunk)));
 	}
 
 	@Override
 	public void delete(final String reviewId) {
 		store.get().write(index -> {
-			index.removeAll(ImmutableMap.of(
-					Review.class, Collections.singleton(reviewId),
-					ConceptChanges.class, Collections.singleton(reviewId)));
+			index.remove(Review.class, reviewId);
+			index.bulkDelete(new BulkDelete<>(ConceptChangesChunk.class, ConceptChangesChunk.Expressions.reviewIds(Collections.singleton(reviewId))));
 			index.commit();
 			return null;
 		});
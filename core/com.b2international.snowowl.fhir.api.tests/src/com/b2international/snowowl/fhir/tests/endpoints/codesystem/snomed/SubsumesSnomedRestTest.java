@@ -16,12 +16,16 @@
 package com.b2international.snowowl.fhir.tests.endpoints.codesystem.snomed;
 
 import static com.b2international.snowowl.test.commons.rest.RestExtensions.givenAuthenticatedRequest;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.everyItem;
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.nullValue;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.b2international.snowowl.fhir.api.service.BaseFhirResourceRestService;
 import com.b2international.snowowl.fhir.core.model.dt.Parameters;
 import com.b2international.snowowl.fhir.core.model.dt.Parameters.Fhir;
 import com.b2international.snowowl.fhir.core.model.dt.Parameters.Json;
@@ -124,6 +128,80 @@ public class SubsumesSnomedRestTest extends FhirRestTest {
 		Assert.assertEquals(SubsumptionType.EQUIVALENT, result.getOutcome());
 	}
 
+	@Test
+	public void batchTest() throws Exception {
+		
+		String jsonBody = "{\"resourceType\":\"Parameters\","
+				+ "\"parameter\":["
+					+ subsumptionPart("413029008", "59524001", "http://snomed.info/sct") + ","
+					+ subsumptionPart("59524001", "413029008", "http://snomed.info/sct") + ","
+					+ subsumptionPart("235856003", "235856003", "http://snomed.info/sct") + ","
+					+ subsumptionPart("235856003", "413029008", "http://snomed.info/sct") + ","
+					+ subsumptionPart("413029008", "59524001", "http://snomed.info/sct/900000000000207008/version/20180131")
+				+ "]}";
+		
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.contentType(BaseFhirResourceRestService.APPLICATION_FHIR_JSON)
+			.body(jsonBody)
+			.when().post("/CodeSystem/$subsumes-batch")
+			.then()
+			.statusCode(200)
+			.body("resourceType", equalTo("Parameters"))
+			.body("parameter.size()", equalTo(5))
+			.body("parameter.name", everyItem(equalTo("subsumption")))
+			.body("parameter[0].part.find { it.name == 'codeA' }.valueCode", equalTo("413029008"))
+			.body("parameter[0].part.find { it.name == 'codeB' }.valueCode", equalTo("59524001"))
+			.body("parameter[0].part.find { it.name == 'outcome' }.valueCode", equalTo("subsumed-by"))
+			.body("parameter[1].part.find { it.name == 'outcome' }.valueCode", equalTo("subsumes"))
+			.body("parameter[2].part.find { it.name == 'outcome' }.valueCode", equalTo("equivalent"))
+			.body("parameter[3].part.find { it.name == 'outcome' }.valueCode", equalTo("not-subsumed"))
+			.body("parameter[4].part.find { it.name == 'outcome' }.valueCode", equalTo("subsumed-by"));
+	}
+	
+	@Test
+	public void batchWithMissingCodeTest() throws Exception {
+		
+		String jsonBody = "{\"resourceType\":\"Parameters\","
+				+ "\"parameter\":["
+					+ subsumptionPart("413029008", "59524001", "http://snomed.info/sct") + ","
+					+ subsumptionPart("413029008", "12345678901", "http://snomed.info/sct") + ","
+					+ subsumptionPart("59524001", "413029008", "http://snomed.info/sct")
+				+ "]}";
+		
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.contentType(BaseFhirResourceRestService.APPLICATION_FHIR_JSON)
+			.body(jsonBody)
+			.when().post("/CodeSystem/$subsumes-batch")
+			.then()
+			.statusCode(200)
+			.body("parameter.size()", equalTo(3))
+			.body("parameter[0].part.find { it.name == 'outcome' }.valueCode", equalTo("subsumed-by"))
+			.body("parameter[1].part.find { it.name == 'codeB' }.valueCode", equalTo("12345678901"))
+			.body("parameter[1].part.find { it.name == 'outcome' }", nullValue())
+			.body("parameter[1].part.find { it.name == 'message' }.valueString", containsString("12345678901"))
+			.body("parameter[2].part.find { it.name == 'outcome' }.valueCode", equalTo("subsumes"));
+	}
+	
+	@Test
+	public void missingCodeTest() throws Exception {
+		
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("codeA", "413029008")
+			.param("codeB", "12345678901")
+			.param("system", "http://snomed.info/sct")
+			.when().get("/CodeSystem/$subsumes")
+			.then()
+			.statusCode(404);
+	}
+	
+	private static String subsumptionPart(String codeA, String codeB, String system) {
+		return "{\"name\":\"subsumption\",\"part\":["
+				+ "{\"name\":\"codeA\",\"valueCode\":\"" + codeA + "\"},"
+				+ "{\"name\":\"codeB\",\"valueCode\":\"" + codeB + "\"},"
+				+ "{\"name\":\"system\",\"valueUri\":\"" + system + "\"}"
+			+ "]}";
+	}
+
 	/**
 	 * Converts the parameter-formatted response string to a {@link SubsumptionResult} object
 	 * @param responseString
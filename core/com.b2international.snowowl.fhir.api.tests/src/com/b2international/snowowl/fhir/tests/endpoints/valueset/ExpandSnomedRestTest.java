@@ -19,6 +19,12 @@ import static com.b2international.snowowl.test.commons.rest.RestExtensions.given
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
 
 import org.hamcrest.core.StringStartsWith;
 import org.junit.Test;
@@ -26,6 +32,8 @@ import org.junit.Test;
 import com.b2international.snowowl.core.api.IBranchPath;
 import com.b2international.snowowl.fhir.tests.FhirRestTest;
 
+import io.restassured.response.ValidatableResponse;
+
 /**
  * ValueSet $expand operation REST end-point test cases
  * 
@@ -113,6 +121,86 @@ public class ExpandSnomedRestTest extends FhirRestTest {
 			.statusCode(200);
 	}
 	
+	//first page of an isA subsumption based value set
+	@Test
+	public void implicitIsaCountTest() {
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/50697003") 
+			.param("count", 2)
+			.when().get("/ValueSet/$expand")
+			.then()
+			.body("resourceType", equalTo("ValueSet"))
+			.body("expansion.total", greaterThan(2))
+			.body("expansion.offset", equalTo(0))
+			.body("expansion.contains.size()", equalTo(2))
+			.body("expansion.parameter.find { it.name == 'count' }.valueInteger", equalTo(2))
+			.statusCode(200);
+	}
+	
+	//pages of an isA subsumption based value set follow each other
+	@Test
+	public void implicitIsaOffsetTest() {
+		List<String> firstPage = givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/50697003") 
+			.param("count", 3)
+			.when().get("/ValueSet/$expand")
+			.then()
+			.statusCode(200)
+			.extract()
+			.path("expansion.contains.code");
+		
+		assertEquals(3, firstPage.size());
+		
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/50697003") 
+			.param("offset", 1)
+			.param("count", 2)
+			.when().get("/ValueSet/$expand")
+			.then()
+			.body("expansion.offset", equalTo(1))
+			.body("expansion.contains.code", contains(firstPage.get(1), firstPage.get(2)))
+			.statusCode(200);
+	}
+	
+	//offset past the last code of the reference set returns the total only
+	@Test
+	public void simpleTypeRefsetOffsetPastLastCodeTest() {
+		ValidatableResponse response = givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.pathParam("id", "snomedStore:MAIN/2018-07-31:723264001") 
+			.param("offset", 1_000_000)
+			.when().get("/ValueSet/{id}/$expand")
+			.then()
+			.body("expansion.total", greaterThan(0))
+			.body("expansion.offset", equalTo(1_000_000))
+			.statusCode(200);
+		
+		List<String> codes = response.extract().path("expansion.contains.code");
+		assertTrue(codes == null || codes.isEmpty());
+	}
+	
+	//the term filter is applied to the codes of the reference set
+	@Test
+	public void simpleTypeRefsetFilterTest() {
+		String display = givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.pathParam("id", "snomedStore:MAIN/2018-07-31:723264001") 
+			.param("count", 1)
+			.when().get("/ValueSet/{id}/$expand")
+			.then()
+			.statusCode(200)
+			.extract()
+			.path("expansion.contains[0].display");
+		
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.pathParam("id", "snomedStore:MAIN/2018-07-31:723264001") 
+			.param("filter", display)
+			.when().get("/ValueSet/{id}/$expand")
+			.then()
+			.body("expansion.total", greaterThan(0))
+			.body("expansion.contains.display", hasItem(display))
+			.body("expansion.parameter.find { it.name == 'filter' }.valueString", equalTo(display))
+			.statusCode(200);
+	}
+	
 	//expand simple type reference set
 	@Test
 	public void simpleTypeRefsetTest() throws Exception {
@@ -16,12 +16,19 @@
 package com.b2international.snowowl.fhir.tests.serialization.parameterized;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
 
 import org.junit.Test;
 
 import com.b2international.snowowl.fhir.core.model.dt.Parameters;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionBatchRequest;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionBatchResult;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionRequest;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionResult.SubsumptionType;
 import com.b2international.snowowl.fhir.tests.FhirTest;
+import com.google.common.collect.ImmutableList;
 
 /**
  * SubsumptionRequest Test
@@ -78,4 +85,51 @@ public class SubsumptionRequestTest extends FhirTest {
 		assertEquals("5678", request.getCodingB().getCodeValue());
 		assertEquals("20180131", request.getCodingA().getVersion());
 	}
+	
+	@Test
+	public void batchRequestTest() throws Exception {
+		
+		String jsonParam = "{\"resourceType\":\"Parameters\","
+				+ "\"parameter\":["
+					+ "{\"name\":\"subsumption\",\"part\":["
+						+ "{\"name\":\"codeA\",\"valueCode\":\"1234\"},"
+						+ "{\"name\":\"codeB\",\"valueCode\":\"5678\"},"
+						+ "{\"name\":\"system\",\"valueUri\":\"http://snomed.info/sct\"}"
+					+ "]},"
+					+ "{\"name\":\"subsumption\",\"part\":["
+						+ "{\"name\":\"codeA\",\"valueCode\":\"4321\"},"
+						+ "{\"name\":\"codeB\",\"valueCode\":\"8765\"},"
+						+ "{\"name\":\"system\",\"valueUri\":\"http://snomed.info/sct\"}"
+					+ "]}"
+				+ "]}";
+		
+		Parameters.Fhir fhirParameters = objectMapper.readValue(jsonParam, Parameters.Fhir.class);
+		SubsumptionBatchRequest batchRequest = objectMapper.convertValue(fhirParameters.toJson(), SubsumptionBatchRequest.class);
+		
+		List<SubsumptionRequest> requests = ImmutableList.copyOf(batchRequest.getSubsumptions());
+		assertEquals(2, requests.size());
+		assertEquals("1234", requests.get(0).getCodeA());
+		assertEquals("5678", requests.get(0).getCodeB());
+		assertEquals("4321", requests.get(1).getCodeA());
+		assertEquals("8765", requests.get(1).getCodeB());
+		assertEquals("http://snomed.info/sct", requests.get(1).getSystem());
+	}
+	
+	@Test
+	public void batchResultTest() throws Exception {
+		
+		SubsumptionBatchResult batchResult = new SubsumptionBatchResult(ImmutableList.of(
+				new SubsumptionBatchResult.Entry("1234", "5678", SubsumptionType.SUBSUMES),
+				new SubsumptionBatchResult.Entry("4321", "8765", SubsumptionType.NOT_SUBSUMED),
+				SubsumptionBatchResult.Entry.error("1234", "0000", "Code with identifier '0000' could not be found.")));
+		
+		String json = objectMapper.writeValueAsString(new Parameters.Fhir(batchResult));
+		
+		printPrettyJson(new Parameters.Fhir(batchResult));
+		assertTrue(json.contains("{\"name\":\"subsumption\",\"part\":[{\"name\":\"codeA\",\"valueCode\":\"1234\"},{\"name\":\"codeB\",\"valueCode\":\"5678\"}"));
+		assertTrue(json.contains("{\"name\":\"subsumption\",\"part\":[{\"name\":\"codeA\",\"valueCode\":\"4321\"},{\"name\":\"codeB\",\"valueCode\":\"8765\"}"));
+		assertTrue(json.contains("{\"name\":\"subsumption\",\"part\":[{\"name\":\"codeA\",\"valueCode\":\"1234\"},{\"name\":\"codeB\",\"valueCode\":\"0000\"},"
+				+ "{\"name\":\"message\",\"valueString\":\"Code with identifier '0000' could not be found.\"}]}"));
+	}
+	
 }
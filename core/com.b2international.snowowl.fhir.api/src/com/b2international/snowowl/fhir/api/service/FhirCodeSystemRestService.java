@@ -20,7 +20,9 @@ import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -50,11 +52,17 @@ import com.b2international.snowowl.fhir.core.model.dt.Uri;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupRequest;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupRequest.Builder;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupResult;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionBatchRequest;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionBatchResult;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionRequest;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionResult;
 import com.b2international.snowowl.fhir.core.provider.ICodeSystemApiProvider;
 import com.b2international.snowowl.fhir.core.search.SearchRequestParameters;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 
 import io.swagger.annotations.Api;
@@ -344,6 +352,45 @@ public class FhirCodeSystemRestService extends BaseFhirResourceRestService<CodeS
 		return toResponse(result);
 	}
 	
+	/*
+	 * Batch subsumption testing, evaluates all subsumption parts of the body with a single hierarchy lookup per code system version
+	 */
+	@ApiOperation(value="Batch subsumption testing", notes="Test the subsumption relationship of multiple code/Coding pairs. Each 'subsumption' part of the body accepts the same parameters as the $subsumes operation, "
+			+ "the results are returned in the order of the submitted parts. A pair with a code that does not exist gets a 'message' part instead of an 'outcome'.")
+	@ApiResponses({
+		@ApiResponse(code = HTTP_OK, message = "OK"),
+		@ApiResponse(code = HTTP_NOT_FOUND, message = "Not found", response = OperationOutcome.class),
+		@ApiResponse(code = HTTP_BAD_REQUEST, message = "Bad request", response = OperationOutcome.class)
+	})
+	@RequestMapping(value="/$subsumes-batch", method=RequestMethod.POST, consumes = BaseFhirResourceRestService.APPLICATION_FHIR_JSON)
+	public Parameters.Fhir subsumesBatch(
+			@ApiParam(name = "body", value = "The subsumption request parameters")
+			@RequestBody Parameters.Fhir in) {
+		
+		SubsumptionBatchRequest batchRequest = toRequest(in, SubsumptionBatchRequest.class);
+		List<SubsumptionRequest> requests = ImmutableList.copyOf(batchRequest.getSubsumptions());
+		
+		// group the requests by provider, but keep track of their original position
+		ListMultimap<ICodeSystemApiProvider, Integer> requestIndexesByProvider = ArrayListMultimap.create();
+		for (int i = 0; i < requests.size(); i++) {
+			SubsumptionRequest request = requests.get(i);
+			validateSubsumptionRequest(request);
+			requestIndexesByProvider.put(ICodeSystemApiProvider.Registry.getCodeSystemProvider(request.getSystem()), i);
+		}
+		
+		SubsumptionBatchResult.Entry[] entries = new SubsumptionBatchResult.Entry[requests.size()];
+		for (ICodeSystemApiProvider codeSystemProvider : requestIndexesByProvider.keySet()) {
+			List<Integer> requestIndexes = requestIndexesByProvider.get(codeSystemProvider);
+			List<SubsumptionRequest> providerRequests = Lists.transform(requestIndexes, requests::get);
+			List<SubsumptionBatchResult.Entry> providerEntries = codeSystemProvider.subsumes(providerRequests);
+			for (int i = 0; i < requestIndexes.size(); i++) {
+				entries[requestIndexes.get(i)] = providerEntries.get(i);
+			}
+		}
+		
+		return toResponse(new SubsumptionBatchResult(Arrays.asList(entries)));
+	}
+	
 	@ApiOperation(
 			value="FHIR REST API Ping Test",
 			notes="This is only an FHIR ping test.")
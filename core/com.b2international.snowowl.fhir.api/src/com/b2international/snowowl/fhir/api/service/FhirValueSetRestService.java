@@ -144,6 +144,9 @@ public class FhirValueSetRestService extends BaseFhirResourceRestService<ValueSe
 	/**
 	 * HTTP Get request to expand the value set to return its members.
 	 * @param valueSetId
+	 * @param filter optional text filter for the codes
+	 * @param offset optional number of codes to skip
+	 * @param count optional maximum number of codes to return
 	 * @return expanded {@link ValueSet}
 	 */
 	@ApiOperation(
@@ -156,18 +159,24 @@ public class FhirValueSetRestService extends BaseFhirResourceRestService<ValueSe
 		@ApiResponse(code = HTTP_NOT_FOUND, message = "Value set not found", response = OperationOutcome.class)
 	})
 	@RequestMapping(value="/{valueSetId:**}/$expand", method=RequestMethod.GET)
-	public ValueSet expand(@ApiParam(value="The id of the value set to expand") @PathVariable("valueSetId") String valueSetId) {
+	public ValueSet expand(@ApiParam(value="The id of the value set to expand") @PathVariable("valueSetId") String valueSetId,
+			@ApiParam(value="Text filter to apply to the codes of the value set") @RequestParam(value="filter", required=false) final String filter,
+			@ApiParam(value="The number of codes to skip") @RequestParam(value="offset", required=false) final Integer offset,
+			@ApiParam(value="The maximum number of codes to return") @RequestParam(value="count", required=false) final Integer count) {
 		
 		LogicalId logicalId = LogicalId.fromIdString(valueSetId);
 		
 		IValueSetApiProvider valueSetProvider = IValueSetApiProvider.Registry.getValueSetProvider(logicalId);
-		ValueSet valueSet = valueSetProvider.expandValueSet(logicalId);
+		ValueSet valueSet = valueSetProvider.expandValueSet(logicalId, filter, getOffset(offset), getCount(count));
 		return valueSet;
 	}
 	
 	/**
 	 * HTTP Get request to expand a value set specified by its URL
 	 * @param url
+	 * @param filter optional text filter for the codes
+	 * @param offset optional number of codes to skip
+	 * @param count optional maximum number of codes to return
 	 * @return expanded {@link ValueSet}
 	 */
 	@ApiOperation(
@@ -180,13 +189,37 @@ public class FhirValueSetRestService extends BaseFhirResourceRestService<ValueSe
 	})
 	@RequestMapping(value="/$expand", method=RequestMethod.GET)
 	public ValueSet expandByURL(
-			@ApiParam(value="Canonical URL of the value set") @RequestParam(value="url") final String url) {
+			@ApiParam(value="Canonical URL of the value set") @RequestParam(value="url") final String url,
+			@ApiParam(value="Text filter to apply to the codes of the value set") @RequestParam(value="filter", required=false) final String filter,
+			@ApiParam(value="The number of codes to skip") @RequestParam(value="offset", required=false) final Integer offset,
+			@ApiParam(value="The maximum number of codes to return") @RequestParam(value="count", required=false) final Integer count) {
 		
 		IValueSetApiProvider valueSetProvider = IValueSetApiProvider.Registry.getValueSetProvider(url);
-		ValueSet valueSet = valueSetProvider.expandValueSet(url);
+		ValueSet valueSet = valueSetProvider.expandValueSet(url, filter, getOffset(offset), getCount(count));
 		return valueSet;
 	}
 	
+	private int getOffset(Integer offset) {
+		if (offset == null) {
+			return 0;
+		}
+		if (offset < 0) {
+			throw new BadRequestException("Offset must be a non-negative integer.", "$expand.offset");
+		}
+		return offset;
+	}
+	
+	//all codes are returned if count is not specified
+	private int getCount(Integer count) {
+		if (count == null) {
+			return Integer.MAX_VALUE;
+		}
+		if (count < 0) {
+			throw new BadRequestException("Count must be a non-negative integer.", "$expand.count");
+		}
+		return count;
+	}
+	
 	/**
 	 * HTTP Post request to expand a value set
 	 * @param url
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.fhir.core.model.subsumption;
+
+import java.util.Collection;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+import com.b2international.snowowl.fhir.core.model.ValidatingBuilder;
+import com.b2international.snowowl.fhir.core.model.dt.FhirDataType;
+import com.b2international.snowowl.fhir.core.model.dt.FhirType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Multiple subsumption tests submitted in a single request. Each <code>subsumption</code> part holds the same parameters as a
+ * {@link SubsumptionRequest}.
+ * 
+ * @since 7.1
+ */
+@JsonDeserialize(builder = SubsumptionBatchRequest.Builder.class)
+@JsonPropertyOrder({"subsumption"})
+public class SubsumptionBatchRequest {
+
+	@NotEmpty
+	@FhirType(FhirDataType.PART)
+	private final Collection<SubsumptionRequest> subsumption;
+	
+	private SubsumptionBatchRequest(Collection<SubsumptionRequest> subsumption) {
+		this.subsumption = subsumption;
+	}
+	
+	public Collection<SubsumptionRequest> getSubsumptions() {
+		return subsumption;
+	}
+	
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	@JsonPOJOBuilder(withPrefix = "")
+	public static final class Builder extends ValidatingBuilder<SubsumptionBatchRequest> {
+		
+		private ImmutableList.Builder<SubsumptionRequest> subsumptions = ImmutableList.builder();
+		
+		@JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+		public Builder subsumption(Collection<SubsumptionRequest> subsumptions) {
+			this.subsumptions = ImmutableList.builder();
+			this.subsumptions.addAll(subsumptions);
+			return this;
+		}
+		
+		public Builder addSubsumption(SubsumptionRequest subsumption) {
+			subsumptions.add(subsumption);
+			return this;
+		}
+		
+		@Override
+		protected SubsumptionBatchRequest doBuild() {
+			return new SubsumptionBatchRequest(subsumptions.build());
+		}
+		
+	}
+	
+}
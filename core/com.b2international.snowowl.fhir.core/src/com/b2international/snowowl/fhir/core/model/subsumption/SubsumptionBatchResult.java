@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.fhir.core.model.subsumption;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.b2international.snowowl.fhir.core.model.dt.FhirDataType;
+import com.b2international.snowowl.fhir.core.model.dt.FhirType;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionResult.SubsumptionType;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Results of a {@link SubsumptionBatchRequest}, in the order of the submitted subsumption tests.
+ * 
+ * @since 7.1
+ */
+@JsonPropertyOrder({"subsumption"})
+public class SubsumptionBatchResult {
+
+	/**
+	 * The outcome of a single subsumption test along with the tested codes. If the test could not be evaluated (eg. one of the codes does not
+	 * exist), the entry has no outcome, only a message describing the problem.
+	 */
+	@JsonPropertyOrder({"codeA", "codeB", "outcome", "message"})
+	public static final class Entry {
+		
+		@FhirType(FhirDataType.CODE)
+		private final String codeA;
+		
+		@FhirType(FhirDataType.CODE)
+		private final String codeB;
+		
+		@FhirType(FhirDataType.CODE)
+		private final SubsumptionType outcome;
+		
+		@FhirType(FhirDataType.STRING)
+		private final String message;
+		
+		public Entry(String codeA, String codeB, SubsumptionType outcome) {
+			this(codeA, codeB, outcome, null);
+		}
+		
+		private Entry(String codeA, String codeB, SubsumptionType outcome, String message) {
+			this.codeA = codeA;
+			this.codeB = codeB;
+			this.outcome = outcome;
+			this.message = message;
+		}
+		
+		public static Entry error(String codeA, String codeB, String message) {
+			return new Entry(codeA, codeB, null, message);
+		}
+		
+		public String getCodeA() {
+			return codeA;
+		}
+		
+		public String getCodeB() {
+			return codeB;
+		}
+		
+		public SubsumptionType getOutcome() {
+			return outcome;
+		}
+		
+		public String getMessage() {
+			return message;
+		}
+		
+	}
+	
+	@FhirType(FhirDataType.PART)
+	private final Collection<Entry> subsumption;
+	
+	public SubsumptionBatchResult(List<Entry> subsumption) {
+		this.subsumption = ImmutableList.copyOf(subsumption);
+	}
+	
+	public Collection<Entry> getSubsumptions() {
+		return subsumption;
+	}
+	
+}
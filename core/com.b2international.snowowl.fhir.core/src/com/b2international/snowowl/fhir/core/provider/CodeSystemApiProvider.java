@@ -15,10 +15,14 @@
  */
 package com.b2international.snowowl.fhir.core.provider;
 
+import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
+import static com.google.common.collect.Maps.newHashMap;
+
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -31,6 +35,7 @@ import com.b2international.snowowl.datastore.CodeSystemEntry;
 import com.b2international.snowowl.datastore.CodeSystemVersionEntry;
 import com.b2international.snowowl.datastore.CodeSystemVersions;
 import com.b2international.snowowl.datastore.CodeSystems;
+import com.b2international.snowowl.datastore.request.RepositoryRequests;
 import com.b2international.snowowl.fhir.core.LogicalId;
 import com.b2international.snowowl.fhir.core.codesystems.CodeSystemContentMode;
 import com.b2international.snowowl.fhir.core.codesystems.CodeSystemHierarchyMeaning;
@@ -53,11 +58,17 @@ import com.b2international.snowowl.fhir.core.model.dt.Instant;
 import com.b2international.snowowl.fhir.core.model.dt.Uri;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupRequest;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupResult;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionBatchResult;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionRequest;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionResult;
 import com.b2international.snowowl.terminologyregistry.core.request.CodeSystemRequests;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 
 /**
@@ -67,9 +78,30 @@ import com.google.common.collect.Sets;
  */
 public abstract class CodeSystemApiProvider extends FhirApiProvider implements ICodeSystemApiProvider {
 	
+	private static final int MAX_CACHED_BRANCHES = 100;
+	
+	/*
+	 * Supported properties of a branch, valid as long as the head of the branch does not change
+	 */
+	private static final class BranchProperties {
+		
+		private final long headTimestamp;
+		private final Collection<IConceptProperty> properties;
+		
+		private BranchProperties(long headTimestamp, Collection<IConceptProperty> properties) {
+			this.headTimestamp = headTimestamp;
+			this.properties = properties;
+		}
+		
+	}
+	
 	private final String repositoryId;
 	
 	private final Collection<IConceptProperty> supportedProperties = Sets.newHashSet();
+	
+	private final Cache<String, BranchProperties> supportedPropertiesByBranch = CacheBuilder.newBuilder()
+			.maximumSize(MAX_CACHED_BRANCHES)
+			.build();
 
 	public CodeSystemApiProvider(String repositoryId) {
 		this.repositoryId = repositoryId;
@@ -90,6 +122,16 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 	protected Collection<IConceptProperty> getSupportedConceptProperties() {
 		return Collections.emptySet();
 	}
+	
+	/**
+	 * Subclasses may override this method to provide additional properties that depend on the content of the given branch (eg. the available
+	 * attribute types). The returned properties are cached until the head of the branch changes.
+	 * @param branchPath
+	 * @return
+	 */
+	protected Collection<IConceptProperty> getSupportedConceptProperties(String branchPath) {
+		return Collections.emptySet();
+	}
 
 	@Override
 	public boolean isSupported(String uri) {
@@ -235,7 +277,8 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 		}
 		
 		// include supported concept properties
-		getSupportedProperties().stream()
+		final String branchPath = codeSystemVersion != null ? codeSystemVersion.getPath() : codeSystemEntry.getBranchPath();
+		getSupportedProperties(branchPath).stream()
 			.filter(p -> !(SupportedCodeSystemRequestProperties.class.isInstance(p)))
 			.map(SupportedConceptProperty::builder)
 			.map(SupportedConceptProperty.Builder::build)
@@ -265,22 +308,74 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 	@Override
 	public SubsumptionResult subsumes(SubsumptionRequest subsumptionRequest) {
 		
-		final String version = getVersion(subsumptionRequest);
-		final String branchPath = getBranchPath(version);
+		final String branchPath = getBranchPath(getVersion(subsumptionRequest));
+		final String codeA = getCodeA(subsumptionRequest);
+		final String codeB = getCodeB(subsumptionRequest);
 		
-		String codeA = null;
-		String codeB = null;
-		if (subsumptionRequest.getCodeA() != null && subsumptionRequest.getCodeB() != null) {
-			codeA = subsumptionRequest.getCodeA();
-			codeB = subsumptionRequest.getCodeB();
-		} else {
-			codeA = subsumptionRequest.getCodingA().getCodeValue();
-			codeB = subsumptionRequest.getCodingB().getCodeValue();
+		final Map<String, Set<String>> ancestors = fetchAncestors(branchPath, ImmutableSet.of(codeA, codeB));
+		final String missingCode = getMissingCode(ancestors, codeA, codeB);
+		if (missingCode != null) {
+			throw codeNotFound(missingCode);
+		}
+		
+		return subsumes(codeA, codeB, ancestors.get(codeA), ancestors.get(codeB));
+	}
+	
+	@Override
+	public List<SubsumptionBatchResult.Entry> subsumes(List<SubsumptionRequest> subsumptionRequests) {
+		
+		// resolve the branch of each request, and collect the codes to check per branch
+		final Map<String, String> branchPathsByVersion = newHashMap();
+		final List<String> branchPaths = newArrayListWithExpectedSize(subsumptionRequests.size());
+		final SetMultimap<String, String> codesByBranchPath = HashMultimap.create();
+		
+		for (SubsumptionRequest subsumptionRequest : subsumptionRequests) {
+			final String version = getVersion(subsumptionRequest);
+			final String branchPath = branchPathsByVersion.computeIfAbsent(version, this::getBranchPath);
+			branchPaths.add(branchPath);
+			codesByBranchPath.put(branchPath, getCodeA(subsumptionRequest));
+			codesByBranchPath.put(branchPath, getCodeB(subsumptionRequest));
 		}
 		
-		final Set<String> ancestorsA = fetchAncestors(branchPath, codeA);
-		final Set<String> ancestorsB = fetchAncestors(branchPath, codeB);
+		// fetch the ancestors of all codes of a branch at once
+		final Map<String, Map<String, Set<String>>> ancestorsByBranchPath = newHashMap();
+		for (String branchPath : codesByBranchPath.keySet()) {
+			ancestorsByBranchPath.put(branchPath, fetchAncestors(branchPath, codesByBranchPath.get(branchPath)));
+		}
 		
+		// a missing code only fails its own pair, the rest of the batch is still evaluated
+		final List<SubsumptionBatchResult.Entry> results = newArrayListWithExpectedSize(subsumptionRequests.size());
+		for (int i = 0; i < subsumptionRequests.size(); i++) {
+			final SubsumptionRequest subsumptionRequest = subsumptionRequests.get(i);
+			final Map<String, Set<String>> ancestors = ancestorsByBranchPath.get(branchPaths.get(i));
+			final String codeA = getCodeA(subsumptionRequest);
+			final String codeB = getCodeB(subsumptionRequest);
+			final String missingCode = getMissingCode(ancestors, codeA, codeB);
+			if (missingCode != null) {
+				results.add(SubsumptionBatchResult.Entry.error(codeA, codeB, codeNotFound(missingCode).getMessage()));
+			} else {
+				results.add(new SubsumptionBatchResult.Entry(codeA, codeB, subsumes(codeA, codeB, ancestors.get(codeA), ancestors.get(codeB)).getOutcome()));
+			}
+		}
+		
+		return results;
+	}
+	
+	private static String getMissingCode(Map<String, Set<String>> ancestors, String codeA, String codeB) {
+		if (!ancestors.containsKey(codeA)) {
+			return codeA;
+		} else if (!ancestors.containsKey(codeB)) {
+			return codeB;
+		} else {
+			return null;
+		}
+	}
+	
+	private static NotFoundException codeNotFound(String code) {
+		return new NotFoundException("Code", code);
+	}
+	
+	private static SubsumptionResult subsumes(String codeA, String codeB, Set<String> ancestorsA, Set<String> ancestorsB) {
 		if (codeA.equals(codeB)) {
 			return SubsumptionResult.equivalent();
 		} else if (ancestorsA.contains(codeB)) {
@@ -292,6 +387,14 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 		}
 	}
 	
+	private static String getCodeA(SubsumptionRequest subsumptionRequest) {
+		return subsumptionRequest.getCodeA() != null && subsumptionRequest.getCodeB() != null ? subsumptionRequest.getCodeA() : subsumptionRequest.getCodingA().getCodeValue();
+	}
+	
+	private static String getCodeB(SubsumptionRequest subsumptionRequest) {
+		return subsumptionRequest.getCodeA() != null && subsumptionRequest.getCodeB() != null ? subsumptionRequest.getCodeB() : subsumptionRequest.getCodingB().getCodeValue();
+	}
+	
 	/**
 	 * Returns the version information from the request
 	 * @param subsumptionRequest 
@@ -309,6 +412,28 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 	 * @return
 	 */
 	protected abstract Set<String> fetchAncestors(String branchPath, String componentId);
+	
+	/**
+	 * Returns all ancestors of the given components, keyed by component ID. Components that do not exist on the given branch are left out of
+	 * the returned map. Subclasses should override this method to fetch the ancestors of all components with a single request, the default
+	 * implementation fetches them one by one.
+	 * 
+	 * @param branchPath
+	 * @param componentIds
+	 * @return
+	 * @see #fetchAncestors(String, String)
+	 */
+	protected Map<String, Set<String>> fetchAncestors(String branchPath, Set<String> componentIds) {
+		final Map<String, Set<String>> ancestors = newHashMap();
+		for (String componentId : componentIds) {
+			try {
+				ancestors.put(componentId, fetchAncestors(branchPath, componentId));
+			} catch (NotFoundException e) {
+				// missing components are reported by the caller
+			}
+		}
+		return ancestors;
+	}
 
 	/**
 	 * Returns the supported properties
@@ -318,6 +443,38 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 		return supportedProperties;
 	}
 	
+	/**
+	 * Returns the supported properties, including the ones that are specific to the given branch. Branch specific properties are cached
+	 * until the head of the branch changes.
+	 * @param branchPath
+	 * @return the supported properties
+	 */
+	protected Collection<IConceptProperty> getSupportedProperties(String branchPath) {
+		if (repositoryId == null || branchPath == null) {
+			return supportedProperties;
+		}
+		
+		final long headTimestamp = RepositoryRequests.branching()
+				.prepareGet(branchPath)
+				.build(repositoryId)
+				.execute(getBus())
+				.getSync()
+				.headTimestamp();
+		
+		final BranchProperties cachedProperties = supportedPropertiesByBranch.getIfPresent(branchPath);
+		if (cachedProperties != null && cachedProperties.headTimestamp == headTimestamp) {
+			return cachedProperties.properties;
+		}
+		
+		final Collection<IConceptProperty> properties = ImmutableSet.<IConceptProperty>builder()
+				.addAll(supportedProperties)
+				.addAll(getSupportedConceptProperties(branchPath))
+				.build();
+		
+		supportedPropertiesByBranch.put(branchPath, new BranchProperties(headTimestamp, properties));
+		return properties;
+	}
+	
 	/**
 	 * Subclasses may override this method to provide filters supported by this FHIR provider/code system.
 	 * @return the supported filters
@@ -330,9 +487,21 @@ public abstract class CodeSystemApiProvider extends FhirApiProvider implements I
 	 * @param properties
 	 */
 	protected void validateRequestedProperties(LookupRequest request) {
+		validateRequestedProperties(request, getSupportedProperties());
+	}
+	
+	/**
+	 * @param request
+	 * @param branchPath - the branch to check branch specific properties on
+	 */
+	protected void validateRequestedProperties(LookupRequest request, String branchPath) {
+		validateRequestedProperties(request, getSupportedProperties(branchPath));
+	}
+	
+	private void validateRequestedProperties(LookupRequest request, Collection<IConceptProperty> supportedProperties) {
 		final Collection<String> properties = request.getProperties();
 		
-		final Set<String> supportedCodes = getSupportedProperties().stream().map(p -> {
+		final Set<String> supportedCodes = supportedProperties.stream().map(p -> {
 			if (p instanceof IConceptProperty.Dynamic) {
 				return p.getUri().getUriValue();
 			} else {
@@ -16,6 +16,7 @@
 package com.b2international.snowowl.fhir.core.provider;
 
 import java.util.Collection;
+import java.util.List;
 
 import com.b2international.commons.extension.Extensions;
 import com.b2international.snowowl.fhir.core.LogicalId;
@@ -24,6 +25,7 @@ import com.b2international.snowowl.fhir.core.exceptions.BadRequestException;
 import com.b2international.snowowl.fhir.core.model.codesystem.CodeSystem;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupRequest;
 import com.b2international.snowowl.fhir.core.model.lookup.LookupResult;
+import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionBatchResult;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionRequest;
 import com.b2international.snowowl.fhir.core.model.subsumption.SubsumptionResult;
 import com.google.common.collect.ImmutableList;
@@ -106,6 +108,17 @@ public interface ICodeSystemApiProvider extends IFhirApiProvider {
 	 * @return
 	 */
 	SubsumptionResult subsumes(SubsumptionRequest subsumption);
+	
+	/**
+	 * Tests the subsumption relationship of multiple code pairs. Implementations should resolve the hierarchy of all codes at once instead of
+	 * evaluating each request separately. A pair with a code that does not exist gets an entry with an error message instead of failing the
+	 * entire batch.
+	 * 
+	 * @param subsumptions - in parameters of each test
+	 * @return the results in the order of the requests
+	 * @see #subsumes(SubsumptionRequest)
+	 */
+	List<SubsumptionBatchResult.Entry> subsumes(List<SubsumptionRequest> subsumptions);
 
 	/**
 	 * Returns the code systems supported by this provider
@@ -101,7 +101,20 @@ public interface IValueSetApiProvider extends IFhirApiProvider {
 	 * @return {@link ValueSet}
 	 * @throws BadRequestException if the value set is not supported by this provider
 	 */
-	ValueSet expandValueSet(LogicalId logicalId);
+	default ValueSet expandValueSet(LogicalId logicalId) {
+		return expandValueSet(logicalId, null, 0, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns a page of the expanded form of the value set specified by its logical id
+	 * @param logicalId
+	 * @param filter text filter to apply to the codes of the value set, or <code>null</code> to include all codes
+	 * @param offset the number of codes to skip
+	 * @param count the maximum number of codes to return
+	 * @return {@link ValueSet}
+	 * @throws BadRequestException if the value set is not supported by this provider
+	 */
+	ValueSet expandValueSet(LogicalId logicalId, String filter, int offset, int count);
 
 	/**
 	 * Returns the expanded value set for the passed in value set URI
@@ -109,7 +122,20 @@ public interface IValueSetApiProvider extends IFhirApiProvider {
 	 * @return {@link ValueSet}
 	 * @throws BadRequestException if the value set is not supported by this provider
 	 */
-	ValueSet expandValueSet(String url);
+	default ValueSet expandValueSet(String url) {
+		return expandValueSet(url, null, 0, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns a page of the expanded value set for the passed in value set URI
+	 * @param valueSetUri
+	 * @param filter text filter to apply to the codes of the value set, or <code>null</code> to include all codes
+	 * @param offset the number of codes to skip
+	 * @param count the maximum number of codes to return
+	 * @return {@link ValueSet}
+	 * @throws BadRequestException if the value set is not supported by this provider
+	 */
+	ValueSet expandValueSet(String url, String filter, int offset, int count);
 	
 	/**
 	 * Returns the expanded value set for the passed in request
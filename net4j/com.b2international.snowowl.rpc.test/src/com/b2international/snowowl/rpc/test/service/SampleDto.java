@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.rpc.test.service;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.eclipse.net4j.util.io.ExtendedDataInput;
+import org.eclipse.net4j.util.io.ExtendedDataOutput;
+
+import com.b2international.snowowl.rpc.RpcTypeCodec;
+
+/**
+ * A serializable value object which can also be registered with the compact RPC codec.
+ * 
+ * @since 7.1
+ */
+public class SampleDto implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final RpcTypeCodec<SampleDto> CODEC = new RpcTypeCodec<SampleDto>() {
+		
+		@Override
+		public void write(ExtendedDataOutput out, SampleDto value) throws IOException {
+			out.writeLong(value.id);
+			out.writeString(value.term);
+			out.writeBoolean(value.active);
+		}
+		
+		@Override
+		public SampleDto read(ExtendedDataInput in) throws IOException {
+			return new SampleDto(in.readLong(), in.readString(), in.readBoolean());
+		}
+	};
+	
+	private final long id;
+	private final String term;
+	private final boolean active;
+
+	public SampleDto(long id, String term, boolean active) {
+		this.id = id;
+		this.term = term;
+		this.active = active;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, term, active);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SampleDto)) {
+			return false;
+		}
+		SampleDto other = (SampleDto) obj;
+		return id == other.id && Objects.equals(term, other.term) && active == other.active;
+	}
+
+	@Override
+	public String toString() {
+		return "SampleDto [id=" + id + ", term=" + term + ", active=" + active + "]";
+	}
+}
@@ -59,7 +59,7 @@ public abstract class AbstractRpcTest<T, U extends T> {
 		
 		Net4jUtil.prepareContainer(container);
 		JVMUtil.prepareContainer(container);
-		RpcUtil.prepareContainer(container, new RpcConfiguration(), false);
+		RpcUtil.prepareContainer(container, createConfiguration(), false);
 		
 		JVMUtil.getAcceptor(container, JVM_DESCRIPTION);
 	}
@@ -72,7 +72,19 @@ public abstract class AbstractRpcTest<T, U extends T> {
 		container = null;
 	}
 
+	protected RpcConfiguration createConfiguration() {
+		return new RpcConfiguration();
+	}
+
 	protected T initializeService() {
+		return getServiceProxy(initializeProtocol());
+	}
+	
+	protected T getServiceProxy(final RpcProtocol protocol) {
+		return protocol.getServiceProxy(serviceInterfaceClass);
+	}
+
+	protected RpcProtocol initializeProtocol() {
 	
 		final IConnector connector = JVMUtil.getConnector(container, JVM_DESCRIPTION);
 		serviceImplementation = createServiceImplementation();
@@ -87,7 +99,7 @@ public abstract class AbstractRpcTest<T, U extends T> {
 		protocol.open(connector);
 		protocol.setTimeout(PROTOCOL_TIMEOUT_MILLIS);
 		
-		return protocol.getServiceProxy(serviceInterfaceClass);
+		return protocol;
 	}
 
 	protected abstract U createServiceImplementation();
@@ -30,7 +30,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	VoidReturnTest.class,
 	InputStreamUsingTest.class,
 	OutputStreamUsingTest.class,
-	ExceptionHandlingTest.class })
+	ExceptionHandlingTest.class,
+	RpcCodecTest.class,
+	RpcCodecThroughputTest.class })
 public class AllRpcTests {
 	// Empty class
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.rpc.test.testcases;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.ExtendedIOUtil.ClassResolver;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveLists;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.ints.IntList;
+import com.b2international.collections.ints.IntSet;
+import com.b2international.collections.longs.LongList;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.snowowl.internal.rpc.CompactCodec;
+import com.b2international.snowowl.internal.rpc.SerializationCodec;
+import com.b2international.snowowl.internal.rpc.ValueType;
+import com.b2international.snowowl.rpc.RpcCodec;
+import com.b2international.snowowl.rpc.RpcConfiguration;
+import com.b2international.snowowl.rpc.test.service.SampleDto;
+import com.b2international.snowowl.rpc.test.service.SampleEnum;
+import com.b2international.snowowl.rpc.test.service.SampleSerializable;
+
+/**
+ * Contains round-trip test cases for the RPC codecs, without an actual connection.
+ * 
+ * @since 7.1
+ */
+public class RpcCodecTest {
+
+	private static final ClassResolver CLASS_RESOLVER = new ClassResolver() {
+		@Override
+		public Class<?> resolveClass(ObjectStreamClass desc) throws ClassNotFoundException {
+			return Class.forName(desc.getName(), false, RpcCodecTest.class.getClassLoader());
+		}
+	};
+	
+	private final RpcCodec compact = new CompactCodec(new RpcConfiguration().registerType(SampleDto.class, SampleDto.CODEC));
+	private final List<RpcCodec> codecs = Arrays.asList(SerializationCodec.INSTANCE, compact);
+	
+	@Test
+	public void everyValueTypeRoundTrips() throws Exception {
+		final Map<ValueType, Object> samples = new HashMap<>();
+		samples.put(ValueType.BOOLEAN, true);
+		samples.put(ValueType.BYTE, (byte) -7);
+		samples.put(ValueType.BYTE_ARRAY, new byte[] { 1, 2, 3 });
+		samples.put(ValueType.INT, Integer.MIN_VALUE);
+		samples.put(ValueType.LONG, Long.MAX_VALUE);
+		samples.put(ValueType.FLOAT, 1.5f);
+		samples.put(ValueType.DOUBLE, -2.25d);
+		samples.put(ValueType.STRING, "Concept \u00e9\u4e2d");
+		samples.put(ValueType.SHORT, (short) 300);
+		samples.put(ValueType.ENUM_VALUE, SampleEnum.TWO);
+		samples.put(ValueType.OBJECT, new SampleSerializable(42));
+		
+		for (final RpcCodec codec : codecs) {
+			for (final ValueType type : ValueType.values()) {
+				if (type.isProxied()) {
+					// progress monitors and streams are replaced by proxies on the other endpoint, they are never written as values
+					assertFalse(samples.containsKey(type));
+					continue;
+				}
+				
+				final Object value = samples.get(type);
+				final Object actual = roundTrip(codec, type, value);
+				if (type == ValueType.BYTE_ARRAY) {
+					assertArrayEquals((byte[]) value, (byte[]) actual);
+				} else {
+					assertEquals(type + " with " + codec, value, actual);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void objectValuesRoundTrip() throws Exception {
+		final List<Object> values = new ArrayList<>();
+		values.add(Boolean.FALSE);
+		values.add((byte) 127);
+		values.add((short) -1);
+		values.add(0);
+		values.add(-1);
+		values.add(Integer.MAX_VALUE);
+		values.add(Long.MIN_VALUE);
+		values.add(138875005L);
+		values.add(Float.NaN);
+		values.add(Double.MIN_VALUE);
+		values.add('x');
+		values.add("");
+		values.add(new ArrayList<>(Arrays.asList("a", null, 1L)));
+		values.add(new HashSet<>(Arrays.asList(1, 2, 3)));
+		values.add(new LinkedHashSet<>(Arrays.asList("c", "b", "a")));
+		values.add(new TreeSet<>(Arrays.asList("c", "b", "a")));
+		values.add(Collections.singletonList("single"));
+		values.add(new SampleSerializable(5));
+		values.add(new SampleDto(404684003L, "Clinical finding", true));
+		values.add(SampleEnum.THREE);
+		
+		final Map<String, Object> map = new HashMap<>();
+		map.put("values", new ArrayList<>(values));
+		map.put(null, new LinkedHashMap<>(Collections.singletonMap(1L, new SampleDto(1L, null, false))));
+		values.add(map);
+		
+		for (final RpcCodec codec : codecs) {
+			for (final Object value : values) {
+				final Object actual = roundTrip(codec, ValueType.OBJECT, value);
+				assertEquals(value + " with " + codec, value, actual);
+				assertEquals(value.getClass(), actual.getClass());
+			}
+			
+			assertEquals(null, roundTrip(codec, ValueType.OBJECT, null));
+			assertArrayEquals(new int[] { 1, -1, Integer.MIN_VALUE }, (int[]) roundTrip(codec, ValueType.OBJECT, new int[] { 1, -1, Integer.MIN_VALUE }));
+			assertArrayEquals(new long[] { 0L, Long.MAX_VALUE }, (long[]) roundTrip(codec, ValueType.OBJECT, new long[] { 0L, Long.MAX_VALUE }));
+		}
+	}
+	
+	@Test
+	public void primitiveCollectionsRoundTrip() throws Exception {
+		final LongSet longSet = PrimitiveSets.newLongOpenHashSet(138875005L, -1L, Long.MAX_VALUE);
+		final LongList longList = PrimitiveLists.newLongArrayList(3L, 2L, 3L);
+		final IntSet intSet = PrimitiveSets.newIntOpenHashSetWithExpectedSize(2);
+		intSet.add(5);
+		intSet.add(-5);
+		final IntList intList = PrimitiveLists.newIntArrayList(9, 8, 9);
+		
+		assertArrayEquals(sorted(longSet.toArray()), sorted(((LongSet) roundTrip(compact, ValueType.OBJECT, longSet)).toArray()));
+		assertArrayEquals(longList.toArray(), ((LongList) roundTrip(compact, ValueType.OBJECT, longList)).toArray());
+		assertArrayEquals(sorted(intSet.toArray()), sorted(((IntSet) roundTrip(compact, ValueType.OBJECT, intSet)).toArray()));
+		assertArrayEquals(intList.toArray(), ((IntList) roundTrip(compact, ValueType.OBJECT, intList)).toArray());
+	}
+	
+	@Test
+	public void compactEncodingIsSmaller() throws Exception {
+		final List<Long> ids = new ArrayList<>();
+		final List<SampleDto> dtos = new ArrayList<>();
+		for (long i = 0; i < 10_000; i++) {
+			ids.add(100_000_000L + i);
+			dtos.add(new SampleDto(100_000_000L + i, "Term", true));
+		}
+		
+		assertTrue(size(compact, ids) * 2 < size(SerializationCodec.INSTANCE, ids));
+		// the class name of registered types is only written once
+		assertTrue(size(compact, dtos) < dtos.size() * SampleDto.class.getName().length());
+	}
+	
+	@Test
+	public void collectionOfUnregisteredTypesIsSerializedOnce() throws Exception {
+		final List<SampleSerializable> values = new ArrayList<>();
+		final Map<String, SampleSerializable> valuesById = new LinkedHashMap<>();
+		for (int i = 0; i < 1_000; i++) {
+			values.add(new SampleSerializable(i));
+			valuesById.put(Integer.toString(i), new SampleSerializable(i));
+		}
+		
+		// the compact codec only adds its tag byte to the plain Java serialization of the entire collection
+		assertEquals(size(SerializationCodec.INSTANCE, values) + 1, size(compact, values));
+		assertEquals(size(SerializationCodec.INSTANCE, valuesById) + 1, size(compact, valuesById));
+		assertEquals(values, roundTrip(compact, ValueType.OBJECT, values));
+		assertEquals(valuesById, roundTrip(compact, ValueType.OBJECT, valuesById));
+	}
+	
+	@Test
+	public void sharedAndCyclicReferencesRoundTrip() throws Exception {
+		final SampleSerializable shared = new SampleSerializable(1);
+		final List<Object> sharedValues = new ArrayList<>(Arrays.asList(shared, shared));
+		final List<?> actualSharedValues = (List<?>) roundTrip(compact, ValueType.OBJECT, sharedValues);
+		assertEquals(sharedValues, actualSharedValues);
+		assertSame(actualSharedValues.get(0), actualSharedValues.get(1));
+		
+		final List<Object> cyclicValues = new ArrayList<>();
+		cyclicValues.add("value");
+		cyclicValues.add(cyclicValues);
+		final List<?> actualCyclicValues = (List<?>) roundTrip(compact, ValueType.OBJECT, cyclicValues);
+		assertEquals("value", actualCyclicValues.get(0));
+		assertSame(actualCyclicValues, actualCyclicValues.get(1));
+	}
+	
+	@Test(expected = IOException.class)
+	public void unregisteredTypeOnReceiver() throws Exception {
+		final byte[] bytes = write(compact, ValueType.OBJECT, new SampleDto(1L, "Term", true));
+		read(new CompactCodec(new RpcConfiguration()), bytes);
+	}
+	
+	@Test
+	public void codecVersions() throws Exception {
+		assertEquals(RpcCodec.SERIALIZATION, SerializationCodec.INSTANCE.getVersion());
+		assertEquals(RpcCodec.COMPACT, compact.getVersion());
+		assertNotEquals(SerializationCodec.INSTANCE.getVersion(), compact.getVersion());
+	}
+
+	private static Object roundTrip(final RpcCodec codec, final ValueType type, final Object value) throws Exception {
+		return read(codec, write(codec, type, value));
+	}
+	
+	private static int size(final RpcCodec codec, final Object value) throws IOException {
+		return write(codec, ValueType.OBJECT, value).length;
+	}
+
+	private static byte[] write(final RpcCodec codec, final ValueType type, final Object value) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ExtendedDataOutputStream out = new ExtendedDataOutputStream(bytes)) {
+			out.writeEnum(type);
+			type.write(out, value, codec);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object read(final RpcCodec codec, final byte[] bytes) throws Exception {
+		try (final ExtendedDataInputStream in = new ExtendedDataInputStream(new ByteArrayInputStream(bytes))) {
+			final ValueType type = in.readEnum(ValueType.class);
+			switch (type) {
+				case ENUM_VALUE:
+					assertEquals(SampleEnum.class.getName(), in.readString());
+					return in.readEnum(SampleEnum.class);
+				case OBJECT:
+					return codec.readObject(in, CLASS_RESOLVER);
+				default:
+					return type.read(in);
+			}
+		}
+	}
+	
+	private static long[] sorted(final long[] values) {
+		Arrays.sort(values);
+		return values;
+	}
+	
+	private static int[] sorted(final int[] values) {
+		Arrays.sort(values);
+		return values;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.rpc.test.testcases;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.b2international.snowowl.rpc.RpcCodec;
+import com.b2international.snowowl.rpc.RpcConfiguration;
+import com.b2international.snowowl.rpc.RpcProtocol;
+import com.b2international.snowowl.rpc.test.service.IPayloadService;
+import com.b2international.snowowl.rpc.test.service.SampleDto;
+import com.b2international.snowowl.rpc.test.service.impl.PayloadService;
+
+/**
+ * Measures the throughput of remote method calls between two in-JVM endpoints, with and without the compact codec.
+ * 
+ * @since 7.1
+ */
+@Ignore("Benchmark, run manually")
+@RunWith(Parameterized.class)
+public class RpcCodecThroughputTest extends AbstractRpcTest<IPayloadService, PayloadService> {
+
+	private static final int NUMBER_OF_CALLS = 200;
+	private static final int PAYLOAD_SIZE = 2_000;
+	
+	@Parameters(name = "compactCodec={0}")
+	public static Collection<Object[]> parameters() {
+		return Arrays.asList(new Object[][] { { true }, { false } });
+	}
+	
+	private final boolean compactCodec;
+	
+	public RpcCodecThroughputTest(final boolean compactCodec) {
+		super(IPayloadService.class);
+		this.compactCodec = compactCodec;
+	}
+	
+	@Override
+	protected RpcConfiguration createConfiguration() {
+		final RpcConfiguration configuration = new RpcConfiguration();
+		configuration.setCompactCodec(compactCodec);
+		configuration.registerType(SampleDto.class, SampleDto.CODEC);
+		return configuration;
+	}
+	
+	@Test
+	public void echoPayloads() throws Exception {
+		final RpcProtocol protocol = initializeProtocol();
+		final IPayloadService serviceProxy = getServiceProxy(protocol);
+		
+		final List<Long> ids = new ArrayList<>();
+		final Map<String, SampleDto> dtos = new HashMap<>();
+		for (long i = 0; i < PAYLOAD_SIZE; i++) {
+			final long id = 100_000_000L + i;
+			ids.add(id);
+			dtos.put(Long.toString(id), new SampleDto(id, "Term of " + id, i % 2 == 0));
+		}
+		
+		// warm up, this also completes the codec handshake
+		assertEquals(ids, serviceProxy.echo(ids));
+		assertEquals(compactCodec ? RpcCodec.COMPACT : RpcCodec.SERIALIZATION, protocol.getCodec().getVersion());
+		
+		final long start = System.nanoTime();
+		for (int i = 0; i < NUMBER_OF_CALLS; i++) {
+			assertEquals(ids, serviceProxy.echo(ids));
+			assertEquals(dtos, serviceProxy.echo(dtos));
+		}
+		final long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1L);
+		
+		System.out.println(String.format("RPC codec %s: %d calls in %d ms (%.1f calls/s)", 
+				protocol.getCodec().getClass().getSimpleName(), 
+				2 * NUMBER_OF_CALLS, 
+				elapsedMillis, 
+				2 * NUMBER_OF_CALLS * 1000.0 / elapsedMillis));
+	}
+
+	@Override
+	protected PayloadService createServiceImplementation() {
+		return new PayloadService();
+	}
+}
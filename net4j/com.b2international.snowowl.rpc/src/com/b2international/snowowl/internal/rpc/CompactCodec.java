@@ -0,0 +1,478 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.rpc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.ExtendedIOUtil.ClassResolver;
+
+import com.b2international.collections.PrimitiveLists;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.ints.IntList;
+import com.b2international.collections.ints.IntSet;
+import com.b2international.collections.longs.LongList;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.snowowl.rpc.RpcCodec;
+import com.b2international.snowowl.rpc.RpcConfiguration;
+import com.b2international.snowowl.rpc.RpcTypeCodec;
+
+/**
+ * The compact {@link RpcCodec}. Every value starts with a single tag byte; integral numbers and lengths are written as variable-length
+ * (zig-zag) integers, collections are written element by element. Collection classes are only encoded when the exact class is known to the
+ * codec, so that the receiver gets an instance of the same class; the exception are primitive collections, which are always read back as
+ * the default hash set or array list implementation. Collections are only written element by element if all of their elements have a
+ * compact encoding and no collection is reachable more than once; otherwise the entire collection is written using Java serialization, which
+ * writes class descriptors once and preserves shared references.
+ * <p>
+ * Types registered in the {@link RpcConfiguration} are written with their {@link RpcTypeCodec}, and their class name is only sent once per
+ * top-level value. All other values are written using Java serialization.
+ * 
+ * @since 7.1
+ */
+public final class CompactCodec implements RpcCodec {
+
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte BYTE = 3;
+	private static final byte SHORT = 4;
+	private static final byte INT = 5;
+	private static final byte LONG = 6;
+	private static final byte FLOAT = 7;
+	private static final byte DOUBLE = 8;
+	private static final byte CHAR = 9;
+	private static final byte STRING = 10;
+	private static final byte BYTE_ARRAY = 11;
+	private static final byte INT_ARRAY = 12;
+	private static final byte LONG_ARRAY = 13;
+	private static final byte ARRAY_LIST = 14;
+	private static final byte HASH_SET = 15;
+	private static final byte LINKED_HASH_SET = 16;
+	private static final byte HASH_MAP = 17;
+	private static final byte LINKED_HASH_MAP = 18;
+	private static final byte INT_LIST = 19;
+	private static final byte INT_SET = 20;
+	private static final byte LONG_LIST = 21;
+	private static final byte LONG_SET = 22;
+	private static final byte REGISTERED = 23;
+	private static final byte SERIALIZED = 24;
+	
+	// value types with a compact encoding, apart from collections and registered types
+	private static final Set<Class<?>> COMPACT_TYPES = new HashSet<>(Arrays.<Class<?>>asList(Boolean.class, Byte.class, Short.class, Integer.class, 
+			Long.class, Float.class, Double.class, Character.class, String.class, byte[].class, int[].class, long[].class));
+	
+	private final RpcConfiguration configuration;
+	
+	public CompactCodec(final RpcConfiguration configuration) {
+		this.configuration = configuration;
+	}
+	
+	@Override
+	public int getVersion() {
+		return COMPACT;
+	}
+	
+	@Override
+	public void writeObject(final ExtendedDataOutputStream out, final Object value) throws IOException {
+		new Encoder(out).write(value);
+	}
+
+	@Override
+	public Object readObject(final ExtendedDataInputStream in, final ClassResolver classResolver) throws IOException, ClassNotFoundException {
+		return new Decoder(in, classResolver).read();
+	}
+	
+	private final class Encoder {
+		
+		private final ExtendedDataOutputStream out;
+		private Map<String, Integer> typeNames;
+		// set while writing the contents of a collection that has already been checked with isCompact
+		private boolean compactContents;
+		
+		Encoder(final ExtendedDataOutputStream out) {
+			this.out = out;
+		}
+		
+		void write(final Object value) throws IOException {
+			
+			if (value == null) {
+				out.writeByte(NULL);
+				return;
+			}
+			
+			final Class<?> type = value.getClass();
+			
+			if (type == Boolean.class) {
+				out.writeByte((Boolean) value ? TRUE : FALSE);
+			} else if (type == Byte.class) {
+				out.writeByte(BYTE);
+				out.writeByte((Byte) value);
+			} else if (type == Short.class) {
+				out.writeByte(SHORT);
+				out.writeShort((Short) value);
+			} else if (type == Integer.class) {
+				out.writeByte(INT);
+				writeVarInt((Integer) value);
+			} else if (type == Long.class) {
+				out.writeByte(LONG);
+				writeVarLong((Long) value);
+			} else if (type == Float.class) {
+				out.writeByte(FLOAT);
+				out.writeFloat((Float) value);
+			} else if (type == Double.class) {
+				out.writeByte(DOUBLE);
+				out.writeDouble((Double) value);
+			} else if (type == Character.class) {
+				out.writeByte(CHAR);
+				out.writeChar((Character) value);
+			} else if (type == String.class) {
+				out.writeByte(STRING);
+				out.writeString((String) value);
+			} else if (type == byte[].class) {
+				out.writeByte(BYTE_ARRAY);
+				out.writeByteArray((byte[]) value);
+			} else if (type == int[].class) {
+				out.writeByte(INT_ARRAY);
+				writeInts((int[]) value);
+			} else if (type == long[].class) {
+				out.writeByte(LONG_ARRAY);
+				writeLongs((long[]) value);
+			} else if (type == ArrayList.class) {
+				writeContainer(ARRAY_LIST, value);
+			} else if (type == HashSet.class) {
+				writeContainer(HASH_SET, value);
+			} else if (type == LinkedHashSet.class) {
+				writeContainer(LINKED_HASH_SET, value);
+			} else if (type == HashMap.class) {
+				writeContainer(HASH_MAP, value);
+			} else if (type == LinkedHashMap.class) {
+				writeContainer(LINKED_HASH_MAP, value);
+			} else if (value instanceof IntList) {
+				out.writeByte(INT_LIST);
+				writeInts(((IntList) value).toArray());
+			} else if (value instanceof IntSet) {
+				out.writeByte(INT_SET);
+				writeInts(((IntSet) value).toArray());
+			} else if (value instanceof LongList) {
+				out.writeByte(LONG_LIST);
+				writeLongs(((LongList) value).toArray());
+			} else if (value instanceof LongSet) {
+				out.writeByte(LONG_SET);
+				writeLongs(((LongSet) value).toArray());
+			} else {
+				writeOther(type, value);
+			}
+		}
+
+		private void writeContainer(final byte tag, final Object value) throws IOException {
+			if (!compactContents && !isCompact(value, Collections.newSetFromMap(new IdentityHashMap<>()))) {
+				out.writeByte(SERIALIZED);
+				out.writeObject(value);
+				return;
+			}
+			
+			final boolean previous = compactContents;
+			compactContents = true;
+			try {
+				out.writeByte(tag);
+				if (value instanceof Map) {
+					writeEntries((Map<?, ?>) value);
+				} else {
+					writeElements((Collection<?>) value);
+				}
+			} finally {
+				compactContents = previous;
+			}
+		}
+		
+		/*
+		 * Returns true if the value can be written without Java serialization. Collections reachable more than once (shared or cyclic) are
+		 * reported as not compact, as the element by element encoding would duplicate them or would never terminate.
+		 */
+		private boolean isCompact(final Object value, final Set<Object> visitedContainers) {
+			if (value == null) {
+				return true;
+			}
+			
+			final Class<?> type = value.getClass();
+			if (type == ArrayList.class || type == HashSet.class || type == LinkedHashSet.class) {
+				if (!visitedContainers.add(value)) {
+					return false;
+				}
+				for (final Object element : (Collection<?>) value) {
+					if (!isCompact(element, visitedContainers)) {
+						return false;
+					}
+				}
+				return true;
+			} else if (type == HashMap.class || type == LinkedHashMap.class) {
+				if (!visitedContainers.add(value)) {
+					return false;
+				}
+				for (final Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+					if (!isCompact(entry.getKey(), visitedContainers) || !isCompact(entry.getValue(), visitedContainers)) {
+						return false;
+					}
+				}
+				return true;
+			} else {
+				return COMPACT_TYPES.contains(type)
+						|| value instanceof IntList
+						|| value instanceof IntSet
+						|| value instanceof LongList
+						|| value instanceof LongSet
+						|| configuration.getTypeCodec(type) != null;
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		private void writeOther(final Class<?> type, final Object value) throws IOException {
+			final RpcTypeCodec<Object> typeCodec = (RpcTypeCodec<Object>) configuration.getTypeCodec(type);
+			if (typeCodec != null) {
+				out.writeByte(REGISTERED);
+				writeTypeName(type.getName());
+				typeCodec.write(out, value);
+			} else {
+				out.writeByte(SERIALIZED);
+				out.writeObject(value);
+			}
+		}
+		
+		private void writeTypeName(final String typeName) throws IOException {
+			if (typeNames == null) {
+				typeNames = new HashMap<>();
+			}
+			
+			final Integer index = typeNames.get(typeName);
+			if (index != null) {
+				writeVarInt(index);
+			} else {
+				// zero introduces a new type name, which gets the next available index
+				writeVarInt(0);
+				out.writeString(typeName);
+				typeNames.put(typeName, typeNames.size() + 1);
+			}
+		}
+
+		private void writeElements(final Collection<?> values) throws IOException {
+			writeVarInt(values.size());
+			for (final Object element : values) {
+				write(element);
+			}
+		}
+		
+		private void writeEntries(final Map<?, ?> values) throws IOException {
+			writeVarInt(values.size());
+			for (final Entry<?, ?> entry : values.entrySet()) {
+				write(entry.getKey());
+				write(entry.getValue());
+			}
+		}
+		
+		private void writeInts(final int[] values) throws IOException {
+			writeVarInt(values.length);
+			for (final int value : values) {
+				writeVarInt(value);
+			}
+		}
+		
+		private void writeLongs(final long[] values) throws IOException {
+			writeVarInt(values.length);
+			for (final long value : values) {
+				writeVarLong(value);
+			}
+		}
+		
+		private void writeVarInt(final int value) throws IOException {
+			int zigZag = (value << 1) ^ (value >> 31);
+			while ((zigZag & ~0x7F) != 0) {
+				out.writeByte((zigZag & 0x7F) | 0x80);
+				zigZag >>>= 7;
+			}
+			out.writeByte(zigZag);
+		}
+		
+		private void writeVarLong(final long value) throws IOException {
+			long zigZag = (value << 1) ^ (value >> 63);
+			while ((zigZag & ~0x7FL) != 0) {
+				out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+				zigZag >>>= 7;
+			}
+			out.writeByte((int) zigZag);
+		}
+	}
+	
+	private final class Decoder {
+		
+		private final ExtendedDataInputStream in;
+		private final ClassResolver classResolver;
+		private List<RpcTypeCodec<?>> typeCodecs;
+		
+		Decoder(final ExtendedDataInputStream in, final ClassResolver classResolver) {
+			this.in = in;
+			this.classResolver = classResolver;
+		}
+		
+		Object read() throws IOException, ClassNotFoundException {
+			final byte tag = in.readByte();
+			switch (tag) {
+				case NULL: return null;
+				case TRUE: return Boolean.TRUE;
+				case FALSE: return Boolean.FALSE;
+				case BYTE: return in.readByte();
+				case SHORT: return in.readShort();
+				case INT: return readVarInt();
+				case LONG: return readVarLong();
+				case FLOAT: return in.readFloat();
+				case DOUBLE: return in.readDouble();
+				case CHAR: return in.readChar();
+				case STRING: return in.readString();
+				case BYTE_ARRAY: return in.readByteArray();
+				case INT_ARRAY: return readInts();
+				case LONG_ARRAY: return readLongs();
+				case ARRAY_LIST: {
+					final int size = readVarInt();
+					return readElements(new ArrayList<>(size), size);
+				}
+				case HASH_SET: {
+					final int size = readVarInt();
+					return readElements(new HashSet<>(capacity(size)), size);
+				}
+				case LINKED_HASH_SET: {
+					final int size = readVarInt();
+					return readElements(new LinkedHashSet<>(capacity(size)), size);
+				}
+				case HASH_MAP: {
+					final int size = readVarInt();
+					return readEntries(new HashMap<>(capacity(size)), size);
+				}
+				case LINKED_HASH_MAP: {
+					final int size = readVarInt();
+					return readEntries(new LinkedHashMap<>(capacity(size)), size);
+				}
+				case INT_LIST: return PrimitiveLists.newIntArrayList(readInts());
+				case INT_SET: {
+					final int[] values = readInts();
+					final IntSet set = PrimitiveSets.newIntOpenHashSetWithExpectedSize(values.length);
+					for (final int value : values) {
+						set.add(value);
+					}
+					return set;
+				}
+				case LONG_LIST: return PrimitiveLists.newLongArrayList(readLongs());
+				case LONG_SET: return PrimitiveSets.newLongOpenHashSet(readLongs());
+				case REGISTERED: return readTypeCodec().read(in);
+				case SERIALIZED: return in.readObject(classResolver);
+				default: throw new IOException("Unexpected value tag " + tag + " in compact RPC codec input.");
+			}
+		}
+		
+		private RpcTypeCodec<?> readTypeCodec() throws IOException {
+			if (typeCodecs == null) {
+				typeCodecs = new ArrayList<>();
+			}
+			
+			final int index = readVarInt();
+			if (index > 0) {
+				return typeCodecs.get(index - 1);
+			}
+			
+			final String typeName = in.readString();
+			final RpcTypeCodec<?> typeCodec = configuration.getTypeCodec(typeName);
+			if (typeCodec == null) {
+				throw new IOException("No RPC type codec has been registered for '" + typeName + "'.");
+			}
+			
+			typeCodecs.add(typeCodec);
+			return typeCodec;
+		}
+		
+		private <T extends Collection<Object>> T readElements(final T values, final int size) throws IOException, ClassNotFoundException {
+			for (int i = 0; i < size; i++) {
+				values.add(read());
+			}
+			return values;
+		}
+		
+		private <T extends Map<Object, Object>> T readEntries(final T values, final int size) throws IOException, ClassNotFoundException {
+			for (int i = 0; i < size; i++) {
+				final Object key = read();
+				values.put(key, read());
+			}
+			return values;
+		}
+		
+		private int[] readInts() throws IOException {
+			final int[] values = new int[readVarInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readVarInt();
+			}
+			return values;
+		}
+		
+		private long[] readLongs() throws IOException {
+			final long[] values = new long[readVarInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readVarLong();
+			}
+			return values;
+		}
+		
+		private int readVarInt() throws IOException {
+			int zigZag = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = in.readByte();
+				zigZag |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return (zigZag >>> 1) ^ -(zigZag & 1);
+		}
+		
+		private long readVarLong() throws IOException {
+			long zigZag = 0L;
+			int shift = 0;
+			byte b;
+			do {
+				b = in.readByte();
+				zigZag |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return (zigZag >>> 1) ^ -(zigZag & 1L);
+		}
+	}
+	
+	private static int capacity(final int expectedSize) {
+		return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75F + 1.0F);
+	}
+	
+}
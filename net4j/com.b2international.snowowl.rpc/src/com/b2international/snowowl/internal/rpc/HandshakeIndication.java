@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.rpc;
+
+import org.eclipse.net4j.signal.IndicationWithResponse;
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+
+import com.b2international.snowowl.rpc.RpcProtocol;
+import com.b2international.snowowl.rpc.RpcProtocolConstants;
+
+/**
+ * Receives the highest codec version supported by the other endpoint, switches to the highest version supported by both endpoints and
+ * reports it back.
+ * 
+ * @since 7.1
+ */
+public class HandshakeIndication extends IndicationWithResponse {
+
+	private int codecVersion;
+
+	public HandshakeIndication(final RpcProtocol protocol) {
+		super(protocol, RpcProtocolConstants.SIGNAL_RPC_HANDSHAKE);
+	}
+	
+	@Override
+	public final RpcProtocol getProtocol() {
+		return (RpcProtocol) super.getProtocol();
+	}
+	
+	@Override
+	protected void indicating(final ExtendedDataInputStream in) throws Exception {
+		codecVersion = getProtocol().acceptCodecVersion(in.readInt());
+	}
+
+	@Override
+	protected void responding(final ExtendedDataOutputStream out) throws Exception {
+		out.writeInt(codecVersion);
+	}
+	
+}
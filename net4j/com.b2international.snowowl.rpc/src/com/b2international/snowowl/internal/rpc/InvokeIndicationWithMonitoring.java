@@ -157,7 +157,7 @@ public abstract class InvokeIndicationWithMonitoring extends IndicationWithMonit
 			case ENUM_VALUE:
 				return readEnum(serviceClassName, in);
 			case OBJECT:
-				return in.readObject(getSession().getClassResolver(serviceClassName));
+				return getProtocol().getCodec().readObject(in, getSession().getClassResolver(serviceClassName));
 			default:
 				return type.read(in);
 		}
@@ -217,7 +217,7 @@ public abstract class InvokeIndicationWithMonitoring extends IndicationWithMonit
 				out.writeBoolean(false);
 				
 				try {
-					out.writeObject(exceptionFromCall);
+					getProtocol().getCodec().writeObject(out, exceptionFromCall);
 				} catch (final NotSerializableException e) {
 					// Net4j will take care of sending a String representation which includes the server-side stack trace
 					e.addSuppressed(exceptionFromCall);
@@ -249,7 +249,7 @@ public abstract class InvokeIndicationWithMonitoring extends IndicationWithMonit
 		
 		final ValueType type = ValueType.fromObject(result);
 		out.writeEnum(type);
-		type.write(out, result);
+		type.write(out, result, getProtocol().getCodec());
 	}
 
 	protected void stopAsync(final Async async) {
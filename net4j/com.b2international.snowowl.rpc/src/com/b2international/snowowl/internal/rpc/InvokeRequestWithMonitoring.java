@@ -110,7 +110,7 @@ public abstract class InvokeRequestWithMonitoring extends RequestWithMonitoring<
 		if (type.isProxied()) {
 			handleProxyParameter(out, paramIdx, type);
 		} else {
-			type.write(out, value);
+			type.write(out, value, getProtocol().getCodec());
 		}
 	}
 
@@ -137,8 +137,8 @@ public abstract class InvokeRequestWithMonitoring extends RequestWithMonitoring<
 		}
 	}
 
-	private Object readAndThrowException(final ExtendedDataInputStream in) throws RemoteInvocationTargetException, IOException {
-		final Exception exceptionFromCall = (Exception) in.readObject(getServiceRegistry().getClassResolver(serviceClassName));
+	private Object readAndThrowException(final ExtendedDataInputStream in) throws RemoteInvocationTargetException, IOException, ClassNotFoundException {
+		final Exception exceptionFromCall = (Exception) getProtocol().getCodec().readObject(in, getServiceRegistry().getClassResolver(serviceClassName));
 		throw new RemoteInvocationTargetException(exceptionFromCall);
 	}
 
@@ -157,7 +157,7 @@ public abstract class InvokeRequestWithMonitoring extends RequestWithMonitoring<
 				result = readEnum(in);
 				break;
 			case OBJECT:
-				result = in.readObject(getServiceRegistry().getClassResolver(serviceClassName));
+				result = getProtocol().getCodec().readObject(in, getServiceRegistry().getClassResolver(serviceClassName));
 				break;
 			default:
 				result = type.read(in);
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.rpc;
+
+import java.io.IOException;
+
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.ExtendedIOUtil.ClassResolver;
+
+import com.b2international.snowowl.rpc.RpcCodec;
+
+/**
+ * The {@link RpcCodec} which writes all object values using Java serialization. Used until the handshake completes, and with endpoints which
+ * do not support the compact codec.
+ * 
+ * @since 7.1
+ */
+public final class SerializationCodec implements RpcCodec {
+
+	public static final SerializationCodec INSTANCE = new SerializationCodec();
+	
+	private SerializationCodec() {}
+	
+	@Override
+	public int getVersion() {
+		return SERIALIZATION;
+	}
+	
+	@Override
+	public void writeObject(final ExtendedDataOutputStream out, final Object value) throws IOException {
+		out.writeObject(value);
+	}
+
+	@Override
+	public Object readObject(final ExtendedDataInputStream in, final ClassResolver classResolver) throws IOException, ClassNotFoundException {
+		return in.readObject(classResolver);
+	}
+	
+}
@@ -24,6 +24,9 @@ import java.io.OutputStream;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.net4j.util.io.ExtendedDataInput;
 import org.eclipse.net4j.util.io.ExtendedDataOutput;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+
+import com.b2international.snowowl.rpc.RpcCodec;
 
 /**
  * Enumerates supported serialization types of {@link ExtendedDataInput}, and
@@ -199,6 +202,10 @@ public enum ValueType {
 			out.writeObject(value);
 		}
 		
+		@Override public void write(final ExtendedDataOutputStream out, final Object value, final RpcCodec codec) throws IOException {
+			codec.writeObject(out, value);
+		}
+		
 		@Override public Class<?> getValueClass() {
 			return Object.class;
 		}
@@ -212,6 +219,19 @@ public enum ValueType {
 		throw new UnsupportedOperationException("Writing values of this type is not supported through ValueType.");
 	}
 
+	/**
+	 * Writes the specified value, using the given codec for {@link #OBJECT object values}.
+	 * 
+	 * @param out the output to write to
+	 * @param value the value to write
+	 * @param codec the codec negotiated for the connection
+	 * @throws IOException if writing the value fails
+	 * @since 7.1
+	 */
+	public void write(final ExtendedDataOutputStream out, final Object value, final RpcCodec codec) throws IOException {
+		write(out, value);
+	}
+
 	private final boolean proxied;
 	
 	private ValueType() {
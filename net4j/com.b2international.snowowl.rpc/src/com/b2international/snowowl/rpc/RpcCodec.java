@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.rpc;
+
+import java.io.IOException;
+
+import org.eclipse.net4j.util.io.ExtendedDataInputStream;
+import org.eclipse.net4j.util.io.ExtendedDataOutputStream;
+import org.eclipse.net4j.util.io.ExtendedIOUtil.ClassResolver;
+
+/**
+ * Encodes and decodes object values (method arguments, return values and exceptions) of RPC invocations. The codec used on a connection is
+ * agreed upon by the two endpoints when the first invocation is sent.
+ * 
+ * @since 7.1
+ */
+public interface RpcCodec {
+
+	/**
+	 * Codec version which writes every object value using Java serialization.
+	 */
+	int SERIALIZATION = 0;
+	
+	/**
+	 * Codec version which writes primitive wrappers, strings, common collections, primitive collections and registered types in a compact
+	 * binary form, and falls back to Java serialization for everything else.
+	 */
+	int COMPACT = 1;
+	
+	/**
+	 * @return the version of this codec, sent to the other endpoint during the handshake
+	 */
+	int getVersion();
+	
+	/**
+	 * Writes the specified object value to the output.
+	 * 
+	 * @param out the output to write to
+	 * @param value the value to write (may be {@code null})
+	 * @throws IOException if writing the value fails
+	 */
+	void writeObject(ExtendedDataOutputStream out, Object value) throws IOException;
+	
+	/**
+	 * Reads an object value from the input, written earlier by {@link #writeObject(ExtendedDataOutputStream, Object)}.
+	 * 
+	 * @param in the input to read from
+	 * @param classResolver the class resolver to use for values written with Java serialization
+	 * @return the value read
+	 * @throws IOException if reading the value fails
+	 * @throws ClassNotFoundException if the class of a serialized value can not be resolved
+	 */
+	Object readObject(ExtendedDataInputStream in, ClassResolver classResolver) throws IOException, ClassNotFoundException;
+	
+}
@@ -15,6 +15,10 @@
  */
 package com.b2international.snowowl.rpc;
 
+import static org.eclipse.net4j.util.CheckUtil.checkArg;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents the configuration settings of the RPC protocol.
@@ -24,6 +28,12 @@ public class RpcConfiguration {
 
 	private boolean logging = false;
 	
+	private boolean compactCodec = true;
+	
+	private final Map<Class<?>, RpcTypeCodec<?>> typeCodecs = new ConcurrentHashMap<>();
+	
+	private final Map<String, RpcTypeCodec<?>> typeCodecsByName = new ConcurrentHashMap<>();
+	
 	/**
 	 * @return <code>true</code> if logging is enabled, <code>false</code> otherwise
 	 */
@@ -38,6 +48,59 @@ public class RpcConfiguration {
 		this.logging = logging;
 	}
 	
+	/**
+	 * @return <code>true</code> if the compact codec should be offered during the handshake, <code>false</code> if invocations should
+	 *         always use Java serialization
+	 * @since 7.1
+	 */
+	public boolean isCompactCodec() {
+		return compactCodec;
+	}
+	
+	/**
+	 * @param compactCodec
+	 * @since 7.1
+	 */
+	public void setCompactCodec(boolean compactCodec) {
+		this.compactCodec = compactCodec;
+	}
+	
+	/**
+	 * Registers a codec for instances of the specified class, which will be used instead of Java serialization when the compact codec has
+	 * been negotiated. Only exact class matches are encoded with the registered codec, subclasses are serialized as usual.
+	 * 
+	 * @param type the class to register
+	 * @param codec the codec writing and reading instances of the class
+	 * @return this configuration
+	 * @since 7.1
+	 */
+	public <T> RpcConfiguration registerType(Class<T> type, RpcTypeCodec<T> codec) {
+		checkArg(type, "type");
+		checkArg(codec, "codec");
+		typeCodecs.put(type, codec);
+		typeCodecsByName.put(type.getName(), codec);
+		return this;
+	}
+	
+	/**
+	 * @param type
+	 * @return the codec registered for the specified class, or <code>null</code> if no codec has been registered
+	 * @since 7.1
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> RpcTypeCodec<T> getTypeCodec(Class<T> type) {
+		return (RpcTypeCodec<T>) typeCodecs.get(type);
+	}
+	
+	/**
+	 * @param typeName
+	 * @return the codec registered for the class with the specified name, or <code>null</code> if no codec has been registered
+	 * @since 7.1
+	 */
+	public RpcTypeCodec<?> getTypeCodec(String typeName) {
+		return typeCodecsByName.get(typeName);
+	}
+	
 	@Override
 	public String toString() {
 		final StringBuilder builder = new StringBuilder();
@@ -45,6 +108,10 @@ public class RpcConfiguration {
 		builder.append("logging");
 		builder.append("=");
 		builder.append(isLogging());
+		builder.append(", ");
+		builder.append("compactCodec");
+		builder.append("=");
+		builder.append(isCompactCodec());
 		builder.append("}");
 		return builder.toString();
 	}
@@ -35,6 +35,9 @@ import org.eclipse.net4j.util.factory.ProductCreationException;
 import org.eclipse.spi.net4j.ClientProtocolFactory;
 import org.eclipse.spi.net4j.ServerProtocolFactory;
 
+import com.b2international.snowowl.internal.rpc.CompactCodec;
+import com.b2international.snowowl.internal.rpc.HandshakeIndication;
+import com.b2international.snowowl.internal.rpc.HandshakeRequest;
 import com.b2international.snowowl.internal.rpc.InvokeRequestWithMonitoring;
 import com.b2international.snowowl.internal.rpc.PrimaryInvokeIndication;
 import com.b2international.snowowl.internal.rpc.PrimaryInvokeRequest;
@@ -42,6 +45,8 @@ import com.b2international.snowowl.internal.rpc.RemoteInvocationTargetException;
 import com.b2international.snowowl.internal.rpc.RpcClientStubFactory;
 import com.b2international.snowowl.internal.rpc.SecondaryInvokeIndication;
 import com.b2international.snowowl.internal.rpc.SecondaryInvokeRequest;
+import com.b2international.snowowl.internal.rpc.SerializationCodec;
+import com.b2international.snowowl.internal.rpc.bundle.OM;
 
 /**
  * The symmetric RPC protocol implementation.
@@ -71,6 +76,13 @@ public class RpcProtocol extends SignalProtocol<RpcSession> {
 
 	private RpcConfiguration configuration;
 	
+	// Java serialization is used until both endpoints agree on a different codec
+	private volatile RpcCodec codec = SerializationCodec.INSTANCE;
+	
+	private volatile boolean handshakeCompleted;
+	
+	private final Object handshakeLock = new Object();
+	
 	public RpcProtocol(final boolean skipInitialization, RpcConfiguration configuration) {
 		super(RpcProtocolConstants.TYPE);
 		CheckUtil.checkArg(configuration, "configuration");
@@ -90,6 +102,65 @@ public class RpcProtocol extends SignalProtocol<RpcSession> {
 		return configuration;
 	}
 
+	/**
+	 * @return the codec to use for object values sent over this protocol
+	 * @since 7.1
+	 */
+	public RpcCodec getCodec() {
+		return codec;
+	}
+	
+	/**
+	 * Switches to the highest codec version supported by both this and the other endpoint. Called when the other endpoint initiates the
+	 * handshake.
+	 * 
+	 * @param remoteCodecVersion the highest codec version supported by the other endpoint
+	 * @return the codec version to use on both endpoints
+	 * @since 7.1
+	 */
+	public int acceptCodecVersion(final int remoteCodecVersion) {
+		synchronized (handshakeLock) {
+			final int codecVersion = Math.min(remoteCodecVersion, getSupportedCodecVersion());
+			useCodecVersion(codecVersion);
+			handshakeCompleted = true;
+			return codecVersion;
+		}
+	}
+	
+	private int getSupportedCodecVersion() {
+		return configuration.isCompactCodec() ? RpcCodec.COMPACT : RpcCodec.SERIALIZATION;
+	}
+	
+	private void useCodecVersion(final int codecVersion) {
+		codec = codecVersion >= RpcCodec.COMPACT ? new CompactCodec(configuration) : SerializationCodec.INSTANCE;
+	}
+	
+	private void handshake() {
+		
+		if (handshakeCompleted) {
+			return;
+		}
+		
+		synchronized (handshakeLock) {
+			
+			if (handshakeCompleted) {
+				return;
+			}
+			
+			final int supportedCodecVersion = getSupportedCodecVersion();
+			if (supportedCodecVersion != RpcCodec.SERIALIZATION) {
+				try {
+					useCodecVersion(new HandshakeRequest(this, supportedCodecVersion).send());
+				} catch (final Exception e) {
+					// Endpoints not knowing about the handshake signal fail to respond; keep using Java serialization with them
+					OM.LOG.warn("RPC codec handshake failed, falling back to Java serialization.", e);
+				}
+			}
+			
+			handshakeCompleted = true;
+		}
+	}
+	
 	private void initializeRegistry() {
 		final RpcSession serviceRegistry = new RpcSessionImpl();
 		setInfraStructure(serviceRegistry);
@@ -143,6 +214,8 @@ public class RpcProtocol extends SignalProtocol<RpcSession> {
 				return new SecondaryInvokeIndication(this);
 			case RpcProtocolConstants.SIGNAL_RPC_PRIMARY_METHOD_CALL:
 				return new PrimaryInvokeIndication(this);
+			case RpcProtocolConstants.SIGNAL_RPC_HANDSHAKE:
+				return new HandshakeIndication(this);
 			default:
 				return super.createSignalReactor(signalID);
 		}
@@ -167,6 +240,7 @@ public class RpcProtocol extends SignalProtocol<RpcSession> {
 	 * @throws RpcException
 	 */
 	public Object sendClientRequestWithMonitoring(final String serviceClassName, final Method serviceMethod, final Object[] params) throws Exception {
+		handshake();
 		return send(new PrimaryInvokeRequest(this, serviceClassName, serviceMethod, params));
 	}
 
@@ -192,6 +266,7 @@ public class RpcProtocol extends SignalProtocol<RpcSession> {
 	 * @return
 	 */
 	public Future<Object> sendAsync(final String serviceClassName, final Method serviceMethod, final Object[] params) {
+		handshake();
 		return sendAsync(new PrimaryInvokeRequest(this, serviceClassName, serviceMethod, params));
 	}
 
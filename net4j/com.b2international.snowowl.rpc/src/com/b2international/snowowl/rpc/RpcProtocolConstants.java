@@ -34,4 +34,11 @@ public interface RpcProtocolConstants {
 	 * correlation identifier.
 	 */
 	public static final short SIGNAL_RPC_SECONDARY_METHOD_CALL = 2;
+	
+	/*
+	 * Sent by a client before its first method call to agree on the codec used for object values.
+	 * 
+	 * @since 7.1
+	 */
+	public static final short SIGNAL_RPC_HANDSHAKE = 3;
 }
\ No newline at end of file
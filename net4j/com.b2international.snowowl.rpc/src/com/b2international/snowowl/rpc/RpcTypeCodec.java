@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.rpc;
+
+import java.io.IOException;
+
+import org.eclipse.net4j.util.io.ExtendedDataInput;
+import org.eclipse.net4j.util.io.ExtendedDataOutput;
+
+/**
+ * Writes and reads instances of a single type when the compact codec is in use. Instances of types registered with
+ * {@link RpcConfiguration#registerType(Class, RpcTypeCodec)} are sent without Java serialization; the same registration must be present on
+ * both endpoints.
+ * 
+ * @param <T> the type of values handled by this codec
+ * @since 7.1
+ */
+public interface RpcTypeCodec<T> {
+
+	/**
+	 * Writes the fields of the specified value to the output.
+	 * 
+	 * @param out the output to write to
+	 * @param value the value to write (never {@code null})
+	 * @throws IOException if writing the value fails
+	 */
+	void write(ExtendedDataOutput out, T value) throws IOException;
+	
+	/**
+	 * Creates a new instance from the fields written by {@link #write(ExtendedDataOutput, Object)}.
+	 * 
+	 * @param in the input to read from
+	 * @return the value read
+	 * @throws IOException if reading the value fails
+	 */
+	T read(ExtendedDataInput in) throws IOException;
+	
+}
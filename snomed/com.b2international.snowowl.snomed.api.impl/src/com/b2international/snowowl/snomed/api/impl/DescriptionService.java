@@ -1,5 +1,5 @@
 /*
- * Copyright 2011-2016 B2i Healthcare Pte Ltd, http://b2i.sg
+ * Copyright 2011-2018 B2i Healthcare Pte Ltd, http://b2i.sg
  * 
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,13 @@
  */
 package com.b2international.snowowl.snomed.api.impl;
 
+import com.b2international.snowowl.core.ApplicationContext;
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.datastore.request.RepositoryRequests;
 import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.snomed.core.domain.SnomedDescriptions;
 import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.request.DescriptionLabelCache;
 import com.b2international.snowowl.snomed.datastore.request.DescriptionRequestHelper;
 import com.b2international.snowowl.snomed.datastore.request.SnomedDescriptionSearchRequestBuilder;
 
@@ -28,10 +32,42 @@ public class DescriptionService extends DescriptionRequestHelper {
 	
 	private final IEventBus bus;
 	private final String branch;
+	private final DescriptionLabelCache labelCache;
+	
+	private DescriptionLabelCache.BranchLabels cachedLabels;
 	
 	public DescriptionService(IEventBus bus, String branch) {
+		this(bus, branch, ApplicationContext.getServiceForClass(DescriptionLabelCache.class));
+	}
+	
+	/**
+	 * @param bus
+	 * @param branch
+	 * @param labelCache - the label cache to use, or {@code null} to always fetch preferred terms and fully specified names from the index
+	 */
+	public DescriptionService(IEventBus bus, String branch, DescriptionLabelCache labelCache) {
 		this.bus = bus;
 		this.branch = branch;
+		this.labelCache = labelCache;
+	}
+	
+	@Override
+	protected DescriptionLabelCache.BranchLabels getCachedLabels() {
+		if (labelCache == null || !DescriptionLabelCache.isCacheable(branch)) {
+			return null;
+		}
+		
+		if (cachedLabels == null) {
+			// labels are cached against the head timestamp observed when this service is first used
+			final Branch currentBranch = RepositoryRequests.branching()
+					.prepareGet(branch)
+					.build(SnomedDatastoreActivator.REPOSITORY_UUID)
+					.execute(bus)
+					.getSync();
+			cachedLabels = labelCache.forBranch(currentBranch.path(), currentBranch.headTimestamp());
+		}
+		
+		return cachedLabels;
 	}
 
 	@Override
@@ -35,7 +35,6 @@ import com.b2international.snowowl.core.domain.IComponent;
 import com.b2international.snowowl.core.domain.TransactionContext;
 import com.b2international.snowowl.core.events.bulk.BulkRequest;
 import com.b2international.snowowl.core.events.bulk.BulkRequestBuilder;
-import com.b2international.snowowl.core.exceptions.ComponentNotFoundException;
 import com.b2international.snowowl.datastore.request.SearchIndexResourceRequest;
 import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.snomed.api.browser.ISnomedBrowserService;
@@ -86,6 +85,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Ints;
 
@@ -138,7 +138,8 @@ public class SnomedBrowserService implements ISnomedBrowserService {
 		result.setEffectiveTime(concept.getEffectiveTime());
 		result.setModuleId(concept.getModuleId());
 		
-		populateLeafFields(branchPath, conceptId, result);
+		final Set<String> conceptIds = ImmutableSet.of(conceptId);
+		populateLeafFields(conceptId, result, countChildren(branchPath, conceptIds, Concepts.STATED_RELATIONSHIP), countChildren(branchPath, conceptIds, Concepts.INFERRED_RELATIONSHIP));
 		
 		result.setDescriptions(convertDescriptions(concept.getDescriptions()));
 		
@@ -459,9 +460,12 @@ public class SnomedBrowserService implements ISnomedBrowserService {
 
 		return new FsnJoinerOperation<ISnomedBrowserChildConcept>(componentId, locales, descriptionService) {
 			
+			private Map<String, Integer> statedChildCounts;
+			private Map<String, Integer> inferredChildCounts;
+			
 			@Override
 			protected Iterable<SnomedConcept> getConceptEntries(String conceptId) {
-				return SnomedRequests.prepareSearchConcept()
+				final SnomedConcepts children = SnomedRequests.prepareSearchConcept()
 						.all()
 						.filterByActive(true)
 						.filterByParent(stated ? null : conceptId)
@@ -470,6 +474,12 @@ public class SnomedBrowserService implements ISnomedBrowserService {
 						.execute(bus)
 						.getSync();
 				
+				// resolve the leaf flags of all children up front, instead of two relationship searches per child
+				final Set<String> childConceptIds = FluentIterable.from(children).transform(IComponent.ID_FUNCTION).toSet();
+				statedChildCounts = countChildren(branchPath, childConceptIds, Concepts.STATED_RELATIONSHIP);
+				inferredChildCounts = countChildren(branchPath, childConceptIds, Concepts.INFERRED_RELATIONSHIP);
+				
+				return children;
 			}
 
 			@Override
@@ -483,7 +493,7 @@ public class SnomedBrowserService implements ISnomedBrowserService {
 				convertedConcept.setModuleId(conceptEntry.getModuleId());
 				convertedConcept.setFsn(optionalFsn.or(childConceptId));
 
-				populateLeafFields(branchPath, childConceptId, convertedConcept);
+				populateLeafFields(childConceptId, convertedConcept, statedChildCounts, inferredChildCounts);
 
 				return convertedConcept;
 			}
@@ -491,21 +501,21 @@ public class SnomedBrowserService implements ISnomedBrowserService {
 		}.run();
 	}
 
-	private void populateLeafFields(final String branch, final String conceptId, final TaxonomyNode node) {
-		node.setIsLeafStated(!hasInboundRelationships(branch, conceptId, Concepts.STATED_RELATIONSHIP));
-		node.setIsLeafInferred(!hasInboundRelationships(branch, conceptId, Concepts.INFERRED_RELATIONSHIP));
+	private void populateLeafFields(final String conceptId, final TaxonomyNode node, final Map<String, Integer> statedChildCounts, final Map<String, Integer> inferredChildCounts) {
+		node.setIsLeafStated(!statedChildCounts.containsKey(conceptId));
+		node.setIsLeafInferred(!inferredChildCounts.containsKey(conceptId));
 	}
 
-	private boolean hasInboundRelationships(String branch, String conceptId, String characteristicTypeId) {
-		return SnomedRequests.prepareSearchRelationship()
-				.filterByActive(true)
+	private Map<String, Integer> countChildren(final String branch, final Set<String> conceptIds, final String characteristicTypeId) {
+		if (conceptIds.isEmpty()) {
+			return ImmutableMap.of();
+		}
+		return SnomedRequests.prepareCountChildren()
+				.filterByConceptIds(conceptIds)
 				.filterByCharacteristicType(characteristicTypeId)
-				.filterByDestination(conceptId)
-				.filterByType(Concepts.IS_A)
-				.setLimit(0)
 				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch)
 				.execute(bus)
-				.getSync().getTotal() > 0;
+				.getSync();
 	}
 
 	@Override
@@ -624,33 +634,35 @@ public class SnomedBrowserService implements ISnomedBrowserService {
 
 	@Override
 	public Map<String, ISnomedBrowserConstant> getConstants(final String branch, final List<ExtendedLocale> locales) {
-		final ImmutableMap.Builder<String, ISnomedBrowserConstant> resultBuilder = ImmutableMap.builder();
-		final DescriptionService descriptionService = new DescriptionService(bus, branch);
+		final Set<String> conceptIds = FluentIterable.from(CONCEPT_ENUMS).transform(new Function<ConceptEnum, String>() {
+			@Override
+			public String apply(ConceptEnum input) {
+				return input.getConceptId();
+			}
+		}).toSet();
 		
+		// Check which of the corresponding concepts exist and fetch their FSNs in one go
+		final Set<String> existingConceptIds = FluentIterable.from(getConcepts(branch, conceptIds)).transform(IComponent.ID_FUNCTION).toSet();
+		final Map<String, SnomedDescription> fullySpecifiedNames = new DescriptionService(bus, branch).getFullySpecifiedNames(existingConceptIds, locales);
+		
+		final ImmutableMap.Builder<String, ISnomedBrowserConstant> resultBuilder = ImmutableMap.builder();
 		for (final ConceptEnum conceptEnum : CONCEPT_ENUMS) {
-			try {
-				final String conceptId = conceptEnum.getConceptId();
-
-				// Check if the corresponding concept exists
-				SnomedRequests.prepareGetConcept(conceptId)
-						.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch)
-						.execute(bus)
-						.getSync();
-				
-				final SnomedBrowserConstant constant = new SnomedBrowserConstant();
-				constant.setConceptId(conceptId);
-				
-				final SnomedDescription fullySpecifiedName = descriptionService.getFullySpecifiedName(conceptId, locales);
-				if (fullySpecifiedName != null) {
-					constant.setFsn(fullySpecifiedName.getTerm());
-				} else {
-					constant.setFsn(conceptId);
-				}
-				
-				resultBuilder.put(conceptEnum.name(), constant);
-			} catch (ComponentNotFoundException e) {
-				// ignore
+			final String conceptId = conceptEnum.getConceptId();
+			if (!existingConceptIds.contains(conceptId)) {
+				continue;
+			}
+			
+			final SnomedBrowserConstant constant = new SnomedBrowserConstant();
+			constant.setConceptId(conceptId);
+			
+			final SnomedDescription fullySpecifiedName = fullySpecifiedNames.get(conceptId);
+			if (fullySpecifiedName != null) {
+				constant.setFsn(fullySpecifiedName.getTerm());
+			} else {
+				constant.setFsn(conceptId);
 			}
+			
+			resultBuilder.put(conceptEnum.name(), constant);
 		}
 		
 		return resultBuilder.build();
@@ -48,7 +48,11 @@ import com.b2international.snowowl.snomed.api.rest.io.SnomedExportApiTest;
 import com.b2international.snowowl.snomed.api.rest.io.SnomedImportApiTest;
 import com.b2international.snowowl.snomed.api.rest.io.SnomedImportRowValidatorTest;
 import com.b2international.snowowl.snomed.api.rest.perf.SnomedConceptCreatePerformanceTest;
+import com.b2international.snowowl.snomed.api.rest.perf.SnomedLabelCachePerformanceTest;
 import com.b2international.snowowl.snomed.api.rest.perf.SnomedMergePerformanceTest;
+import com.b2international.snowowl.snomed.api.rest.perf.SnomedRf2DeltaImportPerformanceTest;
+import com.b2international.snowowl.snomed.api.rest.perf.SnomedVersioningPerformanceTest;
+import com.b2international.snowowl.snomed.api.rest.versioning.SnomedChunkedVersioningTest;
 import com.b2international.snowowl.snomed.api.rest.versioning.SnomedVersioningApiTest;
 import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConstants;
 import com.b2international.snowowl.snomed.core.domain.Rf2ReleaseType;
@@ -97,6 +101,7 @@ import com.b2international.snowowl.test.commons.SnowOwlAppRule;
 	// Module dependecy test cases - they modify the MAIN branch so should be executed after tests that rely on MAIN branch stuff
 	SnomedModuleDependencyRefsetTest.class,
 	SnomedVersioningApiTest.class,
+	SnomedChunkedVersioningTest.class,
 	// Extension test cases - 7.0.preview version currently does not support extension upgrade
 //	SnomedExtensionUpgradeTest.class, 
 //	SnomedExtensionDowngradeTest.class,
@@ -106,6 +111,9 @@ import com.b2international.snowowl.test.commons.SnowOwlAppRule;
 	// Performance test cases
 	SnomedConceptCreatePerformanceTest.class,
 	SnomedMergePerformanceTest.class,
+	SnomedLabelCachePerformanceTest.class,
+	SnomedVersioningPerformanceTest.class,
+	SnomedRf2DeltaImportPerformanceTest.class,
 })
 public class AllSnomedApiTests {
 
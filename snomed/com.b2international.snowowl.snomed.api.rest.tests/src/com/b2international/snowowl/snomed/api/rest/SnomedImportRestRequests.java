@@ -19,6 +19,7 @@ import static com.b2international.snowowl.test.commons.rest.RestExtensions.given
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,8 +37,12 @@ public abstract class SnomedImportRestRequests {
 	private static Set<String> FINISH_STATES = ImmutableSet.of(ImportStatus.COMPLETED.name(), ImportStatus.FAILED.name());
 
 	public static ValidatableResponse uploadImportFile(String importId, Class<?> testClass, String importFile) {
+		return uploadImportFile(importId, PlatformUtil.toAbsolutePath(testClass, importFile).toFile());
+	}
+	
+	public static ValidatableResponse uploadImportFile(String importId, File importFile) {
 		return givenAuthenticatedRequest(SnomedApiTestConstants.SCT_API)
-				.multiPart(PlatformUtil.toAbsolutePath(testClass, importFile).toFile())
+				.multiPart(importFile)
 				.post("/imports/{id}/archive", importId)
 				.then();
 	}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.api.rest.perf;
+
+import static com.b2international.snowowl.snomed.api.rest.SnomedBranchingRestRequests.createBranch;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.b2international.commons.http.ExtendedLocale;
+import com.b2international.snowowl.core.api.IBranchPath;
+import com.b2international.snowowl.core.domain.TransactionContext;
+import com.b2international.snowowl.core.events.bulk.BulkRequest;
+import com.b2international.snowowl.core.events.bulk.BulkRequestBuilder;
+import com.b2international.snowowl.core.events.bulk.BulkResponse;
+import com.b2international.snowowl.datastore.BranchPathUtils;
+import com.b2international.snowowl.identity.domain.User;
+import com.b2international.snowowl.snomed.api.impl.DescriptionService;
+import com.b2international.snowowl.snomed.api.rest.AbstractSnomedApiTest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
+import com.b2international.snowowl.snomed.core.domain.SnomedDescription;
+import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.request.DescriptionLabelCache;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Preferred term and fully specified name expansion performance test case with and without the {@link DescriptionLabelCache}.
+ * The test creates 10_000 concepts with 1 FSN and 1 PT, both preferred in the UK language reference set, then resolves the PT and FSN of all of
+ * them three times: without cache, with an empty cache and with a warm cache. The label requests for a 10_000 concept page should take less than
+ * a few milliseconds when served from a warm cache.
+ * The measured times heavily depend on whether you run this test case on a warmed ES cache/index, what are the current JVM settings and what hardware you have.
+ *
+ * @since 7.1
+ */
+public class SnomedLabelCachePerformanceTest extends AbstractSnomedApiTest {
+
+	private static final int NUMBER_OF_CONCEPTS = 10_000;
+	private static final List<ExtendedLocale> LOCALES = ImmutableList.of(ExtendedLocale.valueOf("en-x-" + Concepts.REFSET_LANGUAGE_TYPE_UK));
+
+	@Test
+	public void expandPtAndFsnOf10kConcepts() throws Exception {
+		final IBranchPath branch = BranchPathUtils.createPath(branchPath, "label-cache-test");
+		createBranch(branch).statusCode(201);
+		final Set<String> conceptIds = createConcepts(branch);
+
+		final Stopwatch w = Stopwatch.createStarted();
+		final DescriptionService uncached = new DescriptionService(getBus(), branch.getPath(), null);
+		final Map<String, SnomedDescription> uncachedPts = uncached.getPreferredTerms(conceptIds, LOCALES);
+		final Map<String, SnomedDescription> uncachedFsns = uncached.getFullySpecifiedNames(conceptIds, LOCALES);
+		System.err.println("Expanding PT and FSN of 10_000 concepts without cache took: " + w);
+
+		final DescriptionLabelCache labelCache = new DescriptionLabelCache(64L * 1024L * 1024L);
+
+		w.reset().start();
+		final DescriptionService cold = new DescriptionService(getBus(), branch.getPath(), labelCache);
+		final Map<String, SnomedDescription> coldPts = cold.getPreferredTerms(conceptIds, LOCALES);
+		final Map<String, SnomedDescription> coldFsns = cold.getFullySpecifiedNames(conceptIds, LOCALES);
+		System.err.println("Expanding PT and FSN of 10_000 concepts with empty cache took: " + w);
+
+		w.reset().start();
+		final DescriptionService warm = new DescriptionService(getBus(), branch.getPath(), labelCache);
+		final Map<String, SnomedDescription> warmPts = warm.getPreferredTerms(conceptIds, LOCALES);
+		final Map<String, SnomedDescription> warmFsns = warm.getFullySpecifiedNames(conceptIds, LOCALES);
+		System.err.println("Expanding PT and FSN of 10_000 concepts with warm cache took: " + w + " (" + labelCache.stats() + ")");
+
+		assertThat(uncachedPts).hasSize(NUMBER_OF_CONCEPTS);
+		assertThat(uncachedFsns).hasSize(NUMBER_OF_CONCEPTS);
+		assertThat(toTerms(coldPts)).isEqualTo(toTerms(uncachedPts));
+		assertThat(toTerms(coldFsns)).isEqualTo(toTerms(uncachedFsns));
+		assertThat(toTerms(warmPts)).isEqualTo(toTerms(uncachedPts));
+		assertThat(toTerms(warmFsns)).isEqualTo(toTerms(uncachedFsns));
+		assertThat(labelCache.stats().hitCount()).isEqualTo(2L * NUMBER_OF_CONCEPTS);
+	}
+
+	private Set<String> createConcepts(IBranchPath branch) {
+		final BulkRequestBuilder<TransactionContext> bulk = BulkRequest.create();
+		for (int i = 0; i < NUMBER_OF_CONCEPTS; i++) {
+			bulk.add(SnomedRequests.prepareNewConcept()
+						.setIdFromNamespace(null /*INT*/)
+						.setActive(true)
+						.setModuleId(Concepts.MODULE_SCT_CORE)
+						.addDescription(SnomedRequests.prepareNewDescription()
+								.setIdFromNamespace(null /*INT*/)
+								.setTerm("LabelCacheTest FSN " + i)
+								.setTypeId(Concepts.FULLY_SPECIFIED_NAME)
+								.setLanguageCode("en")
+								.preferredIn(Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.addDescription(SnomedRequests.prepareNewDescription()
+								.setIdFromNamespace(null /*INT*/)
+								.setTerm("LabelCacheTest PT " + i)
+								.setTypeId(Concepts.SYNONYM)
+								.setLanguageCode("en")
+								.preferredIn(Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.addRelationship(SnomedRequests.prepareNewRelationship()
+								.setIdFromNamespace(null /*INT*/)
+								.setCharacteristicType(CharacteristicType.STATED_RELATIONSHIP)
+								.setTypeId(Concepts.IS_A)
+								.setDestinationId(Concepts.ROOT_CONCEPT)));
+		}
+
+		return SnomedRequests.prepareCommit()
+			.setBody(bulk)
+			.setCommitComment("Create concepts for label cache test")
+			.setUserId(User.SYSTEM.getUsername())
+			.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+			.execute(getBus())
+			.getSync()
+			.getResultAs(BulkResponse.class)
+			.stream()
+			.filter(String.class::isInstance)
+			.map(String.class::cast)
+			.collect(Collectors.toSet());
+	}
+
+	private static Map<String, String> toTerms(Map<String, SnomedDescription> descriptions) {
+		return descriptions.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getTerm()));
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.api.rest.perf;
+
+import static com.b2international.snowowl.snomed.api.rest.SnomedBranchingRestRequests.createBranch;
+import static com.b2international.snowowl.snomed.api.rest.SnomedImportRestRequests.createImport;
+import static com.b2international.snowowl.snomed.api.rest.SnomedImportRestRequests.uploadImportFile;
+import static com.b2international.snowowl.snomed.api.rest.SnomedImportRestRequests.waitForImportJob;
+import static com.b2international.snowowl.test.commons.rest.RestExtensions.lastPathSegment;
+import static com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator.generateConceptId;
+import static com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator.generateDescriptionId;
+import static com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator.generateRelationshipId;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.b2international.snowowl.core.api.IBranchPath;
+import com.b2international.snowowl.datastore.BranchPathUtils;
+import com.b2international.snowowl.snomed.api.rest.AbstractSnomedApiTest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.common.SnomedRf2Headers;
+import com.b2international.snowowl.snomed.core.domain.ISnomedImportConfiguration.ImportStatus;
+import com.b2international.snowowl.snomed.core.domain.Rf2ReleaseType;
+import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+
+/**
+ * RF2 delta import performance test case on a synthetic delta release. The test generates 20_000 concepts with 1 FSN, 1 PT (both preferred in
+ * the GB language reference set), 1 stated and 1 inferred IS A relationship each, imports the delta archive and reports the time of the import.
+ * Most of the time is spent in the pre-commit processing of the imported components (concept queries, taxonomy building and change
+ * processors), compare the reported times with different numbers of available processors to see the effect of the parallel processing.
+ * The measured times heavily depend on whether you run this test case on a warmed ES cache/index, what are the current JVM settings and what hardware you have.
+ *
+ * @since 7.1
+ */
+public class SnomedRf2DeltaImportPerformanceTest extends AbstractSnomedApiTest {
+
+	private static final int NUMBER_OF_CONCEPTS = 20_000;
+	private static final String RELEASE_DIRECTORY = "SnomedCT_Release_INT_20180131_import_perf/RF2Release/";
+	private static final Joiner TAB_JOINER = Joiner.on('\t');
+	private static final String CR_LF = "\r\n";
+
+	private List<String> conceptIds;
+	private File archive;
+
+	@Before
+	public void setup() throws IOException {
+		conceptIds = generateIds(() -> generateConceptId());
+		archive = File.createTempFile("rf2-delta-import-perf-test", ".zip");
+		
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+			// the writer is flushed after each entry, it is closed together with the zip stream
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charsets.UTF_8));
+			final List<String> fsnIds = generateIds(() -> generateDescriptionId());
+			final List<String> ptIds = generateIds(() -> generateDescriptionId());
+			final List<String> statedRelationshipIds = generateIds(() -> generateRelationshipId());
+			final List<String> inferredRelationshipIds = generateIds(() -> generateRelationshipId());
+			
+			startEntry(out, writer, "Terminology/sct2_Concept_Delta_INT_20180131.txt", SnomedRf2Headers.CONCEPT_HEADER);
+			for (String conceptId : conceptIds) {
+				writeRow(writer, conceptId, "", "1", Concepts.MODULE_SCT_CORE, Concepts.PRIMITIVE);
+			}
+			endEntry(out, writer);
+			
+			startEntry(out, writer, "Terminology/sct2_Description_Delta-en_INT_20180131.txt", SnomedRf2Headers.DESCRIPTION_HEADER);
+			int i = 0;
+			for (String conceptId : conceptIds) {
+				writeRow(writer, fsnIds.get(i), "", "1", Concepts.MODULE_SCT_CORE, conceptId, "en", Concepts.FULLY_SPECIFIED_NAME, 
+						"Import performance test " + i + " (finding)", Concepts.ENTIRE_TERM_CASE_INSENSITIVE);
+				writeRow(writer, ptIds.get(i), "", "1", Concepts.MODULE_SCT_CORE, conceptId, "en", Concepts.SYNONYM, 
+						"Import performance test " + i, Concepts.ENTIRE_TERM_CASE_INSENSITIVE);
+				i++;
+			}
+			endEntry(out, writer);
+			
+			startEntry(out, writer, "Terminology/sct2_StatedRelationship_Delta_INT_20180131.txt", SnomedRf2Headers.RELATIONSHIP_HEADER);
+			i = 0;
+			for (String conceptId : conceptIds) {
+				writeRow(writer, statedRelationshipIds.get(i++), "", "1", Concepts.MODULE_SCT_CORE, conceptId, Concepts.ROOT_CONCEPT, "0", Concepts.IS_A, 
+						Concepts.STATED_RELATIONSHIP, Concepts.EXISTENTIAL_RESTRICTION_MODIFIER);
+			}
+			endEntry(out, writer);
+			
+			startEntry(out, writer, "Terminology/sct2_Relationship_Delta_INT_20180131.txt", SnomedRf2Headers.RELATIONSHIP_HEADER);
+			i = 0;
+			for (String conceptId : conceptIds) {
+				writeRow(writer, inferredRelationshipIds.get(i++), "", "1", Concepts.MODULE_SCT_CORE, conceptId, Concepts.ROOT_CONCEPT, "0", Concepts.IS_A, 
+						Concepts.INFERRED_RELATIONSHIP, Concepts.EXISTENTIAL_RESTRICTION_MODIFIER);
+			}
+			endEntry(out, writer);
+			
+			startEntry(out, writer, "Refset/Language/der2_cRefset_LanguageDelta-en_INT_20180131.txt", SnomedRf2Headers.LANGUAGE_TYPE_HEADER);
+			for (String descriptionId : Iterables.concat(fsnIds, ptIds)) {
+				writeRow(writer, UUID.randomUUID().toString(), "", "1", Concepts.MODULE_SCT_CORE, Concepts.REFSET_LANGUAGE_TYPE_UK, descriptionId, 
+						Concepts.REFSET_DESCRIPTION_ACCEPTABILITY_PREFERRED);
+			}
+			endEntry(out, writer);
+		}
+	}
+	
+	@After
+	public void after() {
+		archive.delete();
+	}
+	
+	@Ignore("Benchmark, run manually")
+	@Test
+	public void importDeltaWithTwentyThousandConcepts() throws Exception {
+		final IBranchPath branch = BranchPathUtils.createPath(branchPath, "import-perf-test");
+		createBranch(branch).statusCode(201);
+		
+		final Map<?, ?> importConfiguration = ImmutableMap.builder()
+				.put("type", Rf2ReleaseType.DELTA.name())
+				.put("branchPath", branch.getPath())
+				.put("createVersions", false)
+				.build();
+		
+		final String importId = lastPathSegment(createImport(importConfiguration).statusCode(201).extract().header("Location"));
+		
+		final Stopwatch w = Stopwatch.createStarted();
+		uploadImportFile(importId, archive).statusCode(204);
+		waitForImportJob(importId).statusCode(200).body("status", equalTo(ImportStatus.COMPLETED.name()));
+		System.err.println("Importing " + NUMBER_OF_CONCEPTS + " concepts took: " + w + " with " + Runtime.getRuntime().availableProcessors() + " available processors");
+		
+		assertThat(SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByIds(conceptIds)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isEqualTo(NUMBER_OF_CONCEPTS);
+	}
+	
+	private static List<String> generateIds(Supplier<String> idSupplier) {
+		final Set<String> ids = Sets.newLinkedHashSet();
+		while (ids.size() < NUMBER_OF_CONCEPTS) {
+			ids.add(idSupplier.get());
+		}
+		return ImmutableList.copyOf(ids);
+	}
+	
+	private static void startEntry(ZipOutputStream out, Writer writer, String fileName, String[] header) throws IOException {
+		out.putNextEntry(new ZipEntry(RELEASE_DIRECTORY + fileName));
+		writeRow(writer, header);
+	}
+	
+	private static void endEntry(ZipOutputStream out, Writer writer) throws IOException {
+		writer.flush();
+		out.closeEntry();
+	}
+	
+	private static void writeRow(Writer writer, String... values) throws IOException {
+		writer.write(TAB_JOINER.join(values));
+		writer.write(CR_LF);
+	}
+	
+}
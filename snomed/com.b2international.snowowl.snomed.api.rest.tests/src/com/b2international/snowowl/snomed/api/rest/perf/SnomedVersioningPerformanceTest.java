@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.api.rest.perf;
+
+import static com.b2international.snowowl.snomed.api.rest.CodeSystemRestRequests.createCodeSystem;
+import static com.b2international.snowowl.snomed.api.rest.CodeSystemVersionRestRequests.createVersion;
+import static com.b2international.snowowl.snomed.api.rest.CodeSystemVersionRestRequests.getNextAvailableEffectiveDateAsString;
+import static com.b2international.snowowl.snomed.api.rest.SnomedBranchingRestRequests.createBranch;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.b2international.snowowl.core.api.IBranchPath;
+import com.b2international.snowowl.core.domain.TransactionContext;
+import com.b2international.snowowl.core.events.bulk.BulkRequest;
+import com.b2international.snowowl.core.events.bulk.BulkRequestBuilder;
+import com.b2international.snowowl.datastore.BranchPathUtils;
+import com.b2international.snowowl.identity.domain.User;
+import com.b2international.snowowl.snomed.api.rest.AbstractSnomedApiTest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
+import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Versioning performance test case on a synthetic release. The test creates 200_000 concepts with 1 FSN, 1 PT (both preferred in the UK
+ * language reference set) and 1 stated IS A relationship each, 1_200_000 unpublished components in total, then versions them and reports the
+ * time and the peak heap usage of the versioning request.
+ * It is a manual benchmark, run it with a fixed heap size of -Xmx2g: the versioning request has to pass under this heap size, as the
+ * unpublished components are published in bounded chunks. Increase the number of concepts to scale the release further.
+ * The measured times heavily depend on whether you run this test case on a warmed ES cache/index, what are the current JVM settings and what hardware you have.
+ *
+ * @since 7.1
+ */
+public class SnomedVersioningPerformanceTest extends AbstractSnomedApiTest {
+
+	private static final int NUMBER_OF_CONCEPTS = 200_000;
+	private static final int NUMBER_OF_CONCEPTS_PER_COMMIT = 10_000;
+	private static final String CODE_SYSTEM = "SNOMEDCT-VERSIONING-PERF";
+
+	@Ignore("Benchmark, run manually with -Xmx2g")
+	@Test
+	public void versionMillionComponents() throws Exception {
+		final IBranchPath branch = BranchPathUtils.createPath(branchPath, "versioning-perf-test");
+		createBranch(branch).statusCode(201);
+		createCodeSystem(branch, CODE_SYSTEM).statusCode(201);
+
+		final Stopwatch w = Stopwatch.createStarted();
+		for (int i = 0; i < NUMBER_OF_CONCEPTS; i += NUMBER_OF_CONCEPTS_PER_COMMIT) {
+			createConcepts(branch, i);
+		}
+		System.err.println("Creating " + NUMBER_OF_CONCEPTS + " concepts took: " + w);
+		assertThat(countUnreleasedConcepts(branch)).isGreaterThanOrEqualTo(NUMBER_OF_CONCEPTS);
+
+		final String effectiveDate = getNextAvailableEffectiveDateAsString(CODE_SYSTEM);
+		resetPeakHeapUsage();
+		w.reset().start();
+		createVersion(CODE_SYSTEM, "v1", effectiveDate).statusCode(201);
+		System.err.println("Versioning " + NUMBER_OF_CONCEPTS + " concepts took: " + w + ", peak heap usage: " + (getPeakHeapUsage() >> 20) + " MB");
+
+		assertThat(countUnreleasedConcepts(branch)).isZero();
+		assertThat(SnomedRequests.prepareSearchDescription()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchRelationship()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchMember()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByEffectiveTime(effectiveDate)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isGreaterThanOrEqualTo(NUMBER_OF_CONCEPTS);
+	}
+
+	private void createConcepts(IBranchPath branch, int offset) {
+		final BulkRequestBuilder<TransactionContext> bulk = BulkRequest.create();
+		for (int i = offset; i < offset + NUMBER_OF_CONCEPTS_PER_COMMIT; i++) {
+			bulk.add(SnomedRequests.prepareNewConcept()
+						.setIdFromNamespace(null /*INT*/)
+						.setActive(true)
+						.setModuleId(Concepts.MODULE_SCT_CORE)
+						.addDescription(SnomedRequests.prepareNewDescription()
+								.setIdFromNamespace(null /*INT*/)
+								.setTerm("VersioningTest FSN " + i)
+								.setTypeId(Concepts.FULLY_SPECIFIED_NAME)
+								.setLanguageCode("en")
+								.preferredIn(Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.addDescription(SnomedRequests.prepareNewDescription()
+								.setIdFromNamespace(null /*INT*/)
+								.setTerm("VersioningTest PT " + i)
+								.setTypeId(Concepts.SYNONYM)
+								.setLanguageCode("en")
+								.preferredIn(Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.addRelationship(SnomedRequests.prepareNewRelationship()
+								.setIdFromNamespace(null /*INT*/)
+								.setCharacteristicType(CharacteristicType.STATED_RELATIONSHIP)
+								.setTypeId(Concepts.IS_A)
+								.setDestinationId(Concepts.ROOT_CONCEPT)));
+		}
+
+		SnomedRequests.prepareCommit()
+			.setBody(bulk)
+			.setCommitComment("Create concepts for versioning test")
+			.setUserId(User.SYSTEM.getUsername())
+			.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+			.execute(getBus())
+			.getSync();
+	}
+
+	private int countUnreleasedConcepts(IBranchPath branch) {
+		return SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branch.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+	}
+
+	private static void resetPeakHeapUsage() {
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long getPeakHeapUsage() {
+		long peak = 0L;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.api.rest.versioning;
+
+import static com.b2international.snowowl.snomed.api.rest.CodeSystemRestRequests.createCodeSystem;
+import static com.b2international.snowowl.snomed.api.rest.CodeSystemVersionRestRequests.getNextAvailableEffectiveDate;
+import static com.b2international.snowowl.snomed.api.rest.CodeSystemVersionRestRequests.getVersion;
+import static com.b2international.snowowl.snomed.api.rest.SnomedRestFixtures.createNewConcept;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.b2international.snowowl.core.date.EffectiveTimes;
+import com.b2international.snowowl.core.domain.TransactionContext;
+import com.b2international.snowowl.core.events.bulk.BulkRequest;
+import com.b2international.snowowl.core.events.bulk.BulkRequestBuilder;
+import com.b2international.snowowl.datastore.oplock.impl.DatastoreLockContextDescriptions;
+import com.b2international.snowowl.datastore.request.RepositoryCommitRequestBuilder;
+import com.b2international.snowowl.datastore.request.RepositoryRequests;
+import com.b2international.snowowl.datastore.version.VersioningConfiguration;
+import com.b2international.snowowl.identity.domain.User;
+import com.b2international.snowowl.snomed.api.rest.AbstractSnomedApiTest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
+import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
+import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMembers;
+import com.b2international.snowowl.snomed.core.version.SnomedVersioningRequest;
+import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+
+/**
+ * Versions a small extension module with a chunk size of a few components, so that each component type is published in several chunk
+ * commits before the final commit of the version.
+ *
+ * @since 7.1
+ */
+public class SnomedChunkedVersioningTest extends AbstractSnomedApiTest {
+
+	private static final int CHUNK_SIZE = 3;
+	private static final int NUMBER_OF_CONCEPTS = 5;
+	private static final String CODE_SYSTEM = "SNOMEDCT-CHUNKED-VERSIONING";
+
+	@Test
+	public void versionInChunks() {
+		createCodeSystem(branchPath, CODE_SYSTEM).statusCode(201);
+
+		final String moduleId = createNewConcept(branchPath, Concepts.MODULE_ROOT);
+		createConcepts(moduleId);
+		final String existingDependencyMemberId = createModuleDependencyMember(moduleId, Concepts.MODULE_SCT_CORE);
+
+		final int unpublishedModuleDependencyMembers = SnomedRequests.prepareSearchMember()
+				.setLimit(0)
+				.filterByRefSet(Concepts.REFSET_MODULE_DEPENDENCY_TYPE)
+				.filterByEffectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+		final int unpublishedMembers = SnomedRequests.prepareSearchMember()
+				.setLimit(0)
+				.filterByEffectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+		final int unpublishedConcepts = SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByEffectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+		final int unpublishedDescriptions = SnomedRequests.prepareSearchDescription()
+				.setLimit(0)
+				.filterByEffectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+		final int unpublishedRelationships = SnomedRequests.prepareSearchRelationship()
+				.setLimit(0)
+				.filterByEffectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+
+		// module dependency members are published in the final commit along with the version
+		final int expectedChunks = chunks(unpublishedConcepts)
+				+ chunks(unpublishedDescriptions)
+				+ chunks(unpublishedRelationships)
+				+ chunks(unpublishedMembers - unpublishedModuleDependencyMembers);
+		assertThat(chunks(unpublishedConcepts)).isGreaterThan(1);
+		assertThat(chunks(unpublishedDescriptions)).isGreaterThan(1);
+
+		final int commitsBeforeVersioning = countCommits();
+		final Date effectiveDate = getNextAvailableEffectiveDate(CODE_SYSTEM);
+		final VersioningConfiguration config = new VersioningConfiguration(User.SYSTEM.getUsername(), CODE_SYSTEM, "chunked-version", "Chunked version", effectiveDate);
+		new RepositoryCommitRequestBuilder()
+			.setUserId(User.SYSTEM.getUsername())
+			.setCommitComment("Create chunked version")
+			.setBody(new SnomedVersioningRequest(config, CHUNK_SIZE))
+			.setParentContextDescription(DatastoreLockContextDescriptions.CREATE_VERSION)
+			.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+			.execute(getBus())
+			.getSync();
+
+		getVersion(CODE_SYSTEM, "chunked-version").statusCode(200);
+		assertThat(countCommits() - commitsBeforeVersioning).isEqualTo(expectedChunks + 1);
+
+		assertThat(SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchDescription()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchRelationship()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchMember()
+				.setLimit(0)
+				.filterByReleased(false)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isZero();
+		assertThat(SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByModule(moduleId)
+				.filterByEffectiveTime(effectiveDate.getTime())
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isEqualTo(NUMBER_OF_CONCEPTS);
+		assertThat(SnomedRequests.prepareSearchDescription()
+				.setLimit(0)
+				.filterByModule(moduleId)
+				.filterByEffectiveTime(effectiveDate.getTime())
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync()
+				.getTotal()).isEqualTo(2 * NUMBER_OF_CONCEPTS);
+
+		final SnomedReferenceSetMembers dependencyMembers = SnomedRequests.prepareSearchMember()
+				.all()
+				.filterByActive(true)
+				.filterByRefSet(Concepts.REFSET_MODULE_DEPENDENCY_TYPE)
+				.filterByModule(moduleId)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+				.execute(getBus())
+				.getSync();
+
+		// the existing member is updated, the dependency on the model component module is added
+		assertThat(dependencyMembers.getItems()
+				.stream()
+				.map(member -> member.getReferencedComponent().getId())
+				.collect(Collectors.toList()))
+			.containsOnly(Concepts.MODULE_SCT_CORE, Concepts.MODULE_SCT_MODEL_COMPONENT)
+			.doesNotHaveDuplicates();
+		for (SnomedReferenceSetMember member : dependencyMembers) {
+			assertThat(member.isReleased()).isTrue();
+			assertThat(member.getEffectiveTime()).isEqualTo(effectiveDate);
+			if (Concepts.MODULE_SCT_CORE.equals(member.getReferencedComponent().getId())) {
+				assertThat(member.getId()).isEqualTo(existingDependencyMemberId);
+			}
+		}
+	}
+
+	private void createConcepts(String moduleId) {
+		final BulkRequestBuilder<TransactionContext> bulk = BulkRequest.create();
+		for (int i = 0; i < NUMBER_OF_CONCEPTS; i++) {
+			bulk.add(SnomedRequests.prepareNewConcept()
+						.setIdFromNamespace(null /*INT*/)
+						.setActive(true)
+						.setModuleId(moduleId)
+						.addDescription(SnomedRequests.prepareNewDescription()
+								.setIdFromNamespace(null /*INT*/)
+								.setTerm("Chunked versioning FSN " + i)
+								.setTypeId(Concepts.FULLY_SPECIFIED_NAME)
+								.setLanguageCode("en")
+								.preferredIn(Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.addDescription(SnomedRequests.prepareNewDescription()
+								.setIdFromNamespace(null /*INT*/)
+								.setTerm("Chunked versioning PT " + i)
+								.setTypeId(Concepts.SYNONYM)
+								.setLanguageCode("en")
+								.preferredIn(Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.addRelationship(SnomedRequests.prepareNewRelationship()
+								.setIdFromNamespace(null /*INT*/)
+								.setCharacteristicType(CharacteristicType.STATED_RELATIONSHIP)
+								.setTypeId(Concepts.IS_A)
+								.setDestinationId(Concepts.ROOT_CONCEPT)));
+		}
+
+		SnomedRequests.prepareCommit()
+			.setBody(bulk)
+			.setCommitComment("Create concepts for chunked versioning test")
+			.setUserId(User.SYSTEM.getUsername())
+			.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+			.execute(getBus())
+			.getSync();
+	}
+
+	private String createModuleDependencyMember(String moduleId, String targetModuleId) {
+		final String memberId = UUID.randomUUID().toString();
+		SnomedRequests.prepareCommit()
+			.setBody(SnomedRequests.prepareNewMember()
+					.setId(memberId)
+					.setActive(true)
+					.setModuleId(moduleId)
+					.setReferenceSetId(Concepts.REFSET_MODULE_DEPENDENCY_TYPE)
+					.setReferencedComponentId(targetModuleId))
+			.setCommitComment("Create module dependency member for chunked versioning test")
+			.setUserId(User.SYSTEM.getUsername())
+			.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+			.execute(getBus())
+			.getSync();
+		return memberId;
+	}
+
+	private int countCommits() {
+		return RepositoryRequests.commitInfos()
+				.prepareSearchCommitInfo()
+				.filterByBranch(branchPath.getPath())
+				.setLimit(0)
+				.build(SnomedDatastoreActivator.REPOSITORY_UUID)
+				.execute(getBus())
+				.getSync()
+				.getTotal();
+	}
+
+	private static int chunks(int numberOfComponents) {
+		return (numberOfComponents + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+}
@@ -22,14 +22,20 @@ import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedCom
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedComponentDocument.Fields.ACTIVE_MEMBER_OF;
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.ancestors;
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.parents;
+import static com.google.common.collect.Sets.newHashSet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.eclipse.xtext.parser.IParser;
 import org.eclipse.xtext.serializer.ISerializer;
@@ -45,11 +51,15 @@ import com.b2international.index.Index;
 import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.MatchNone;
+import com.b2international.index.query.Query;
 import com.b2international.index.revision.BaseRevisionIndexTest;
 import com.b2international.index.revision.RevisionIndex;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.index.revision.StagingArea;
 import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.domain.IComponent;
+import com.b2international.snowowl.core.events.Request;
 import com.b2international.snowowl.datastore.index.RevisionDocument;
 import com.b2international.snowowl.datastore.request.RevisionIndexReadRequest;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
@@ -60,8 +70,12 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemb
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
+import com.b2international.snowowl.snomed.ecl.ecl.AttributeConstraint;
+import com.b2international.snowowl.snomed.ecl.ecl.RefinedExpressionConstraint;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.Injector;
 
@@ -1097,6 +1111,121 @@ public class SnomedEclEvaluationRequestTest extends BaseRevisionIndexTest {
 		assertEquals(expected, actual);
 	}
 	
+	@Test
+	public void plannedRefinementsMatchPerAttributeEvaluation() throws Exception {
+		generateDrugHierarchy();
+		generateTisselKit();
+		generateDrugsWithGroups();
+		
+		final List<String> refinements = ImmutableList.of(
+			String.format("<%s: %s=%s", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT1),
+			String.format("<%s: %s=<%s, %s=<%s", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, SUBSTANCE),
+			String.format("<%s: %s=%s, %s=%s", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT1, HAS_ACTIVE_INGREDIENT, INGREDIENT2),
+			String.format("<%s: %s=%s OR %s=%s", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT2, HAS_ACTIVE_INGREDIENT, INGREDIENT4),
+			String.format("<%s: %s=%s OR (%s=%s AND %s=%s)", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT2, HAS_ACTIVE_INGREDIENT, INGREDIENT4, HAS_ACTIVE_INGREDIENT, INGREDIENT2),
+			String.format("<%s: [0..0] %s=<%s, %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS),
+			String.format("<%s: [0..1] %s=<%s, [1..*] %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS),
+			String.format("<%s: [1..2] %s=<%s, [0..*] %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS),
+			String.format("<%s: %s=%s, %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT3, HAS_BOSS),
+			String.format("<%s: %s=(%s MINUS %s), %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT1, INGREDIENT1, HAS_BOSS),
+			String.format("<%s: %s=<%s, %s='PANADOL'", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_TRADE_NAME),
+			String.format("*: %s=%s, %s=%s", HAS_ACTIVE_INGREDIENT, INGREDIENT1, HAS_BOSS, INGREDIENT2),
+			String.format("<%s: R %s=<%s, R %s=*", SUBSTANCE, HAS_ACTIVE_INGREDIENT, DRUG_ROOT, HAS_BOSS),
+			String.format("<%s: [2..*] R %s=*, [0..0] R %s=*", SUBSTANCE, HAS_ACTIVE_INGREDIENT, HAS_BOSS),
+			String.format("<%s: {%s=<%s}, %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS),
+			String.format("<%s: [2..2] {%s=<%s, %s=<%s}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, SUBSTANCE),
+			String.format("<%s: [1..1] {%s=<%s, %s=<%s}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, SUBSTANCE),
+			String.format("<%s: [0..1] {%s=<%s, %s=*}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS),
+			String.format("<%s: [0..0] {%s=<%s}, %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS),
+			String.format("<%s: {[1..1] %s=<%s, [1..1] %s=<%s}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, SUBSTANCE),
+			String.format("<%s: {[0..1] %s=<<%s, [1..1] %s=<<%s}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, SUBSTANCE),
+			String.format("<%s: [1..1] {%s=%s OR %s=%s}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT5, HAS_BOSS, INGREDIENT5),
+			String.format("<%s: [1..1] {(%s=%s AND %s=%s) OR %s=%s}", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, INGREDIENT5, HAS_BOSS, INGREDIENT6, HAS_ACTIVE_INGREDIENT, INGREDIENT6)
+		);
+		
+		for (String refinement : refinements) {
+			assertEquals(refinement, evalRefinement(refinement, false), evalRefinement(refinement, true));
+		}
+	}
+	
+	@Test
+	public void planRefinementWithMultipleAttributes() throws Exception {
+		generateDrugsWithGroups();
+		
+		final String expression = String.format("<%s: [1..1] {%s=<%s, %s=%s}, [0..*] %s=*", DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, INGREDIENT6, HAS_TRADE_NAME);
+		final Map<AttributeConstraint, Collection<SnomedEclRefinementEvaluator.Property>> plannedAttributes = new RevisionIndexReadRequest<>((Request<BranchContext, Map<AttributeConstraint, Collection<SnomedEclRefinementEvaluator.Property>>>) ctx -> {
+			final RefinedExpressionConstraint refined = (RefinedExpressionConstraint) ctx.service(EclParser.class).parse(expression);
+			final String focus = ctx.service(EclSerializer.class).serializeWithoutTerms(refined.getConstraint());
+			return new SnomedEclRefinementPlanner(EclExpression.of(focus)).plan(ctx, refined.getRefinement());
+		}).execute(context);
+		
+		// the [0..*] attribute is not evaluated at all
+		assertEquals(2, plannedAttributes.size());
+		final Set<Integer> relationshipCounts = plannedAttributes.values().stream().map(Collection::size).collect(Collectors.toSet());
+		// HAI relationships to substances of EPOX (ungrouped), ASPIRIN, ALGOFLEX (2) and TRIPLEX, HAS_BOSS relationships to INGREDIENT6 of ASPIRIN, ALGOFLEX and TRIPLEX
+		assertEquals(ImmutableSet.of(5, 3), relationshipCounts);
+	}
+	
+	@Ignore("Benchmark, run manually")
+	@Test
+	public void plannedRefinementTiming() throws Exception {
+		final int numberOfDrugs = 2_000;
+		final StagingArea staging = index().prepareCommit(MAIN)
+				.stageNew(concept(INGREDIENT5).parents(PrimitiveSets.newLongOpenHashSet(Long.parseLong(SUBSTANCE))).build())
+				.stageNew(concept(INGREDIENT6).parents(PrimitiveSets.newLongOpenHashSet(Long.parseLong(SUBSTANCE))).build());
+		for (int i = 0; i < numberOfDrugs; i++) {
+			final String drugId = RandomSnomedIdentiferGenerator.generateConceptId();
+			staging.stageNew(concept(drugId).parents(PrimitiveSets.newLongOpenHashSet(Long.parseLong(DRUG_ROOT))).build());
+			staging.stageNew(relationship(drugId, HAS_ACTIVE_INGREDIENT, i % 2 == 0 ? INGREDIENT5 : INGREDIENT6).group(1).build());
+			staging.stageNew(relationship(drugId, HAS_BOSS, INGREDIENT6).group(1).build());
+			staging.stageNew(relationship(drugId, HAS_TRADE_NAME, INGREDIENT5).group(i % 3).build());
+			staging.stageNew(relationship(drugId, HAS_ACTIVE_INGREDIENT, INGREDIENT6).group(2).build());
+		}
+		staging.commit(currentTime(), UUID.randomUUID().toString(), "Initialize drugs for timing");
+		
+		final String expression = String.format("<%s: [1..2] {%s=<%s, %s=%s}, %s=%s, [0..1] %s=%s", 
+				DRUG_ROOT, HAS_ACTIVE_INGREDIENT, SUBSTANCE, HAS_BOSS, INGREDIENT6, HAS_TRADE_NAME, INGREDIENT5, HAS_ACTIVE_INGREDIENT, INGREDIENT5);
+		
+		// warm up both code paths
+		final Set<String> expected = evalRefinement(expression, false);
+		assertEquals(expected, evalRefinement(expression, true));
+		
+		final Stopwatch w = Stopwatch.createStarted();
+		for (int i = 0; i < 10; i++) {
+			evalRefinement(expression, false);
+		}
+		System.err.println("Evaluating refinement with 4 attributes on " + numberOfDrugs + " drugs 10 times, one search per attribute took: " + w);
+		
+		w.reset().start();
+		for (int i = 0; i < 10; i++) {
+			evalRefinement(expression, true);
+		}
+		System.err.println("Evaluating refinement with 4 attributes on " + numberOfDrugs + " drugs 10 times, single relationship pass took: " + w);
+	}
+	
+	/*
+	 * Evaluates the refinement of the given refined expression constraint with or without the attribute planner and returns the matching concept IDs.
+	 */
+	private Set<String> evalRefinement(String expression, boolean planAttributes) {
+		return new RevisionIndexReadRequest<>((Request<BranchContext, Set<String>>) ctx -> {
+			final RefinedExpressionConstraint refined = (RefinedExpressionConstraint) ctx.service(EclParser.class).parse(expression);
+			final String focus = ctx.service(EclSerializer.class).serializeWithoutTerms(refined.getConstraint());
+			final Expression refinementExpression = new SnomedEclRefinementEvaluator(EclExpression.of(focus), planAttributes)
+					.evaluate(ctx, refined.getRefinement())
+					.getSync();
+			try {
+				return newHashSet(ctx.service(RevisionSearcher.class).search(Query.select(String.class)
+						.from(SnomedConceptDocument.class)
+						.fields(SnomedConceptDocument.Fields.ID)
+						.where(refinementExpression)
+						.limit(Integer.MAX_VALUE)
+						.build()));
+			} catch (IOException e) {
+				throw new SnowowlRuntimeException(e);
+			}
+		}).execute(context);
+	}
+	
 	/**
 	 * Generates the following test fixtures:
 	 * <ul>
@@ -27,6 +27,7 @@ import com.b2international.snowowl.snomed.datastore.id.memory.DefaultSnomedIdent
 import com.b2international.snowowl.snomed.datastore.index.change.DescriptionChangeProcessorTest;
 import com.b2international.snowowl.snomed.datastore.index.change.PreferredDescriptionPreCommitHookTest;
 import com.b2international.snowowl.snomed.datastore.index.change.RelationshipChangeProcessorTest;
+import com.b2international.snowowl.snomed.datastore.index.change.SnomedChangeSetProcessorPipelineTest;
 import com.b2international.snowowl.snomed.datastore.index.change.TaxonomyPreCommitHookTest;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocumentTermSortTest;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptIndexEntrySerializationTest;
@@ -37,6 +38,10 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationsh
 import com.b2international.snowowl.snomed.datastore.internal.id.SnomedIdentifierTest;
 import com.b2international.snowowl.snomed.datastore.internal.id.reservations.ReservationImplTest;
 import com.b2international.snowowl.snomed.datastore.internal.id.reservations.SnomedIdentifierReservationServiceImplTest;
+import com.b2international.snowowl.snomed.datastore.request.DescriptionLabelCacheTest;
+import com.b2international.snowowl.snomed.datastore.request.QueryRefSetMemberDiffTest;
+import com.b2international.snowowl.snomed.datastore.request.SnomedConceptChildCountRequestTest;
+import com.b2international.snowowl.snomed.datastore.request.xls.StreamingSheetWriterTest;
 import com.b2international.snowowl.snomed.validation.SnomedQueryValidationRuleEvaluatorTest;
 
 /**
@@ -63,9 +68,18 @@ import com.b2international.snowowl.snomed.validation.SnomedQueryValidationRuleEv
 	RelationshipChangeProcessorTest.class,
 	TaxonomyPreCommitHookTest.class,
 	PreferredDescriptionPreCommitHookTest.class,
+	SnomedChangeSetProcessorPipelineTest.class,
 	// ECL test cases
 	SnomedEclEvaluationRequestTest.class,
 	SnomedEclRewriterTest.class,
+	// Label cache test cases
+	DescriptionLabelCacheTest.class,
+	// Taxonomy navigation test cases
+	SnomedConceptChildCountRequestTest.class,
+	// Query reference set test cases
+	QueryRefSetMemberDiffTest.class,
+	// Excel export test cases
+	StreamingSheetWriterTest.class,
 	// Validation Rule test cases
 	SnomedQueryValidationRuleEvaluatorTest.class,
 })
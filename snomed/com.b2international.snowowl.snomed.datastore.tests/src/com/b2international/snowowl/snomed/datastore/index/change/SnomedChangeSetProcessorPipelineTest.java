@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.index.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.b2international.index.revision.RevisionIndexRead;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.index.revision.StagingArea;
+import com.b2international.index.revision.StagingArea.RevisionDiff;
+import com.b2international.snowowl.datastore.index.ChangeSetProcessor;
+import com.b2international.snowowl.datastore.index.ChangeSetProcessorPipeline;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.Acceptability;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.datastore.taxonomy.Taxonomies;
+import com.b2international.snowowl.snomed.datastore.taxonomy.Taxonomy;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Verifies that the change set processor pipeline of the SNOMED CT pre-commit hook stages the same documents when its processors run
+ * concurrently as when they run one after another, in the order they were added.
+ * 
+ * @since 7.1
+ */
+public class SnomedChangeSetProcessorPipelineTest extends BaseConceptPreCommitHookTest {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SnomedChangeSetProcessorPipelineTest.class);
+	private static final Map<String, Acceptability> UK_PREFERRED = Collections.singletonMap(Concepts.REFSET_LANGUAGE_TYPE_UK, Acceptability.PREFERRED);
+	
+	private ListeningExecutorService executor;
+	
+	@Before
+	public void createExecutor() {
+		executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+	}
+	
+	@After
+	public void shutdownExecutor() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void processorOrder() throws Exception {
+		final ConceptChangeProcessor conceptChangeProcessor = index().read(MAIN, searcher -> createConceptChangeProcessor(searcher, staging()));
+		
+		assertThat(getProcessorTypes(SnomedRepositoryPreCommitHook.createChangeSetProcessorPipeline(false, conceptChangeProcessor)))
+			.containsExactly(ComponentInactivationChangeProcessor.class, DetachedContainerChangeProcessor.class, DescriptionChangeProcessor.class, 
+					ConceptChangeProcessor.class, RelationshipChangeProcessor.class);
+		
+		assertThat(getProcessorTypes(SnomedRepositoryPreCommitHook.createChangeSetProcessorPipeline(true, conceptChangeProcessor)))
+			.containsExactly(DescriptionChangeProcessor.class, ConceptChangeProcessor.class, RelationshipChangeProcessor.class);
+	}
+	
+	@Test
+	public void sameChangesAsSequentialProcessing() throws Exception {
+		stageChanges();
+		assertSameChanges(false);
+	}
+	
+	@Test
+	public void sameChangesAsSequentialProcessingDuringImport() throws Exception {
+		stageChanges();
+		assertSameChanges(true);
+	}
+	
+	/*
+	 * Stages changes for all processors of the pipeline: a concept inactivation, a concept deletion, a new concept with an FSN and IS A
+	 * relationships and a new synonym for an existing concept. The inactivated concept does not have any descriptions, as the inactivation
+	 * indicator members of the descriptions would get random identifiers.
+	 */
+	private void stageChanges() {
+		final SnomedConceptDocument parentConcept = docWithDefaults(concept().build()).build();
+		
+		final SnomedConceptDocument inactivatedConcept = docWithDefaults(concept().build()).build();
+		final SnomedRelationshipIndexEntry inactivatedConceptIsa = createStatedRelationship(inactivatedConcept.getId(), Concepts.IS_A, parentConcept.getId());
+		final SnomedRefSetMemberIndexEntry inactivatedConceptMember = simpleMember(inactivatedConcept.getId(), Concepts.REFSET_DESCRIPTION_TYPE);
+		
+		final SnomedConceptDocument removedConcept = docWithDefaults(concept().build()).build();
+		final SnomedDescriptionIndexEntry removedConceptFsn = fsn(removedConcept.getId(), UK_PREFERRED);
+		final SnomedRefSetMemberIndexEntry removedConceptFsnMember = langMember(removedConceptFsn.getId(), Acceptability.PREFERRED, Concepts.REFSET_LANGUAGE_TYPE_UK);
+		final SnomedRelationshipIndexEntry removedConceptIsa = createStatedRelationship(removedConcept.getId(), Concepts.IS_A, parentConcept.getId());
+		
+		final SnomedConceptDocument existingConcept = docWithDefaults(concept().build()).build();
+		final SnomedDescriptionIndexEntry existingConceptFsn = fsn(existingConcept.getId(), UK_PREFERRED);
+		final SnomedRefSetMemberIndexEntry existingConceptFsnMember = langMember(existingConceptFsn.getId(), Acceptability.PREFERRED, Concepts.REFSET_LANGUAGE_TYPE_UK);
+		
+		initRevisions(
+			parentConcept,
+			inactivatedConcept, inactivatedConceptIsa, inactivatedConceptMember,
+			removedConcept, removedConceptFsn, removedConceptFsnMember, removedConceptIsa,
+			existingConcept, existingConceptFsn, existingConceptFsnMember
+		);
+		
+		stageChange(inactivatedConcept, SnomedConceptDocument.builder(inactivatedConcept).active(false).build());
+		stageRemove(removedConcept);
+		
+		final SnomedConceptDocument newConcept = concept().build();
+		final SnomedDescriptionIndexEntry newConceptFsn = fsn(newConcept.getId(), UK_PREFERRED);
+		stageNew(newConcept);
+		stageNew(newConceptFsn);
+		stageNew(langMember(newConceptFsn.getId(), Acceptability.PREFERRED, Concepts.REFSET_LANGUAGE_TYPE_UK));
+		stageNew(createStatedRelationship(newConcept.getId(), Concepts.IS_A, parentConcept.getId()));
+		stageNew(createInferredRelationship(newConcept.getId(), Concepts.IS_A, parentConcept.getId()));
+		
+		final SnomedDescriptionIndexEntry newSynonym = synonym(existingConcept.getId(), UK_PREFERRED);
+		stageNew(newSynonym);
+		stageNew(langMember(newSynonym.getId(), Acceptability.PREFERRED, Concepts.REFSET_LANGUAGE_TYPE_UK));
+		
+		for (SnomedConceptDocument concept : new SnomedConceptDocument[] { parentConcept, inactivatedConcept, existingConcept, newConcept }) {
+			statedChangedConceptIds.add(Long.parseLong(concept.getId()));
+			inferredChangedConceptIds.add(Long.parseLong(concept.getId()));
+		}
+	}
+	
+	private void assertSameChanges(boolean importRunning) {
+		final StagingArea parallelStaging = copyOf(staging());
+		
+		run(staging(), importRunning, true);
+		run(parallelStaging, importRunning, false);
+		
+		assertEquals(staging().getNewObjects().keySet(), parallelStaging.getNewObjects().keySet());
+		staging().getNewObjects().forEach((id, expected) -> assertDocEquals(expected, parallelStaging.getNewObjects().get(id)));
+		
+		assertEquals(staging().getChangedRevisions().keySet(), parallelStaging.getChangedRevisions().keySet());
+		staging().getChangedRevisions().forEach((id, expected) -> {
+			final RevisionDiff actual = parallelStaging.getChangedRevisions().get(id);
+			assertDocEquals(expected.oldRevision, actual.oldRevision);
+			assertDocEquals(expected.newRevision, actual.newRevision);
+		});
+		
+		assertEquals(staging().getRemovedObjects().keySet(), parallelStaging.getRemovedObjects().keySet());
+	}
+	
+	private static List<Class<?>> getProcessorTypes(ChangeSetProcessorPipeline pipeline) {
+		return pipeline.getProcessors().stream().<Class<?>>map(ChangeSetProcessor::getClass).collect(Collectors.toList());
+	}
+	
+	private StagingArea copyOf(StagingArea staging) {
+		final StagingArea copy = index().prepareCommit(MAIN);
+		staging.getNewObjects().forEach(copy::stageNew);
+		staging.getChangedRevisions().values().forEach(diff -> copy.stageChange(diff.oldRevision, diff.newRevision));
+		staging.getRemovedObjects().forEach(copy::stageRemove);
+		return copy;
+	}
+	
+	private void run(StagingArea staging, boolean importRunning, boolean sequential) {
+		index().read(MAIN, (RevisionIndexRead<Void>) searcher -> {
+			final ChangeSetProcessorPipeline pipeline = SnomedRepositoryPreCommitHook.createChangeSetProcessorPipeline(importRunning, 
+					createConceptChangeProcessor(searcher, staging));
+			if (sequential) {
+				ChangeSetProcessorPipeline.sequential(pipeline.getProcessors()).run(staging, searcher, MoreExecutors.sameThreadExecutor(), LOG);
+			} else {
+				pipeline.run(staging, searcher, executor, LOG);
+			}
+			return null;
+		});
+	}
+	
+	private ConceptChangeProcessor createConceptChangeProcessor(RevisionSearcher searcher, StagingArea staging) {
+		final Taxonomy inferredTaxonomy = Taxonomies.inferred(searcher, staging, inferredChangedConceptIds, true);
+		final Taxonomy statedTaxonomy = Taxonomies.stated(searcher, staging, statedChangedConceptIds, true);
+		return new ConceptChangeProcessor(DoiData.DEFAULT_SCORE, availableImages, statedTaxonomy, inferredTaxonomy);
+	}
+	
+}
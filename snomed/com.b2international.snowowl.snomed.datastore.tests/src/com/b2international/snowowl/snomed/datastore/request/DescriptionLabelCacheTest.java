@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.commons.http.ExtendedLocale;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.Acceptability;
+import com.b2international.snowowl.snomed.core.domain.SnomedDescription;
+import com.b2international.snowowl.snomed.core.domain.SnomedDescriptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * @since 7.1
+ */
+public class DescriptionLabelCacheTest {
+
+	private static final String BRANCH = "MAIN/a";
+	private static final String OTHER_BRANCH = "MAIN/b";
+	private static final List<ExtendedLocale> UK = ImmutableList.of(ExtendedLocale.valueOf("en-x-" + Concepts.REFSET_LANGUAGE_TYPE_UK));
+	private static final List<ExtendedLocale> US = ImmutableList.of(ExtendedLocale.valueOf("en-x-" + Concepts.REFSET_LANGUAGE_TYPE_US));
+
+	private DescriptionLabelCache cache;
+	private AtomicInteger loads;
+	private Function<Set<String>, Map<String, SnomedDescription>> loader;
+
+	@Before
+	public void setup() {
+		cache = new DescriptionLabelCache(1024L * 1024L);
+		loads = new AtomicInteger();
+		// concepts with an even ID have a label, odd ones don't
+		loader = conceptIds -> {
+			loads.incrementAndGet();
+			return Maps.toMap(conceptIds.stream().filter(id -> Long.parseLong(id) % 2 == 0).collect(Collectors.toSet()), id -> description(id, "Label of " + id));
+		};
+	}
+
+	@Test
+	public void cachedLabelsAreNotLoadedAgain() throws Exception {
+		final Set<String> conceptIds = ImmutableSet.of("2", "4");
+		final Map<String, SnomedDescription> first = cache.forBranch(BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+		final Map<String, SnomedDescription> second = cache.forBranch(BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(second).isEqualTo(first);
+		assertThat(second.get("2").getTerm()).isEqualTo("Label of 2");
+	}
+
+	@Test
+	public void onlyMissingLabelsAreLoaded() throws Exception {
+		cache.forBranch(BRANCH, 1L).getPreferredTerms(ImmutableSet.of("2"), UK, loader);
+
+		final Set<String> requested = ImmutableSet.of("2", "4", "6");
+		final Map<String, SnomedDescription> labels = cache.forBranch(BRANCH, 1L).getPreferredTerms(requested, UK, conceptIds -> {
+			assertThat(conceptIds).containsOnly("4", "6");
+			return loader.apply(conceptIds);
+		});
+
+		assertThat(labels.keySet()).containsOnly("2", "4", "6");
+	}
+
+	@Test
+	public void missingLabelsAreCached() throws Exception {
+		final Map<String, SnomedDescription> first = cache.forBranch(BRANCH, 1L).getPreferredTerms(ImmutableSet.of("1", "3"), UK, loader);
+		final Map<String, SnomedDescription> second = cache.forBranch(BRANCH, 1L).getPreferredTerms(ImmutableSet.of("1", "3"), UK, loader);
+
+		assertThat(first).isEmpty();
+		assertThat(second).isEmpty();
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(cache.size()).isEqualTo(2L);
+	}
+
+	@Test
+	public void keyIncludesTimestampLabelTypeAndLocales() throws Exception {
+		final Set<String> conceptIds = ImmutableSet.of("2");
+		cache.forBranch(BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+		cache.forBranch(BRANCH, 2L).getPreferredTerms(conceptIds, UK, loader);
+		cache.forBranch(BRANCH, 2L).getFullySpecifiedNames(conceptIds, UK, loader);
+		cache.forBranch(BRANCH, 2L).getFullySpecifiedNames(conceptIds, US, loader);
+		cache.forBranch(OTHER_BRANCH, 2L).getFullySpecifiedNames(conceptIds, US, loader);
+
+		assertThat(loads.get()).isEqualTo(5);
+		assertThat(cache.size()).isEqualTo(5L);
+	}
+
+	@Test
+	public void invalidateRemovesEntriesOfBranchOnly() throws Exception {
+		final Set<String> conceptIds = ImmutableSet.of("2", "4");
+		cache.forBranch(BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+		cache.forBranch(BRANCH, 1L).getFullySpecifiedNames(conceptIds, UK, loader);
+		cache.forBranch(OTHER_BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+
+		cache.invalidate(BRANCH);
+
+		assertThat(cache.size()).isEqualTo(2L);
+		cache.forBranch(OTHER_BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+		assertThat(loads.get()).isEqualTo(3);
+		cache.forBranch(BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+		assertThat(loads.get()).isEqualTo(4);
+	}
+
+	@Test
+	public void cacheIsBoundedByMemory() throws Exception {
+		final DescriptionLabelCache smallCache = new DescriptionLabelCache(64L * 1024L);
+		final Set<String> conceptIds = IntStream.range(0, 10_000).map(i -> i * 2).mapToObj(Integer::toString).collect(Collectors.toSet());
+		smallCache.forBranch(BRANCH, 1L).getPreferredTerms(conceptIds, UK, loader);
+
+		assertThat(smallCache.size()).isGreaterThan(0L).isLessThan(conceptIds.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void branchPathExpressionsAreNotCacheable() throws Exception {
+		assertThat(DescriptionLabelCache.isCacheable(BRANCH)).isTrue();
+		assertThat(DescriptionLabelCache.isCacheable("MAIN@1234")).isFalse();
+		assertThat(DescriptionLabelCache.isCacheable("MAIN...MAIN/a")).isFalse();
+		assertThat(DescriptionLabelCache.isCacheable("MAIN/a^")).isFalse();
+		cache.forBranch("MAIN@1234", 1L);
+	}
+
+	@Test
+	public void helperResolvesLabelsThroughCache() throws Exception {
+		final int numberOfConcepts = 10_000;
+		final Set<String> conceptIds = IntStream.range(0, numberOfConcepts).map(i -> i * 2).mapToObj(Integer::toString).collect(Collectors.toSet());
+		final AtomicInteger executions = new AtomicInteger();
+		final DescriptionRequestHelper helper = new DescriptionRequestHelper() {
+			@Override
+			protected DescriptionLabelCache.BranchLabels getCachedLabels() {
+				return cache.forBranch(BRANCH, 1L);
+			}
+
+			@Override
+			protected SnomedDescriptions execute(SnomedDescriptionSearchRequestBuilder req) {
+				executions.incrementAndGet();
+				final List<SnomedDescription> items = conceptIds.stream()
+						.map(id -> preferredDescription(id, "Label of " + id, Concepts.REFSET_LANGUAGE_TYPE_UK))
+						.collect(Collectors.toList());
+				return new SnomedDescriptions(items, null, null, items.size(), items.size());
+			}
+		};
+
+		assertThat(helper.getPreferredTerms(conceptIds, UK)).hasSize(numberOfConcepts);
+		assertThat(helper.getFullySpecifiedNames(conceptIds, UK)).hasSize(numberOfConcepts);
+		final int executionsAfterFirstExpand = executions.get();
+
+		// same page expanded again, all labels should come from the cache
+		assertThat(helper.getPreferredTerms(conceptIds, UK)).hasSize(numberOfConcepts);
+		assertThat(helper.getFullySpecifiedNames(conceptIds, UK)).hasSize(numberOfConcepts);
+		assertThat(helper.getPreferredTerm("2", UK).getTerm()).isEqualTo("Label of 2");
+		assertThat(executions.get()).isEqualTo(executionsAfterFirstExpand);
+	}
+
+	private static SnomedDescription description(String conceptId, String term) {
+		final SnomedDescription description = new SnomedDescription(conceptId + "0");
+		description.setConceptId(conceptId);
+		description.setTerm(term);
+		return description;
+	}
+
+	private static SnomedDescription preferredDescription(String conceptId, String term, String languageRefSetId) {
+		final SnomedDescription description = description(conceptId, term);
+		description.setAcceptabilityMap(ImmutableMap.of(languageRefSetId, Acceptability.PREFERRED));
+		return description;
+	}
+
+}
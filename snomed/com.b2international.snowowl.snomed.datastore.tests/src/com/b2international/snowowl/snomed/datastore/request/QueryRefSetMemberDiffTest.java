@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.member;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.serializer.ISerializer;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.Index;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.index.revision.StagingArea;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.datastore.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConstants;
+import com.b2international.snowowl.snomed.core.ecl.DefaultEclParser;
+import com.b2international.snowowl.snomed.core.ecl.DefaultEclSerializer;
+import com.b2international.snowowl.snomed.core.ecl.EclExpression;
+import com.b2international.snowowl.snomed.core.ecl.EclParser;
+import com.b2international.snowowl.snomed.core.ecl.EclSerializer;
+import com.b2international.snowowl.snomed.core.ecl.TestBranchContext;
+import com.b2international.snowowl.snomed.datastore.id.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+
+/**
+ * @since 7.1
+ */
+public class QueryRefSetMemberDiffTest extends BaseRevisionIndexTest {
+
+	private static final String PARENT_ID = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String OTHER_PARENT_ID = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String TARGET_REFSET_ID = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String QUERY = "<" + PARENT_ID;
+
+	private static final int NUMBER_OF_CONCEPTS = 2_000;
+	private static final int NUMBER_OF_BENCHMARK_CONCEPTS = 100_000;
+
+	private BranchContext context;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		final Injector injector = new EclStandaloneSetup().createInjectorAndDoEMFRegistration();
+		context = TestBranchContext.on(MAIN)
+				.with(EclParser.class, new DefaultEclParser(injector.getInstance(IParser.class), injector.getInstance(IResourceValidator.class)))
+				.with(EclSerializer.class, new DefaultEclSerializer(injector.getInstance(ISerializer.class)))
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.build();
+	}
+
+	@Test
+	public void sameChangesAsFullComponentEvaluation() throws Exception {
+		indexConceptsAndMembers(NUMBER_OF_CONCEPTS);
+
+		final QueryRefSetMemberDiff diff = computeDiff();
+		final Map<String, Object> expected = evaluateWithFullComponents();
+
+		assertThat(toStrings(diff.getConceptsToAdd())).isEqualTo(expected.get("add")).isNotEmpty();
+		assertThat(diff.getMembersToRemove()).isEqualTo(expected.get("remove")).isNotEmpty();
+	}
+
+	@Test
+	public void noChangesWhenTargetIsUpToDate() throws Exception {
+		final String conceptId = RandomSnomedIdentiferGenerator.generateConceptId();
+		index().prepareCommit(MAIN)
+				.stageNew(concept(PARENT_ID).build())
+				.stageNew(concept(conceptId).parents(PrimitiveSets.newLongOpenHashSet(Long.parseLong(PARENT_ID))).build())
+				.stageNew(targetMember(conceptId).build())
+				.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+
+		final QueryRefSetMemberDiff diff = computeDiff();
+		assertThat(diff.getConceptsToAdd().isEmpty()).isTrue();
+		assertThat(diff.getMembersToRemove()).isEmpty();
+		assertThat(diff.getChangedConceptIds()).isEmpty();
+	}
+
+	@Test
+	public void activeMemberWinsOverInactiveDuplicate() throws Exception {
+		final String conceptId = RandomSnomedIdentiferGenerator.generateConceptId();
+		index().prepareCommit(MAIN)
+				.stageNew(concept(PARENT_ID).build())
+				.stageNew(concept(conceptId).parents(PrimitiveSets.newLongOpenHashSet(Long.parseLong(PARENT_ID))).build())
+				.stageNew(targetMember(conceptId).active(false).build())
+				.stageNew(targetMember(conceptId).build())
+				.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+
+		// members of matching concepts are never removed, regardless of the order they are returned in
+		final QueryRefSetMemberDiff diff = computeDiff();
+		assertThat(diff.getConceptsToAdd().isEmpty()).isTrue();
+		assertThat(diff.getMembersToRemove()).isEmpty();
+	}
+
+	@Ignore("Benchmark, run manually")
+	@Test
+	public void evaluateQueryMatchingHundredThousandConcepts() throws Exception {
+		indexConceptsAndMembers(NUMBER_OF_BENCHMARK_CONCEPTS);
+
+		// warm up both implementations
+		computeDiff();
+		evaluateWithFullComponents();
+
+		final Stopwatch diffWatch = Stopwatch.createStarted();
+		final QueryRefSetMemberDiff diff = computeDiff();
+		diffWatch.stop();
+
+		final Stopwatch fullWatch = Stopwatch.createStarted();
+		final Map<String, Object> expected = evaluateWithFullComponents();
+		fullWatch.stop();
+
+		System.out.println(String.format("Evaluated query over %d concepts: ID-only diff took %s, full component evaluation took %s",
+				NUMBER_OF_BENCHMARK_CONCEPTS, diffWatch, fullWatch));
+		assertThat(toStrings(diff.getConceptsToAdd())).isEqualTo(expected.get("add"));
+		assertThat(diff.getMembersToRemove()).isEqualTo(expected.get("remove"));
+	}
+
+	/*
+	 * Every third matching concept is an active member of the target, every seventh has an inactive member only, every tenth is inactive (its
+	 * member has to be removed if it has one), and all concepts under the other parent are members to remove.
+	 */
+	private void indexConceptsAndMembers(int numberOfConcepts) {
+		final StagingArea staging = index().prepareCommit(MAIN)
+				.stageNew(concept(PARENT_ID).build())
+				.stageNew(concept(OTHER_PARENT_ID).build());
+		for (int i = 0; i < numberOfConcepts; i++) {
+			final String conceptId = RandomSnomedIdentiferGenerator.generateConceptId();
+			final String parentId = i % 11 == 0 ? OTHER_PARENT_ID : PARENT_ID;
+			staging.stageNew(concept(conceptId)
+					.active(i % 10 != 0)
+					.parents(PrimitiveSets.newLongOpenHashSet(Long.parseLong(parentId)))
+					.build());
+			if (i % 3 == 0) {
+				staging.stageNew(targetMember(conceptId).build());
+			} else if (i % 7 == 0) {
+				staging.stageNew(targetMember(conceptId).active(false).build());
+			}
+		}
+		staging.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+	}
+
+	private SnomedRefSetMemberIndexEntry.Builder targetMember(String conceptId) {
+		return member(UUID.randomUUID().toString(), conceptId, SnomedTerminologyComponentConstants.CONCEPT_NUMBER, TARGET_REFSET_ID);
+	}
+
+	private QueryRefSetMemberDiff computeDiff() {
+		return new RevisionIndexReadRequest<>((Request<BranchContext, QueryRefSetMemberDiff>) ctx -> {
+			return QueryRefSetMemberDiff.compute(ctx, QUERY, TARGET_REFSET_ID);
+		}).execute(context);
+	}
+
+	/*
+	 * The previous evaluation algorithm, loading every matching concept and every member of the target reference set.
+	 */
+	private Map<String, Object> evaluateWithFullComponents() {
+		return new RevisionIndexReadRequest<>((Request<BranchContext, Map<String, Object>>) ctx -> {
+			final RevisionSearcher searcher = ctx.service(RevisionSearcher.class);
+			try {
+				final Set<String> conceptsToAdd = newHashSet();
+				for (SnomedConceptDocument concept : searcher.search(Query.select(SnomedConceptDocument.class)
+						.where(Expressions.builder()
+								.filter(EclExpression.of(QUERY).resolveToExpression(ctx).getSync())
+								.build())
+						.limit(Integer.MAX_VALUE)
+						.build())) {
+					if (concept.isActive()) {
+						conceptsToAdd.add(concept.getId());
+					}
+				}
+
+				final Map<String, String> membersToRemove = newHashMap();
+				for (SnomedRefSetMemberIndexEntry member : searcher.search(Query.select(SnomedRefSetMemberIndexEntry.class)
+						.where(SnomedRefSetMemberIndexEntry.Expressions.referenceSetId(TARGET_REFSET_ID))
+						.limit(Integer.MAX_VALUE)
+						.build())) {
+					final String referencedComponentId = member.getReferencedComponentId();
+					if (conceptsToAdd.contains(referencedComponentId)) {
+						if (member.isActive()) {
+							conceptsToAdd.remove(referencedComponentId);
+						}
+					} else {
+						membersToRemove.put(member.getId(), referencedComponentId);
+					}
+				}
+
+				final Map<String, Object> result = newHashMap();
+				result.put("add", conceptsToAdd);
+				result.put("remove", membersToRemove);
+				return result;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}).execute(context);
+	}
+
+	private static Set<String> toStrings(LongSet ids) {
+		final Set<String> result = newHashSet();
+		final LongIterator it = ids.iterator();
+		while (it.hasNext()) {
+			result.add(Long.toString(it.next()));
+		}
+		return result;
+	}
+
+}
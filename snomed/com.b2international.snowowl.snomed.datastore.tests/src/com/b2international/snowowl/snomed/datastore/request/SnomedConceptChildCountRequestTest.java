@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.relationship;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.Hits;
+import com.b2international.index.Scroll;
+import com.b2international.index.Searcher;
+import com.b2international.index.aggregations.Aggregation;
+import com.b2international.index.aggregations.AggregationBuilder;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.index.revision.StagingArea;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.datastore.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.ecl.TestBranchContext;
+import com.b2international.snowowl.snomed.datastore.id.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * @since 7.1
+ */
+public class SnomedConceptChildCountRequestTest extends BaseRevisionIndexTest {
+
+	private static final String PARENT_ID = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final int NUMBER_OF_CHILDREN = 2_000;
+
+	private BranchContext context;
+	private List<String> childIds;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedRelationshipIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		context = TestBranchContext.on(MAIN)
+				.with(RevisionIndex.class, index())
+				.build();
+
+		// a high fan-out parent, every tenth child has a stated child, every fifth child has an inferred child
+		childIds = Lists.newArrayList();
+		final StagingArea staging = index().prepareCommit(MAIN).stageNew(concept(PARENT_ID).build());
+		for (int i = 0; i < NUMBER_OF_CHILDREN; i++) {
+			final String childId = RandomSnomedIdentiferGenerator.generateConceptId();
+			childIds.add(childId);
+			staging.stageNew(concept(childId).build());
+			staging.stageNew(relationship(childId, Concepts.IS_A, PARENT_ID, Concepts.STATED_RELATIONSHIP).build());
+			staging.stageNew(relationship(childId, Concepts.IS_A, PARENT_ID, Concepts.INFERRED_RELATIONSHIP).build());
+			if (i % 10 == 0) {
+				final String grandChildId = RandomSnomedIdentiferGenerator.generateConceptId();
+				staging.stageNew(concept(grandChildId).build());
+				staging.stageNew(relationship(grandChildId, Concepts.IS_A, childId, Concepts.STATED_RELATIONSHIP).build());
+			}
+			if (i % 5 == 0) {
+				final String grandChildId = RandomSnomedIdentiferGenerator.generateConceptId();
+				staging.stageNew(concept(grandChildId).build());
+				staging.stageNew(relationship(grandChildId, Concepts.IS_A, childId, Concepts.INFERRED_RELATIONSHIP).build());
+			}
+		}
+		// inactive and non-IS A relationships should not be counted
+		staging.stageNew(relationship(childIds.get(1), Concepts.IS_A, childIds.get(3), Concepts.STATED_RELATIONSHIP).active(false).build());
+		staging.stageNew(relationship(childIds.get(1), Concepts.HAS_ACTIVE_INGREDIENT, childIds.get(7), Concepts.STATED_RELATIONSHIP).build());
+		staging.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+	}
+
+	@Test
+	public void countChildrenOfHighFanOutNodeWithConstantNumberOfQueries() throws Exception {
+		final AtomicInteger queries = new AtomicInteger();
+		final Map<String, Integer> statedChildCounts = countChildren(ImmutableSet.copyOf(childIds), Concepts.STATED_RELATIONSHIP, queries);
+		final Map<String, Integer> inferredChildCounts = countChildren(ImmutableSet.copyOf(childIds), Concepts.INFERRED_RELATIONSHIP, queries);
+
+		// one aggregation per characteristic type, regardless of the number of children
+		assertThat(queries.get()).isEqualTo(2);
+		assertThat(statedChildCounts).hasSize(NUMBER_OF_CHILDREN / 10);
+		assertThat(inferredChildCounts).hasSize(NUMBER_OF_CHILDREN / 5);
+		for (int i = 0; i < NUMBER_OF_CHILDREN; i++) {
+			final String childId = childIds.get(i);
+			assertThat(statedChildCounts.containsKey(childId)).isEqualTo(i % 10 == 0);
+			assertThat(inferredChildCounts.containsKey(childId)).isEqualTo(i % 5 == 0);
+		}
+	}
+
+	@Test
+	public void countChildrenOfAllCharacteristicTypes() throws Exception {
+		final AtomicInteger queries = new AtomicInteger();
+		final Map<String, Integer> childCounts = countChildren(ImmutableSet.of(PARENT_ID, childIds.get(0), childIds.get(1)), null, queries);
+
+		assertThat(queries.get()).isEqualTo(1);
+		assertThat(childCounts).hasSize(2);
+		// stated and inferred relationships of all children are counted
+		assertThat(childCounts.get(PARENT_ID)).isEqualTo(2 * NUMBER_OF_CHILDREN);
+		assertThat(childCounts.get(childIds.get(0))).isEqualTo(2);
+	}
+
+	@Test
+	public void countChildrenOfNoConcepts() throws Exception {
+		final AtomicInteger queries = new AtomicInteger();
+		assertThat(countChildren(ImmutableSet.of(), Concepts.STATED_RELATIONSHIP, queries)).isEmpty();
+		assertThat(queries.get()).isEqualTo(0);
+	}
+
+	private Map<String, Integer> countChildren(Set<String> conceptIds, String characteristicTypeId, AtomicInteger queries) {
+		return new RevisionIndexReadRequest<>((Request<BranchContext, Map<String, Integer>>) ctx -> {
+			final BranchContext countingContext = ctx.inject()
+					.bind(RevisionSearcher.class, new CountingRevisionSearcher(ctx.service(RevisionSearcher.class), queries))
+					.build();
+			return SnomedRequests.prepareCountChildren()
+					.filterByConceptIds(conceptIds)
+					.filterByCharacteristicType(characteristicTypeId)
+					.build()
+					.execute(countingContext);
+		}).execute(context);
+	}
+
+	private static final class CountingRevisionSearcher implements RevisionSearcher {
+
+		private final RevisionSearcher delegate;
+		private final AtomicInteger queries;
+
+		CountingRevisionSearcher(RevisionSearcher delegate, AtomicInteger queries) {
+			this.delegate = delegate;
+			this.queries = queries;
+		}
+
+		@Override
+		public Searcher searcher() {
+			return delegate.searcher();
+		}
+
+		@Override
+		public <T> T get(Class<T> type, String key) throws IOException {
+			queries.incrementAndGet();
+			return delegate.get(type, key);
+		}
+
+		@Override
+		public <T> Iterable<T> get(Class<T> type, Iterable<String> keys) throws IOException {
+			queries.incrementAndGet();
+			return delegate.get(type, keys);
+		}
+
+		@Override
+		public <T> Hits<T> search(Query<T> query) throws IOException {
+			queries.incrementAndGet();
+			return delegate.search(query);
+		}
+
+		@Override
+		public <T> Hits<T> scroll(Scroll<T> scroll) throws IOException {
+			queries.incrementAndGet();
+			return delegate.scroll(scroll);
+		}
+
+		@Override
+		public void cancelScroll(String scrollId) {
+			delegate.cancelScroll(scrollId);
+		}
+
+		@Override
+		public <T> Aggregation<T> aggregate(AggregationBuilder<T> aggregation) throws IOException {
+			queries.incrementAndGet();
+			return delegate.aggregate(aggregation);
+		}
+
+		@Override
+		public String branch() {
+			return delegate.branch();
+		}
+
+	}
+
+}
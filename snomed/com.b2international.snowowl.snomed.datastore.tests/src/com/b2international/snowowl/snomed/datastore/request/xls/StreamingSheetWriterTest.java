@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request.xls;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @since 7.1
+ */
+public class StreamingSheetWriterTest {
+
+	private static final String SHEET_NAME = "Simple type reference set";
+	private static final int NUMBER_OF_COLUMNS = 9;
+	private static final int NUMBER_OF_ROWS = 20_000;
+	private static final int NUMBER_OF_BENCHMARK_ROWS = 500_000;
+
+	private static final List<String> HEADER = ImmutableList.of("Description ID", "Description Term", "Acceptability", "Concept ID",
+			"Concept Preferred Term", "Status", "Effective Time", "Module ID", "Module Preferred Term");
+
+	private File file;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("streaming-sheet-writer-test", ".xlsx");
+	}
+
+	@After
+	public void after() {
+		file.delete();
+	}
+
+	@Test
+	public void sameCellsAsInMemoryWorkbook() throws Exception {
+		// cells of the previous, in-memory export
+		final XSSFWorkbook expectedWorkbook = new XSSFWorkbook();
+		final XSSFCellStyle expectedBoldStyle = createBoldStyle(expectedWorkbook);
+		final XSSFCellStyle expectedDefaultStyle = expectedWorkbook.createCellStyle();
+		final XSSFSheet expectedSheet = expectedWorkbook.createSheet(SHEET_NAME);
+		createRow(expectedSheet, 0, expectedBoldStyle, HEADER.toArray(new String[HEADER.size()]));
+		for (int i = 0; i < 100; i++) {
+			createRow(expectedSheet, i + 1, expectedDefaultStyle, row(i));
+		}
+
+		final XSSFWorkbook workbook = new XSSFWorkbook();
+		final XSSFCellStyle boldStyle = createBoldStyle(workbook);
+		final XSSFCellStyle defaultStyle = workbook.createCellStyle();
+		try (StreamingSheetWriter writer = new StreamingSheetWriter(workbook, workbook.createSheet(SHEET_NAME), NUMBER_OF_COLUMNS)) {
+			writer.writeRow(boldStyle, HEADER.toArray(new String[HEADER.size()]));
+			for (int i = 0; i < 100; i++) {
+				writer.writeRow(defaultStyle, row(i));
+			}
+			writer.write(file);
+		}
+
+		try (InputStream in = new FileInputStream(file)) {
+			final XSSFWorkbook actualWorkbook = new XSSFWorkbook(in);
+			assertThat(actualWorkbook.getNumberOfSheets()).isEqualTo(1);
+			assertThat(actualWorkbook.getSheetName(0)).isEqualTo(SHEET_NAME);
+
+			final Sheet actualSheet = actualWorkbook.getSheetAt(0);
+			assertThat(actualSheet.getLastRowNum()).isEqualTo(expectedSheet.getLastRowNum());
+			for (int rowNum = 0; rowNum <= expectedSheet.getLastRowNum(); rowNum++) {
+				final Row expectedRow = expectedSheet.getRow(rowNum);
+				final Row actualRow = actualSheet.getRow(rowNum);
+				for (int column = 0; column < NUMBER_OF_COLUMNS; column++) {
+					final Cell expectedCell = expectedRow.getCell(column);
+					final Cell actualCell = actualRow.getCell(column);
+					if (expectedCell == null) {
+						assertThat(actualCell).isNull();
+					} else {
+						assertThat(actualCell.getStringCellValue()).isEqualTo(expectedCell.getStringCellValue());
+						assertThat(actualCell.getCellStyle().getFontIndex()).isEqualTo(expectedCell.getCellStyle().getFontIndex());
+						assertThat(actualCell.getCellStyle().getAlignment()).isEqualTo(expectedCell.getCellStyle().getAlignment());
+					}
+				}
+			}
+
+			// the widest column is the term, the empty preferred term columns keep their default width
+			assertThat(actualSheet.getColumnWidth(1)).isGreaterThan(actualSheet.getColumnWidth(0));
+			assertThat(actualSheet.getColumnWidth(4)).isEqualTo(actualSheet.getDefaultColumnWidth() * 256);
+		}
+	}
+
+	@Test
+	public void writeMultiplePagesOfRows() throws Exception {
+		writeRows(NUMBER_OF_ROWS);
+		assertThat(countRows()).isEqualTo(NUMBER_OF_ROWS + 1);
+	}
+
+	/*
+	 * Run it with a small fixed heap size (eg. -Xmx64m), the rows are streamed to disk, so the peak heap usage does not depend on the number of rows.
+	 */
+	@Ignore("Benchmark, run manually")
+	@Test
+	public void writeHalfMillionRows() throws Exception {
+		resetPeakHeapUsage();
+		final Stopwatch w = Stopwatch.createStarted();
+		writeRows(NUMBER_OF_BENCHMARK_ROWS);
+		System.out.println(String.format("Writing %d rows took %s, peak heap usage: %d MB, file size: %d MB",
+				NUMBER_OF_BENCHMARK_ROWS, w, getPeakHeapUsage() >> 20, file.length() >> 20));
+		assertThat(countRows()).isEqualTo(NUMBER_OF_BENCHMARK_ROWS + 1);
+	}
+
+	private void writeRows(int numberOfRows) throws IOException {
+		final XSSFWorkbook workbook = new XSSFWorkbook();
+		final XSSFCellStyle boldStyle = createBoldStyle(workbook);
+		final XSSFCellStyle defaultStyle = workbook.createCellStyle();
+		try (StreamingSheetWriter writer = new StreamingSheetWriter(workbook, workbook.createSheet(SHEET_NAME), NUMBER_OF_COLUMNS)) {
+			writer.writeRow(boldStyle, HEADER.toArray(new String[HEADER.size()]));
+			for (int i = 0; i < numberOfRows; i++) {
+				writer.writeRow(defaultStyle, row(i));
+			}
+			assertThat(writer.getRowCount()).isEqualTo(numberOfRows + 1);
+			writer.write(file);
+		}
+	}
+
+	/*
+	 * Counts the rows of the only worksheet with a streaming parser, which also verifies that the streamed sheet is a well-formed XML document.
+	 */
+	private int countRows() throws IOException, XMLStreamException {
+		try (ZipFile zip = new ZipFile(file)) {
+			final ZipEntry sheetEntry = zip.getEntry("xl/worksheets/sheet1.xml");
+			try (InputStream in = zip.getInputStream(sheetEntry)) {
+				final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+				int rows = 0;
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+						rows++;
+					}
+				}
+				reader.close();
+				return rows;
+			}
+		}
+	}
+
+	/*
+	 * Description rows with characters that have to be escaped, whitespace to preserve and the unsupported preferred term columns left empty.
+	 */
+	private static String[] row(int i) {
+		return new String[] {
+			Long.toString(100_000_000L + i * 10L),
+			(i % 5 == 0 ? " " : "") + "Term <" + i + "> & \"quoted\" with a somewhat longer text" + (i % 7 == 0 ? "\t" : ""),
+			"900000000000548007",
+			Long.toString(200_000_000L + i),
+			null,
+			i % 3 == 0 ? "Inactive" : "Active",
+			"20180131",
+			"900000000000207008",
+			null
+		};
+	}
+
+	private static XSSFCellStyle createBoldStyle(XSSFWorkbook workbook) {
+		final Font headerFont = workbook.createFont();
+		headerFont.setBoldweight(Font.BOLDWEIGHT_BOLD);
+		final XSSFCellStyle boldStyle = workbook.createCellStyle();
+		boldStyle.setAlignment(XSSFCellStyle.ALIGN_LEFT);
+		boldStyle.setFont(headerFont);
+		return boldStyle;
+	}
+
+	private static void createRow(Sheet sheet, int rowNum, XSSFCellStyle style, String... values) {
+		final Row row = sheet.createRow(rowNum);
+		for (int column = 0; column < values.length; column++) {
+			if (values[column] != null) {
+				final Cell cell = row.createCell(column);
+				cell.setCellValue(values[column]);
+				cell.setCellStyle(style);
+			}
+		}
+	}
+
+	private static void resetPeakHeapUsage() {
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long getPeakHeapUsage() {
+		long peak = 0L;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+}
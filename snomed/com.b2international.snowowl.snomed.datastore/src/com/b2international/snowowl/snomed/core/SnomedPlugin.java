@@ -25,6 +25,7 @@ import com.b2international.commons.extension.Component;
 import com.b2international.index.revision.Hooks.PreCommitHook;
 import com.b2international.snowowl.core.config.SnowOwlConfiguration;
 import com.b2international.snowowl.core.domain.IComponent;
+import com.b2international.snowowl.core.events.Notifications;
 import com.b2international.snowowl.core.merge.ComponentRevisionConflictProcessor;
 import com.b2international.snowowl.core.repository.ComponentDeletionPolicy;
 import com.b2international.snowowl.core.repository.TerminologyRepositoryInitializer;
@@ -32,6 +33,7 @@ import com.b2international.snowowl.core.repository.TerminologyRepositoryPlugin;
 import com.b2international.snowowl.core.setup.ConfigurationRegistry;
 import com.b2international.snowowl.core.setup.Environment;
 import com.b2international.snowowl.core.validation.eval.ValidationRuleEvaluator;
+import com.b2international.snowowl.datastore.events.RepositoryCommitNotification;
 import com.b2international.snowowl.datastore.oplock.impl.DatastoreLockContextDescriptions;
 import com.b2international.snowowl.datastore.request.TransactionalRequest;
 import com.b2international.snowowl.datastore.version.VersioningRequestBuilder;
@@ -66,6 +68,7 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
 import com.b2international.snowowl.snomed.datastore.internal.SnomedRepositoryInitializer;
+import com.b2international.snowowl.snomed.datastore.request.DescriptionLabelCache;
 import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
 import com.b2international.snowowl.snomed.validation.SnomedQueryValidationRuleEvaluator;
 import com.google.common.collect.ImmutableList;
@@ -96,6 +99,10 @@ public final class SnomedPlugin extends TerminologyRepositoryPlugin {
 		ValidationRuleEvaluator.Registry.register(new SnomedQueryValidationRuleEvaluator());
 
 		env.services().registerService(SnomedNamespaceAndModuleAssignerProvider.class, SnomedNamespaceAndModuleAssignerProvider.INSTANCE);
+		
+		if (coreConfig.getMaxLabelCacheSize() > 0) {
+			env.services().registerService(DescriptionLabelCache.class, new DescriptionLabelCache(coreConfig.getMaxLabelCacheSize() * 1024L * 1024L));
+		}
 	}
 	
 	@Override
@@ -113,6 +120,18 @@ public final class SnomedPlugin extends TerminologyRepositoryPlugin {
 		}
 	}
 	
+	@Override
+	protected void afterRun(SnowOwlConfiguration configuration, Environment env) throws Exception {
+		final DescriptionLabelCache labelCache = env.service(DescriptionLabelCache.class);
+		if (labelCache != null) {
+			// drop cached labels of a branch as soon as anything gets committed to it
+			env.service(Notifications.class)
+				.ofType(RepositoryCommitNotification.class)
+				.filter(notification -> getRepositoryId().equals(notification.getRepositoryId()))
+				.subscribe(notification -> labelCache.invalidate(notification.getBranchPath()));
+		}
+	}
+	
 	@Override
 	protected ComponentDeletionPolicy getComponentDeletionPolicy() {
 		return doc -> doc instanceof SnomedDocument && !((SnomedDocument) doc).isReleased();
@@ -25,6 +25,7 @@ import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -104,12 +105,31 @@ final class SnomedEclRefinementEvaluator {
 	private final PolymorphicDispatcher<Promise<Collection<Property>>> groupRefinementDispatcher = PolymorphicDispatcher.createForSingleTarget("evalGroup", 3, 3, this);
 	
 	private final EclExpression focusConcepts;
+	private final boolean planAttributes;
+	
+	// relationships of attribute constraints evaluated in a single pass by the planner, null until the root refinement is evaluated
+	private Map<AttributeConstraint, Collection<Property>> plannedAttributes;
 	
 	public SnomedEclRefinementEvaluator(EclExpression focusConcepts) {
+		this(focusConcepts, true);
+	}
+	
+	/**
+	 * @param focusConcepts - the focus concepts of the refinement
+	 * @param planAttributes - whether relationship based attribute constraints should be evaluated in a single pass (see
+	 *            {@link SnomedEclRefinementPlanner}) or one by one
+	 */
+	/*package*/ SnomedEclRefinementEvaluator(EclExpression focusConcepts, boolean planAttributes) {
 		this.focusConcepts = focusConcepts;
+		this.planAttributes = planAttributes;
 	}
 	
 	public Promise<Expression> evaluate(BranchContext context, Refinement refinement) {
+		if (plannedAttributes == null) {
+			plannedAttributes = planAttributes 
+					? new SnomedEclRefinementPlanner(focusConcepts).plan(context, refinement) 
+					: Collections.emptyMap();
+		}
 		return refinementDispatcher.invoke(context, refinement);
 	}
 	
@@ -385,6 +405,10 @@ final class SnomedEclRefinementEvaluator {
 		final Collection<String> typeConceptFilter = Collections.singleton(serializer.serializeWithoutTerms(refinement.getAttribute()));
 		
 		if (comparison instanceof AttributeComparison) {
+			final Collection<Property> plannedProperties = plannedAttributes.get(refinement);
+			if (plannedProperties != null) {
+				return Promise.immediate(filterPlanned(plannedProperties, refinement.isReversed(), grouped, focusConceptIds));
+			}
 			// resolve non-* focusConcept ECLs to IDs, so we can filter relationships by source/destination
 			// filterByType and filterByDestination accepts ECL expressions as well, so serialize them into ECL and pass as String when required
 			// if reversed refinement, then we are interested in the destinationIds otherwise we need the sourceIds
@@ -403,6 +427,17 @@ final class SnomedEclRefinementEvaluator {
 		}
 	}
 		
+	/**
+	 * Applies the group and focus concept filters of a single relationship search on the relationships loaded by the planner.
+	 */
+	private static Collection<Property> filterPlanned(final Collection<Property> plannedProperties, final boolean reversed, final boolean grouped, final Set<String> focusConceptIds) {
+		final Function<Property, Object> focusIdProvider = reversed ? Property::getValue : Property::getObjectId;
+		return plannedProperties.stream()
+				.filter(property -> !grouped || property.getGroup() >= 1)
+				.filter(property -> focusConceptIds.isEmpty() || focusConceptIds.contains(focusIdProvider.apply(property)))
+				.collect(Collectors.toSet());
+	}
+		
 	private Promise<Collection<Property>> evalMembers(BranchContext context, Set<String> focusConceptIds, Collection<String> typeIds, DataTypeComparison comparison) {
 		final Object value;
 		final DataType type;
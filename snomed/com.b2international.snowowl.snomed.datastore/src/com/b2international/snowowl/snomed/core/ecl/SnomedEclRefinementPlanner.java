@@ -0,0 +1,335 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.core.ecl;
+
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument.Expressions.active;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.characteristicTypeIds;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.destinationIds;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.sourceIds;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.typeIds;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.commons.collect.LongSets;
+import com.b2international.index.Hits;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Expressions.ExpressionBuilder;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.snomed.core.ecl.SnomedEclRefinementEvaluator.Property;
+import com.b2international.snowowl.snomed.datastore.id.SnomedIdentifiers;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.ecl.Ecl;
+import com.b2international.snowowl.snomed.ecl.ecl.AndRefinement;
+import com.b2international.snowowl.snomed.ecl.ecl.AttributeComparison;
+import com.b2international.snowowl.snomed.ecl.ecl.AttributeConstraint;
+import com.b2international.snowowl.snomed.ecl.ecl.AttributeGroup;
+import com.b2international.snowowl.snomed.ecl.ecl.Cardinality;
+import com.b2international.snowowl.snomed.ecl.ecl.NestedRefinement;
+import com.b2international.snowowl.snomed.ecl.ecl.OrRefinement;
+import com.b2international.snowowl.snomed.ecl.ecl.Refinement;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Plans the evaluation of relationship based attribute constraints of a refinement.
+ * <p>
+ * Instead of executing one relationship search per attribute, the planner collects every attribute constraint with a concept value comparison
+ * from the refinement tree, resolves their attribute and value constraints to concept IDs and loads all relationships that can match any of
+ * them in a single pass. The loaded relationships are kept as source, type, destination and group tuples in primitive arrays and are assigned
+ * to the attribute constraints in memory. Cardinality and group checks are performed on the assigned {@link Property} sets by
+ * {@link SnomedEclRefinementEvaluator}, exactly the same way as with the per attribute searches.
+ * <p>
+ * Data type (concrete domain) comparisons and attributes with <code>[0..*]</code> cardinality are not planned, they are evaluated by the
+ * {@link SnomedEclRefinementEvaluator} directly.
+ *
+ * @since 7.1
+ */
+final class SnomedEclRefinementPlanner {
+
+	private static final int UNBOUNDED_CARDINALITY = -1;
+
+	private static final List<String> FIELDS = ImmutableList.of(
+			SnomedRelationshipIndexEntry.Fields.ID,
+			SnomedRelationshipIndexEntry.Fields.SOURCE_ID,
+			SnomedRelationshipIndexEntry.Fields.TYPE_ID,
+			SnomedRelationshipIndexEntry.Fields.DESTINATION_ID,
+			SnomedRelationshipIndexEntry.Fields.GROUP);
+
+	private final EclExpression focusConcepts;
+
+	SnomedEclRefinementPlanner(EclExpression focusConcepts) {
+		this.focusConcepts = focusConcepts;
+	}
+
+	/**
+	 * Evaluates all plannable attribute constraints of the given refinement with a single relationship query.
+	 *
+	 * @param context - the branch where the evaluation should happen
+	 * @param refinement - the refinement to plan
+	 * @return the matching relationships of the planned attribute constraints (not filtered by group and cardinality), or an empty {@link Map} if
+	 *         there is nothing to gain by batching the constraints of the given refinement
+	 */
+	Map<AttributeConstraint, Collection<Property>> plan(BranchContext context, Refinement refinement) {
+		final List<AttributeConstraint> attributes = newArrayList();
+		collect(refinement, false, attributes);
+		if (attributes.size() < 2) {
+			return Collections.emptyMap();
+		}
+
+		final LongSet focusConceptIds;
+		if (focusConcepts.isAnyExpression()) {
+			focusConceptIds = null;
+		} else {
+			final Set<String> resolvedFocusConceptIds = focusConcepts.resolve(context).getSync();
+			// relationship searches do not filter by an empty focus concept set, leave this case to the per attribute evaluation
+			if (resolvedFocusConceptIds.isEmpty()) {
+				return Collections.emptyMap();
+			}
+			focusConceptIds = toLongSet(resolvedFocusConceptIds);
+		}
+
+		final EclSerializer serializer = context.service(EclSerializer.class);
+		final Map<AttributeConstraint, Collection<Property>> matches = new IdentityHashMap<>(attributes.size());
+		final List<AttributeFilter> filters = newArrayList();
+		for (AttributeConstraint attribute : attributes) {
+			final String valueEcl = serializer.serializeWithoutTerms(((AttributeComparison) attribute.getComparison()).getConstraint());
+			final LongSet typeIds = resolve(context, serializer.serializeWithoutTerms(attribute.getAttribute()));
+			final LongSet valueIds = resolve(context, valueEcl);
+			matches.put(attribute, newHashSet());
+			// an attribute or value constraint without any matching concept can not match any relationships either
+			if ((typeIds == null || !typeIds.isEmpty()) && (valueIds == null || !valueIds.isEmpty())) {
+				filters.add(attribute.isReversed()
+						? new AttributeFilter(attribute, typeIds, valueIds, focusConceptIds)
+						: new AttributeFilter(attribute, typeIds, focusConceptIds, valueIds));
+			}
+		}
+
+		if (!filters.isEmpty()) {
+			final RelationshipTuples tuples = search(context, filters, focusConceptIds);
+			for (int i = 0; i < tuples.size(); i++) {
+				for (AttributeFilter filter : filters) {
+					if (filter.matches(tuples, i)) {
+						matches.get(filter.attribute).add(tuples.toProperty(i));
+					}
+				}
+			}
+		}
+
+		return matches;
+	}
+
+	private void collect(Refinement refinement, boolean grouped, List<AttributeConstraint> attributes) {
+		if (refinement instanceof AttributeConstraint) {
+			final AttributeConstraint attribute = (AttributeConstraint) refinement;
+			if (isPlannable(attribute, grouped)) {
+				attributes.add(attribute);
+			}
+		} else if (refinement instanceof AndRefinement) {
+			collect(((AndRefinement) refinement).getLeft(), grouped, attributes);
+			collect(((AndRefinement) refinement).getRight(), grouped, attributes);
+		} else if (refinement instanceof OrRefinement) {
+			collect(((OrRefinement) refinement).getLeft(), grouped, attributes);
+			collect(((OrRefinement) refinement).getRight(), grouped, attributes);
+		} else if (refinement instanceof NestedRefinement) {
+			collect(((NestedRefinement) refinement).getNested(), grouped, attributes);
+		} else if (refinement instanceof AttributeGroup) {
+			final Cardinality cardinality = ((AttributeGroup) refinement).getCardinality();
+			// [0..*] groups match all focus concepts without evaluating their attributes
+			if (!isZeroToUnbounded(cardinality)) {
+				collect(((AttributeGroup) refinement).getRefinement(), true, attributes);
+			}
+		}
+	}
+
+	private static boolean isPlannable(AttributeConstraint attribute, boolean grouped) {
+		return attribute.getComparison() instanceof AttributeComparison
+				// reversed attributes are rejected in groups
+				&& !(grouped && attribute.isReversed())
+				// [0..*] attributes match all focus concepts without evaluating the attribute
+				&& !isZeroToUnbounded(attribute.getCardinality());
+	}
+
+	private static boolean isZeroToUnbounded(Cardinality cardinality) {
+		return cardinality != null && cardinality.getMin() == 0 && cardinality.getMax() == UNBOUNDED_CARDINALITY;
+	}
+
+	/*
+	 * Resolves the given ECL expression to concept IDs the same way as the relationship search request would do for its source, type and
+	 * destination filters. Returns null if the expression matches any concept.
+	 */
+	private static LongSet resolve(BranchContext context, String ecl) {
+		final String expression = ecl.trim();
+		if (Ecl.ANY.equals(expression)) {
+			return null;
+		} else if (SnomedIdentifiers.isConceptIdentifier(expression)) {
+			return PrimitiveSets.newLongOpenHashSet(Long.parseLong(expression));
+		} else {
+			return toLongSet(EclExpression.of(expression).resolve(context).getSync());
+		}
+	}
+
+	private static LongSet toLongSet(Set<String> ids) {
+		final LongSet longIds = PrimitiveSets.newLongOpenHashSetWithExpectedSize(ids.size());
+		for (String id : ids) {
+			longIds.add(Long.parseLong(id));
+		}
+		return longIds;
+	}
+
+	private static RelationshipTuples search(BranchContext context, List<AttributeFilter> filters, LongSet focusConceptIds) {
+		// attributes evaluated on the focus concepts share the (potentially large) source filter
+		final ExpressionBuilder focusClauses = Expressions.builder();
+		final ExpressionBuilder attributeClauses = Expressions.builder();
+		boolean hasFocusClauses = false;
+		for (AttributeFilter filter : filters) {
+			if (filter.attribute.isReversed()) {
+				attributeClauses.should(filter.toExpression(true));
+			} else {
+				focusClauses.should(filter.toExpression(false));
+				hasFocusClauses = true;
+			}
+		}
+
+		if (hasFocusClauses) {
+			if (focusConceptIds == null) {
+				attributeClauses.should(focusClauses.build());
+			} else {
+				attributeClauses.should(Expressions.builder()
+						.filter(sourceIds(LongSets.toStringSet(focusConceptIds)))
+						.filter(focusClauses.build())
+						.build());
+			}
+		}
+
+		final Query<String[]> query = Query.select(String[].class)
+				.from(SnomedRelationshipIndexEntry.class)
+				.fields(FIELDS)
+				.where(Expressions.builder()
+						.filter(active())
+						.filter(characteristicTypeIds(SnomedEclRefinementEvaluator.ALLOWED_CHARACTERISTIC_TYPES))
+						.filter(attributeClauses.build())
+						.build())
+				.limit(Integer.MAX_VALUE)
+				.build();
+
+		try {
+			final Hits<String[]> hits = context.service(RevisionSearcher.class).search(query);
+			final RelationshipTuples tuples = new RelationshipTuples(hits.getHits().size());
+			for (String[] hit : hits) {
+				tuples.add(hit);
+			}
+			return tuples;
+		} catch (IOException e) {
+			throw new SnowowlRuntimeException(e);
+		}
+	}
+
+	/*
+	 * Source, type and destination filter of a single attribute constraint; null filters accept any concept.
+	 */
+	private static final class AttributeFilter {
+
+		private final AttributeConstraint attribute;
+		private final LongSet typeIds;
+		private final LongSet sourceIds;
+		private final LongSet destinationIds;
+
+		private AttributeFilter(AttributeConstraint attribute, LongSet typeIds, LongSet sourceIds, LongSet destinationIds) {
+			this.attribute = attribute;
+			this.typeIds = typeIds;
+			this.sourceIds = sourceIds;
+			this.destinationIds = destinationIds;
+		}
+
+		boolean matches(RelationshipTuples tuples, int index) {
+			return (typeIds == null || typeIds.contains(tuples.typeIds[index]))
+					&& (sourceIds == null || sourceIds.contains(tuples.sourceIds[index]))
+					&& (destinationIds == null || destinationIds.contains(tuples.destinationIds[index]));
+		}
+
+		Expression toExpression(boolean withSourceFilter) {
+			final ExpressionBuilder clause = Expressions.builder();
+			if (typeIds != null) {
+				clause.filter(typeIds(LongSets.toStringSet(typeIds)));
+			}
+			if (withSourceFilter && sourceIds != null) {
+				clause.filter(sourceIds(LongSets.toStringSet(sourceIds)));
+			}
+			if (destinationIds != null) {
+				clause.filter(destinationIds(LongSets.toStringSet(destinationIds)));
+			}
+			return clause.build();
+		}
+
+	}
+
+	/*
+	 * Compact, column oriented storage of the loaded relationships.
+	 */
+	private static final class RelationshipTuples {
+
+		private final long[] ids;
+		private final long[] sourceIds;
+		private final long[] typeIds;
+		private final long[] destinationIds;
+		private final int[] groups;
+		private int size;
+
+		private RelationshipTuples(int capacity) {
+			this.ids = new long[capacity];
+			this.sourceIds = new long[capacity];
+			this.typeIds = new long[capacity];
+			this.destinationIds = new long[capacity];
+			this.groups = new int[capacity];
+		}
+
+		void add(String[] hit) {
+			ids[size] = Long.parseLong(hit[0]);
+			sourceIds[size] = Long.parseLong(hit[1]);
+			typeIds[size] = Long.parseLong(hit[2]);
+			destinationIds[size] = Long.parseLong(hit[3]);
+			groups[size] = Integer.parseInt(hit[4]);
+			size++;
+		}
+
+		int size() {
+			return size;
+		}
+
+		Property toProperty(int index) {
+			return new Property(Long.toString(ids[index]),
+					Long.toString(sourceIds[index]),
+					Long.toString(typeIds[index]),
+					Long.toString(destinationIds[index]),
+					groups[index]);
+		}
+
+	}
+
+}
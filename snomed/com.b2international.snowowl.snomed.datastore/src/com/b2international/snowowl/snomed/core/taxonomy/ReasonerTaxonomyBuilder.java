@@ -541,17 +541,20 @@ public final class ReasonerTaxonomyBuilder {
 
 		final List<ConcreteDomainFragment> statedFragments = newArrayListWithExpectedSize(SCROLL_LIMIT);
 		final List<ConcreteDomainFragment> inferredFragments = newArrayListWithExpectedSize(SCROLL_LIMIT);
-		final String lastReferencedComponentId = "";
+		String lastReferencedComponentId = "";
 
 		for (final Hits<SnomedRefSetMemberIndexEntry> hits : scrolledHits) {
 			for (final SnomedRefSetMemberIndexEntry member : hits) {
 				final String referencedComponentId = member.getReferencedComponentId();
 
-				if (!lastReferencedComponentId.equals(referencedComponentId)) {
+				if (lastReferencedComponentId.isEmpty()) {
+					lastReferencedComponentId = referencedComponentId;
+				} else if (!lastReferencedComponentId.equals(referencedComponentId)) {
 					statedConcreteDomainMembers.putAll(lastReferencedComponentId, statedFragments);
 					inferredConcreteDomainMembers.putAll(lastReferencedComponentId, inferredFragments);
 					statedFragments.clear();
 					inferredFragments.clear();
+					lastReferencedComponentId = referencedComponentId;
 				}
 
 				final String value = SnomedRefSetUtil.serializeValue(member.getDataType(), member.getValue());
@@ -594,7 +597,7 @@ public final class ReasonerTaxonomyBuilder {
 
 		final List<ConcreteDomainFragment> statedFragments = newArrayListWithExpectedSize(SCROLL_LIMIT);
 		final List<ConcreteDomainFragment> inferredFragments = newArrayListWithExpectedSize(SCROLL_LIMIT);
-		final String lastReferencedComponentId = "";
+		String lastReferencedComponentId = "";
 
 		for (final List<SnomedReferenceSetMember> chunk : Iterables.partition(sortedMembers::iterator, SCROLL_LIMIT)) {
 			for (final SnomedReferenceSetMember member : chunk) {
@@ -607,11 +610,14 @@ public final class ReasonerTaxonomyBuilder {
 
 					final String referencedComponentId = member.getReferencedComponent().getId();
 
-					if (!lastReferencedComponentId.equals(referencedComponentId)) {
+					if (lastReferencedComponentId.isEmpty()) {
+						lastReferencedComponentId = referencedComponentId;
+					} else if (!lastReferencedComponentId.equals(referencedComponentId)) {
 						statedConcreteDomainMembers.putAll(lastReferencedComponentId, statedFragments);
 						inferredConcreteDomainMembers.putAll(lastReferencedComponentId, inferredFragments);
 						statedFragments.clear();
 						inferredFragments.clear();
+						lastReferencedComponentId = referencedComponentId;
 					}
 
 					final String value = (String) member.getProperties().get(SnomedRf2Headers.FIELD_VALUE);
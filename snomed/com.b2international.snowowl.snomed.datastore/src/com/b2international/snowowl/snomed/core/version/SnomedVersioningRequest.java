@@ -15,21 +15,26 @@
  */
 package com.b2international.snowowl.snomed.core.version;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongSet;
 import com.b2international.commons.CompareUtils;
 import com.b2international.index.Hits;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Query;
 import com.b2international.index.revision.RevisionSearcher;
 import com.b2international.snowowl.core.date.EffectiveTimes;
@@ -38,7 +43,6 @@ import com.b2international.snowowl.datastore.version.VersioningConfiguration;
 import com.b2international.snowowl.datastore.version.VersioningRequest;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.common.SnomedRf2Headers;
-import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
 import com.b2international.snowowl.snomed.datastore.id.SnomedIdentifiers;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedComponentDocument;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
@@ -46,11 +50,12 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptio
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
-import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Table;
 
 
 /**
@@ -61,177 +66,198 @@ import com.google.common.collect.Multimap;
  * <li>Sets the released flags on all un-released SNOMED&nbsp;CT components and reference set members.</li>
  * <li>Updates the module dependency reference set state based on the overall component changes.</li>
  * </ul>
+ * <p>Unpublished components are scrolled and published in chunks, each chunk is committed separately, so the amount of memory required does
+ * not depend on the size of the release. Module dependency reference set members and the new version are committed together in the
+ * final commit of the request.
+ * <p>Since the chunks are committed before the version itself, a failure in a later chunk (or in the module dependency computation) leaves
+ * the components of the already committed chunks published, ie. with the new effective time and released flag, but without a corresponding
+ * code system version. A subsequent attempt only picks up the components that are still unpublished, so the module dependencies of the
+ * already published components are not taken into account; the module dependency reference set members should be reviewed manually after
+ * such a retry.
  */
 public final class SnomedVersioningRequest extends VersioningRequest {
 
+	private static final int DEFAULT_CHUNK_SIZE = 10_000;
+	
 	private static final List<Class<? extends SnomedComponentDocument>> CORE_COMPONENT_TYPES = ImmutableList.of(
 		SnomedConceptDocument.class,
 		SnomedDescriptionIndexEntry.class, 
 		SnomedRelationshipIndexEntry.class
 	);
 	
-	private Set<String> componentIdsToPublish = newHashSet();
+	private final int chunkSize;
+	
+	// number of chunks committed by the current execution, used for reporting partially published states
+	private int committedChunks;
 	
 	public SnomedVersioningRequest(VersioningConfiguration config) {
+		this(config, DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Creates a versioning request which publishes unpublished components in chunks of the given size.
+	 * 
+	 * @param config - the versioning configuration
+	 * @param chunkSize - the maximum number of components published in a single commit
+	 */
+	public SnomedVersioningRequest(VersioningConfiguration config, int chunkSize) {
 		super(config);
+		this.chunkSize = chunkSize;
 	}
 	
 	@Override
 	protected void doVersionComponents(TransactionContext context) throws Exception {
 		final Logger log = context.service(Logger.class);
 		
-		log.info("Collecting unpublished components...");
-		RevisionSearcher searcher = context.service(RevisionSearcher.class);
-			
-		final Collection<SnomedDocument> componentsToVersion = newArrayList();
-		
-		searcher.search(Query.select(SnomedConceptDocument.class)
-				.where(SnomedDocument.Expressions.effectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME))
-				.limit(Integer.MAX_VALUE)
-				.build())
-				.forEach(componentsToVersion::add);
+		committedChunks = 0;
+		try {
+			versionComponents(context, log);
+		} catch (RuntimeException e) {
+			if (committedChunks > 0) {
+				log.error("Versioning '{}' failed after committing {} published chunk(s) on '{}'. Published components remain without a version "
+						+ "and their module dependencies are not considered when versioning is retried.", 
+						config().getCodeSystemShortName(), committedChunks, context.branchPath());
+			}
+			throw e;
+		}
+	}
+	
+	private void versionComponents(TransactionContext context, Logger log) {
+		log.info("Publishing SNOMED CT components [effectiveTime: {}]...", EffectiveTimes.format(config().getEffectiveTime()));
+		final long effectiveTime = EffectiveTimes.getEffectiveTime(config().getEffectiveTime());
+		final Expression unpublished = SnomedDocument.Expressions.effectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME);
 		
-		searcher.search(Query.select(SnomedDescriptionIndexEntry.class)
-				.where(SnomedDocument.Expressions.effectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME))
-				.limit(Integer.MAX_VALUE)
-				.build())
-				.forEach(componentsToVersion::add);
+		// sourceModuleId to referenced component IDs map
+		final Map<String, LongSet> componentIdsByReferringModule = newHashMap();
 		
-		searcher.search(Query.select(SnomedRelationshipIndexEntry.class)
-				.where(SnomedDocument.Expressions.effectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME))
-				.limit(Integer.MAX_VALUE)
-				.build())
-				.forEach(componentsToVersion::add);
+		publishComponents(context, SnomedConceptDocument.class, unpublished, effectiveTime, SnomedConceptDocument::builder, concept -> {
+			register(componentIdsByReferringModule, concept.getModuleId(), concept.isPrimitive() ? Concepts.PRIMITIVE : Concepts.FULLY_DEFINED);
+		});
 		
-		searcher.search(Query.select(SnomedRefSetMemberIndexEntry.class)
-				.where(SnomedDocument.Expressions.effectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME))
-				.limit(Integer.MAX_VALUE)
-				.build())
-				.forEach(componentsToVersion::add);
+		publishComponents(context, SnomedDescriptionIndexEntry.class, unpublished, effectiveTime, SnomedDescriptionIndexEntry::builder, description -> {
+			register(componentIdsByReferringModule, description.getModuleId(), description.getConceptId());
+			register(componentIdsByReferringModule, description.getModuleId(), description.getTypeId());
+			register(componentIdsByReferringModule, description.getModuleId(), description.getCaseSignificanceId());
+		});
 		
-		// sourceModuleId to targetModuleId map
-		final Multimap<String, String> componentIdsByReferringModule = HashMultimap.create();
+		publishComponents(context, SnomedRelationshipIndexEntry.class, unpublished, effectiveTime, SnomedRelationshipIndexEntry::builder, relationship -> {
+			register(componentIdsByReferringModule, relationship.getModuleId(), relationship.getSourceId());
+			register(componentIdsByReferringModule, relationship.getModuleId(), relationship.getTypeId());
+			register(componentIdsByReferringModule, relationship.getModuleId(), relationship.getDestinationId());
+			register(componentIdsByReferringModule, relationship.getModuleId(), relationship.getModifierId());
+			register(componentIdsByReferringModule, relationship.getModuleId(), relationship.getCharacteristicType().getConceptId());
+		});
 		
-		log.info("Publishing SNOMED CT components [effectiveTime: {}]...", EffectiveTimes.format(config().getEffectiveTime()));
-		long effectiveTime = EffectiveTimes.getEffectiveTime(config().getEffectiveTime());
+		// module dependency members are published along with the adjusted dependencies in the final commit
+		final Expression unpublishedMembers = Expressions.builder()
+				.filter(unpublished)
+				.mustNot(SnomedRefSetMemberIndexEntry.Expressions.referenceSetId(Concepts.REFSET_MODULE_DEPENDENCY_TYPE))
+				.build();
+		publishComponents(context, SnomedRefSetMemberIndexEntry.class, unpublishedMembers, effectiveTime, SnomedRefSetMemberIndexEntry::builder, member -> {
+			registerMember(componentIdsByReferringModule, member);
+		});
 		
-		for (SnomedDocument componentToVersion : componentsToVersion) {
-			
-			// register IDs for publication
-			if (componentToVersion instanceof SnomedComponentDocument) {
-				componentIdsToPublish.add(componentToVersion.getId());
-			}
-			
-			// stage update on components based on actual type
-			final SnomedDocument.Builder updatedComponent; 
-			if (componentToVersion instanceof SnomedConceptDocument) {
-				final SnomedConceptDocument concept = (SnomedConceptDocument) componentToVersion;
-				componentIdsByReferringModule.put(concept.getModuleId(), concept.isPrimitive() ? Concepts.PRIMITIVE : Concepts.FULLY_DEFINED);
-				updatedComponent = SnomedConceptDocument.builder(concept);
-			} else if (componentToVersion instanceof SnomedDescriptionIndexEntry) {
-				final SnomedDescriptionIndexEntry description = (SnomedDescriptionIndexEntry) componentToVersion;
-				componentIdsByReferringModule.put(description.getModuleId(), description.getConceptId());
-				componentIdsByReferringModule.put(description.getModuleId(), description.getTypeId());
-				componentIdsByReferringModule.put(description.getModuleId(), description.getCaseSignificanceId());
-				updatedComponent = SnomedDescriptionIndexEntry.builder(description);
-			} else if (componentToVersion instanceof SnomedRelationshipIndexEntry) {
-				final SnomedRelationshipIndexEntry relationship = (SnomedRelationshipIndexEntry) componentToVersion;
-				componentIdsByReferringModule.put(relationship.getModuleId(), relationship.getSourceId());
-				componentIdsByReferringModule.put(relationship.getModuleId(), relationship.getTypeId());
-				componentIdsByReferringModule.put(relationship.getModuleId(), relationship.getDestinationId());
-				componentIdsByReferringModule.put(relationship.getModuleId(), relationship.getModifierId());
-				componentIdsByReferringModule.put(relationship.getModuleId(), relationship.getCharacteristicType().getConceptId());
-				updatedComponent = SnomedRelationshipIndexEntry.builder(relationship);
-			} else if (componentToVersion instanceof SnomedRefSetMemberIndexEntry) {
-				final SnomedRefSetMemberIndexEntry member = (SnomedRefSetMemberIndexEntry) componentToVersion;
-				componentIdsByReferringModule.put(member.getModuleId(), member.getReferenceSetId());
-
-				registerIfConcept(componentIdsByReferringModule, member.getModuleId(), member.getReferencedComponentId());
-				
-				final Map<String, Object> additionalFields = member.getAdditionalFields();
-				SnomedRf2Headers.MEMBER_FIELDS_WITH_COMPONENT_ID.forEach(field -> {
-					registerIfConcept(componentIdsByReferringModule, member.getModuleId(), (String) additionalFields.get(field));
-				});
-				
-				updatedComponent = SnomedRefSetMemberIndexEntry.builder(member);
-			} else {
-				throw new UnsupportedOperationException("Not implemented case for: " + componentToVersion);
+		log.info("Collecting existing module dependency members...");
+		final Set<SnomedRefSetMemberIndexEntry> unpublishedDependencyMembers = newHashSet();
+		final Table<String, String, SnomedRefSetMemberIndexEntry> latestDependencyMembers = HashBasedTable.create();
+		final Query<SnomedRefSetMemberIndexEntry> dependencyMemberQuery = Query.select(SnomedRefSetMemberIndexEntry.class)
+				.where(SnomedRefSetMemberIndexEntry.Expressions.referenceSetId(Concepts.REFSET_MODULE_DEPENDENCY_TYPE))
+				.limit(chunkSize)
+				.build();
+		for (Hits<SnomedRefSetMemberIndexEntry> hits : context.service(RevisionSearcher.class).scroll(dependencyMemberQuery)) {
+			for (SnomedRefSetMemberIndexEntry member : hits) {
+				if (member.getEffectiveTime() == EffectiveTimes.UNSET_EFFECTIVE_TIME) {
+					unpublishedDependencyMembers.add(member);
+					registerMember(componentIdsByReferringModule, member);
+				}
+				final SnomedRefSetMemberIndexEntry latestMember = latestDependencyMembers.get(member.getModuleId(), member.getReferencedComponentId());
+				if (latestMember == null || compareEffectiveTimes(member, latestMember) >= 0) {
+					latestDependencyMembers.put(member.getModuleId(), member.getReferencedComponentId(), member);
+				}
 			}
-			
-			context.update(
-				componentToVersion, 
-				updatedComponent
-					.effectiveTime(effectiveTime)
-					.released(true)
-					.build()
-			);
 		}
 		
 		// iterate over each module and get modules of all components registered to componentsByReferringModule
 		log.info("Collecting module dependencies of changed components...");
 		final Multimap<String, String> moduleDependencies = HashMultimap.create();
 		final Map<String, Long> moduleToLatestEffectiveTime = newHashMap();
-		for (String module : ImmutableSet.copyOf(componentIdsByReferringModule.keySet())) {
-			final Collection<String> dependencies = componentIdsByReferringModule.removeAll(module);
-			for (Class<? extends SnomedComponentDocument> type : CORE_COMPONENT_TYPES) {
-				Query<String[]> dependencyQuery = Query.select(String[].class)
-						.from(type)
-						.fields(SnomedComponentDocument.Fields.ID, SnomedComponentDocument.Fields.MODULE_ID, SnomedComponentDocument.Fields.EFFECTIVE_TIME)
-						.where(SnomedComponentDocument.Expressions.ids(dependencies))
-						.limit(10000)
-						.build();
-				for (Hits<String[]> dependencyHits : context.service(RevisionSearcher.class).scroll(dependencyQuery)) {
-					for (String[] dependency : dependencyHits) {
-						String targetModule = dependency[1];
-						if (!module.equals(targetModule)) {
-							moduleDependencies.put(module, targetModule);
-						}
-						moduleToLatestEffectiveTime.merge(targetModule, Long.parseLong(dependency[2]), (oldEffectiveTime, newEffectiveTime) -> {
-							if (oldEffectiveTime == EffectiveTimes.UNSET_EFFECTIVE_TIME || newEffectiveTime == EffectiveTimes.UNSET_EFFECTIVE_TIME) {
-								return EffectiveTimes.UNSET_EFFECTIVE_TIME;
-							} else {
-								return Math.max(oldEffectiveTime, newEffectiveTime);
+		for (Map.Entry<String, LongSet> entry : componentIdsByReferringModule.entrySet()) {
+			final String module = entry.getKey();
+			forEachChunk(entry.getValue(), dependencies -> {
+				for (Class<? extends SnomedComponentDocument> type : CORE_COMPONENT_TYPES) {
+					Query<String[]> dependencyQuery = Query.select(String[].class)
+							.from(type)
+							.fields(SnomedComponentDocument.Fields.ID, SnomedComponentDocument.Fields.MODULE_ID, SnomedComponentDocument.Fields.EFFECTIVE_TIME)
+							.where(SnomedComponentDocument.Expressions.ids(dependencies))
+							.limit(chunkSize)
+							.build();
+					for (Hits<String[]> dependencyHits : context.service(RevisionSearcher.class).scroll(dependencyQuery)) {
+						for (String[] dependency : dependencyHits) {
+							String targetModule = dependency[1];
+							if (!module.equals(targetModule)) {
+								moduleDependencies.put(module, targetModule);
 							}
-						});
+							moduleToLatestEffectiveTime.merge(targetModule, Long.parseLong(dependency[2]), (oldEffectiveTime, newEffectiveTime) -> {
+								if (oldEffectiveTime == EffectiveTimes.UNSET_EFFECTIVE_TIME || newEffectiveTime == EffectiveTimes.UNSET_EFFECTIVE_TIME) {
+									return EffectiveTimes.UNSET_EFFECTIVE_TIME;
+								} else {
+									return Math.max(oldEffectiveTime, newEffectiveTime);
+								}
+							});
+						}
 					}
 				}
-			}
+			});
 		}
+		componentIdsByReferringModule.clear();
 		log.info("Collecting module dependencies of changed components successfully finished.");
 		
 		log.info("Adjusting effective time changes on module dependency...");
-		adjustDependencyRefSetMembers(context, moduleDependencies, moduleToLatestEffectiveTime, config().getEffectiveTime());
+		adjustDependencyRefSetMembers(context, moduleDependencies, moduleToLatestEffectiveTime, latestDependencyMembers, unpublishedDependencyMembers, config().getEffectiveTime());
 		log.info("Effective time adjustment successfully finished on module dependency.");
 		
 	}
 	
-	private void adjustDependencyRefSetMembers(TransactionContext context, Multimap<String, String> moduleDependencies, Map<String, Long> moduleToLatestEffectiveTime, Date effectiveTime) {
+	/*
+	 * Scrolls the matching components in chunks, stages their published state and commits each chunk, after passing the unpublished
+	 * component to the dependency collector.
+	 */
+	private <T extends SnomedDocument> void publishComponents(TransactionContext context, Class<T> type, Expression expression, long effectiveTime, 
+			Function<T, ? extends SnomedDocument.Builder<?, T>> toBuilder, Consumer<T> dependencyCollector) {
+		final Logger log = context.service(Logger.class);
+		final Query<T> query = Query.select(type)
+				.where(expression)
+				.limit(chunkSize)
+				.build();
+		
+		int published = 0;
+		for (Hits<T> hits : context.service(RevisionSearcher.class).scroll(query)) {
+			if (hits.getHits().isEmpty()) {
+				continue;
+			}
+			for (T component : hits) {
+				dependencyCollector.accept(component);
+				context.update(component, toBuilder.apply(component)
+						.effectiveTime(effectiveTime)
+						.released(true)
+						.build());
+			}
+			context.commit();
+			committedChunks++;
+			published += hits.getHits().size();
+			log.info("Published {} of {} {}...", published, hits.getTotal(), type.getSimpleName());
+		}
+	}
+	
+	private void adjustDependencyRefSetMembers(TransactionContext context, Multimap<String, String> moduleDependencies, Map<String, Long> moduleToLatestEffectiveTime, 
+			Table<String, String, SnomedRefSetMemberIndexEntry> latestDependencyMembers, Set<SnomedRefSetMemberIndexEntry> unpublishedDependencyMembers, Date effectiveTime) {
 		// Update existing, add new members to moduleDependencyRefSet
 		if (!CompareUtils.isEmpty(moduleDependencies)) {
 			moduleDependencies.entries().forEach((entry) -> {
 				final String source = entry.getKey();
 				final String target = entry.getValue();
 				
-				final SnomedReferenceSetMember existingLatestMember = SnomedRequests.prepareSearchMember()
-						.all()
-						.filterByModule(source)
-						.filterByReferencedComponent(target)
-						.filterByRefSet(Concepts.REFSET_MODULE_DEPENDENCY_TYPE)
-						.build()
-						.execute(context)
-						.stream()
-						.sorted((o1, o2) -> {
-							if (null == o1.getEffectiveTime() && null == o2.getEffectiveTime()) {
-								return 0;
-							} else if (null == o1.getEffectiveTime() && null != o2.getEffectiveTime()) {
-								return 1;
-							} else if (null != o1.getEffectiveTime() && null == o2.getEffectiveTime()) {
-								return -1;
-							}
-							return o1.getEffectiveTime().compareTo(o2.getEffectiveTime());
-						})
-						.reduce((first, second) -> second)
-						.orElse(null);
+				final SnomedRefSetMemberIndexEntry existingLatestMember = latestDependencyMembers.get(source, target);
 				
 				final SnomedRefSetMemberIndexEntry.Builder updatedMember;
 				if (existingLatestMember == null) {
@@ -243,6 +269,7 @@ public final class SnomedVersioningRequest extends VersioningRequest {
 							.referencedComponentId(target);
 				} else {
 					updatedMember = SnomedRefSetMemberIndexEntry.builder(existingLatestMember);
+					unpublishedDependencyMembers.remove(existingLatestMember);
 				}
 
 				final long targetEffectiveTime = moduleToLatestEffectiveTime.get(target) == EffectiveTimes.UNSET_EFFECTIVE_TIME ? effectiveTime.getTime() : moduleToLatestEffectiveTime.get(target);
@@ -256,19 +283,63 @@ public final class SnomedVersioningRequest extends VersioningRequest {
 				if (existingLatestMember == null) {
 					context.add(updatedMember.build());
 				} else {
-					context.update(SnomedRefSetMemberIndexEntry.builder(existingLatestMember).build(), updatedMember.build());
+					context.update(existingLatestMember, updatedMember.build());
 				}
 				
 			});
 		}
+		
+		// Publish the remaining unpublished members of moduleDependencyRefSet
+		for (SnomedRefSetMemberIndexEntry member : unpublishedDependencyMembers) {
+			context.update(member, SnomedRefSetMemberIndexEntry.builder(member)
+					.effectiveTime(effectiveTime.getTime())
+					.released(true)
+					.build());
+		}
 	}
 
-	private void registerIfConcept(Multimap<String, String> componentIdsByReferringModule, String moduleId, String dependency) {
+	private void forEachChunk(LongSet ids, Consumer<List<String>> action) {
+		final LongIterator it = ids.iterator();
+		List<String> chunk = Lists.newArrayListWithExpectedSize(Math.min(ids.size(), chunkSize));
+		while (it.hasNext()) {
+			chunk.add(Long.toString(it.next()));
+			if (chunk.size() == chunkSize || !it.hasNext()) {
+				action.accept(chunk);
+				chunk = Lists.newArrayListWithExpectedSize(chunkSize);
+			}
+		}
+	}
+	
+	private void registerMember(Map<String, LongSet> componentIdsByReferringModule, SnomedRefSetMemberIndexEntry member) {
+		register(componentIdsByReferringModule, member.getModuleId(), member.getReferenceSetId());
+
+		registerIfConcept(componentIdsByReferringModule, member.getModuleId(), member.getReferencedComponentId());
+		
+		final Map<String, Object> additionalFields = member.getAdditionalFields();
+		SnomedRf2Headers.MEMBER_FIELDS_WITH_COMPONENT_ID.forEach(field -> {
+			registerIfConcept(componentIdsByReferringModule, member.getModuleId(), (String) additionalFields.get(field));
+		});
+	}
+	
+	private void register(Map<String, LongSet> componentIdsByReferringModule, String moduleId, String dependency) {
+		componentIdsByReferringModule.computeIfAbsent(moduleId, key -> PrimitiveSets.newLongOpenHashSet()).add(Long.parseLong(dependency));
+	}
+	
+	private void registerIfConcept(Map<String, LongSet> componentIdsByReferringModule, String moduleId, String dependency) {
 		if (SnomedIdentifiers.isValid(dependency)) {
-			componentIdsByReferringModule.put(moduleId, dependency);
+			register(componentIdsByReferringModule, moduleId, dependency);
 		}
 	}
 	
+	/*
+	 * Unpublished members are considered to be the latest ones.
+	 */
+	private static int compareEffectiveTimes(SnomedRefSetMemberIndexEntry o1, SnomedRefSetMemberIndexEntry o2) {
+		final long effectiveTime1 = o1.getEffectiveTime() == EffectiveTimes.UNSET_EFFECTIVE_TIME ? Long.MAX_VALUE : o1.getEffectiveTime();
+		final long effectiveTime2 = o2.getEffectiveTime() == EffectiveTimes.UNSET_EFFECTIVE_TIME ? Long.MAX_VALUE : o2.getEffectiveTime();
+		return Long.compare(effectiveTime1, effectiveTime2);
+	}
+	
 //	@Override
 //	protected void createCodeSystemVersion(final CDOEditingContext editingContext, VersioningConfiguration config) {
 //		if (Branch.MAIN_PATH.equals(editingContext.getBranch())) {
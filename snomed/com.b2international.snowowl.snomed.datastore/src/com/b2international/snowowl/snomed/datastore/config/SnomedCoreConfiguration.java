@@ -40,6 +40,7 @@ public class SnomedCoreConfiguration {
 	public static final int DEFAULT_MAXIMUM_REASONER_RUNS = 1000;
 	public static final String DEFAULT_NAMESPACE = ""; //$NON-NLS-1$
 	public static final String DEFAULT_MODULE = Concepts.MODULE_SCT_CORE;
+	public static final int DEFAULT_MAXIMUM_LABEL_CACHE_SIZE = 64; // in megabytes
 	
 	@Min(1)
 	@Max(3)
@@ -98,6 +99,10 @@ public class SnomedCoreConfiguration {
 	@NotEmpty
 	private String defaultModule = DEFAULT_MODULE;
 	
+	@Min(0)
+	@Max(4096)
+	private int maxLabelCacheSize = DEFAULT_MAXIMUM_LABEL_CACHE_SIZE;
+	
 	/**
 	 * @return the number of reasoners that are permitted to run simultaneously.
 	 */
@@ -386,4 +391,21 @@ public class SnomedCoreConfiguration {
 		this.defaultNamespace = defaultNamespace;
 	}
 	
+	/**
+	 * @return the maximum estimated memory in megabytes that can be used for caching preferred terms and fully specified names, {@code 0} disables
+	 *         the label cache
+	 */
+	@JsonProperty
+	public int getMaxLabelCacheSize() {
+		return maxLabelCacheSize;
+	}
+	
+	/**
+	 * @param maxLabelCacheSize the maxLabelCacheSize to set
+	 */
+	@JsonProperty
+	public void setMaxLabelCacheSize(int maxLabelCacheSize) {
+		this.maxLabelCacheSize = maxLabelCacheSize;
+	}
+	
 }
@@ -64,6 +64,7 @@ import com.b2international.snowowl.snomed.datastore.request.DescriptionRequestHe
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.google.common.base.Functions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -164,8 +165,7 @@ final class SnomedConceptConverter extends BaseRevisionResourceConverter<SnomedC
 		expandRelationships(results, conceptIds);
 		expandInboundRelationships(results, conceptIds);
 		
-		expandDescendants(results, conceptIds, SnomedConcept.Expand.DESCENDANTS, false);
-		expandDescendants(results, conceptIds, SnomedConcept.Expand.STATED_DESCENDANTS, true);
+		expandDescendants(results, conceptIds);
 		expandAncestors(results, conceptIds, SnomedConcept.Expand.ANCESTORS, false);
 		expandAncestors(results, conceptIds, SnomedConcept.Expand.STATED_ANCESTORS, true);
 		
@@ -343,128 +343,149 @@ final class SnomedConceptConverter extends BaseRevisionResourceConverter<SnomedC
 		}
 	}
 
-	private void expandDescendants(List<SnomedConcept> results, final Set<String> conceptIds, String descendantKey, boolean stated) {
-		if (!expand().containsKey(descendantKey)) {
+	private void expandDescendants(List<SnomedConcept> results, final Set<String> conceptIds) {
+		final List<String> descendantKeys = newArrayList();
+		final List<Query<SnomedConceptDocument>> queries = newArrayList();
+		for (String descendantKey : ImmutableList.of(SnomedConcept.Expand.DESCENDANTS, SnomedConcept.Expand.STATED_DESCENDANTS)) {
+			if (expand().containsKey(descendantKey)) {
+				final boolean stated = SnomedConcept.Expand.STATED_DESCENDANTS.equals(descendantKey);
+				final boolean direct = checkDirect(expand().get(descendantKey, Options.class));
+				descendantKeys.add(descendantKey);
+				queries.add(createDescendantsQuery(conceptIds, stated, direct));
+			}
+		}
+		
+		if (queries.isEmpty()) {
 			return;
 		}
 		
+		try {
+			// inferred and stated descendants do not depend on each other, fetch them in a single round trip
+			final RevisionSearcher searcher = context().service(RevisionSearcher.class);
+			final List<Hits<?>> hits = searcher.multiSearch(queries);
+			for (int i = 0; i < descendantKeys.size(); i++) {
+				final String descendantKey = descendantKeys.get(i);
+				@SuppressWarnings("unchecked")
+				final Hits<SnomedConceptDocument> descendantHits = (Hits<SnomedConceptDocument>) hits.get(i);
+				expandDescendants(results, conceptIds, descendantKey, SnomedConcept.Expand.STATED_DESCENDANTS.equals(descendantKey), descendantHits);
+			}
+		} catch (IOException e) {
+			throw SnowowlRuntimeException.wrap(e);
+		}
+	}
+	
+	private Query<SnomedConceptDocument> createDescendantsQuery(final Set<String> conceptIds, boolean stated, boolean direct) {
+		final ExpressionBuilder expression = Expressions.builder();
+		expression.filter(active());
+		final ExpressionBuilder descendantFilter = Expressions.builder();
+		if (stated) {
+			descendantFilter.should(statedParents(conceptIds));
+			if (!direct) {
+				descendantFilter.should(statedAncestors(conceptIds));
+			}
+		} else {
+			descendantFilter.should(parents(conceptIds));
+			if (!direct) {
+				descendantFilter.should(ancestors(conceptIds));
+			}
+		}
+		expression.filter(descendantFilter.build());
+		
+		return Query.select(SnomedConceptDocument.class)
+				.where(expression.build())
+				.limit(Integer.MAX_VALUE)
+				.build();
+	}
+
+	private void expandDescendants(List<SnomedConcept> results, final Set<String> conceptIds, String descendantKey, boolean stated, Hits<SnomedConceptDocument> hits) {
 		final Options expandOptions = expand().get(descendantKey, Options.class);
 		final boolean direct = checkDirect(expandOptions);
 		
-		try {
-			
-			final ExpressionBuilder expression = Expressions.builder();
-			expression.filter(active());
-			final ExpressionBuilder descendantFilter = Expressions.builder();
+		if (hits.getTotal() < 1) {
+			final SnomedConcepts descendants = new SnomedConcepts(0, 0);
+			for (SnomedConcept concept : results) {
+				if (stated) {
+					concept.setStatedDescendants(descendants);
+				} else {
+					concept.setDescendants(descendants);
+				}
+			}
+			return;
+		}
+		
+		// in case of only one match and limit zero, use shortcut instead of loading all IDs and components
+		// XXX won't work if number of results is greater than one, either use custom ConceptSearch or figure out how to expand descendants effectively
+		final int limit = getLimit(expandOptions);
+		if (conceptIds.size() == 1 && limit == 0) {
+			for (SnomedConcept concept : results) {
+				final SnomedConcepts descendants = new SnomedConcepts(0, hits.getTotal());
+				if (stated) {
+					concept.setStatedDescendants(descendants);
+				} else {
+					concept.setDescendants(descendants);
+				}
+			}
+			return;
+		}
+		
+		final Multimap<String, String> descendantsByAncestor = TreeMultimap.create();
+		for (SnomedConceptDocument hit : hits) {
+			final Set<String> parentsAndAncestors = newHashSet();
 			if (stated) {
-				descendantFilter.should(statedParents(conceptIds));
+				parentsAndAncestors.addAll(LongSets.toStringSet(hit.getStatedParents()));
 				if (!direct) {
-					descendantFilter.should(statedAncestors(conceptIds));
+					parentsAndAncestors.addAll(LongSets.toStringSet(hit.getStatedAncestors()));
 				}
 			} else {
-				descendantFilter.should(parents(conceptIds));
+				parentsAndAncestors.addAll(LongSets.toStringSet(hit.getParents()));
 				if (!direct) {
-					descendantFilter.should(ancestors(conceptIds));
+					parentsAndAncestors.addAll(LongSets.toStringSet(hit.getAncestors()));
 				}
 			}
-			expression.filter(descendantFilter.build());
 			
-			final Query<SnomedConceptDocument> query = Query.select(SnomedConceptDocument.class)
-					.where(expression.build())
-					.limit(Integer.MAX_VALUE)
-					.build();
-			
-			final RevisionSearcher searcher = context().service(RevisionSearcher.class);
-			final Hits<SnomedConceptDocument> hits = searcher.search(query);
-			
-			if (hits.getTotal() < 1) {
-				final SnomedConcepts descendants = new SnomedConcepts(0, 0);
-				for (SnomedConcept concept : results) {
-					if (stated) {
-						concept.setStatedDescendants(descendants);
-					} else {
-						concept.setDescendants(descendants);
-					}
-				}
-				return;
-			}
-			
-			// in case of only one match and limit zero, use shortcut instead of loading all IDs and components
-			// XXX won't work if number of results is greater than one, either use custom ConceptSearch or figure out how to expand descendants effectively
-			final int limit = getLimit(expandOptions);
-			if (conceptIds.size() == 1 && limit == 0) {
-				for (SnomedConcept concept : results) {
-					final SnomedConcepts descendants = new SnomedConcepts(0, hits.getTotal());
-					if (stated) {
-						concept.setStatedDescendants(descendants);
-					} else {
-						concept.setDescendants(descendants);
-					}
-				}
-				return;
+			parentsAndAncestors.retainAll(conceptIds);
+			for (String ancestor : parentsAndAncestors) {
+				descendantsByAncestor.put(ancestor, hit.getId());
 			}
+		}
+		
+		final int offset = getOffset(expandOptions);
+		final Collection<String> componentIds = newHashSet(descendantsByAncestor.values());
+		
+		if (limit > 0 && !componentIds.isEmpty()) {
+			// query descendants again
+			final SnomedConcepts descendants = SnomedRequests.prepareSearchConcept()
+					.all()
+					.filterByActive(true)
+					.filterByIds(componentIds)
+					.setLocales(locales())
+					.setExpand(expandOptions.get("expand", Options.class))
+					.build().execute(context());
 			
-			final Multimap<String, String> descendantsByAncestor = TreeMultimap.create();
-			for (SnomedConceptDocument hit : hits) {
-				final Set<String> parentsAndAncestors = newHashSet();
+			final Map<String, SnomedConcept> descendantsById = newHashMap();
+			descendantsById.putAll(Maps.uniqueIndex(descendants, ID_FUNCTION));
+			for (SnomedConcept concept : results) {
+				final Collection<String> descendantIds = descendantsByAncestor.get(concept.getId());
+				final List<SnomedConcept> currentDescendants = FluentIterable.from(descendantIds).skip(offset).limit(limit).transform(Functions.forMap(descendantsById)).toList();
+				final SnomedConcepts descendantConcepts = new SnomedConcepts(currentDescendants, null, null, limit, descendantIds.size());
 				if (stated) {
-					parentsAndAncestors.addAll(LongSets.toStringSet(hit.getStatedParents()));
-					if (!direct) {
-						parentsAndAncestors.addAll(LongSets.toStringSet(hit.getStatedAncestors()));
-					}
+					concept.setStatedDescendants(descendantConcepts);
 				} else {
-					parentsAndAncestors.addAll(LongSets.toStringSet(hit.getParents()));
-					if (!direct) {
-						parentsAndAncestors.addAll(LongSets.toStringSet(hit.getAncestors()));
-					}
-				}
-				
-				parentsAndAncestors.retainAll(conceptIds);
-				for (String ancestor : parentsAndAncestors) {
-					descendantsByAncestor.put(ancestor, hit.getId());
+					concept.setDescendants(descendantConcepts);
 				}
 			}
-			
-			final int offset = getOffset(expandOptions);
-			final Collection<String> componentIds = newHashSet(descendantsByAncestor.values());
-			
-			if (limit > 0 && !componentIds.isEmpty()) {
-				// query descendants again
-				final SnomedConcepts descendants = SnomedRequests.prepareSearchConcept()
-						.all()
-						.filterByActive(true)
-						.filterByIds(componentIds)
-						.setLocales(locales())
-						.setExpand(expandOptions.get("expand", Options.class))
-						.build().execute(context());
-				
-				final Map<String, SnomedConcept> descendantsById = newHashMap();
-				descendantsById.putAll(Maps.uniqueIndex(descendants, ID_FUNCTION));
-				for (SnomedConcept concept : results) {
-					final Collection<String> descendantIds = descendantsByAncestor.get(concept.getId());
-					final List<SnomedConcept> currentDescendants = FluentIterable.from(descendantIds).skip(offset).limit(limit).transform(Functions.forMap(descendantsById)).toList();
-					final SnomedConcepts descendantConcepts = new SnomedConcepts(currentDescendants, null, null, limit, descendantIds.size());
-					if (stated) {
-						concept.setStatedDescendants(descendantConcepts);
-					} else {
-						concept.setDescendants(descendantConcepts);
-					}
-				}
-			} else {
-				for (SnomedConcept concept : results) {
-					final Collection<String> descendantIds = descendantsByAncestor.get(concept.getId());
-					final SnomedConcepts descendants = new SnomedConcepts(limit, descendantIds.size());
-					if (stated) {
-						concept.setStatedDescendants(descendants);
-					} else {
-						concept.setDescendants(descendants);
-					}
+		} else {
+			for (SnomedConcept concept : results) {
+				final Collection<String> descendantIds = descendantsByAncestor.get(concept.getId());
+				final SnomedConcepts descendants = new SnomedConcepts(limit, descendantIds.size());
+				if (stated) {
+					concept.setStatedDescendants(descendants);
+				} else {
+					concept.setDescendants(descendants);
 				}
 			}
-			
-		} catch (IOException e) {
-			throw SnowowlRuntimeException.wrap(e);
 		}
+		
 	}
 
 	private boolean checkDirect(final Options expandOptions) {
@@ -15,9 +15,12 @@
  */
 package com.b2international.snowowl.snomed.datastore.index.change;
 
+import static com.google.common.collect.Lists.newArrayList;
+
 import java.io.IOException;
-import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -29,10 +32,12 @@ import com.b2international.index.query.Query;
 import com.b2international.index.revision.RevisionSearcher;
 import com.b2international.index.revision.StagingArea;
 import com.b2international.snowowl.core.ApplicationContext;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.ft.FeatureToggles;
 import com.b2international.snowowl.core.ft.Features;
 import com.b2international.snowowl.datastore.index.BaseRepositoryPreCommitHook;
 import com.b2international.snowowl.datastore.index.ChangeSetProcessor;
+import com.b2international.snowowl.datastore.index.ChangeSetProcessorPipeline;
 import com.b2international.snowowl.datastore.index.RevisionDocument;
 import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConstants;
 import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
@@ -46,8 +51,12 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemb
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
 import com.b2international.snowowl.snomed.datastore.taxonomy.Taxonomies;
 import com.b2international.snowowl.snomed.datastore.taxonomy.Taxonomy;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Repository precommit hook implementation for SNOMED CT repository.
@@ -55,12 +64,19 @@ import com.google.common.collect.Sets;
  */
 public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommitHook {
 
+	private static final int MAX_PARALLELISM = 4;
+	
 	public SnomedRepositoryPreCommitHook(Logger log) {
 		super(log);
 	}
 	
 	@Override
-	protected Collection<ChangeSetProcessor> getChangeSetProcessors(StagingArea staging, RevisionSearcher index) throws IOException {
+	protected int getParallelism() {
+		return Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors());
+	}
+	
+	@Override
+	protected ChangeSetProcessorPipeline getChangeSetProcessorPipeline(StagingArea staging, RevisionSearcher index, ListeningExecutorService executor) throws IOException {
 		final Set<String> statedSourceIds = Sets.newHashSet();
 		final Set<String> statedDestinationIds = Sets.newHashSet();
 		final Set<String> inferredSourceIds = Sets.newHashSet();
@@ -81,9 +97,9 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 			}
 		});
 		
-		final LongSet statedConceptIds = PrimitiveSets.newLongOpenHashSet();
-		final LongSet inferredConceptIds = PrimitiveSets.newLongOpenHashSet();
-		
+		// the concept queries are independent of each other, run them concurrently
+		final List<ListenableFuture<LongSet>> statedConceptIdFutures = newArrayList();
+		final List<ListenableFuture<LongSet>> inferredConceptIdFutures = newArrayList();
 		
 		if (!statedDestinationIds.isEmpty()) {
 			final Query<SnomedConceptDocument> statedDestinationConceptsQuery = Query.select(SnomedConceptDocument.class)
@@ -92,11 +108,7 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 					.limit(statedDestinationIds.size())
 					.build();
 			
-			for (SnomedConceptDocument statedDestinationConcept : index.search(statedDestinationConceptsQuery)) {
-				statedConceptIds.add(Long.parseLong(statedDestinationConcept.getId()));
-				statedConceptIds.addAll(statedDestinationConcept.getStatedParents());
-				statedConceptIds.addAll(statedDestinationConcept.getStatedAncestors());
-			}
+			statedConceptIdFutures.add(executor.submit(() -> collectConceptIds(index, statedDestinationConceptsQuery, true)));
 		}
 		
 		if (!inferredDestinationIds.isEmpty()) {
@@ -106,11 +118,7 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 					.limit(inferredDestinationIds.size())
 					.build();
 			
-			for (SnomedConceptDocument inferredDestinationConcept : index.search(inferredDestinationConceptsQuery)) {
-				inferredConceptIds.add(Long.parseLong(inferredDestinationConcept.getId()));
-				inferredConceptIds.addAll(inferredDestinationConcept.getParents());
-				inferredConceptIds.addAll(inferredDestinationConcept.getAncestors());
-			}
+			inferredConceptIdFutures.add(executor.submit(() -> collectConceptIds(index, inferredDestinationConceptsQuery, false)));
 		}
 		
 		if (!statedSourceIds.isEmpty()) {
@@ -124,11 +132,7 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 					.limit(Integer.MAX_VALUE)
 					.build();
 			
-			for (SnomedConceptDocument statedSourceConcept : index.search(statedSourceConceptsQuery)) {
-				statedConceptIds.add(Long.parseLong(statedSourceConcept.getId()));
-				statedConceptIds.addAll(statedSourceConcept.getStatedParents());
-				statedConceptIds.addAll(statedSourceConcept.getStatedAncestors());
-			}
+			statedConceptIdFutures.add(executor.submit(() -> collectConceptIds(index, statedSourceConceptsQuery, true)));
 		}
 		
 		if (!inferredSourceIds.isEmpty()) {
@@ -142,13 +146,15 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 					.limit(Integer.MAX_VALUE)
 					.build();
 			
-			for (SnomedConceptDocument inferredSourceConcept : index.search(inferredSourceConceptsQuery)) {
-				inferredConceptIds.add(Long.parseLong(inferredSourceConcept.getId()));
-				inferredConceptIds.addAll(inferredSourceConcept.getParents());
-				inferredConceptIds.addAll(inferredSourceConcept.getAncestors());
-			}
+			inferredConceptIdFutures.add(executor.submit(() -> collectConceptIds(index, inferredSourceConceptsQuery, false)));
 		}
 		
+		final LongSet statedConceptIds = PrimitiveSets.newLongOpenHashSet();
+		final LongSet inferredConceptIds = PrimitiveSets.newLongOpenHashSet();
+		
+		getAll(statedConceptIdFutures).forEach(statedConceptIds::addAll);
+		getAll(inferredConceptIdFutures).forEach(inferredConceptIds::addAll);
+		
 		staging.getNewObjects(SnomedConceptDocument.class).forEach(newConcept -> {
 			long longId = Long.parseLong(newConcept.getId());
 			statedConceptIds.add(longId);
@@ -162,26 +168,38 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 		final boolean reindexRunning = featureToggles.isEnabled(Features.getReindexFeatureToggle(SnomedDatastoreActivator.REPOSITORY_UUID));
 		final boolean checkCycles = !importRunning && !reindexRunning;
 		
-		
-		final Taxonomy inferredTaxonomy = Taxonomies.inferred(index, staging, inferredConceptIds, checkCycles);
-		final Taxonomy statedTaxonomy = Taxonomies.stated(index, staging, statedConceptIds, checkCycles);
+		// both taxonomies are built from the same, unmodified staging area
+		final ListenableFuture<Taxonomy> inferredTaxonomy = executor.submit(() -> Taxonomies.inferred(index, staging, inferredConceptIds, checkCycles));
+		final ListenableFuture<Taxonomy> statedTaxonomy = executor.submit(() -> Taxonomies.stated(index, staging, statedConceptIds, checkCycles));
+		final List<Taxonomy> taxonomies = getAll(ImmutableList.of(inferredTaxonomy, statedTaxonomy));
 
-		// XXX change processor order is important!!!
-		final ImmutableList.Builder<ChangeSetProcessor> changeProcessors = ImmutableList.<ChangeSetProcessor>builder();
+		return createChangeSetProcessorPipeline(importRunning, 
+				new ConceptChangeProcessor(DoiDataProvider.INSTANCE, SnomedIconProvider.getInstance().getAvailableIconIds(), taxonomies.get(1), taxonomies.get(0)));
+	}
+	
+	/*
+	 * The processors are added in the order of the previous, sequential execution, and each of them declares the processors whose staged changes it reads.
+	 */
+	static ChangeSetProcessorPipeline createChangeSetProcessorPipeline(boolean importRunning, ConceptChangeProcessor conceptChangeProcessor) {
+		final ChangeSetProcessorPipeline.Builder pipeline = ChangeSetProcessorPipeline.builder();
+		final List<ChangeSetProcessor> containerProcessors = newArrayList();
 		if (!importRunning) {
-			changeProcessors
-				.add(new ComponentInactivationChangeProcessor())
-				.add(new DetachedContainerChangeProcessor());
+			// inactivations and deletions of containers have to be staged before any other processor reads the changed descriptions, relationships and members
+			final ChangeSetProcessor componentInactivationProcessor = new ComponentInactivationChangeProcessor();
+			final ChangeSetProcessor detachedContainerProcessor = new DetachedContainerChangeProcessor();
+			pipeline.add(componentInactivationProcessor);
+			pipeline.add(detachedContainerProcessor);
+			containerProcessors.add(componentInactivationProcessor);
+			containerProcessors.add(detachedContainerProcessor);
 		}
 		
-		return changeProcessors
-				// execute description change processor to get proper acceptabilityMap values before executing other change processors
-				// those values will be used in the ConceptChangeProcessor for example to properly compute the preferredDescriptions derived field
-				.add(new DescriptionChangeProcessor())
-				.add(new ConceptChangeProcessor(DoiDataProvider.INSTANCE, SnomedIconProvider.getInstance().getAvailableIconIds(), statedTaxonomy, inferredTaxonomy))
-				.add(new RelationshipChangeProcessor())
-				.build();
-		
+		// execute description change processor to get proper acceptabilityMap values before executing the concept change processor
+		// those values will be used in the ConceptChangeProcessor to properly compute the preferredDescriptions derived field
+		final ChangeSetProcessor descriptionProcessor = new DescriptionChangeProcessor();
+		pipeline.add(descriptionProcessor, containerProcessors);
+		pipeline.add(conceptChangeProcessor, ImmutableList.<ChangeSetProcessor>builder().addAll(containerProcessors).add(descriptionProcessor).build());
+		pipeline.add(new RelationshipChangeProcessor(), containerProcessors);
+		return pipeline.build();
 	}
 	
 	@Override
@@ -200,6 +218,30 @@ public final class SnomedRepositoryPreCommitHook extends BaseRepositoryPreCommit
 		throw new UnsupportedOperationException("Unsupported revision document: " + revision);
 	}
 	
+	private static LongSet collectConceptIds(RevisionSearcher index, Query<SnomedConceptDocument> query, boolean stated) throws IOException {
+		final LongSet conceptIds = PrimitiveSets.newLongOpenHashSet();
+		for (SnomedConceptDocument concept : index.search(query)) {
+			conceptIds.add(Long.parseLong(concept.getId()));
+			conceptIds.addAll(stated ? concept.getStatedParents() : concept.getParents());
+			conceptIds.addAll(stated ? concept.getStatedAncestors() : concept.getAncestors());
+		}
+		return conceptIds;
+	}
+	
+	private static <T> List<T> getAll(List<ListenableFuture<T>> futures) throws IOException {
+		try {
+			return Futures.allAsList(futures).get();
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			Throwables.propagateIfPossible(e.getCause(), IOException.class);
+			throw new SnowowlRuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new SnowowlRuntimeException(e);
+		}
+	}
+	
 	private void collectIds(final Set<String> sourceIds, final Set<String> destinationIds, Stream<SnomedRelationshipIndexEntry> newRelationships, CharacteristicType characteristicType) {
 		newRelationships
 			.filter(newRelationship -> newRelationship.getCharacteristicTypeId().equals(characteristicType.getConceptId()))
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.b2international.commons.http.ExtendedLocale;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.snowowl.snomed.core.domain.SnomedDescription;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Sets;
+
+/**
+ * Bounded in-memory cache of resolved preferred terms and fully specified names.
+ * <p>
+ * Entries are keyed by branch path, branch head timestamp, label type, the ordered list of requested locales and concept ID, so a label resolved
+ * on one state of a branch is never returned for another. The locale fallback is evaluated by the loader once for all concepts missing from the
+ * cache, and concepts without a matching label are cached as well. The cache is bounded by the estimated memory footprint of its entries; entries
+ * of a branch should be {@link #invalidate(String) invalidated} when a commit notification arrives for the branch.
+ * <p>
+ * Cached {@link SnomedDescription} instances are shared between callers and must not be modified.
+ *
+ * @since 7.1
+ */
+public final class DescriptionLabelCache {
+
+	private static final long EXPIRE_AFTER_ACCESS_MINUTES = 60L;
+
+	// Rough estimate of a cached SnomedDescription and the cache entry holding it, without the variable length strings
+	private static final int ENTRY_OVERHEAD_IN_BYTES = 512;
+
+	private enum LabelType {
+		PT,
+		FSN;
+	}
+
+	/**
+	 * Cached labels of a single branch state.
+	 */
+	public final class BranchLabels {
+
+		private final String branchPath;
+		private final long timestamp;
+
+		private BranchLabels(String branchPath, long timestamp) {
+			this.branchPath = branchPath;
+			this.timestamp = timestamp;
+		}
+
+		/**
+		 * Returns the preferred terms of the given concepts, loading the ones that are not cached yet with the given loader function.
+		 *
+		 * @param conceptIds - the identifiers of the concepts
+		 * @param locales - the locales to use, in order of preference
+		 * @param loader - resolves the preferred terms of the concepts which are not present in the cache
+		 * @return the preferred terms by concept ID, concepts without a preferred term are not included
+		 */
+		public Map<String, SnomedDescription> getPreferredTerms(Set<String> conceptIds, List<ExtendedLocale> locales, Function<Set<String>, Map<String, SnomedDescription>> loader) {
+			return getAll(new Scope(branchPath, timestamp, LabelType.PT, locales), conceptIds, loader);
+		}
+
+		/**
+		 * Returns the fully specified names of the given concepts, loading the ones that are not cached yet with the given loader function.
+		 *
+		 * @param conceptIds - the identifiers of the concepts
+		 * @param locales - the locales to use, in order of preference
+		 * @param loader - resolves the fully specified names of the concepts which are not present in the cache
+		 * @return the fully specified names by concept ID, concepts without a fully specified name are not included
+		 */
+		public Map<String, SnomedDescription> getFullySpecifiedNames(Set<String> conceptIds, List<ExtendedLocale> locales, Function<Set<String>, Map<String, SnomedDescription>> loader) {
+			return getAll(new Scope(branchPath, timestamp, LabelType.FSN, locales), conceptIds, loader);
+		}
+
+	}
+
+	private static final class Scope {
+
+		private final String branchPath;
+		private final long timestamp;
+		private final LabelType type;
+		private final String locales;
+		private final int hashCode;
+
+		private Scope(String branchPath, long timestamp, LabelType type, List<ExtendedLocale> locales) {
+			this.branchPath = branchPath;
+			this.timestamp = timestamp;
+			this.type = type;
+			// ExtendedLocale does not implement equals/hashCode, use the string representation which includes the language reference set ID as well
+			this.locales = locales.stream().map(ExtendedLocale::toString).collect(Collectors.joining(","));
+			this.hashCode = Objects.hash(branchPath, timestamp, type, this.locales);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) { return true; }
+			if (!(obj instanceof Scope)) { return false; }
+			final Scope other = (Scope) obj;
+			return timestamp == other.timestamp
+					&& type == other.type
+					&& branchPath.equals(other.branchPath)
+					&& locales.equals(other.locales);
+		}
+
+	}
+
+	private static final class Key {
+
+		private final Scope scope;
+		private final String conceptId;
+
+		private Key(Scope scope, String conceptId) {
+			this.scope = scope;
+			this.conceptId = conceptId;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * scope.hashCode() + conceptId.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) { return true; }
+			if (!(obj instanceof Key)) { return false; }
+			final Key other = (Key) obj;
+			return conceptId.equals(other.conceptId) && scope.equals(other.scope);
+		}
+
+	}
+
+	private final Cache<Key, Optional<SnomedDescription>> cache;
+
+	/**
+	 * Creates a new label cache.
+	 *
+	 * @param maximumSizeInBytes - the maximum estimated memory footprint of the cached labels
+	 */
+	public DescriptionLabelCache(long maximumSizeInBytes) {
+		checkArgument(maximumSizeInBytes > 0, "Maximum size should be greater than zero, got: %s", maximumSizeInBytes);
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(maximumSizeInBytes)
+				.weigher(DescriptionLabelCache::estimateSize)
+				.expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * Returns a view of the cached labels of the given branch at the given head timestamp.
+	 *
+	 * @param branchPath - the path of the branch, see {@link #isCacheable(String)}
+	 * @param headTimestamp - the current head timestamp of the branch
+	 * @return
+	 */
+	public BranchLabels forBranch(String branchPath, long headTimestamp) {
+		checkArgument(isCacheable(branchPath), "Labels can not be cached for branch path expression '%s'.", branchPath);
+		return new BranchLabels(branchPath, headTimestamp);
+	}
+
+	/**
+	 * Removes all cached labels of the given branch.
+	 *
+	 * @param branchPath
+	 */
+	public void invalidate(String branchPath) {
+		checkNotNull(branchPath, "Branch path may not be null.");
+		cache.asMap().keySet().removeIf(key -> branchPath.equals(key.scope.branchPath));
+	}
+
+	/**
+	 * Removes all cached labels.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * @return the number of cached labels (including the ones that are cached as missing)
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return hit and miss statistics of this cache
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	private Map<String, SnomedDescription> getAll(Scope scope, Set<String> conceptIds, Function<Set<String>, Map<String, SnomedDescription>> loader) {
+		final Map<String, SnomedDescription> labels = newHashMapWithExpectedSize(conceptIds.size());
+		final Set<String> missingConceptIds = Sets.newHashSet();
+
+		for (String conceptId : conceptIds) {
+			final Optional<SnomedDescription> label = cache.getIfPresent(new Key(scope, conceptId));
+			if (label == null) {
+				missingConceptIds.add(conceptId);
+			} else if (label.isPresent()) {
+				labels.put(conceptId, label.get());
+			}
+		}
+
+		if (!missingConceptIds.isEmpty()) {
+			final Map<String, SnomedDescription> loadedLabels = loader.apply(missingConceptIds);
+			for (String conceptId : missingConceptIds) {
+				final SnomedDescription label = loadedLabels.get(conceptId);
+				cache.put(new Key(scope, conceptId), Optional.ofNullable(label));
+				if (label != null) {
+					labels.put(conceptId, label);
+				}
+			}
+		}
+
+		return labels;
+	}
+
+	private static int estimateSize(Key key, Optional<SnomedDescription> label) {
+		final int keySize = 2 * key.conceptId.length();
+		final int labelSize = label.map(description -> 2 * (Strings.nullToEmpty(description.getId()).length() + Strings.nullToEmpty(description.getTerm()).length())).orElse(0);
+		return ENTRY_OVERHEAD_IN_BYTES + keySize + labelSize;
+	}
+
+	/**
+	 * Returns <code>true</code> if labels can be cached for the given branch path, <code>false</code> if the path is a branch path expression that
+	 * points to a point in time or a revision range.
+	 *
+	 * @param branchPath
+	 * @return
+	 */
+	public static boolean isCacheable(String branchPath) {
+		return !Strings.isNullOrEmpty(branchPath)
+				&& !branchPath.contains(RevisionIndex.AT_CHAR)
+				&& !branchPath.contains(RevisionIndex.REV_RANGE)
+				&& !branchPath.endsWith(RevisionIndex.BASE_REF_CHAR);
+	}
+
+}
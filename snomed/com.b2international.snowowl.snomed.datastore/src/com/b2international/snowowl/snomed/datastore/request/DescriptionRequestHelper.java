@@ -98,6 +98,10 @@ public abstract class DescriptionRequestHelper {
 	 * @return 				the preferred term for the concept, or {@code null} if no results could be retrieved
 	 */
 	public SnomedDescription getPreferredTerm(String conceptId, List<ExtendedLocale> locales) {
+		if (getCachedLabels() != null) {
+			return getPreferredTerms(Collections.singleton(conceptId), locales).get(conceptId);
+		}
+		
 		SnomedDescriptionSearchRequestBuilder req = preparePtSearch(conceptId, locales);
 		SnomedDescriptions descriptions = execute(req);
 		Map<String, SnomedDescription> bestMatchByConceptId = indexBestPreferredByConceptId(descriptions, locales);
@@ -109,6 +113,15 @@ public abstract class DescriptionRequestHelper {
 			return Collections.emptyMap();
 		}
 		
+		final DescriptionLabelCache.BranchLabels cachedLabels = getCachedLabels();
+		if (cachedLabels != null) {
+			return cachedLabels.getPreferredTerms(conceptIds, locales, missingConceptIds -> fetchPreferredTerms(missingConceptIds, locales));
+		}
+		
+		return fetchPreferredTerms(conceptIds, locales);
+	}
+	
+	private Map<String, SnomedDescription> fetchPreferredTerms(Set<String> conceptIds, List<ExtendedLocale> locales) {
 		SnomedDescriptionSearchRequestBuilder req = preparePtSearch(conceptIds, locales);
 		SnomedDescriptions descriptions = execute(req);
 		Map<String, SnomedDescription> bestMatchByConceptId = indexBestPreferredByConceptId(descriptions, locales);
@@ -137,6 +150,10 @@ public abstract class DescriptionRequestHelper {
 	 * @return the preferred term for the concept
 	 */
 	public SnomedDescription getFullySpecifiedName(String conceptId, List<ExtendedLocale> locales) {
+		if (getCachedLabels() != null) {
+			return getFullySpecifiedNames(Collections.singleton(conceptId), locales).get(conceptId);
+		}
+		
 		SnomedDescriptionSearchRequestBuilder acceptabilityReq = prepareFsnSearchByAcceptability(conceptId, locales);
 		SnomedDescriptions preferredDescriptions = execute(acceptabilityReq);
 		Map<String, SnomedDescription> bestPreferredByConceptId = indexBestPreferredByConceptId(preferredDescriptions, locales);
@@ -170,6 +187,15 @@ public abstract class DescriptionRequestHelper {
 			return Collections.emptyMap();
 		}
 		
+		final DescriptionLabelCache.BranchLabels cachedLabels = getCachedLabels();
+		if (cachedLabels != null) {
+			return cachedLabels.getFullySpecifiedNames(conceptIds, locales, missingConceptIds -> fetchFullySpecifiedNames(missingConceptIds, locales));
+		}
+		
+		return fetchFullySpecifiedNames(conceptIds, locales);
+	}
+	
+	private Map<String, SnomedDescription> fetchFullySpecifiedNames(Set<String> conceptIds, List<ExtendedLocale> locales) {
 		Map<String, SnomedDescription> fsnMap = newHashMap();
 		Set<String> conceptIdsNotInMap;
 		
@@ -300,5 +326,15 @@ public abstract class DescriptionRequestHelper {
 		return ImmutableMap.copyOf(Maps.filterValues(uniqueMap, Predicates.notNull()));
 	}
 	
+	/**
+	 * Subclasses may override to serve preferred terms and fully specified names from a {@link DescriptionLabelCache}. When caching is enabled,
+	 * the single concept variants are also resolved through the cache. By default labels are not cached.
+	 * 
+	 * @return the cached labels of the branch the requests are executed on, or {@code null} if labels should not be cached
+	 */
+	protected DescriptionLabelCache.BranchLabels getCachedLabels() {
+		return null;
+	}
+	
 	protected abstract SnomedDescriptions execute(SnomedDescriptionSearchRequestBuilder req);
 }
@@ -15,16 +15,17 @@
  */
 package com.b2international.snowowl.snomed.datastore.request;
 
-import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
 import static com.google.common.collect.Maps.newHashMap;
-import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.hibernate.validator.constraints.NotEmpty;
 
+import com.b2international.collections.longs.LongIterator;
 import com.b2international.commons.options.Options;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.domain.IComponent;
@@ -32,16 +33,12 @@ import com.b2international.snowowl.core.domain.TransactionContext;
 import com.b2international.snowowl.core.request.ResourceRequest;
 import com.b2international.snowowl.snomed.common.SnomedRf2Headers;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
-import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
-import com.b2international.snowowl.snomed.core.domain.SnomedCoreComponent;
 import com.b2international.snowowl.snomed.core.domain.refset.MemberChange;
 import com.b2international.snowowl.snomed.core.domain.refset.MemberChangeImpl;
 import com.b2international.snowowl.snomed.core.domain.refset.QueryRefSetMemberEvaluation;
 import com.b2international.snowowl.snomed.core.domain.refset.QueryRefSetMemberEvaluationImpl;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
-import com.google.common.base.Function;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Maps;
 
 /**
@@ -74,57 +71,13 @@ public final class EvaluateQueryRefSetMemberRequest extends ResourceRequest<Bran
 			targetReferenceSet = member.getReferencedComponent().getId();
 		}
 		
-
-		// GET matching members of a query
-		final SnomedConcepts matchingConcepts = SnomedRequests.prepareSearchConcept().filterByEcl(query).all().build().execute(context);
-		
-		final Map<String, SnomedConcept> conceptsToAdd = newHashMap();
-		final Collection<SnomedReferenceSetMember> membersToRemove = newHashSet();
-		final Map<String, String> conceptsToActivate = Maps.newHashMap();
-
-		// add all matching first
-		for (SnomedConcept matchedConcept : matchingConcepts.getItems()) {
-			if (matchedConcept.isActive()) {
-				conceptsToAdd.put(matchedConcept.getId(), matchedConcept);
-			}
-		}
-		
-		// then re-evaluate all current members of the target simple type reference set
-		final Collection<SnomedReferenceSetMember> curretMembersOfTarget = SnomedRequests.prepareSearchMember()
-					.all()
-					.filterByRefSet(targetReferenceSet)
-					.build()
-					.execute(context)
-					.getItems();
+		final QueryRefSetMemberDiff diff = QueryRefSetMemberDiff.compute(context, query, targetReferenceSet);
 		
-		for (SnomedReferenceSetMember currentMember : curretMembersOfTarget) {
-			final String referencedComponentId = currentMember.getReferencedComponent().getId();
-			if (conceptsToAdd.containsKey(referencedComponentId)) {
-				if (!currentMember.isActive()) {
-					// TODO fix reactivation label???
-					conceptsToActivate.put(referencedComponentId, referencedComponentId);
-				} else {
-					conceptsToAdd.remove(referencedComponentId);
-				}
-			} else {
-				membersToRemove.add(currentMember);
-			}
-		}
-		
-		final Collection<MemberChange> changes = newArrayList();
-		
-		// fetch all referenced components
-		final Set<String> referencedConceptIds = newHashSet();
-		referencedConceptIds.addAll(conceptsToAdd.keySet());
-		referencedConceptIds.addAll(FluentIterable.from(membersToRemove).transform(new Function<SnomedReferenceSetMember, SnomedCoreComponent>() {
-			@Override
-			public SnomedCoreComponent apply(SnomedReferenceSetMember input) {
-				return input.getReferencedComponent();
-			}
-		}).transform(IComponent.ID_FUNCTION).toSet());
+		// fetch referenced components of changed entries only
+		final Set<String> referencedConceptIds = diff.getChangedConceptIds();
 		
 		final Map<String, SnomedConcept> concepts;
-		if (expand().containsKey("referencedComponent")) {
+		if (expand().containsKey("referencedComponent") && !referencedConceptIds.isEmpty()) {
 			final Options expandOptions = expand().getOptions("referencedComponent");
 			concepts = Maps.uniqueIndex(SnomedRequests.prepareSearchConcept()
 					.filterByIds(referencedConceptIds)
@@ -141,18 +94,19 @@ public final class EvaluateQueryRefSetMemberRequest extends ResourceRequest<Bran
 			}
 		}
 		
-		for (String id : conceptsToAdd.keySet()) {
-			changes.add(MemberChangeImpl.added(concepts.get(id)));
+		final Collection<MemberChange> changes = newArrayListWithExpectedSize(referencedConceptIds.size());
+		
+		final LongIterator conceptsToAdd = diff.getConceptsToAdd().iterator();
+		while (conceptsToAdd.hasNext()) {
+			changes.add(MemberChangeImpl.added(concepts.get(Long.toString(conceptsToAdd.next()))));
 		}
 
-		for (SnomedReferenceSetMember memberToRemove : membersToRemove) {
-			changes.add(MemberChangeImpl.removed(concepts.get(memberToRemove.getReferencedComponent().getId()), memberToRemove.getId()));
+		for (Entry<String, String> memberToRemove : diff.getMembersToRemove().entrySet()) {
+			changes.add(MemberChangeImpl.removed(concepts.get(memberToRemove.getValue()), memberToRemove.getKey()));
 		}
 
 		// TODO reactivation???
-//		for (String id : conceptsToActivate.keySet()) {
-//			changes.add(new Diff(MemberChangeKind.ACTIVATE, id, conceptsToActivate.get(id)));
-//		}
+		
 		return new QueryRefSetMemberEvaluationImpl(memberId, targetReferenceSet, changes);
 	}
 
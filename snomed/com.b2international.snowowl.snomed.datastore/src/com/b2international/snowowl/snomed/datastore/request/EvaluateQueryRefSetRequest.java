@@ -15,12 +15,20 @@
  */
 package com.b2international.snowowl.snomed.datastore.request;
 
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import javax.validation.constraints.NotNull;
 
 import com.b2international.commons.exceptions.BadRequestException;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.domain.TransactionContext;
 import com.b2international.snowowl.core.events.Request;
 import com.b2international.snowowl.core.request.ResourceRequest;
 import com.b2international.snowowl.snomed.core.domain.refset.QueryRefSetMemberEvaluation;
@@ -29,14 +37,21 @@ import com.b2international.snowowl.snomed.core.domain.refset.SnomedRefSetType;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSet;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.base.Function;
-import com.google.common.collect.FluentIterable;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @since 4.5
  */
 public final class EvaluateQueryRefSetRequest extends ResourceRequest<BranchContext, QueryRefSetMemberEvaluations> {
 
+	// query members are evaluated concurrently, each evaluation runs its own index queries
+	private static final int MAX_CONCURRENT_EVALUATIONS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
 	@NotNull
 	@JsonProperty
 	private final String referenceSetId;
@@ -48,22 +63,37 @@ public final class EvaluateQueryRefSetRequest extends ResourceRequest<BranchCont
 	@Override
 	public QueryRefSetMemberEvaluations execute(final BranchContext context) {
 		final SnomedReferenceSet referenceSet = SnomedRequests.prepareGetReferenceSet(referenceSetId).build().execute(context);
-		return new QueryRefSetMemberEvaluations(
-				FluentIterable
-				.from(getQueryMembers(context, referenceSet))
-				.transform(new Function<SnomedReferenceSetMember, Request<BranchContext, QueryRefSetMemberEvaluation>>() {
-					@Override
-					public Request<BranchContext, QueryRefSetMemberEvaluation> apply(SnomedReferenceSetMember input) {
-						return SnomedRequests.prepareQueryRefSetMemberEvaluation(input.getId()).setLocales(locales()).setExpand(expand()).build();
-					}
-				})
-				.transform(new Function<Request<BranchContext, QueryRefSetMemberEvaluation>, QueryRefSetMemberEvaluation>() {
-					@Override
-					public QueryRefSetMemberEvaluation apply(Request<BranchContext, QueryRefSetMemberEvaluation> input) {
-						return input.execute(context);
-					}
-				})
-				.toList());
+		final List<Request<BranchContext, QueryRefSetMemberEvaluation>> requests = getQueryMembers(context, referenceSet)
+				.stream()
+				.map(member -> SnomedRequests.prepareQueryRefSetMemberEvaluation(member.getId()).setLocales(locales()).setExpand(expand()).build())
+				.collect(Collectors.toList());
+		
+		// transaction contexts are not shared between threads
+		if (requests.size() < 2 || context instanceof TransactionContext) {
+			return new QueryRefSetMemberEvaluations(requests.stream().map(request -> request.execute(context)).collect(Collectors.toList()));
+		}
+		
+		final int threads = Math.min(requests.size(), MAX_CONCURRENT_EVALUATIONS);
+		final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads, 
+				new ThreadFactoryBuilder().setNameFormat(String.format("query-refset-%s-evaluation-%%d", referenceSetId)).build()));
+		final List<ListenableFuture<QueryRefSetMemberEvaluation>> evaluations = newArrayListWithCapacity(requests.size());
+		try {
+			for (Request<BranchContext, QueryRefSetMemberEvaluation> request : requests) {
+				evaluations.add(executor.submit(() -> request.execute(context)));
+			}
+			// evaluations are returned in the order of the query members
+			return new QueryRefSetMemberEvaluations(Futures.allAsList(evaluations).get());
+		} catch (ExecutionException e) {
+			evaluations.forEach(evaluation -> evaluation.cancel(true));
+			Throwables.propagateIfPossible(e.getCause());
+			throw new SnowowlRuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			evaluations.forEach(evaluation -> evaluation.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new SnowowlRuntimeException(e);
+		} finally {
+			executor.shutdownNow();
+		}
 	}
 	
 	private Collection<SnomedReferenceSetMember> getQueryMembers(BranchContext context, SnomedReferenceSet referenceSet) {
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.Hits;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.snomed.core.ecl.EclExpression;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+
+/**
+ * The difference between the active concepts matching the query of a query type reference set member and the current members of its target
+ * simple type reference set. Only concept and member identifiers are fetched from the index, matching concepts are kept in a primitive set.
+ * <p>
+ * Matching concepts without an active member in the target reference set are to be added, members referring to a concept which does not
+ * match the query (any longer) are to be removed.
+ *
+ * @since 7.1
+ */
+final class QueryRefSetMemberDiff {
+
+	private static final int SCROLL_LIMIT = 10_000;
+
+	private final LongSet conceptsToAdd;
+	private final Map<String, String> membersToRemove;
+
+	private QueryRefSetMemberDiff(LongSet conceptsToAdd, Map<String, String> membersToRemove) {
+		this.conceptsToAdd = conceptsToAdd;
+		this.membersToRemove = membersToRemove;
+	}
+
+	/**
+	 * @return the identifiers of the matching concepts which are not yet active members of the target reference set
+	 */
+	LongSet getConceptsToAdd() {
+		return conceptsToAdd;
+	}
+
+	/**
+	 * @return the referenced component identifiers of the members to remove from the target reference set, keyed by member identifier
+	 */
+	Map<String, String> getMembersToRemove() {
+		return membersToRemove;
+	}
+
+	/**
+	 * @return the identifiers of all concepts affected by the changes
+	 */
+	Set<String> getChangedConceptIds() {
+		final Set<String> changedConceptIds = newHashSetWithExpectedSize(conceptsToAdd.size() + membersToRemove.size());
+		final LongIterator it = conceptsToAdd.iterator();
+		while (it.hasNext()) {
+			changedConceptIds.add(Long.toString(it.next()));
+		}
+		changedConceptIds.addAll(membersToRemove.values());
+		return changedConceptIds;
+	}
+
+	static QueryRefSetMemberDiff compute(BranchContext context, String query, String targetReferenceSet) {
+		final RevisionSearcher searcher = context.service(RevisionSearcher.class);
+		try {
+			final LongSet matchingConceptIds = getMatchingConceptIds(context, searcher, query);
+			final LongSet conceptsToAdd = PrimitiveSets.newLongOpenHashSet(matchingConceptIds);
+			final Map<String, String> membersToRemove = newHashMap();
+
+			for (Hits<String[]> hits : searcher.scroll(Query.select(String[].class)
+					.from(SnomedRefSetMemberIndexEntry.class)
+					.fields(SnomedRefSetMemberIndexEntry.Fields.ID, 
+							SnomedRefSetMemberIndexEntry.Fields.REFERENCED_COMPONENT_ID, 
+							SnomedRefSetMemberIndexEntry.Fields.ACTIVE)
+					.where(SnomedRefSetMemberIndexEntry.Expressions.referenceSetId(targetReferenceSet))
+					.limit(SCROLL_LIMIT)
+					.build())) {
+				for (String[] member : hits) {
+					final String memberId = member[0];
+					final String referencedComponentId = member[1];
+					final boolean active = Boolean.parseBoolean(member[2]);
+					if (contains(matchingConceptIds, referencedComponentId)) {
+						// inactive members of matching concepts are kept, but they do not count as existing members
+						if (active) {
+							conceptsToAdd.remove(Long.parseLong(referencedComponentId));
+						}
+					} else {
+						membersToRemove.put(memberId, referencedComponentId);
+					}
+				}
+			}
+
+			return new QueryRefSetMemberDiff(conceptsToAdd, membersToRemove);
+		} catch (IOException e) {
+			throw new SnowowlRuntimeException(e);
+		}
+	}
+
+	private static LongSet getMatchingConceptIds(BranchContext context, RevisionSearcher searcher, String query) throws IOException {
+		final LongSet matchingConceptIds = PrimitiveSets.newLongOpenHashSet();
+		for (Hits<String> hits : searcher.scroll(Query.select(String.class)
+				.from(SnomedConceptDocument.class)
+				.fields(SnomedConceptDocument.Fields.ID)
+				.where(Expressions.builder()
+						.filter(SnomedConceptDocument.Expressions.active())
+						.filter(EclExpression.of(query).resolveToExpression(context).getSync())
+						.build())
+				.limit(SCROLL_LIMIT)
+				.build())) {
+			for (String conceptId : hits) {
+				matchingConceptIds.add(Long.parseLong(conceptId));
+			}
+		}
+		return matchingConceptIds;
+	}
+
+	private static boolean contains(LongSet conceptIds, String referencedComponentId) {
+		try {
+			return conceptIds.contains(Long.parseLong(referencedComponentId));
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument.Expressions.active;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.characteristicTypeId;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.destinationIds;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.typeId;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import com.b2international.index.aggregations.Aggregation;
+import com.b2international.index.aggregations.AggregationBuilder;
+import com.b2international.index.aggregations.Bucket;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Expressions.ExpressionBuilder;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Counts the active {@link Concepts#IS_A IS A} relationships pointing to each of the given concepts with a single terms aggregation on the
+ * destination field, instead of running a separate relationship search per concept. Concepts without any matching relationships (leaf concepts)
+ * are not present in the returned map.
+ *
+ * @since 7.1
+ */
+final class SnomedConceptChildCountRequest implements Request<BranchContext, Map<String, Integer>> {
+
+	private static final long serialVersionUID = -3141011637226318845L;
+
+	@NotNull
+	@JsonProperty
+	private Set<String> conceptIds = Collections.emptySet();
+
+	@Nullable
+	@JsonProperty
+	private String characteristicTypeId;
+
+	SnomedConceptChildCountRequest() {
+	}
+
+	void setConceptIds(Set<String> conceptIds) {
+		this.conceptIds = conceptIds;
+	}
+
+	void setCharacteristicTypeId(String characteristicTypeId) {
+		this.characteristicTypeId = characteristicTypeId;
+	}
+
+	@Override
+	public Map<String, Integer> execute(BranchContext context) {
+		if (conceptIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		final ExpressionBuilder query = Expressions.builder()
+				.filter(active(true))
+				.filter(typeId(Concepts.IS_A))
+				.filter(destinationIds(conceptIds));
+
+		if (characteristicTypeId != null) {
+			query.filter(characteristicTypeId(characteristicTypeId));
+		}
+
+		final AggregationBuilder<SnomedRelationshipIndexEntry> aggregation = AggregationBuilder.bucket("childCounts", SnomedRelationshipIndexEntry.class)
+				.query(query.build())
+				.onFieldValue(SnomedRelationshipIndexEntry.Fields.DESTINATION_ID)
+				// only the document counts are needed, skip fetching the relationships themselves
+				.setBucketHitsLimit(0);
+
+		try {
+			final Aggregation<SnomedRelationshipIndexEntry> result = context.service(RevisionSearcher.class).aggregate(aggregation);
+			final ImmutableMap.Builder<String, Integer> childCounts = ImmutableMap.builder();
+			for (Bucket<SnomedRelationshipIndexEntry> bucket : result.getBuckets().values()) {
+				childCounts.put(String.valueOf(bucket.getKey()), bucket.getHits().getTotal());
+			}
+			return childCounts.build();
+		} catch (IOException e) {
+			throw new SnowowlRuntimeException(e);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.events.BaseRequestBuilder;
+import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.datastore.request.RevisionIndexRequestBuilder;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @since 7.1
+ */
+public final class SnomedConceptChildCountRequestBuilder
+		extends BaseRequestBuilder<SnomedConceptChildCountRequestBuilder, BranchContext, Map<String, Integer>>
+		implements RevisionIndexRequestBuilder<Map<String, Integer>> {
+
+	private final SnomedConceptChildCountRequest req = new SnomedConceptChildCountRequest();
+
+	SnomedConceptChildCountRequestBuilder() {}
+
+	public SnomedConceptChildCountRequestBuilder filterByConceptIds(Collection<String> conceptIds) {
+		req.setConceptIds(ImmutableSet.copyOf(conceptIds));
+		return getSelf();
+	}
+
+	/**
+	 * Counts only the relationships with the given characteristic type. Relationships with any characteristic type are counted if not set.
+	 * @param characteristicTypeId - the characteristic type concept ID
+	 * @return this builder
+	 */
+	public SnomedConceptChildCountRequestBuilder filterByCharacteristicType(String characteristicTypeId) {
+		req.setCharacteristicTypeId(characteristicTypeId);
+		return getSelf();
+	}
+
+	@Override
+	protected Request<BranchContext, Map<String, Integer>> doBuild() {
+		return req;
+	}
+
+}
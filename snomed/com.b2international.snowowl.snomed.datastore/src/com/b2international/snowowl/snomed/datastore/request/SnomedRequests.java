@@ -145,6 +145,14 @@ public abstract class SnomedRequests {
 	public static SnomedRelationshipSearchRequestBuilder prepareSearchRelationship() {
 		return new SnomedRelationshipSearchRequestBuilder();
 	}
+
+	/**
+	 * Returns a SNOMED CT request builder to prepare a request that counts the active IS A relationships pointing to each given concept.
+	 * @return SNOMED CT concept child count request builder
+	 */
+	public static SnomedConceptChildCountRequestBuilder prepareCountChildren() {
+		return new SnomedConceptChildCountRequestBuilder();
+	}
 	
 	/**
 	 * Returns a SNOMED CT request builder to prepare a request to return an MRCM attribute constraint.
@@ -19,7 +19,11 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.util.Optional.ofNullable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -29,6 +33,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
 
@@ -54,6 +59,7 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDoc
 import com.b2international.snowowl.snomed.datastore.internal.rf2.AbstractSnomedDsvExportItem;
 import com.b2international.snowowl.snomed.datastore.internal.rf2.ComponentIdSnomedDsvExportItem;
 import com.b2international.snowowl.snomed.datastore.internal.rf2.DatatypeSnomedDsvExportItem;
+import com.b2international.snowowl.snomed.datastore.internal.rf2.SnomedDsvExportItemType;
 import com.b2international.snowowl.snomed.datastore.internal.rf2.SnomedRefSetDSVExportModel;
 import com.b2international.snowowl.snomed.datastore.request.SnomedConceptSearchRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
@@ -68,15 +74,6 @@ import com.google.common.collect.Ordering;
  */
 final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 
-	private static final String HEADER_EXPAND = "descriptions(active:true),"
-			+ "relationships(active:true),"
-			+ "members()";
-	
-	private static final String DATA_EXPAND = "pt(),"
-			+ "descriptions(active:true),"
-			+ "relationships(active:true,destination(expand(pt()))),"
-			+ "members()";
-
 	private static final Map<String, Integer> NO_OCCURRENCES = ImmutableMap.of();
 	
 	private String refSetId;
@@ -123,18 +120,34 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 	public File executeDSVExport() throws SnowowlServiceException, IOException {
 
 		Path exportPath = getExportPath();
+		Path spoolPath = null;
 		
 		try {
 			
-			try (BufferedWriter writer = Files.newBufferedWriter(exportPath, Charsets.UTF_8)) {
-				computeHeader();
+			/* 
+			 * The number of columns depends on the maximum number of descriptions and properties of all concepts, so rows are collected in a 
+			 * temporary file while the concepts are scrolled through once, and the header is written in front of them afterwards.
+			 */
+			spoolPath = Files.createTempFile("snomed-dsv-export", ".tmp");
+			
+			final int rows;
+			try (DataOutputStream spool = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spoolPath)))) {
+				rows = spoolValues(spool);
+			}
+			
+			try (BufferedWriter writer = Files.newBufferedWriter(exportPath, Charsets.UTF_8);
+					DataInputStream spool = new DataInputStream(new BufferedInputStream(Files.newInputStream(spoolPath)))) {
 				writeHeader(writer);
-				writeValues(writer);
+				writeValues(writer, spool, rows);
 			}
 			
 			return exportPath.toFile();
 		} catch (Exception e) {
 			throw new SnowowlServiceException(e);
+		} finally {
+			if (spoolPath != null) {
+				Files.deleteIfExists(spoolPath);
+			}
 		}
 	}
 
@@ -157,6 +170,7 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 	private SearchResourceRequestIterator<SnomedConceptSearchRequestBuilder, SnomedConcepts> getMemberConceptIterator(String expand) {
 		
 		SnomedConceptSearchRequestBuilder builder = SnomedRequests.prepareSearchConcept()
+			.setLocales(locales)
 			.setExpand(expand)
 			.filterByActive(true)
 			.sortBy(SortField.ascending(SnomedConceptDocument.Fields.ID))
@@ -176,16 +190,49 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 	}
 
 	/*
-	 * Finds the maximum number of occurrences for each description, relationship and concrete data type; generates headers. 
+	 * Expands only the components that are required by the selected export items. Destination concepts are not expanded, their preferred 
+	 * terms are fetched separately for each chunk.
 	 */
-	private void computeHeader() {
+	private String getExpand() {
+		List<String> expand = newArrayList();
+		if (hasExportItem(SnomedDsvExportItemType.PREFERRED_TERM)) {
+			expand.add("pt()");
+		}
+		if (hasExportItem(SnomedDsvExportItemType.DESCRIPTION)) {
+			expand.add("descriptions(active:true)");
+		}
+		if (hasExportItem(SnomedDsvExportItemType.RELATIONSHIP)) {
+			expand.add("relationships(active:true)");
+		}
+		if (hasExportItem(SnomedDsvExportItemType.DATAYPE)) {
+			expand.add("members()");
+		}
+		return Joiner.on(',').join(expand);
+	}
+	
+	private boolean hasExportItem(SnomedDsvExportItemType type) {
+		return exportItems.stream().anyMatch(item -> type.equals(item.getType()));
+	}
+	
+	/*
+	 * Scrolls through the members once, finding the maximum number of occurrences for each description, relationship and concrete data type 
+	 * while writing the unpadded cells of each row to the spool file. Returns the number of rows written.
+	 */
+	private int spoolValues(DataOutputStream spool) throws IOException {
 		descriptionCount = newHashMap();
 		propertyCount = newHashMap();
 		
-		SearchResourceRequestIterator<SnomedConceptSearchRequestBuilder, SnomedConcepts> conceptIterator = getMemberConceptIterator(HEADER_EXPAND);
+		int rows = 0;
+		Map<String, String> destinationTerms = newHashMap();
+		SearchResourceRequestIterator<SnomedConceptSearchRequestBuilder, SnomedConcepts> conceptIterator = getMemberConceptIterator(getExpand());
 		while (conceptIterator.hasNext()) {
-			computeHeader(conceptIterator.next());
+			SnomedConcepts chunk = conceptIterator.next();
+			computeHeader(chunk);
+			resolveDestinationTerms(chunk, destinationTerms);
+			rows += spoolValues(spool, chunk, destinationTerms);
 		}
+		
+		return rows;
 	}
 	
 	private void computeHeader(SnomedConcepts chunk) {
@@ -271,7 +318,7 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 					ComponentIdSnomedDsvExportItem descriptionItem = (ComponentIdSnomedDsvExportItem) exportItem;
 					String typeId = descriptionItem.getComponentId();
 					String displayName = descriptionTypeIdMap.getOrDefault(typeId, descriptionItem.getDisplayName());
-					int occurrences = descriptionCount.get(typeId);
+					int occurrences = descriptionCount.getOrDefault(typeId, 0);
 					
 					if (occurrences < 2) {
 						if (includeDescriptionId) {
@@ -490,26 +537,58 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 				c -> getPreferredTerm(c)));
 	}
 
-	private void writeValues(BufferedWriter writer) throws IOException {
-		SearchResourceRequestIterator<SnomedConceptSearchRequestBuilder, SnomedConcepts> conceptIterator = getMemberConceptIterator(DATA_EXPAND);
-		while (conceptIterator.hasNext()) {
-			writeValues(writer, conceptIterator.next());
+	/*
+	 * Collects the preferred terms of relationship destinations in the chunk which were not seen in earlier chunks.
+	 */
+	private void resolveDestinationTerms(SnomedConcepts chunk, Map<String, String> destinationTerms) {
+		if (!hasExportItem(SnomedDsvExportItemType.RELATIONSHIP)) {
+			return;
 		}
-	}
 		
-	private void writeValues(BufferedWriter writer, SnomedConcepts chunk) throws IOException {
-		List<String> dataRow = newArrayList();
-		Map<String, Integer> zeroGroupOccurrences = propertyCount.getOrDefault(0, NO_OCCURRENCES);
+		Set<String> destinationIds = chunk.stream()
+				.flatMap(concept -> concept.getRelationships().stream())
+				.filter(r -> isExportedRelationship(r))
+				.map(SnomedRelationship::getDestinationId)
+				.filter(id -> !destinationTerms.containsKey(id))
+				.collect(Collectors.toSet());
 		
-		for (SnomedConcept concept : chunk) {
-			dataRow.clear();
+		if (destinationIds.isEmpty()) {
+			return;
+		}
+		
+		SnomedConcepts destinations = SnomedRequests.prepareSearchConcept()
+			.all()
+			.setLocales(locales)
+			.filterByIds(destinationIds)
+			.setExpand("pt()")
+			.build(SnomedDatastoreActivator.REPOSITORY_UUID, branchPath.getPath())
+			.execute(getEventBus())
+			.getSync();
+		
+		destinationTerms.putAll(createTypeIdMap(destinations));
+	}
 
+	private boolean isExportedRelationship(SnomedRelationship relationship) {
+		return relationship.getGroup() == 0
+				&& (CharacteristicType.INFERRED_RELATIONSHIP.equals(relationship.getCharacteristicType()) 
+				|| CharacteristicType.ADDITIONAL_RELATIONSHIP.equals(relationship.getCharacteristicType()));
+	}
+	
+	/*
+	 * Writes the cells of each concept grouped by export item. Cells of repeated properties are padded to the final column count when the 
+	 * spool file is read back.
+	 */
+	private int spoolValues(DataOutputStream spool, SnomedConcepts chunk, Map<String, String> destinationTerms) throws IOException {
+		List<String> cells = newArrayList();
+		
+		for (SnomedConcept concept : chunk) {
 			for (AbstractSnomedDsvExportItem exportItem : exportItems) {
+				cells.clear();
+				
 				switch (exportItem.getType()) {
 					case DESCRIPTION: {
 						final ComponentIdSnomedDsvExportItem descriptionItem = (ComponentIdSnomedDsvExportItem) exportItem;
 						final String typeId = descriptionItem.getComponentId();
-						int occurrences = descriptionCount.get(typeId);
 						
 						final Map<String, String> termsById = concept.getDescriptions()
 								.stream()
@@ -518,35 +597,30 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 										SnomedDescription::getId, 
 										SnomedDescription::getTerm));
 						
-						addCells(dataRow, occurrences, includeDescriptionId, termsById);
+						addCells(cells, includeDescriptionId, termsById);
 						break;
 					}
 
 					case RELATIONSHIP: {
 						final ComponentIdSnomedDsvExportItem relationshipItem = (ComponentIdSnomedDsvExportItem) exportItem;
 						final String typeId = relationshipItem.getComponentId();
-						int occurrences = zeroGroupOccurrences.get(typeId);
 						
 						final Map<String, String> destinationsById = concept.getRelationships()
 								.stream()
-								.filter(r -> typeId.equals(r.getTypeId())
-										&& r.getGroup() == 0
-										&& (CharacteristicType.INFERRED_RELATIONSHIP.equals(r.getCharacteristicType()) 
-										|| CharacteristicType.ADDITIONAL_RELATIONSHIP.equals(r.getCharacteristicType())))
+								.filter(r -> typeId.equals(r.getTypeId()) && isExportedRelationship(r))
 								.collect(Collectors.toMap(
 										SnomedRelationship::getId, 
-										r -> getPreferredTerm(r.getDestination())));
+										r -> destinationTerms.getOrDefault(r.getDestinationId(), "")));
 
-						addCells(dataRow, occurrences, includeRelationshipId, destinationsById);
+						addCells(cells, includeRelationshipId, destinationsById);
 						break;
 					}
 
 					case DATAYPE: {
 						final DatatypeSnomedDsvExportItem datatypeItem = (DatatypeSnomedDsvExportItem) exportItem;
 						final String typeId = datatypeItem.getComponentId();
-						int occurrences = zeroGroupOccurrences.get(typeId);
 						
-						final List<String> properties = concept.getMembers()
+						concept.getMembers()
 								.stream()
 								.filter(m -> SnomedRefSetType.CONCRETE_DATA_TYPE.equals(m.type())
 										&& m.isActive()
@@ -563,81 +637,112 @@ final class SnomedSimpleTypeRefSetDSVExporter implements IRefSetDSVExporter {
 									}
 								})
 								.sorted()
-								.collect(Collectors.toList());
-
-						for (String value : properties) {
-							dataRow.add(value);
-							occurrences--;
-						}
-						while (occurrences > 0) {
-							dataRow.add("");
-							occurrences--;
-						}
+								.forEachOrdered(cells::add);
 						break;
 					}
 					
 					case PREFERRED_TERM:
 						if (includeDescriptionId) {
-							dataRow.add(getPreferredTermId(concept));
-							dataRow.add(getPreferredTerm(concept));
+							cells.add(getPreferredTermId(concept));
+							cells.add(getPreferredTerm(concept));
 						} else {
-							dataRow.add(getPreferredTerm(concept));
+							cells.add(getPreferredTerm(concept));
 						}
 						break;
 
 					case CONCEPT_ID:
-						dataRow.add(concept.getId());
+						cells.add(concept.getId());
 						break;
 
 					case MODULE: 
-						dataRow.add(concept.getModuleId());
+						cells.add(concept.getModuleId());
 						break;
 
 					case EFFECTIVE_TIME:
-						dataRow.add(Dates.formatByGmt(concept.getEffectiveTime()));
+						cells.add(Dates.formatByGmt(concept.getEffectiveTime()));
 						break;
 
 					case STATUS_LABEL:
-						dataRow.add(concept.isActive() ? "Active" : "Inactive");
+						cells.add(concept.isActive() ? "Active" : "Inactive");
 						break;
 
 					case DEFINITION_STATUS: 
-						dataRow.add(concept.getDefinitionStatus().toString());
+						cells.add(concept.getDefinitionStatus().toString());
 						break;
 
 					default:
 						break;
 				}
+				
+				spool.writeInt(cells.size());
+				for (String cell : cells) {
+					spool.writeUTF(cell);
+				}
 			}
-			
-			writer.write(joiner.join(dataRow));
-			writer.write(lineSeparator);
 		}
+		
+		return chunk.getItems().size();
 	}
 
-	private void addCells(List<String> dataRow, int occurrences, boolean includeIds, Map<String, String> idValuePairs) {
+	private void addCells(List<String> cells, boolean includeIds, Map<String, String> idValuePairs) {
 		if (includeIds) {
 			SortedSet<String> sortedIds = ImmutableSortedSet.copyOf(idValuePairs.keySet());
 			for (String id : sortedIds) {
-				dataRow.add(id);
-				dataRow.add(idValuePairs.get(id));
-				occurrences--;
-			}
-			while (occurrences > 0) {
-				dataRow.add("");
-				dataRow.add("");
-				occurrences--;
+				cells.add(id);
+				cells.add(idValuePairs.get(id));
 			}
 		} else {
-			List<String> sortedValues = Ordering.natural().sortedCopy(idValuePairs.values());
-			for (String value : sortedValues) {
-				dataRow.add(value);
-				occurrences--;
+			cells.addAll(Ordering.natural().sortedCopy(idValuePairs.values()));
+		}
+	}
+	
+	private void writeValues(BufferedWriter writer, DataInputStream spool, int rows) throws IOException {
+		List<String> dataRow = newArrayList();
+		Map<String, Integer> zeroGroupOccurrences = propertyCount.getOrDefault(0, NO_OCCURRENCES);
+		
+		for (int i = 0; i < rows; i++) {
+			dataRow.clear();
+			
+			for (AbstractSnomedDsvExportItem exportItem : exportItems) {
+				int cellCount = spool.readInt();
+				for (int j = 0; j < cellCount; j++) {
+					dataRow.add(spool.readUTF());
+				}
+				
+				int padding = getColumnCount(exportItem, zeroGroupOccurrences) - cellCount;
+				while (padding > 0) {
+					dataRow.add("");
+					padding--;
+				}
+			}
+			
+			writer.write(joiner.join(dataRow));
+			writer.write(lineSeparator);
+		}
+	}
+
+	/*
+	 * Returns the number of columns of repeated properties (matching the header), or zero for single-use fields.
+	 */
+	private int getColumnCount(AbstractSnomedDsvExportItem exportItem, Map<String, Integer> zeroGroupOccurrences) {
+		switch (exportItem.getType()) {
+			case DESCRIPTION: {
+				final String typeId = ((ComponentIdSnomedDsvExportItem) exportItem).getComponentId();
+				// the header always contains at least one column for each description type
+				final int occurrences = Math.max(1, descriptionCount.getOrDefault(typeId, 0));
+				return includeDescriptionId ? 2 * occurrences : occurrences;
+			}
+			case RELATIONSHIP: {
+				final String typeId = ((ComponentIdSnomedDsvExportItem) exportItem).getComponentId();
+				final int occurrences = zeroGroupOccurrences.getOrDefault(typeId, 0);
+				return includeRelationshipId ? 2 * occurrences : occurrences;
 			}
-			while (occurrences > 0) {
-				dataRow.add("");
-				occurrences--;
+			case DATAYPE: {
+				final String typeId = ((ComponentIdSnomedDsvExportItem) exportItem).getComponentId();
+				return zeroGroupOccurrences.getOrDefault(typeId, 0);
 			}
+			default:
+				return 0;
 		}
 	}
 
@@ -16,57 +16,59 @@
 package com.b2international.snowowl.snomed.datastore.request.xls;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.eclipse.net4j.util.om.monitor.OMMonitor;
-import org.eclipse.net4j.util.om.monitor.OMMonitor.Async;
 
 import com.b2international.commons.http.ExtendedLocale;
 import com.b2international.snowowl.core.ApplicationContext;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.request.SearchResourceRequestIterator;
 import com.b2international.snowowl.datastore.importer.AbstractTerminologyExporter;
 import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConstants;
 import com.b2international.snowowl.snomed.core.domain.Acceptability;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
-import com.b2international.snowowl.snomed.core.domain.SnomedCoreComponent;
 import com.b2international.snowowl.snomed.core.domain.SnomedDescription;
 import com.b2international.snowowl.snomed.core.domain.SnomedRelationship;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSet;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
+import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMembers;
 import com.b2international.snowowl.snomed.core.label.SnomedConceptNameProvider;
 import com.b2international.snowowl.snomed.core.lang.LanguageSetting;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRefSetMemberSearchRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 
 /**
  * Exporter class to export simple type reference sets to Excel format where the 
  * referenced component is description or relationship.
+ * <p>
+ * Members are fetched page by page, along with their expanded referenced components, and rows are streamed to the exported file by a
+ * {@link StreamingSheetWriter}, so the size of the exported reference set is not limited by the available memory.
  * 
  * @since Snow&nbsp;Owl 3.0.1
  */
 public class SnomedSimpleTypeRefSetExcelExporter extends AbstractTerminologyExporter {
 	
 	private final static String FONT_STYLE = "Sarif";
+	private final static int PAGE_SIZE = 10_000;
 
 	private final SnomedReferenceSet refSet;
-	private final Workbook workbook;
+	private final XSSFWorkbook workbook;
 	
-	private final CellStyle DEFAULT_STYLE;
-	private final CellStyle BOLD_STYLE;
+	private final XSSFCellStyle DEFAULT_STYLE;
+	private final XSSFCellStyle BOLD_STYLE;
 	private final BranchContext context;
+	
+	private StreamingSheetWriter sheetWriter;
 
 	public SnomedSimpleTypeRefSetExcelExporter(final BranchContext context, final String userId, final String refSetId) {
 		super(userId, context.branch().branchPath());
@@ -108,90 +110,74 @@ public class SnomedSimpleTypeRefSetExcelExporter extends AbstractTerminologyExpo
 	@Override
 	protected File exportTerminology(final String exportFilePath, OMMonitor monitor) throws IOException {
 		
-		File file;
-		FileOutputStream outputStream = null;
+		logExportActivity(MessageFormat.format("Exporting {0}s to Excel started. Server-side file: {1}", getTerminologyName(), exportFilePath));
 		
-		try {
-			
-			logExportActivity(MessageFormat.format("Exporting {0}s to Excel started. Server-side file: {1}", getTerminologyName(), exportFilePath));
-			
-			file = new File(exportFilePath);
-			outputStream = new FileOutputStream(file);
+		final String refSetLabel = formatSheetName(new SnomedConceptNameProvider(ApplicationContext.getServiceForClass(IEventBus.class), ApplicationContext.getServiceForClass(LanguageSetting.class)).getComponentLabel(getBranchPath(), refSet.getId()));
+		final File file = new File(exportFilePath);
+		
+		try (StreamingSheetWriter sheetWriter = new StreamingSheetWriter(workbook, workbook.createSheet(refSetLabel), getColumnNumber())) {
+			this.sheetWriter = sheetWriter;
 			exportTerminologyComponents(monitor);
-			workbook.write(outputStream);
-			logExportActivity(MessageFormat.format("Finished exporting {0}s to Excel.", getTerminologyName()));
-		} catch (IOException e) {
-			throw e;
+			sheetWriter.write(file);
 		} finally {
-			if (null != outputStream) {
-				outputStream.close();
-			}
+			this.sheetWriter = null;
 		}
 		
+		logExportActivity(MessageFormat.format("Finished exporting {0}s to Excel.", getTerminologyName()));
 		return file;
 	}
 
 	@Override
 	protected void exportTerminologyComponents(final OMMonitor monitor) {
 
-		Async async = null;
-		final OMMonitor componentsMonitor = monitor.fork(15);
+		final OMMonitor componentsMonitor = monitor.fork(85);
 		
 		try {
 			
-			final String refSetLabel = formatSheetName(new SnomedConceptNameProvider(ApplicationContext.getServiceForClass(IEventBus.class), ApplicationContext.getServiceForClass(LanguageSetting.class)).getComponentLabel(getBranchPath(), refSet.getId()));
-			final Sheet sheet = workbook.createSheet(refSetLabel);
-			
-			async = monitor.forkAsync(70);
-
-			final Collection<SnomedCoreComponent> components = fetchReferencedComponents(refSet);
-			
-			async.stop();
-			
-			componentsMonitor.begin(components.size());
-			
 			switch (refSet.getReferencedComponentType()) {
 			case SnomedTerminologyComponentConstants.DESCRIPTION:
-				cretaDescriptionHeader(sheet);
-				exportDescriptions(components, sheet, componentsMonitor);
+				cretaDescriptionHeader();
 				break;
 			case SnomedTerminologyComponentConstants.RELATIONSHIP:
-				createRelationshipHeader(sheet);
-				exportRelationships(components, sheet, componentsMonitor);
+				createRelationshipHeader();
 				break;
 			default:
 				throw new IllegalStateException(MessageFormat.format("Invalid referenced component type: ", refSet.getReferencedComponentType()));
 			}
 			
-			for (int i = 0; i <= getColumnNumber(); i++) {
-				sheet.autoSizeColumn(i);
+			final SearchResourceRequestIterator<SnomedRefSetMemberSearchRequestBuilder, SnomedReferenceSetMembers> memberIterator = getMemberIterator(refSet);
+			componentsMonitor.begin(memberIterator.hasNext() ? memberIterator.peek().getTotal() : 0);
+			
+			while (memberIterator.hasNext()) {
+				final SnomedReferenceSetMembers members = memberIterator.next();
+				switch (refSet.getReferencedComponentType()) {
+				case SnomedTerminologyComponentConstants.DESCRIPTION:
+					exportDescriptions(members, componentsMonitor);
+					break;
+				case SnomedTerminologyComponentConstants.RELATIONSHIP:
+					exportRelationships(members, componentsMonitor);
+					break;
+				}
 			}
 
+		} catch (IOException e) {
+			throw new SnowowlRuntimeException(e);
 		} finally {
-			if (null != async) {
-				async.stop();
-			}
-			
-			if (null != componentsMonitor) {
-				componentsMonitor.done();
-			}
+			componentsMonitor.done();
 		}
 	}
 
-		private Collection<SnomedCoreComponent> fetchReferencedComponents(SnomedReferenceSet refSet) {
-		return SnomedRequests.prepareSearchMember()
-			.all()
+	private SearchResourceRequestIterator<SnomedRefSetMemberSearchRequestBuilder, SnomedReferenceSetMembers> getMemberIterator(SnomedReferenceSet refSet) {
+		final SnomedRefSetMemberSearchRequestBuilder builder = SnomedRequests.prepareSearchMember()
 			.filterByRefSet(refSet.getId())
 			.setExpand(getExpand(refSet))
 			.setLocales(getLocales())
-			.build()
-			.execute(context)
-			.stream()
-			.map(SnomedReferenceSetMember::getReferencedComponent)
-			.collect(Collectors.toList());
+			.setScroll("15m")
+			.setLimit(PAGE_SIZE);
+		
+		return new SearchResourceRequestIterator<>(builder, b -> b.build().execute(context));
 	}
 	
-
 	private List<ExtendedLocale> getLocales() {
 		return ApplicationContext.getServiceForClass(LanguageSetting.class).getLanguagePreference();
 	}
@@ -199,51 +185,45 @@ public class SnomedSimpleTypeRefSetExcelExporter extends AbstractTerminologyExpo
 	private String getExpand(SnomedReferenceSet refSet) {
 		switch (refSet.getReferencedComponentType()) {
 		case SnomedTerminologyComponentConstants.DESCRIPTION:
-			return "";
+			return "referencedComponent()";
 		case SnomedTerminologyComponentConstants.RELATIONSHIP:
-			return "source(expand(pt())),type(expand(pt())),destination(expand(pt()))";
+			return "referencedComponent(expand(source(expand(pt())),type(expand(pt())),destination(expand(pt()))))";
 		default: return "";
 		}
 	}
 
-	private void cretaDescriptionHeader(final Sheet sheet) {
-		final Row row = sheet.createRow(0);
-		
-		createCell(row, "Description ID", 0, BOLD_STYLE);
-		createCell(row, "Description Term", 1, BOLD_STYLE);
-		createCell(row, "Acceptability", 2, BOLD_STYLE);
-		createCell(row, "Concept ID", 3, BOLD_STYLE);
-		createCell(row, "Concept Preferred Term", 4, BOLD_STYLE);
-		createCell(row, "Status", 5, BOLD_STYLE);
-		createCell(row, "Effective Time", 6, BOLD_STYLE);
-		createCell(row, "Module ID", 7, BOLD_STYLE);
-		createCell(row, "Module Preferred Term", 8, BOLD_STYLE);
+	private void cretaDescriptionHeader() throws IOException {
+		sheetWriter.writeRow(BOLD_STYLE, 
+				"Description ID", 
+				"Description Term", 
+				"Acceptability", 
+				"Concept ID", 
+				"Concept Preferred Term", 
+				"Status", 
+				"Effective Time", 
+				"Module ID", 
+				"Module Preferred Term");
 	}
 	
-	private void createRelationshipHeader(final Sheet sheet) {
-		final Row row = sheet.createRow(0);
-		
-		createCell(row, "Relationship ID", 0, BOLD_STYLE);
-		createCell(row, "Source Concept ID", 1, BOLD_STYLE);
-		createCell(row, "Source Concept Preferred Term", 2, BOLD_STYLE);
-		createCell(row, "Relationship Type ID", 3, BOLD_STYLE);
-		createCell(row, "Relationship Type Preferred Term", 4, BOLD_STYLE);
-		createCell(row, "Destination Concept ID", 5, BOLD_STYLE);
-		createCell(row, "Destination Concept Preferred Term", 6, BOLD_STYLE);
-		createCell(row, "Status", 7, BOLD_STYLE);
-		createCell(row, "Effective Time", 8, BOLD_STYLE);
-		createCell(row, "Module ID", 9, BOLD_STYLE);
-		createCell(row, "Module Preferred Term", 10, BOLD_STYLE);
+	private void createRelationshipHeader() throws IOException {
+		sheetWriter.writeRow(BOLD_STYLE, 
+				"Relationship ID", 
+				"Source Concept ID", 
+				"Source Concept Preferred Term", 
+				"Relationship Type ID", 
+				"Relationship Type Preferred Term", 
+				"Destination Concept ID", 
+				"Destination Concept Preferred Term", 
+				"Status", 
+				"Effective Time", 
+				"Module ID", 
+				"Module Preferred Term");
 	}
 
-	private void exportDescriptions(final Collection<SnomedCoreComponent> descriptions, final Sheet sheet, final OMMonitor monitor) {
+	private void exportDescriptions(final Iterable<SnomedReferenceSetMember> members, final OMMonitor monitor) throws IOException {
 		
-		int rowNum = 1;
-		
-		for (final SnomedCoreComponent component : descriptions) {
-			final SnomedDescription description = (SnomedDescription) component;
-			
-			final Row row = sheet.createRow(rowNum);
+		for (final SnomedReferenceSetMember member : members) {
+			final SnomedDescription description = (SnomedDescription) member.getReferencedComponent();
 			
 			// TODO all acceptability values should be printed out
 			final Acceptability acceptability = description.getAcceptabilityMap().get(Concepts.REFSET_LANGUAGE_TYPE_UK);
@@ -253,47 +233,40 @@ public class SnomedSimpleTypeRefSetExcelExporter extends AbstractTerminologyExpo
 				continue;
 			}
 			
-			createCell(row, description.getId(), 0, DEFAULT_STYLE);
-			createCell(row, description.getTerm(), 1, DEFAULT_STYLE);
-			createCell(row, acceptability.getConceptId(), 2, DEFAULT_STYLE);
-			createCell(row, description.getConceptId(), 3, DEFAULT_STYLE);
-			// TODO support description concept label again
-//			createCell(row, getPtOrId(description.getConceptId()), 4, DEFAULT_STYLE);
-			createCell(row, description.isActive() ? "Active" : "Inactive", 5, DEFAULT_STYLE);
-			createCell(row, getExportedEffectiveTime(description.getEffectiveTime()), 6, DEFAULT_STYLE);
-			createCell(row, description.getModuleId(), 7, DEFAULT_STYLE);
-
+			sheetWriter.writeRow(DEFAULT_STYLE, 
+					description.getId(), 
+					description.getTerm(), 
+					acceptability.getConceptId(), 
+					description.getConceptId(), 
+					// TODO support description concept label again
+					null, 
+					description.isActive() ? "Active" : "Inactive", 
+					getExportedEffectiveTime(description.getEffectiveTime()), 
+					description.getModuleId());
 			// TODO support module labels again
-//			createCell(row, getPrefferedTermByConcept(description.getModule()), 8, DEFAULT_STYLE);
 			
-			rowNum++;
 			monitor.worked(1);
 		}
 	}
 	
-	private void exportRelationships(final Collection<SnomedCoreComponent> relationships, final Sheet sheet, final OMMonitor monitor) {
-		
-		int rowNum = 1;
+	private void exportRelationships(final Iterable<SnomedReferenceSetMember> members, final OMMonitor monitor) throws IOException {
 		
-		for (final SnomedCoreComponent component : relationships) {
-			final SnomedRelationship relationship = (SnomedRelationship) component;
+		for (final SnomedReferenceSetMember member : members) {
+			final SnomedRelationship relationship = (SnomedRelationship) member.getReferencedComponent();
 			
-			final Row row = sheet.createRow(rowNum);
-			
-			createCell(row, relationship.getId(), 0, DEFAULT_STYLE);
-			createCell(row, relationship.getSource().getId(), 1, DEFAULT_STYLE);
-			createCell(row, getPtOrId(relationship.getSource()), 2, DEFAULT_STYLE);
-			createCell(row, relationship.getType().getId(), 3, DEFAULT_STYLE);
-			createCell(row, getPtOrId(relationship.getType()), 4, DEFAULT_STYLE);
-			createCell(row, relationship.getDestination().getId(), 5, DEFAULT_STYLE);
-			createCell(row, getPtOrId(relationship.getDestination()), 6, DEFAULT_STYLE);
-			createCell(row, relationship.isActive() ? "Active" : "Inactive", 7, DEFAULT_STYLE);
-			createCell(row, getExportedEffectiveTime(relationship.getEffectiveTime()), 8, DEFAULT_STYLE);
-			createCell(row, relationship.getModuleId(), 9, DEFAULT_STYLE);
+			sheetWriter.writeRow(DEFAULT_STYLE, 
+					relationship.getId(), 
+					relationship.getSource().getId(), 
+					getPtOrId(relationship.getSource()), 
+					relationship.getType().getId(), 
+					getPtOrId(relationship.getType()), 
+					relationship.getDestination().getId(), 
+					getPtOrId(relationship.getDestination()), 
+					relationship.isActive() ? "Active" : "Inactive", 
+					getExportedEffectiveTime(relationship.getEffectiveTime()), 
+					relationship.getModuleId());
 			// TODO support module labels again
-//			createCell(row, getPrefferedTermByConcept(relationship.getModule()), 10, DEFAULT_STYLE);
 			
-			rowNum++;
 			monitor.worked(1);
 		}
 	}
@@ -302,12 +275,6 @@ public class SnomedSimpleTypeRefSetExcelExporter extends AbstractTerminologyExpo
 		return concept.getPt() == null ? concept.getId() : concept.getPt().getTerm();
 	}
 
-	private void createCell(final Row row, final String value, final int columnNumber, final CellStyle style) {
-		final Cell cell = row.createCell(columnNumber);
-		cell.setCellValue(value);
-		cell.setCellStyle(style);
-	}
-	
 	private int getColumnNumber() {
 		switch (refSet.getReferencedComponentType()) {
 		case SnomedTerminologyComponentConstants.DESCRIPTION:
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request.xls;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Writes the rows of a single worksheet as inline string cells to a temporary file as they arrive, then replaces the (empty) worksheet of the
+ * given {@link XSSFWorkbook} with the streamed rows when the workbook is written. Rows are not kept in memory, column widths are computed from
+ * the longest text written to each column instead of measuring the cells of the entire sheet.
+ *
+ * @since 7.1
+ */
+final class StreamingSheetWriter implements Closeable {
+
+	private static final String SPREADSHEETML_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private static final int COLUMN_WIDTH_PADDING = 2;
+	private static final int MAX_COLUMN_WIDTH = 255;
+
+	private final XSSFWorkbook workbook;
+	private final String sheetEntryName;
+	private final int[] maxTextLengths;
+	private final File rowsFile;
+	private final Writer rows;
+
+	private int rowCount;
+
+	StreamingSheetWriter(final XSSFWorkbook workbook, final XSSFSheet sheet, final int numberOfColumns) throws IOException {
+		this.workbook = workbook;
+		this.sheetEntryName = sheet.getPackagePart().getPartName().getName().substring(1);
+		this.maxTextLengths = new int[numberOfColumns];
+		this.rowsFile = File.createTempFile("sheet-rows", ".xml");
+		this.rows = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rowsFile), Charsets.UTF_8));
+	}
+
+	/**
+	 * Appends a new row to the sheet.
+	 *
+	 * @param style the style to apply to each cell of the row
+	 * @param values the cell values of the row, <code>null</code> values leave the corresponding cell empty
+	 * @throws IOException
+	 */
+	void writeRow(final XSSFCellStyle style, final String... values) throws IOException {
+		checkArgument(values.length <= maxTextLengths.length, "Row has more cells (%s) than the number of columns (%s).", values.length, maxTextLengths.length);
+
+		final String rowNumber = Integer.toString(++rowCount);
+		rows.write("<row r=\"");
+		rows.write(rowNumber);
+		rows.write("\">");
+
+		for (int column = 0; column < values.length; column++) {
+			final String value = values[column];
+			if (value == null) {
+				continue;
+			}
+
+			rows.write("<c r=\"");
+			rows.write(CellReference.convertNumToColString(column));
+			rows.write(rowNumber);
+			rows.write("\" s=\"");
+			rows.write(Short.toString(style.getIndex()));
+			rows.write("\" t=\"inlineStr\"><is><t");
+			if (!value.isEmpty() && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)))) {
+				rows.write(" xml:space=\"preserve\"");
+			}
+			rows.write(">");
+			writeEscaped(value);
+			rows.write("</t></is></c>");
+
+			maxTextLengths[column] = Math.max(maxTextLengths[column], value.length());
+		}
+
+		rows.write("</row>");
+	}
+
+	int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Writes the workbook with the rows appended so far to the given file.
+	 *
+	 * @param file the target file
+	 * @throws IOException
+	 */
+	void write(final File file) throws IOException {
+		rows.flush();
+
+		final File templateFile = File.createTempFile("workbook-template", ".xlsx");
+		try {
+
+			try (OutputStream out = new FileOutputStream(templateFile)) {
+				workbook.write(out);
+			}
+
+			try (ZipFile template = new ZipFile(templateFile); ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+				final Enumeration<? extends ZipEntry> entries = template.entries();
+				while (entries.hasMoreElements()) {
+					final ZipEntry entry = entries.nextElement();
+					out.putNextEntry(new ZipEntry(entry.getName()));
+					if (sheetEntryName.equals(entry.getName())) {
+						writeSheet(out);
+					} else {
+						try (InputStream in = template.getInputStream(entry)) {
+							ByteStreams.copy(in, out);
+						}
+					}
+					out.closeEntry();
+				}
+			}
+
+		} finally {
+			templateFile.delete();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			rows.close();
+		} finally {
+			rowsFile.delete();
+		}
+	}
+
+	private void writeSheet(final OutputStream out) throws IOException {
+		// the writer is not closed, as that would close the underlying zip stream as well
+		final Writer sheet = new OutputStreamWriter(out, Charsets.UTF_8);
+		sheet.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+		sheet.write("<worksheet xmlns=\"" + SPREADSHEETML_NAMESPACE + "\">");
+
+		boolean hasWidths = false;
+		for (int column = 0; column < maxTextLengths.length; column++) {
+			if (maxTextLengths[column] == 0) {
+				continue;
+			}
+			if (!hasWidths) {
+				sheet.write("<cols>");
+				hasWidths = true;
+			}
+			final int width = Math.min(maxTextLengths[column] + COLUMN_WIDTH_PADDING, MAX_COLUMN_WIDTH);
+			sheet.write(String.format("<col min=\"%1$d\" max=\"%1$d\" width=\"%2$d\" customWidth=\"1\"/>", column + 1, width));
+		}
+		if (hasWidths) {
+			sheet.write("</cols>");
+		}
+
+		sheet.write("<sheetData>");
+		sheet.flush();
+		Files.copy(rowsFile.toPath(), out);
+		sheet.write("</sheetData></worksheet>");
+		sheet.flush();
+	}
+
+	private void writeEscaped(final String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '<':
+				rows.write("&lt;");
+				break;
+			case '>':
+				rows.write("&gt;");
+				break;
+			case '&':
+				rows.write("&amp;");
+				break;
+			case '"':
+				rows.write("&quot;");
+				break;
+			case '\r':
+				rows.write("&#13;");
+				break;
+			default:
+				// control characters other than tab and line feed are not allowed in XML 1.0 documents
+				if (c >= ' ' || c == '\t' || c == '\n') {
+					rows.write(c);
+				}
+			}
+		}
+	}
+
+}
@@ -19,12 +19,13 @@ import static com.google.common.collect.Lists.newArrayList;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.b2international.commons.exceptions.NotFoundException;
 import com.b2international.commons.http.ExtendedLocale;
 import com.b2international.snowowl.core.ApplicationContext;
-import com.b2international.snowowl.core.branch.Branch;
 import com.b2international.snowowl.core.date.DateFormats;
 import com.b2international.snowowl.core.date.EffectiveTimes;
 import com.b2international.snowowl.datastore.CodeSystemEntry;
@@ -51,9 +52,11 @@ import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConst
 import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
 import com.b2international.snowowl.snomed.core.domain.DefinitionStatus;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
 import com.b2international.snowowl.snomed.core.domain.SnomedDescription;
 import com.b2international.snowowl.snomed.core.lang.LanguageSetting;
 import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
 import com.b2international.snowowl.snomed.datastore.request.SnomedConceptGetRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.b2international.snowowl.snomed.fhir.SnomedUri.Builder;
@@ -72,6 +75,14 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 
 	private static final String URI_BASE = "http://snomed.info/sct";
 	
+	private static final List<String> ANCESTOR_FIELDS = ImmutableList.of(
+		SnomedConceptDocument.Fields.ID,
+		SnomedConceptDocument.Fields.PARENTS,
+		SnomedConceptDocument.Fields.ANCESTORS,
+		SnomedConceptDocument.Fields.STATED_PARENTS,
+		SnomedConceptDocument.Fields.STATED_ANCESTORS
+	);
+	
 	private static final Set<String> SUPPORTED_URIS = ImmutableSet.of(
 		SnomedTerminologyComponentConstants.SNOMED_SHORT_NAME,
 		SnomedTerminologyComponentConstants.SNOMED_INT_LINK,
@@ -93,32 +104,28 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 		String branchPath = codeSystemVersion.getPath();
 		String versionString = EffectiveTimes.format(codeSystemVersion.getEffectiveDate(), DateFormats.SHORT);
 		
-		validateRequestedProperties(lookup);
+		validateRequestedProperties(lookup, branchPath);
 		
-		boolean requestedChild = lookup.containsProperty(CommonConceptProperties.CHILD.getCodeValue());
 		boolean requestedParent = lookup.containsProperty(CommonConceptProperties.PARENT.getCodeValue());
 		
-		String expandDescendants = requestedChild ? ",descendants(direct:true,expand(pt()))" : "";
+		// parents are resolved from the parent IDs stored on the concept, children are fetched with a separate search request
 		String expandAncestors = requestedParent ? ",ancestors(direct:true,expand(pt()))" : "";
 		String displayLanguage = lookup.getDisplayLanguage() != null ? lookup.getDisplayLanguage() : "en-GB";
+		List<ExtendedLocale> locales = ImmutableList.of(ExtendedLocale.valueOf(displayLanguage));
 		
 		SnomedConceptGetRequestBuilder req = SnomedRequests.prepareGetConcept(lookup.getCode())
-			.setExpand(String.format("descriptions(expand(type(expand(pt())))),pt()%s%s", expandDescendants, expandAncestors))
-			.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)));
+			.setExpand(String.format("descriptions(expand(type(expand(pt())))),pt()%s", expandAncestors))
+			.setLocales(locales);
 		
 		return req.build(getRepositoryId(), branchPath)
 			.execute(getBus())
-			.then(concept -> mapToLookupResult(concept, lookup, versionString))
+			.then(concept -> mapToLookupResult(concept, lookup, versionString, branchPath, locales))
 			.getSync();
 	}
 	
 	@Override
 	protected Collection<IConceptProperty> getSupportedConceptProperties() {
 		
-		// what should be the locale here? Likely we need to add the config locale as well
-		final List<ExtendedLocale> locales = newArrayList(ApplicationContext.getServiceForClass(LanguageSetting.class).getLanguagePreference());
-		locales.add(ExtendedLocale.valueOf("en-x-" + Concepts.REFSET_LANGUAGE_TYPE_US));
-		
 		final ImmutableList.Builder<IConceptProperty> properties = ImmutableList.builder();
 		
 		// add basic properties
@@ -129,6 +136,18 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 		properties.add(CommonConceptProperties.CHILD); 
 		properties.add(CommonConceptProperties.PARENT); 
 		
+		return properties.build();
+	}
+	
+	@Override
+	protected Collection<IConceptProperty> getSupportedConceptProperties(String branchPath) {
+		
+		// what should be the locale here? Likely we need to add the config locale as well
+		final List<ExtendedLocale> locales = newArrayList(ApplicationContext.getServiceForClass(LanguageSetting.class).getLanguagePreference());
+		locales.add(ExtendedLocale.valueOf("en-x-" + Concepts.REFSET_LANGUAGE_TYPE_US));
+		
+		final ImmutableList.Builder<IConceptProperty> properties = ImmutableList.builder();
+		
 		// fetch available relationship types and register them as supported concept property
 		SnomedRequests.prepareSearchConcept()
 			.all()
@@ -136,7 +155,7 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 			.filterByAncestor(Concepts.CONCEPT_MODEL_ATTRIBUTE)
 			.setExpand("pt()")
 			.setLocales(locales)
-			.build(getRepositoryId(), Branch.MAIN_PATH)
+			.build(getRepositoryId(), branchPath)
 			.execute(ApplicationContext.getServiceForClass(IEventBus.class))
 			.getSync()
 			.stream()
@@ -175,10 +194,26 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 	
 	@Override
 	protected Set<String> fetchAncestors(String branchPath, String componentId) {
-		return SnomedConcept.GET_ANCESTORS.apply(SnomedRequests.prepareGetConcept(componentId)
+		final Set<String> ancestors = fetchAncestors(branchPath, ImmutableSet.of(componentId)).get(componentId);
+		if (ancestors == null) {
+			throw new NotFoundException("Concept", componentId);
+		}
+		return ancestors;
+	}
+	
+	@Override
+	protected Map<String, Set<String>> fetchAncestors(String branchPath, Set<String> componentIds) {
+		// load the hierarchy fields only, the rest of the concept is not needed to decide subsumption
+		final SnomedConcepts concepts = SnomedRequests.prepareSearchConcept()
+			.all()
+			.filterByIds(componentIds)
+			.setFields(ANCESTOR_FIELDS)
 			.build(getRepositoryId(), branchPath)
 			.execute(getBus())
-			.getSync());
+			.getSync();
+		
+		// concepts that do not exist on the branch are not returned, the caller reports them
+		return concepts.stream().collect(Collectors.toMap(SnomedConcept::getId, SnomedConcept.GET_ANCESTORS));
 	}
 	
 	@Override
@@ -230,7 +265,7 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 		return getCodeSystemVersion(snomedUri.getVersionTag()).getVersionId();
 	}
 	
-	private LookupResult mapToLookupResult(SnomedConcept concept, LookupRequest lookupRequest, String version) {
+	private LookupResult mapToLookupResult(SnomedConcept concept, LookupRequest lookupRequest, String version, String branchPath, List<ExtendedLocale> locales) {
 		
 		final LookupResult.Builder resultBuilder = LookupResult.builder();
 		
@@ -277,10 +312,17 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 		boolean requestedChild = lookupRequest.containsProperty(CommonConceptProperties.CHILD.getCodeValue());
 		boolean requestedParent = lookupRequest.containsProperty(CommonConceptProperties.PARENT.getCodeValue());
 		
-		if (requestedChild && concept.getDescendants() != null) {
-			for (SnomedConcept child : concept.getDescendants()) {
-				resultBuilder.addProperty(CommonConceptProperties.CHILD.propertyOf(child.getId(), getPreferredTermOrId(child)));
-			}
+		if (requestedChild) {
+			SnomedRequests.prepareSearchConcept()
+				.all()
+				.filterByActive(true)
+				.filterByParent(concept.getId())
+				.setExpand("pt()")
+				.setLocales(locales)
+				.build(getRepositoryId(), branchPath)
+				.execute(getBus())
+				.getSync()
+				.forEach(child -> resultBuilder.addProperty(CommonConceptProperties.CHILD.propertyOf(child.getId(), getPreferredTermOrId(child))));
 		}
 		
 		if (requestedParent && concept.getAncestors() != null) {
@@ -296,9 +338,6 @@ public final class SnomedCodeSystemApiProvider extends CodeSystemApiProvider {
 			.map(p -> p.substring(p.lastIndexOf('/') + 1, p.length()))
 			.collect(Collectors.toSet());
 		
-		
-		String branchPath = getBranchPath(lookupRequest.getVersion());
-		
 		SnomedRequests.prepareSearchRelationship()
 			.all()
 			.filterByActive(true)
@@ -45,6 +45,8 @@ import com.b2international.snowowl.fhir.core.model.valueset.ValueSet.Builder;
 import com.b2international.snowowl.fhir.core.model.valueset.ValueSetFilter;
 import com.b2international.snowowl.fhir.core.model.valueset.expansion.Contains;
 import com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion;
+import com.b2international.snowowl.fhir.core.model.valueset.expansion.IntegerParameter;
+import com.b2international.snowowl.fhir.core.model.valueset.expansion.StringParameter;
 import com.b2international.snowowl.fhir.core.model.valueset.expansion.UriParameter;
 import com.b2international.snowowl.fhir.core.provider.FhirApiProvider;
 import com.b2international.snowowl.fhir.core.provider.IValueSetApiProvider;
@@ -57,9 +59,8 @@ import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedRefSetType;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSet;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
-import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMembers;
-import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSets;
 import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
 import com.b2international.snowowl.snomed.datastore.request.SnomedConceptSearchRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRefSetSearchRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
@@ -85,6 +86,12 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		SnomedUri.SNOMED_BASE_URI_STRING
 	);
 	
+	//number of concept IDs to fetch at once while skipping to the requested page
+	private static final int ID_PAGE_SIZE = 10_000;
+	
+	//number of codes returned when expanding the entire SNOMED CT without specifying the count
+	private static final int DEFAULT_COUNT = 50;
+	
 	private String repositoryId;
 	
 	public SnomedValueSetApiProvider() {
@@ -155,12 +162,12 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 	}
 
 	@Override
-	public ValueSet expandValueSet(LogicalId logicalId) {
+	public ValueSet expandValueSet(LogicalId logicalId, String filter, int offset, int count) {
 		
 		CodeSystemVersionEntry codeSystemVersion = findCodeSystemVersion(logicalId);
 
 		if (!logicalId.isMemberId()) {
-			return buildSimpleTypeRefsetValueSet(logicalId.getComponentId(), codeSystemVersion);
+			return buildSimpleTypeRefsetValueSet(logicalId.getComponentId(), codeSystemVersion, filter, offset, count);
 		} 
 		else {
 			//Query type reference set member
@@ -174,7 +181,7 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 				.execute(getBus())
 				.then(members -> {
 					return members.stream()
-						.map(member -> buildExpandedQueryTypeValueSet(member, (SnomedConcept) member.getReferencedComponent(), codeSystemVersion, displayLanguage))
+						.map(member -> buildExpandedQueryTypeValueSet(member, (SnomedConcept) member.getReferencedComponent(), codeSystemVersion, displayLanguage, filter, offset, count))
 						.map(ValueSet.Builder::build)
 						.collect(Collectors.toList());
 				})
@@ -185,24 +192,17 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		}
 	}
 	
-	private ValueSet buildSimpleTypeRefsetValueSet(String componentId, CodeSystemVersionEntry codeSystemVersion) {
-		
-		int all = Integer.MAX_VALUE;
+	private ValueSet buildSimpleTypeRefsetValueSet(String componentId, CodeSystemVersionEntry codeSystemVersion, String filter, int offset, int count) {
 		
-		return getSimpleTypeRefsetSearchRequestBuilder(componentId)
-			.setExpand("members(expand(referencedComponent(expand(pt()))), limit:"+ all +")")
+		//members are not expanded here, only the requested page of member concepts is fetched
+		SnomedReferenceSet referenceSet = getSimpleTypeRefsetSearchRequestBuilder(componentId)
 			.build(repositoryId, codeSystemVersion.getPath())
 			.execute(getBus())
-			.then(refsets -> {
-				return refsets.stream()
-					.map(r -> buildExpandedSimpleTypeValueSet(r, codeSystemVersion, displayLanguage))
-					.map(ValueSet.Builder::build)
-					.collect(Collectors.toList());
-			})
 			.getSync()
-			.stream()
-			.findFirst()
+			.first()
 			.orElseThrow(() -> new NotFoundException("Active value set", codeSystemVersion.getPath() + "/" + componentId));
+		
+		return buildExpandedSimpleTypeValueSet(referenceSet, codeSystemVersion, displayLanguage, filter, offset, count).build();
 	}
 	
 	/*
@@ -210,7 +210,7 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 	 */
 	//url=http://snomed.info/sct?fhir_vs=isa/SCT_ID for SNOMED CT
 	@Override
-	public ValueSet expandValueSet(String uriString) {
+	public ValueSet expandValueSet(String uriString, String filter, int offset, int count) {
 		
 		String locationName = "$expand.url";
 		SnomedUri snomedUri = SnomedUri.fromUriString(uriString, locationName);
@@ -230,15 +230,16 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 				switch (queryPartDefinition) {
 				
 				case NONE:
-					//Entire SNOMED CT, makes no real sense
-					return buildSubsumptionValueSet(Concepts.ROOT_CONCEPT, codeSystemVersion, false);
+					//Entire SNOMED CT, makes no real sense, a single page is returned unless the number of codes is specified
+					int pageCount = count == Integer.MAX_VALUE ? DEFAULT_COUNT : count;
+					return buildSubsumptionValueSet(Concepts.ROOT_CONCEPT, codeSystemVersion, filter, offset, pageCount);
 				case REFSET:
-					return buildSimpleTypeRefsetValueSet(queryPart.getQueryValue(), codeSystemVersion);
+					return buildSimpleTypeRefsetValueSet(queryPart.getQueryValue(), codeSystemVersion, filter, offset, count);
 				case REFSETS:
 					//All simple type refsets
 					return buildSimpleTypeRefsetValueSets(codeSystemVersion);
 				case ISA:
-					return buildSubsumptionValueSet(queryPart.getQueryValue(), codeSystemVersion, true);
+					return buildSubsumptionValueSet(queryPart.getQueryValue(), codeSystemVersion, filter, offset, count);
 				default:
 					//should not happen
 					throw new BadRequestException("Unknown query part definition '" + queryPartDefinition + "'.", locationName);
@@ -447,20 +448,20 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 			SnomedReferenceSetMember referenceSetMember = optionalRefsetMember.get();
 			String eclExpression = (String) referenceSetMember.getProperties().get(SnomedRf2Headers.FIELD_QUERY);
 			
-			//evaluate the ECL expression
-			SnomedConcepts snomedConcepts = SnomedRequests.prepareSearchConcept()
-				.all()
+			//evaluate the ECL expression for the code only
+			String componentId = validateCodeRequest.getCode();
+			Optional<SnomedConcept> optionalConcept = SnomedRequests.prepareSearchConcept()
+				.one()
 				.filterByEcl(eclExpression)
+				.filterById(componentId)
 				.filterByActive(true)
 				.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)))
 				.setExpand("pt()")
 				.build(repositoryId, valueSetLogicalId.getBranchPath())
 				.execute(getBus())
-				.getSync();
-			
+				.getSync()
+				.first();
 			
-			String componentId = validateCodeRequest.getCode();
-			Optional<SnomedConcept> optionalConcept = snomedConcepts.stream().filter(c -> c.getId().equals(componentId)).findFirst();
 			if (!optionalConcept.isPresent()) {
 				return ValidateCodeResult.builder()
 					.valueSetMemberNotFoundResult(validateCodeRequest.getSystem(), validateCodeRequest.getCode(), valueSetLogicalId.toString())
@@ -494,37 +495,37 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 					.build();
 		}
 		
-		//fetch the simple type refset
+		//check the simple type refset, without loading its members
 		String refsetId = valueSetLogicalId.getComponentId();
-		SnomedReferenceSets snomedReferenceSets = SnomedRequests.prepareSearchRefSet()
-			.filterByActive(true)
-			.filterById(refsetId)
-			.filterByType(SnomedRefSetType.SIMPLE)
-			.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)))
-			.setExpand("members(expand(referencedComponent(expand(pt()))), limit:"+ Integer.MAX_VALUE +")")
+		int numberOfReferenceSets = getSimpleTypeRefsetSearchRequestBuilder(refsetId)
+			.setLimit(0)
 			.build(repositoryId, branchPath)
 			.execute(getBus())
-			.getSync();
+			.getSync()
+			.getTotal();
 		
 		//Reference set not found
-		if (!snomedReferenceSets.first().isPresent()) {
+		if (numberOfReferenceSets == 0) {
 			return ValidateCodeResult.builder().valueSetNotFoundResult(valueSetLogicalId).build();
 		} 
 		
-		//Refset is found, how about the concept as as member?
-		Optional<SnomedReferenceSetMember> refsetMemberOptional = snomedReferenceSets.first().get().getMembers().stream()
-				.filter(m-> m.getReferencedComponent().getId().equals(componentId)).findFirst();
+		//Refset is found, how about the concept as as member? Evaluate the same ECL expression as $expand, for the code only
+		Optional<SnomedConcept> optionalConcept = prepareSearchConcept("^" + refsetId, null)
+			.one()
+			.filterById(componentId)
+			.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)))
+			.setExpand("pt()")
+			.build(repositoryId, branchPath)
+			.execute(getBus())
+			.getSync()
+			.first();
 		
-		if (!refsetMemberOptional.isPresent()) {
+		//inactive members and inactive concepts are not part of the expanded value set either
+		if (!optionalConcept.isPresent()) {
 			return ValidateCodeResult.builder().valueSetMemberNotFoundResult(codeSystem, componentId, refsetId).build();
 		}
 		
-		SnomedReferenceSetMember snomedReferenceSetMember = refsetMemberOptional.get();
-		SnomedConcept concept = (SnomedConcept) snomedReferenceSetMember.getReferencedComponent();
-		if (snomedReferenceSetMember.isActive() && !snomedReferenceSetMember.getReferencedComponent().isActive()) {
-			return ValidateCodeResult.builder().result(true).message("Active members is pointing to an inactive concept.").display(concept.getPt().getTerm()).build();
-		}
-		return ValidateCodeResult.builder().okResult(concept.getPt().getTerm()).build();
+		return ValidateCodeResult.builder().okResult(optionalConcept.get().getPt().getTerm()).build();
 	}
 	
 	private ValueSet buildSimpleTypeRefsetValueSets(CodeSystemVersionEntry codeSystemVersion) {
@@ -609,7 +610,7 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		return builder.build();		
 	}
 	
-	private ValueSet buildSubsumptionValueSet(String parentConceptId, CodeSystemVersionEntry codeSystemVersion, boolean fetchAll) {
+	private ValueSet buildSubsumptionValueSet(String parentConceptId, CodeSystemVersionEntry codeSystemVersion, String filter, int offset, int count) {
 		
 		Builder builder = ValueSet.builder(UUID.randomUUID().toString());
 		
@@ -636,28 +637,9 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 			.build());
 		
 		//evaluate the ECL expression
-		SnomedConceptSearchRequestBuilder snomedConceptSearchRequestBuilder = SnomedRequests.prepareSearchConcept()
-			.filterByEcl("<<" + parentConceptId)
-			.filterByActive(true)
-			.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)))
-			.setExpand("pt()");
+		SnomedConcepts snomedConcepts = searchConcepts("<<" + parentConceptId, filter, offset, count, codeSystemVersion.getPath());
 		
-		if (fetchAll) {
-			snomedConceptSearchRequestBuilder.all();
-		}
-		
-		SnomedConcepts snomedConcepts  = snomedConceptSearchRequestBuilder.build(repositoryId, codeSystemVersion.getPath())
-			.execute(getBus())
-			.getSync();
-		
-		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = Expansion.builder()
-				.identifier("1")
-				.timestamp(new Date())
-				.total(snomedConcepts.getTotal())
-				.addParameter(UriParameter.builder()
-					.name("version")
-					.value(uri.toUri())
-					.build());
+		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = createExpansionBuilder("1", uri, snomedConcepts.getTotal(), filter, offset, count);
 		
 		snomedConcepts.forEach(c -> {
 			
@@ -675,7 +657,8 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		return builder.build();
 	}
 
-	private ValueSet.Builder buildExpandedQueryTypeValueSet(SnomedReferenceSetMember refsetMember, SnomedConcept referencedComponent, CodeSystemVersionEntry codeSystemVersion, String displayLanguage) {
+	private ValueSet.Builder buildExpandedQueryTypeValueSet(SnomedReferenceSetMember refsetMember, SnomedConcept referencedComponent, CodeSystemVersionEntry codeSystemVersion, String displayLanguage, 
+			String filter, int offset, int count) {
 		
 		LogicalId logicalId = new LogicalId(repositoryId, codeSystemVersion.getPath(), refsetMember.getReferenceSetId(), refsetMember.getId());
 		
@@ -691,26 +674,11 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		String eclExpression = (String) refsetMember.getProperties().get(SnomedRf2Headers.FIELD_QUERY);
 
 		//evaluate the ECL expression
-		SnomedConcepts snomedConcepts = SnomedRequests.prepareSearchConcept()
-			.all()
-			.filterByEcl(eclExpression)
-			.filterByActive(true)
-			.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)))
-			.setExpand("pt()")
-			.build(repositoryId, logicalId.getBranchPath())
-			.execute(getBus())
-			.getSync();
+		SnomedConcepts snomedConcepts = searchConcepts(eclExpression, filter, offset, count, logicalId.getBranchPath());
 		
 		SnomedUri uri = SnomedUri.builder().version(codeSystemVersion.getEffectiveDate()).build();
 		
-		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = Expansion.builder()
-				.identifier(refsetMember.getId())
-				.timestamp(new Date())
-				.total(snomedConcepts.getTotal())
-				.addParameter(UriParameter.builder()
-					.name("version")
-					.value(uri.toUri())
-					.build());
+		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = createExpansionBuilder(refsetMember.getId(), uri, snomedConcepts.getTotal(), filter, offset, count);
 		
 		snomedConcepts.forEach(c -> {
 			
@@ -749,29 +717,22 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		return builder.addCompose(compose);
 	}
 	
-	private ValueSet.Builder buildExpandedSimpleTypeValueSet(SnomedReferenceSet referenceSet, CodeSystemVersionEntry codeSystemVersion, String displayLanguage) {
+	private ValueSet.Builder buildExpandedSimpleTypeValueSet(SnomedReferenceSet referenceSet, CodeSystemVersionEntry codeSystemVersion, String displayLanguage, 
+			String filter, int offset, int count) {
 		
 		LogicalId logicalId = new LogicalId(repositoryId, codeSystemVersion.getPath(), referenceSet.getId());
 		
 		Builder builder = createValueSetBuilder(logicalId, referenceSet, codeSystemVersion);
 		addSimpleTypeProperties(builder, referenceSet, codeSystemVersion);
 		
-		SnomedReferenceSetMembers members = referenceSet.getMembers();
+		//member concepts of the reference set
+		SnomedConcepts memberConcepts = searchConcepts("^" + referenceSet.getId(), filter, offset, count, codeSystemVersion.getPath());
 		
 		SnomedUri uri = SnomedUri.builder().version(codeSystemVersion.getEffectiveDate()).build();
 		
-		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = Expansion.builder()
-			.identifier(referenceSet.getId())
-			.timestamp(new Date())
-			.total(members.getTotal())
-			.addParameter(UriParameter.builder()
-				.name("version")
-				.value(uri.toUri())
-				.build());
-			
-		for (SnomedReferenceSetMember snomedReferenceSetMember : members) {
+		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = createExpansionBuilder(referenceSet.getId(), uri, memberConcepts.getTotal(), filter, offset, count);
 			
-			SnomedConcept concept = (SnomedConcept) snomedReferenceSetMember.getReferencedComponent();
+		for (SnomedConcept concept : memberConcepts) {
 			
 			Contains content = Contains.builder()
 					.system(SnomedUri.SNOMED_BASE_URI)
@@ -783,6 +744,94 @@ public final class SnomedValueSetApiProvider extends FhirApiProvider implements
 		return builder.expansion(expansionBuilder.build());
 	}
 	
+	/*
+	 * Returns a page of the active concepts matching the ECL expression and the optional term filter, with their PTs expanded.
+	 * Concepts before the requested page are skipped by fetching their IDs only.
+	 */
+	private SnomedConcepts searchConcepts(String eclExpression, String filter, int offset, int count, String branchPath) {
+		
+		String searchAfter = null;
+		int limit = count;
+		int skipped = 0;
+		
+		while (skipped < offset) {
+			SnomedConcepts skippedConcepts = prepareSearchConcept(eclExpression, filter)
+				.setLimit(Math.min(ID_PAGE_SIZE, offset - skipped))
+				.setSearchAfter(searchAfter)
+				.setFields(SnomedConceptDocument.Fields.ID)
+				.build(repositoryId, branchPath)
+				.execute(getBus())
+				.getSync();
+			
+			if (skippedConcepts.getItems().isEmpty()) {
+				//offset is past the last concept, only the total is needed
+				searchAfter = null;
+				limit = 0;
+				break;
+			}
+			
+			skipped += skippedConcepts.getItems().size();
+			searchAfter = skippedConcepts.getSearchAfter();
+		}
+		
+		SnomedConceptSearchRequestBuilder requestBuilder = prepareSearchConcept(eclExpression, filter)
+			.setSearchAfter(searchAfter)
+			.setLocales(ImmutableList.of(ExtendedLocale.valueOf(displayLanguage)))
+			.setExpand("pt()");
+		
+		if (limit == Integer.MAX_VALUE) {
+			requestBuilder.all();
+		} else {
+			requestBuilder.setLimit(limit);
+		}
+		
+		return requestBuilder.build(repositoryId, branchPath)
+			.execute(getBus())
+			.getSync();
+	}
+	
+	private SnomedConceptSearchRequestBuilder prepareSearchConcept(String eclExpression, String filter) {
+		
+		SnomedConceptSearchRequestBuilder requestBuilder = SnomedRequests.prepareSearchConcept()
+			.filterByEcl(eclExpression)
+			.filterByActive(true);
+		
+		if (!Strings.isNullOrEmpty(filter)) {
+			requestBuilder.filterByTerm(filter);
+		}
+		
+		return requestBuilder;
+	}
+	
+	private Expansion.Builder createExpansionBuilder(String identifier, SnomedUri uri, int total, String filter, int offset, int count) {
+		
+		Expansion.Builder expansionBuilder = Expansion.builder()
+			.identifier(identifier)
+			.timestamp(new Date())
+			.total(total)
+			.offset(offset)
+			.addParameter(UriParameter.builder()
+				.name("version")
+				.value(uri.toUri())
+				.build());
+		
+		if (!Strings.isNullOrEmpty(filter)) {
+			expansionBuilder.addParameter(StringParameter.builder()
+				.name("filter")
+				.value(filter)
+				.build());
+		}
+		
+		if (count != Integer.MAX_VALUE) {
+			expansionBuilder.addParameter(IntegerParameter.builder()
+				.name("count")
+				.value(count)
+				.build());
+		}
+		
+		return expansionBuilder;
+	}
+	
 	//Collect every version on every extension
 	private List<ValueSet> collectSimpleTypeRefsets(List<CodeSystemVersionEntry> codeSystemVersionList) {
 		
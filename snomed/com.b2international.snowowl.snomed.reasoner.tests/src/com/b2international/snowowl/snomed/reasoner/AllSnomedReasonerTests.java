@@ -22,6 +22,9 @@ import org.junit.runners.Suite.SuiteClasses;
 import com.b2international.snowowl.snomed.reasoner.index.entry.ClassificationTaskSerializationTest;
 import com.b2international.snowowl.snomed.reasoner.index.entry.EquivalentConceptSetSerializationTest;
 import com.b2international.snowowl.snomed.reasoner.index.entry.RelationshipChangeSerializationTest;
+import com.b2international.snowowl.snomed.reasoner.ontology.DelegateOntologyTest;
+import com.b2international.snowowl.snomed.reasoner.ontology.OntologyModuleExtractorTest;
+import com.b2international.snowowl.snomed.reasoner.ontology.StreamingOntologyExporterTest;
 
 /**
  * @since 4.0
@@ -31,6 +34,9 @@ import com.b2international.snowowl.snomed.reasoner.index.entry.RelationshipChang
 	ClassificationTaskSerializationTest.class,
 	EquivalentConceptSetSerializationTest.class,
 	RelationshipChangeSerializationTest.class,
+	OntologyModuleExtractorTest.class,
+	DelegateOntologyTest.class,
+	StreamingOntologyExporterTest.class,
 })
 public class AllSnomedReasonerTests {
 
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.ontology;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.semanticweb.elk.owlapi.ElkReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
+import com.b2international.snowowl.snomed.core.domain.RelationshipModifier;
+import com.b2international.snowowl.snomed.core.domain.SnomedRelationship;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomy;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomyBuilder;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @since 7.1
+ */
+public class DelegateOntologyTest {
+
+	private static final long ROOT = 138875005L;
+	private static final long CONCEPT_MODEL_ATTRIBUTE = 410662002L;
+	private static final long FIRST_CONCEPT_ID = 1_000_000L;
+
+	private static final int NUMBER_OF_ATTRIBUTES = 10;
+	private static final int NUMBER_OF_CONCEPTS = 25_000;
+	private static final int NUMBER_OF_BENCHMARK_CONCEPTS = 300_000;
+
+	private final List<String> conceptIds = newArrayList(Long.toString(ROOT));
+	private final List<String> fullyDefinedIds = newArrayList();
+	private final List<SnomedRelationship> relationships = newArrayList();
+
+	private long nextConceptId = FIRST_CONCEPT_ID;
+	private long nextRelationshipId = 1L;
+
+	@Test
+	public void materializedAxiomsEqualLazyAxioms() throws Exception {
+		final ReasonerTaxonomy taxonomy = buildRandomTaxonomy(NUMBER_OF_CONCEPTS);
+
+		final List<OWLAxiom> lazyAxioms = ImmutableList.copyOf(createOntology(taxonomy).getAxioms());
+
+		final DelegateOntology ontology = createOntology(taxonomy);
+		ontology.materializeAxioms(4);
+		assertThat(ontology.isMaterialized()).isTrue();
+
+		// axioms are served in the same order, and repeated iterations return the same instances
+		final List<OWLAxiom> materializedAxioms = ImmutableList.copyOf(ontology.getAxioms());
+		assertThat(materializedAxioms).isEqualTo(lazyAxioms);
+		assertThat(ontology.getAxioms()).hasSize(lazyAxioms.size());
+		assertThat(ImmutableList.copyOf(ontology.getAxioms()).get(lazyAxioms.size() / 2)).isSameAs(materializedAxioms.get(lazyAxioms.size() / 2));
+	}
+
+	@Test
+	public void materializeAxiomsOfSingleConcept() throws Exception {
+		final DelegateOntology ontology = createOntology(buildTaxonomy());
+		final List<OWLAxiom> lazyAxioms = ImmutableList.copyOf(ontology.getAxioms());
+
+		ontology.materializeAxioms();
+		assertThat(ImmutableList.copyOf(ontology.getAxioms())).isEqualTo(lazyAxioms);
+	}
+
+	@Ignore("Benchmark, run manually")
+	@Test
+	public void loadOntologyInReasoner() throws Exception {
+		final ReasonerTaxonomy taxonomy = buildRandomTaxonomy(NUMBER_OF_BENCHMARK_CONCEPTS);
+
+		// warm up both code paths
+		loadInReasoner(createOntology(taxonomy));
+		final DelegateOntology warmUpOntology = createOntology(taxonomy);
+		warmUpOntology.materializeAxioms();
+		loadInReasoner(warmUpOntology);
+
+		final Stopwatch lazyWatch = Stopwatch.createStarted();
+		loadInReasoner(createOntology(taxonomy));
+		lazyWatch.stop();
+
+		final Stopwatch materializedWatch = Stopwatch.createStarted();
+		final DelegateOntology ontology = createOntology(taxonomy);
+		ontology.materializeAxioms();
+		final String materializationTime = materializedWatch.toString();
+		loadInReasoner(ontology);
+		materializedWatch.stop();
+
+		System.out.println(String.format("Loaded ontology with %d concepts: lazy axioms took %s, materialized axioms took %s (materialization: %s)",
+				NUMBER_OF_BENCHMARK_CONCEPTS, lazyWatch, materializedWatch, materializationTime));
+	}
+
+	/*
+	 * Every fifth concept is fully defined, and every concept has one or two parents, plus up to three attribute relationships in random
+	 * groups.
+	 */
+	private ReasonerTaxonomy buildRandomTaxonomy(final int numberOfConcepts) {
+		final Random random = new Random(7L);
+		final long[] attributes = addAttributes();
+		final List<Long> concepts = newArrayList(ROOT);
+
+		for (int i = 0; i < numberOfConcepts; i++) {
+			final long conceptId = addConcept(i % 5 == 0, pick(random, concepts));
+			if (random.nextBoolean()) {
+				addRelationship(conceptId, Long.parseLong(Concepts.IS_A), pick(random, concepts), 0);
+			}
+			for (int j = 0; j < random.nextInt(4); j++) {
+				addRelationship(conceptId, attributes[random.nextInt(attributes.length)], pick(random, concepts), random.nextInt(3));
+			}
+			concepts.add(conceptId);
+		}
+
+		return buildTaxonomy();
+	}
+
+	private long[] addAttributes() {
+		addConcept(CONCEPT_MODEL_ATTRIBUTE, false, ROOT);
+		addConcept(DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE, false, CONCEPT_MODEL_ATTRIBUTE);
+		addConcept(DelegateOntology.ROLE_GROUP, false, DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE);
+		addConcept(DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE, false, CONCEPT_MODEL_ATTRIBUTE);
+		addConcept(false, DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE);
+
+		final long[] attributes = new long[NUMBER_OF_ATTRIBUTES];
+		for (int i = 0; i < NUMBER_OF_ATTRIBUTES; i++) {
+			attributes[i] = addConcept(false, DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE);
+		}
+		return attributes;
+	}
+
+	private long addConcept(final boolean fullyDefined, final long parentId) {
+		return addConcept(nextConceptId++, fullyDefined, parentId);
+	}
+
+	private long addConcept(final long conceptId, final boolean fullyDefined, final long parentId) {
+		conceptIds.add(Long.toString(conceptId));
+		if (fullyDefined) {
+			fullyDefinedIds.add(Long.toString(conceptId));
+		}
+		addRelationship(conceptId, Long.parseLong(Concepts.IS_A), parentId, 0);
+		return conceptId;
+	}
+
+	private void addRelationship(final long sourceId, final long typeId, final long destinationId, final int group) {
+		final SnomedRelationship relationship = new SnomedRelationship(Long.toString(nextRelationshipId++));
+		relationship.setActive(true);
+		relationship.setSourceId(Long.toString(sourceId));
+		relationship.setTypeId(Long.toString(typeId));
+		relationship.setDestinationId(Long.toString(destinationId));
+		relationship.setGroup(group);
+		relationship.setUnionGroup(0);
+		relationship.setCharacteristicType(CharacteristicType.STATED_RELATIONSHIP);
+		relationship.setModifier(RelationshipModifier.EXISTENTIAL);
+		relationships.add(relationship);
+	}
+
+	private static long pick(final Random random, final List<Long> ids) {
+		return ids.get(random.nextInt(ids.size()));
+	}
+
+	private ReasonerTaxonomy buildTaxonomy() {
+		// relationships of the same source concept have to be consecutive
+		relationships.sort((r1, r2) -> Long.compare(Long.parseLong(r1.getSourceId()), Long.parseLong(r2.getSourceId())));
+
+		return new ReasonerTaxonomyBuilder()
+				.addActiveConceptIds(conceptIds.stream())
+				.finishConcepts()
+				.addConceptFlags(fullyDefinedIds.stream())
+				.addActiveStatedEdges(relationships.stream())
+				.addActiveStatedNonIsARelationships(relationships.stream())
+				.build();
+	}
+
+	private static DelegateOntology createOntology(final ReasonerTaxonomy taxonomy) throws Exception {
+		final OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+		ontologyManager.setOntologyFactories(ImmutableSet.of(new DelegateOntologyFactory(taxonomy)));
+		return (DelegateOntology) ontologyManager.createOntology(IRI.create(DelegateOntology.NAMESPACE_SCTM + Concepts.MODULE_SCT_CORE));
+	}
+
+	private static void loadInReasoner(final DelegateOntology ontology) {
+		final OWLReasoner reasoner = new ElkReasonerFactory().createNonBufferingReasoner(ontology);
+		try {
+			reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+		} finally {
+			reasoner.dispose();
+		}
+	}
+
+}
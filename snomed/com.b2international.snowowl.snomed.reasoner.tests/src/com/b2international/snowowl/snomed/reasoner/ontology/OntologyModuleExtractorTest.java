@@ -0,0 +1,270 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.ontology;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.semanticweb.elk.owlapi.ElkReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.CharacteristicType;
+import com.b2international.snowowl.snomed.core.domain.RelationshipModifier;
+import com.b2international.snowowl.snomed.core.domain.SnomedRelationship;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomy;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomyBuilder;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @since 7.1
+ */
+public class OntologyModuleExtractorTest {
+
+	private static final long ROOT = 138875005L;
+	private static final long CONCEPT_MODEL_ATTRIBUTE = 410662002L;
+	private static final long FIRST_CONCEPT_ID = 1_000_000L;
+
+	private static final int NUMBER_OF_ATTRIBUTES = 5;
+	private static final int NUMBER_OF_PRIMITIVES = 300;
+	private static final int NUMBER_OF_DEFINED = 150;
+	private static final int NUMBER_OF_CANDIDATES = 40;
+	private static final int NUMBER_OF_CANDIDATE_SETS = 20;
+
+	private final List<String> conceptIds = newArrayList(Long.toString(ROOT));
+	private final List<String> fullyDefinedIds = newArrayList();
+	private final List<SnomedRelationship> relationships = newArrayList();
+
+	private long nextConceptId = FIRST_CONCEPT_ID;
+	private long nextRelationshipId = 1L;
+
+	@Test
+	public void moduleOfPrimitiveConceptContainsAncestors() throws Exception {
+		final long parent = addConcept(false, ROOT);
+		final long child = addConcept(false, parent);
+		final long sibling = addConcept(false, parent);
+		final long grandChild = addConcept(false, child);
+
+		final OntologyModule module = new OntologyModuleExtractor(buildTaxonomy()).extract(PrimitiveSets.newLongOpenHashSet(child));
+
+		assertThat(module.contains(child)).isTrue();
+		assertThat(module.contains(parent)).isTrue();
+		assertThat(module.contains(ROOT)).isTrue();
+		assertThat(module.contains(sibling)).isFalse();
+		assertThat(module.contains(grandChild)).isFalse();
+	}
+
+	@Test
+	public void moduleContainsEquivalentDefinitions() throws Exception {
+		final long[] attributes = addAttributes();
+		final long parent = addConcept(false, ROOT);
+		final long value = addConcept(false, ROOT);
+		final long defined = addConcept(true, parent);
+		addRelationship(defined, attributes[0], value, 0);
+		final long unrelatedDefined = addConcept(true, parent);
+		addRelationship(unrelatedDefined, attributes[1], value, 0);
+
+		// the candidate is a duplicate of the first fully defined concept
+		final long candidate = addConcept(true, parent);
+		addRelationship(candidate, attributes[0], value, 0);
+
+		final OntologyModule module = new OntologyModuleExtractor(buildTaxonomy()).extract(PrimitiveSets.newLongOpenHashSet(candidate));
+
+		assertThat(module.contains(defined)).isTrue();
+		assertThat(module.contains(attributes[0])).isTrue();
+		assertThat(module.contains(unrelatedDefined)).isFalse();
+	}
+
+	@Test
+	public void sameResultsAsFullClassificationOnRandomCandidateSets() throws Exception {
+		final Random random = new Random(7L);
+		final long[] attributes = addAttributes();
+		final List<Long> primitives = newArrayList(ROOT);
+		final List<Long> defined = newArrayList();
+
+		for (int i = 0; i < NUMBER_OF_PRIMITIVES; i++) {
+			primitives.add(addConcept(false, pick(random, primitives), pick(random, primitives)));
+		}
+
+		for (int i = 0; i < NUMBER_OF_DEFINED; i++) {
+			defined.add(addRandomDefinition(random, attributes, primitives));
+		}
+
+		// half of the candidates duplicate an existing definition, the other half are new
+		final List<Long> candidates = newArrayList();
+		for (int i = 0; i < NUMBER_OF_CANDIDATES; i++) {
+			if (i % 2 == 0) {
+				candidates.add(duplicate(pick(random, defined)));
+			} else {
+				candidates.add(addRandomDefinition(random, attributes, primitives));
+			}
+		}
+
+		final ReasonerTaxonomy taxonomy = buildTaxonomy();
+		final DelegateOntology ontology = createOntology(taxonomy);
+		final OntologyModuleExtractor extractor = new OntologyModuleExtractor(taxonomy);
+		final OWLReasoner fullReasoner = createReasoner(ontology);
+
+		int equivalentCandidates = 0;
+
+		try {
+			for (int i = 0; i < NUMBER_OF_CANDIDATE_SETS; i++) {
+				final LongSet candidateSet = PrimitiveSets.newLongOpenHashSet();
+				for (int j = 0; j < 1 + random.nextInt(3); j++) {
+					candidateSet.add(pick(random, candidates));
+				}
+
+				final OntologyModule module = extractor.extract(candidateSet);
+				assertThat(module.size()).isLessThan(taxonomy.getConceptMap().size());
+
+				final OWLOntology moduleOntology = OWLManager.createOWLOntologyManager().createOntology(ontology.getModuleAxioms(module));
+				final OWLReasoner moduleReasoner = createReasoner(moduleOntology);
+
+				try {
+					for (final LongIterator itr = candidateSet.iterator(); itr.hasNext(); /* empty */) {
+						final OWLClass candidateClass = ontology.getConceptClass(itr.next());
+
+						assertThat(moduleReasoner.getEquivalentClasses(candidateClass).getEntities())
+							.isEqualTo(fullReasoner.getEquivalentClasses(candidateClass).getEntities());
+						assertThat(moduleReasoner.getSuperClasses(candidateClass, true).getFlattened())
+							.isEqualTo(fullReasoner.getSuperClasses(candidateClass, true).getFlattened());
+
+						if (fullReasoner.getEquivalentClasses(candidateClass).getSize() > 1) {
+							equivalentCandidates++;
+						}
+					}
+				} finally {
+					moduleReasoner.dispose();
+				}
+			}
+		} finally {
+			fullReasoner.dispose();
+		}
+
+		assertThat(equivalentCandidates).isGreaterThan(0);
+	}
+
+	private long[] addAttributes() {
+		addConcept(CONCEPT_MODEL_ATTRIBUTE, false, ROOT);
+		addConcept(DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE, false, CONCEPT_MODEL_ATTRIBUTE);
+
+		final long[] attributes = new long[NUMBER_OF_ATTRIBUTES];
+		for (int i = 0; i < NUMBER_OF_ATTRIBUTES; i++) {
+			attributes[i] = addConcept(false, DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE);
+		}
+		return attributes;
+	}
+
+	private long addRandomDefinition(final Random random, final long[] attributes, final List<Long> primitives) {
+		final long conceptId = addConcept(true, pick(random, primitives));
+		for (int j = 0; j < 1 + random.nextInt(2); j++) {
+			addRelationship(conceptId, attributes[random.nextInt(attributes.length)], pick(random, primitives), random.nextInt(2));
+		}
+		return conceptId;
+	}
+
+	private long duplicate(final long conceptId) {
+		final String sourceId = Long.toString(conceptId);
+		final long duplicateId = nextConceptId++;
+		conceptIds.add(Long.toString(duplicateId));
+		fullyDefinedIds.add(Long.toString(duplicateId));
+
+		for (final SnomedRelationship relationship : newArrayList(relationships)) {
+			if (sourceId.equals(relationship.getSourceId())) {
+				addRelationship(duplicateId, 
+						Long.parseLong(relationship.getTypeId()), 
+						Long.parseLong(relationship.getDestinationId()), 
+						relationship.getGroup());
+			}
+		}
+
+		return duplicateId;
+	}
+
+	private long addConcept(final boolean fullyDefined, final long... parentIds) {
+		return addConcept(nextConceptId++, fullyDefined, parentIds);
+	}
+
+	private long addConcept(final long conceptId, final boolean fullyDefined, final long... parentIds) {
+		conceptIds.add(Long.toString(conceptId));
+		if (fullyDefined) {
+			fullyDefinedIds.add(Long.toString(conceptId));
+		}
+
+		Arrays.stream(parentIds)
+			.distinct()
+			.forEach(parentId -> addRelationship(conceptId, Long.parseLong(Concepts.IS_A), parentId, 0));
+
+		return conceptId;
+	}
+
+	private void addRelationship(final long sourceId, final long typeId, final long destinationId, final int group) {
+		final SnomedRelationship relationship = new SnomedRelationship(Long.toString(nextRelationshipId++));
+		relationship.setActive(true);
+		relationship.setSourceId(Long.toString(sourceId));
+		relationship.setTypeId(Long.toString(typeId));
+		relationship.setDestinationId(Long.toString(destinationId));
+		relationship.setGroup(group);
+		relationship.setUnionGroup(0);
+		relationship.setCharacteristicType(CharacteristicType.STATED_RELATIONSHIP);
+		relationship.setModifier(RelationshipModifier.EXISTENTIAL);
+		relationships.add(relationship);
+	}
+
+	private static long pick(final Random random, final List<Long> ids) {
+		return ids.get(random.nextInt(ids.size()));
+	}
+
+	private ReasonerTaxonomy buildTaxonomy() {
+		// relationships of the same source concept have to be consecutive
+		relationships.sort((r1, r2) -> Long.compare(Long.parseLong(r1.getSourceId()), Long.parseLong(r2.getSourceId())));
+
+		return new ReasonerTaxonomyBuilder()
+				.addActiveConceptIds(conceptIds.stream())
+				.finishConcepts()
+				.addConceptFlags(fullyDefinedIds.stream())
+				.addActiveStatedEdges(relationships.stream())
+				.addActiveStatedNonIsARelationships(relationships.stream())
+				.build();
+	}
+
+	private static DelegateOntology createOntology(final ReasonerTaxonomy taxonomy) throws Exception {
+		final OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+		ontologyManager.setOntologyFactories(ImmutableSet.of(new DelegateOntologyFactory(taxonomy)));
+		return (DelegateOntology) ontologyManager.createOntology(IRI.create(DelegateOntology.NAMESPACE_SCTM + Concepts.MODULE_SCT_CORE));
+	}
+
+	private static OWLReasoner createReasoner(final OWLOntology ontology) {
+		final OWLReasoner reasoner = new ElkReasonerFactory().createNonBufferingReasoner(ontology);
+		reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+		return reasoner;
+	}
+
+}
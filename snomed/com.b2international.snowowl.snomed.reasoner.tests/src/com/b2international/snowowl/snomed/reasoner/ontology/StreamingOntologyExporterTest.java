@@ -0,0 +1,367 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.ontology;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.decimalMember;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.integerMember;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.relationship;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.StagingArea;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.common.SnomedRf2Headers;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomy;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomyBuilder;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+/**
+ * @since 7.1
+ */
+public class StreamingOntologyExporterTest extends BaseRevisionIndexTest {
+
+	private static final long ROOT = 138875005L;
+	private static final long CONCEPT_MODEL_ATTRIBUTE = 410662002L;
+	private static final long FIRST_CONCEPT_ID = 1_000_000L;
+	private static final IRI ONTOLOGY_IRI = IRI.create(DelegateOntology.NAMESPACE_SCTM + Concepts.MODULE_SCT_CORE);
+
+	private static final int NUMBER_OF_ATTRIBUTES = 10;
+	private static final int NUMBER_OF_CONCEPTS = 5_000;
+	private static final int NUMBER_OF_BENCHMARK_CONCEPTS = 200_000;
+	private static final int PAGE_SIZE = 500;
+
+	private final Map<Long, Set<Long>> statedParents = newHashMap();
+	private final Map<Long, LongSet> statedAncestors = newHashMap();
+	private final Map<Long, Integer> childCounts = newHashMap();
+	private final Set<Long> fullyDefinedIds = newHashSet();
+	private final List<SnomedRelationshipIndexEntry> relationships = newArrayList();
+	private final List<SnomedRefSetMemberIndexEntry> members = newArrayList();
+
+	private long nextConceptId = FIRST_CONCEPT_ID;
+	private long dataAttributeId;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Test
+	public void sameAxiomsAsTaxonomyExport() throws Exception {
+		indexRandomTerminology(NUMBER_OF_CONCEPTS);
+
+		final Set<OWLAxiom> expectedAxioms = getTaxonomyAxioms();
+		final Set<OWLAxiom> streamedAxioms = parse(export(PAGE_SIZE));
+
+		assertThat(streamedAxioms).isEqualTo(expectedAxioms);
+		assertThat(expectedAxioms).hasSize(2 * NUMBER_OF_CONCEPTS
+				+ 8 // classes of the root, the concept model attribute and the two attribute hierarchy roots
+				+ 4 * 2 // declarations and parents of the two attribute hierarchy roots, the role group and the data attribute
+				+ 2 * NUMBER_OF_ATTRIBUTES // declarations and parents of object attributes
+				+ 1 // concrete domain type declaration
+				+ disjointUnionCount());
+	}
+
+	@Test
+	public void pageSizeDoesNotChangeAxioms() throws Exception {
+		indexRandomTerminology(100);
+
+		assertThat(parse(export(1))).isEqualTo(parse(export(PAGE_SIZE)));
+	}
+
+	@Test
+	public void exportWithoutAttributes() throws Exception {
+		index().prepareCommit(MAIN)
+				.stageNew(concept(Long.toString(ROOT)).build())
+				.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+
+		assertThat(parse(export(PAGE_SIZE))).isEqualTo(getTaxonomyAxioms()).hasSize(2);
+	}
+
+	@Ignore("Benchmark, run manually")
+	@Test
+	public void exportHundredsOfThousandsOfConcepts() throws Exception {
+		indexRandomTerminology(NUMBER_OF_BENCHMARK_CONCEPTS);
+
+		// warm up both implementations
+		exportWithTaxonomy();
+		exportWithStreaming();
+
+		final long taxonomyPeakHeap = measurePeakHeap(this::exportWithTaxonomy);
+		final long streamingPeakHeap = measurePeakHeap(this::exportWithStreaming);
+
+		System.out.println(String.format("Exported %d concepts: peak heap with taxonomy build %d MB, streaming export %d MB",
+				NUMBER_OF_BENCHMARK_CONCEPTS, taxonomyPeakHeap >> 20, streamingPeakHeap >> 20));
+		assertThat(streamingPeakHeap).isLessThan(taxonomyPeakHeap);
+	}
+
+	/*
+	 * Saves the ontology of a fully built taxonomy, as the export request does for formats other than functional syntax.
+	 */
+	private Object exportWithTaxonomy() throws OWLOntologyCreationException, OWLOntologyStorageException {
+		final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		manager.setOntologyFactories(ImmutableSet.of(new DelegateOntologyFactory(buildTaxonomy())));
+		manager.saveOntology(manager.createOntology(ONTOLOGY_IRI), new FunctionalSyntaxDocumentFormat(), ByteStreams.nullOutputStream());
+		return null;
+	}
+
+	private Object exportWithStreaming() {
+		return index().read(MAIN, searcher -> {
+			try {
+				new StreamingOntologyExporter(searcher, true).export(ONTOLOGY_IRI, CharStreams.nullWriter());
+				return null;
+			} catch (final OWLOntologyCreationException e) {
+				throw new IOException(e);
+			}
+		});
+	}
+
+	private static long measurePeakHeap(final Callable<?> action) throws Exception {
+		final List<MemoryPoolMXBean> heapPools = newArrayList();
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (MemoryType.HEAP.equals(pool.getType())) {
+				heapPools.add(pool);
+			}
+		}
+
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		action.call();
+
+		long peak = 0L;
+		for (final MemoryPoolMXBean pool : heapPools) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+
+	private Set<OWLAxiom> getTaxonomyAxioms() throws OWLOntologyCreationException {
+		final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		manager.setOntologyFactories(ImmutableSet.of(new DelegateOntologyFactory(buildTaxonomy())));
+		return ImmutableSet.copyOf(manager.createOntology(ONTOLOGY_IRI).getAxioms());
+	}
+
+	/*
+	 * Builds the taxonomy the same way as the export request did before streaming export was introduced.
+	 */
+	private ReasonerTaxonomy buildTaxonomy() {
+		return index().read(MAIN, searcher -> new ReasonerTaxonomyBuilder()
+				.addActiveConceptIds(searcher)
+				.finishConcepts()
+				.addConceptFlags(searcher)
+				.addActiveStatedEdges(searcher)
+				.addActiveStatedNonIsARelationships(searcher)
+				.addActiveConcreteDomainMembers(searcher)
+				.build());
+	}
+
+	private String export(final int pageSize) {
+		return index().read(MAIN, searcher -> {
+			final StringWriter writer = new StringWriter();
+			try {
+				new StreamingOntologyExporter(searcher, true, pageSize).export(ONTOLOGY_IRI, writer);
+			} catch (final OWLOntologyCreationException e) {
+				throw new IOException(e);
+			}
+			return writer.toString();
+		});
+	}
+
+	private static Set<OWLAxiom> parse(final String ontology) throws OWLOntologyCreationException {
+		return ImmutableSet.copyOf(OWLManager.createOWLOntologyManager()
+				.loadOntologyFromOntologyDocument(new StringDocumentSource(ontology))
+				.getAxioms());
+	}
+
+	/*
+	 * Every fifth concept is fully defined, and every concept has one or two parents, plus up to three attribute relationships in random
+	 * groups. Every seventh concept has a stated concrete domain member, every eleventh has one on its first attribute relationship, and
+	 * every thirteenth has an inferred member, which is not exported. Concepts with at least two children are exhaustive if their
+	 * identifier is divisible by ten.
+	 */
+	private void indexRandomTerminology(final int numberOfConcepts) {
+		final Random random = new Random(7L);
+		final long[] attributes = addAttributes();
+		final List<Long> concepts = newArrayList(ROOT);
+		statedParents.put(ROOT, ImmutableSet.of());
+
+		for (int i = 0; i < numberOfConcepts; i++) {
+			final long conceptId = addConcept(i % 5 == 0, pick(random, concepts));
+			if (random.nextBoolean()) {
+				addIsA(conceptId, pick(random, concepts));
+			}
+
+			final int numberOfRelationships = random.nextInt(4);
+			for (int j = 0; j < numberOfRelationships; j++) {
+				final int group = random.nextInt(3);
+				final SnomedRelationshipIndexEntry relationship = relationship(Long.toString(conceptId),
+						Long.toString(attributes[random.nextInt(attributes.length)]),
+						Long.toString(pick(random, concepts)),
+						Concepts.STATED_RELATIONSHIP)
+						.group(group)
+						.build();
+				relationships.add(relationship);
+
+				if (j == 0 && i % 11 == 0) {
+					members.add(statedMember(decimalMember(relationship.getId(), Long.toString(dataAttributeId), BigDecimal.valueOf(i, 2)))
+							.field(SnomedRf2Headers.FIELD_RELATIONSHIP_GROUP, group)
+							.build());
+				}
+			}
+
+			if (i % 7 == 0) {
+				members.add(statedMember(integerMember(Long.toString(conceptId), Long.toString(dataAttributeId), i)).build());
+			}
+			if (i % 13 == 0) {
+				members.add(integerMember(Long.toString(conceptId), Long.toString(dataAttributeId), -i).build());
+			}
+
+			concepts.add(conceptId);
+		}
+
+		final StagingArea staging = index().prepareCommit(MAIN);
+		for (final Long conceptId : statedParents.keySet()) {
+			final Set<Long> parentIds = statedParents.get(conceptId);
+			staging.stageNew(concept(Long.toString(conceptId))
+					.primitive(!fullyDefinedIds.contains(conceptId))
+					.exhaustive(isExhaustive(conceptId))
+					.statedParents(parentIds.isEmpty() ? PrimitiveSets.newLongOpenHashSet(-1L) : toLongSet(parentIds))
+					.statedAncestors(getStatedAncestors(conceptId))
+					.build());
+		}
+		relationships.forEach(staging::stageNew);
+		members.forEach(staging::stageNew);
+		staging.commit(currentTime(), UUID.randomUUID().toString(), "Commit");
+	}
+
+	private long[] addAttributes() {
+		addConcept(CONCEPT_MODEL_ATTRIBUTE, false, ROOT);
+		addConcept(DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE, false, CONCEPT_MODEL_ATTRIBUTE);
+		addConcept(DelegateOntology.ROLE_GROUP, false, DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE);
+		addConcept(DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE, false, CONCEPT_MODEL_ATTRIBUTE);
+		dataAttributeId = addConcept(false, DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE);
+
+		final long[] attributes = new long[NUMBER_OF_ATTRIBUTES];
+		for (int i = 0; i < NUMBER_OF_ATTRIBUTES; i++) {
+			attributes[i] = addConcept(false, DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE);
+		}
+		return attributes;
+	}
+
+	private long addConcept(final boolean fullyDefined, final long parentId) {
+		return addConcept(nextConceptId++, fullyDefined, parentId);
+	}
+
+	private long addConcept(final long conceptId, final boolean fullyDefined, final long parentId) {
+		statedParents.put(conceptId, newHashSet());
+		if (fullyDefined) {
+			fullyDefinedIds.add(conceptId);
+		}
+		addIsA(conceptId, parentId);
+		return conceptId;
+	}
+
+	private void addIsA(final long conceptId, final long parentId) {
+		if (statedParents.get(conceptId).add(parentId)) {
+			childCounts.merge(parentId, 1, Integer::sum);
+			relationships.add(relationship(Long.toString(conceptId), Concepts.IS_A, Long.toString(parentId), Concepts.STATED_RELATIONSHIP).build());
+		}
+	}
+
+	private boolean isExhaustive(final long conceptId) {
+		return conceptId % 10 == 0 && childCounts.getOrDefault(conceptId, 0) >= 2;
+	}
+
+	private int disjointUnionCount() {
+		return (int) statedParents.keySet().stream().filter(this::isExhaustive).count();
+	}
+
+	/*
+	 * Ancestors of a concept, without its direct parents.
+	 */
+	private LongSet getStatedAncestors(final long conceptId) {
+		LongSet ancestors = statedAncestors.get(conceptId);
+		if (ancestors == null) {
+			ancestors = PrimitiveSets.newLongOpenHashSet();
+			for (final Long parentId : statedParents.get(conceptId)) {
+				ancestors.addAll(toLongSet(statedParents.get(parentId)));
+				ancestors.addAll(getStatedAncestors(parentId));
+			}
+			statedAncestors.put(conceptId, ancestors);
+		}
+		return ancestors;
+	}
+
+	private static SnomedRefSetMemberIndexEntry.Builder statedMember(final SnomedRefSetMemberIndexEntry.Builder member) {
+		return member.field(SnomedRf2Headers.FIELD_CHARACTERISTIC_TYPE_ID, Concepts.STATED_RELATIONSHIP);
+	}
+
+	private static LongSet toLongSet(final Set<Long> ids) {
+		final LongSet result = PrimitiveSets.newLongOpenHashSet();
+		ids.forEach(result::add);
+		return result;
+	}
+
+	private static long pick(final Random random, final List<Long> concepts) {
+		return concepts.get(random.nextInt(concepts.size()));
+	}
+
+}
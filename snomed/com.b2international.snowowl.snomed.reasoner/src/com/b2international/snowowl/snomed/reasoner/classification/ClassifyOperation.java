@@ -72,6 +72,7 @@ public abstract class ClassifyOperation<T> {
 					.setReasonerId(reasonerId)
 					.setUserId(userId)
 					.addAllConcepts(additionalConcepts)
+					.setEquivalenceCheckOnly(isEquivalenceCheckOnly())
 					.build(repositoryId, branch)
 					.execute(getEventBus())
 					.getSync();
@@ -134,6 +135,16 @@ public abstract class ClassifyOperation<T> {
 		return ApplicationContext.getServiceForClass(IEventBus.class);
 	}
 
+	/**
+	 * Subclasses which are only interested in the equivalence of the additional concepts should return <code>true</code>, so that only 
+	 * the module of the ontology relevant to the additional concepts is classified.
+	 * 
+	 * @return <code>true</code> if only equivalent concepts should be computed, <code>false</code> otherwise
+	 */
+	protected boolean isEquivalenceCheckOnly() {
+		return false;
+	}
+
 	/**
 	 * Performs an arbitrary operation using the reasoner. Subclasses should implement this method to perform any operation on the
 	 * results of a classification run.
@@ -126,8 +126,22 @@ public final class ReasonerTaxonomyInferrer {
 	}
 
 	public ReasonerTaxonomyInferrer(final String reasonerId, final DelegateOntology ontology, final BranchContext branchContext) {
+		this(reasonerId, ontology, ontology, branchContext);
+	}
+
+	/**
+	 * Creates an inferrer which classifies the specified ontology instead of the delegate ontology; the delegate is only used for converting
+	 * between classes and concept identifiers. This allows classifying a module extracted from the delegate ontology.
+	 * 
+	 * @param reasonerId the reasoner's extension identifier
+	 * @param ontology the delegate ontology the classified ontology was derived from
+	 * @param ontologyToClassify the ontology to classify
+	 * @param branchContext the context of the classified branch
+	 */
+	public ReasonerTaxonomyInferrer(final String reasonerId, final DelegateOntology ontology, final OWLOntology ontologyToClassify, 
+			final BranchContext branchContext) {
 		this.ontology = ontology;
-		this.reasoner = createReasoner(reasonerId, ontology);
+		this.reasoner = createReasoner(reasonerId, ontologyToClassify);
 		this.branchContext = branchContext;
 	}
 
@@ -45,6 +45,12 @@ public final class EquivalencyChecker extends ClassifyOperation<LongKeyLongMap>
 		super(reasonerId, userId, additionalConcepts, repositoryId, branch);
 	}
 
+	@Override
+	protected boolean isEquivalenceCheckOnly() {
+		// Without concepts to check, all equivalent concepts are reported, which requires classifying the entire ontology
+		return !additionalConcepts.isEmpty();
+	}
+
 	@Override
 	protected LongKeyLongMap processResults(final String classificationId) {
 
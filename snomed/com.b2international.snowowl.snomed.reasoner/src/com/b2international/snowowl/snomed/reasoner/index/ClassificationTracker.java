@@ -250,6 +250,34 @@ public final class ClassificationTracker implements IDisposableService {
 		});
 	}
 	
+	/**
+	 * Completes a classification which was only run to check the equivalence of a set of concepts, on a module of the ontology. 
+	 * Only unsatisfiable and equivalent concepts are recorded; inferred relationship and concrete domain changes are not computed, 
+	 * as they would be incomplete for the rest of the ontology.
+	 */
+	public void equivalenceCheckCompleted(final String classificationId, final ReasonerTaxonomy inferredTaxonomy) {
+		index.write(writer -> {
+
+			indexUnsatisfiableConcepts(writer, classificationId, inferredTaxonomy.getUnsatisfiableConcepts());
+			indexEquivalentConcepts(writer, classificationId, inferredTaxonomy.getEquivalentConcepts());
+
+			final boolean hasEquivalentConcepts = !inferredTaxonomy.getUnsatisfiableConcepts().isEmpty()
+					|| !inferredTaxonomy.getEquivalentConcepts().isEmpty();
+
+			writer.bulkUpdate(new BulkUpdate<>(ClassificationTaskDocument.class, 
+					ClassificationTaskDocument.Expressions.id(classificationId), 
+					ClassificationTaskDocument.Fields.ID, 
+					ClassificationTaskDocument.Scripts.COMPLETED, 
+					ImmutableMap.of("completionDate", System.currentTimeMillis(),
+							"hasEquivalentConcepts", hasEquivalentConcepts,
+							"hasInferredChanges", false,
+							"hasRedundantStatedChanges", false)));
+
+			writer.commit();
+			return null;
+		});
+	}
+
 	public void classificationSaving(final String classificationId) {
 		index.write(writer -> {
 			writer.bulkUpdate(new BulkUpdate<>(
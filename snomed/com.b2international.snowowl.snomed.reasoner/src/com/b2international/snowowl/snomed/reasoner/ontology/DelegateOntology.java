@@ -16,16 +16,22 @@
 package com.b2international.snowowl.snomed.reasoner.ontology;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.text.MessageFormat;
 import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.LongFunction;
 import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
@@ -39,6 +45,7 @@ import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLDataHasValue;
 import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
 import org.semanticweb.owlapi.model.OWLDisjointUnionAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
@@ -61,24 +68,37 @@ import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 import org.semanticweb.owlapi.model.OWLSubDataPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSubPropertyAxiom;
+import org.semanticweb.owlapi.model.PrefixManager;
 import org.semanticweb.owlapi.util.DefaultPrefixManager;
 import org.semanticweb.owlapi.util.OWLObjectTypeIndexProvider;
 import org.semanticweb.owlapi.vocab.OWL2Datatype;
 
+import com.b2international.collections.PrimitiveLists;
+import com.b2international.collections.PrimitiveMaps;
 import com.b2international.collections.PrimitiveSets;
 import com.b2international.collections.longs.AbstractLongIterator;
 import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongKeyMap;
+import com.b2international.collections.longs.LongList;
 import com.b2international.collections.longs.LongSet;
 import com.b2international.snowowl.snomed.core.domain.refset.DataType;
 import com.b2international.snowowl.snomed.core.taxonomy.InternalIdMap;
 import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomy;
 import com.b2international.snowowl.snomed.datastore.ConcreteDomainFragment;
 import com.b2international.snowowl.snomed.datastore.StatementFragment;
+import com.b2international.snowowl.snomed.reasoner.exceptions.OntologyException;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @since
@@ -97,9 +117,9 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 	private static final String PREFIX_SO = "so:";
 	private static final String NAMESPACE_SO = "http://b2i.sg/snowowl/";
 
-	private static final long CONCEPT_MODEL_OBJECT_ATTRIBUTE = 762705008L;
-	private static final long CONCEPT_MODEL_DATA_ATTRIBUTE = 762706009L;
-	private static final long ROLE_GROUP = 609096000L;
+	static final long CONCEPT_MODEL_OBJECT_ATTRIBUTE = 762705008L;
+	static final long CONCEPT_MODEL_DATA_ATTRIBUTE = 762706009L;
+	static final long ROLE_GROUP = 609096000L;
 
 	private static final long PART_OF = 123005000L;
 	private static final long LATERALITY = 272741003L;
@@ -108,6 +128,9 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 	
 	public static final String PREFIX_DATA = PREFIX_SO + "data_";
 
+	// The number of concepts in a single unit of work when materializing axioms
+	private static final int MATERIALIZATION_PARTITION_SIZE = 10_000;
+
 	private static final LongSet NEVER_GROUPED_TYPE_IDS = PrimitiveSets.newLongOpenHashSet(PART_OF, 
 			LATERALITY, 
 			HAS_DOSE_FORM, 
@@ -243,7 +266,7 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 			}
 
 			final Long typeId = attributeNameIterator.next();
-			final OWLDataProperty attributeProperty = getDataFactory().getOWLDataProperty(PREFIX_DATA + typeId, prefixManager);
+			final OWLDataProperty attributeProperty = getConcreteDomainProperty(typeId);
 			return getOWLDeclarationAxiom(attributeProperty);
 		}
 	}
@@ -302,6 +325,14 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 
 	private final DefaultPrefixManager prefixManager;
 
+	// Property and datatype instances are shared between all class expressions referring to them
+	private final LongKeyMap<OWLObjectProperty> objectProperties;
+	private final LongKeyMap<OWLDataProperty> dataProperties;
+	private final LongKeyMap<OWLDataProperty> concreteDomainProperties;
+	private final Map<DataType, OWLDatatype> datatypes;
+
+	private volatile List<OWLAxiom> materializedAxioms;
+
 	public DelegateOntology(final OWLOntologyManager manager, 
 			final OWLOntologyID ontologyID, 
 			final ReasonerTaxonomy taxonomy) {
@@ -311,6 +342,32 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		this.taxonomy = taxonomy;
 
 		this.prefixManager = createPrefixManager();
+
+		this.objectProperties = PrimitiveMaps.newLongKeyOpenHashMap();
+		for (final LongIterator itr = objectAttributeIdIterator(); itr.hasNext(); /* empty */) {
+			final long attributeId = itr.next();
+			objectProperties.put(attributeId, getOWLObjectProperty(PREFIX_SCT + attributeId));
+		}
+		if (!objectProperties.containsKey(ROLE_GROUP)) {
+			objectProperties.put(ROLE_GROUP, getOWLObjectProperty(PREFIX_SCT + ROLE_GROUP));
+		}
+
+		this.dataProperties = PrimitiveMaps.newLongKeyOpenHashMap();
+		for (final LongIterator itr = dataAttributeIdIterator(); itr.hasNext(); /* empty */) {
+			final long attributeId = itr.next();
+			dataProperties.put(attributeId, getDataFactory().getOWLDataProperty(PREFIX_SCT + attributeId, prefixManager));
+		}
+
+		this.concreteDomainProperties = PrimitiveMaps.newLongKeyOpenHashMap();
+		for (final Iterator<Long> itr = concreteDomainLabelIterator(); itr.hasNext(); /* empty */) {
+			final long typeId = itr.next();
+			concreteDomainProperties.put(typeId, getDataFactory().getOWLDataProperty(PREFIX_DATA + typeId, prefixManager));
+		}
+
+		this.datatypes = new EnumMap<>(DataType.class);
+		for (final DataType dataType : DataType.values()) {
+			datatypes.put(dataType, getDataFactory().getOWLDatatype(getOWL2Datatype(dataType).getIRI()));
+		}
 	}
 
 	@Override
@@ -378,19 +435,29 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 
 	@Override
 	public Set<OWLAxiom> getAxioms() {
+		final List<OWLAxiom> axioms = materializedAxioms;
+		if (axioms != null) {
+			return new AbstractSet<OWLAxiom>() {
+				@Override
+				public Iterator<OWLAxiom> iterator() {
+					return axioms.iterator();
+				}
+
+				@Override
+				public int size() {
+					return axioms.size();
+				}
+			};
+		}
+
 		return new AbstractSet<OWLAxiom>() {
 			@Override
 			@SuppressWarnings("unchecked")
 			public Iterator<OWLAxiom> iterator() {
-				return Iterators.concat(conceptDeclarationAxioms(),
-						conceptSubClassOfAxioms(),
-						conceptEquivalentClassesAxioms(),
-						objectAttributeDeclarationAxioms(),
-						objectAttributeSubPropertyOfAxioms(),
-						dataAttributeDeclarationAxioms(),
-						dataAttributeSubPropertyOfAxioms(),
-						concreteDomainAttributeAxioms(),
-						disjointUnionAxioms());
+				return Iterators.concat(conceptDeclarationAxioms(conceptIdIterator()),
+						conceptSubClassOfAxioms(conceptIdIterator()),
+						conceptEquivalentClassesAxioms(conceptIdIterator()),
+						propertyAxioms());
 			}
 
 			@Override
@@ -400,24 +467,176 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		};
 	}
 
-	private Iterator<OWLDeclarationAxiom> conceptDeclarationAxioms() {
-		return new EntityDeclarationAxiomIterator(conceptIdIterator(), this::getConceptClass);
+	/**
+	 * Builds all axioms of this ontology once, using as many threads as there
+	 * are available processors.
+	 * 
+	 * @see #materializeAxioms(int)
+	 */
+	public void materializeAxioms() {
+		materializeAxioms(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Builds all axioms of this ontology once, and keeps them in an immutable
+	 * list. Class axioms are computed in parallel, for partitions of the
+	 * concept ID set. Subsequent iterations over {@link #getAxioms()} return
+	 * the materialized axioms in the same order as the lazy implementation,
+	 * instead of converting the taxonomy to class expressions again.
+	 * 
+	 * @param numberOfThreads
+	 *            the maximum number of threads to use
+	 */
+	public synchronized void materializeAxioms(final int numberOfThreads) {
+		if (materializedAxioms != null) {
+			return;
+		}
+
+		final List<LongList> partitions = partitionConceptIds();
+		final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(Math.max(1, numberOfThreads), 
+				new ThreadFactoryBuilder().setNameFormat("delegate-ontology-materialization-%d").build()));
+		final List<ListenableFuture<List<OWLAxiom>>> futures = newArrayList();
+
+		try {
+			for (final LongList partition : partitions) {
+				futures.add(executor.submit(() -> ImmutableList.<OWLAxiom>copyOf(conceptDeclarationAxioms(partition.iterator()))));
+			}
+			for (final LongList partition : partitions) {
+				futures.add(executor.submit(() -> ImmutableList.<OWLAxiom>copyOf(conceptSubClassOfAxioms(partition.iterator()))));
+			}
+			for (final LongList partition : partitions) {
+				futures.add(executor.submit(() -> ImmutableList.<OWLAxiom>copyOf(conceptEquivalentClassesAxioms(partition.iterator()))));
+			}
+			futures.add(executor.submit(() -> ImmutableList.<OWLAxiom>copyOf(propertyAxioms())));
+
+			// Results are concatenated in submission order
+			final ImmutableList.Builder<OWLAxiom> axioms = ImmutableList.builder();
+			for (final List<OWLAxiom> partitionAxioms : Futures.allAsList(futures).get()) {
+				axioms.addAll(partitionAxioms);
+			}
+
+			materializedAxioms = axioms.build();
+		} catch (final ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			Throwables.propagateIfPossible(e.getCause());
+			throw new OntologyException("Couldn't materialize axioms of " + this + ".", e.getCause());
+		} catch (final InterruptedException e) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new OntologyException("Interrupted while materializing axioms of " + this + ".", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the axioms of this ontology were already
+	 *         materialized, <code>false</code> otherwise
+	 */
+	public boolean isMaterialized() {
+		return materializedAxioms != null;
+	}
+
+	private List<LongList> partitionConceptIds() {
+		final List<LongList> partitions = newArrayList();
+		LongList partition = null;
+
+		for (final LongIterator itr = conceptIdIterator(); itr.hasNext(); /* empty */) {
+			if (partition == null || partition.size() == MATERIALIZATION_PARTITION_SIZE) {
+				partition = PrimitiveLists.newLongArrayListWithExpectedSize(MATERIALIZATION_PARTITION_SIZE);
+				partitions.add(partition);
+			}
+			partition.add(itr.next());
+		}
+
+		return partitions;
+	}
+
+	/**
+	 * Returns the axioms of this ontology which make up the specified module.
+	 * Unlike {@link #getAxioms()}, the returned set is materialized, and can be
+	 * used to create a regular ontology instance for reasoning over the module
+	 * only.
+	 * 
+	 * @param module
+	 *            the module extracted from this ontology's taxonomy
+	 * @return the axioms describing the entities in the module signature
+	 * @see OntologyModuleExtractor
+	 */
+	public Set<OWLAxiom> getModuleAxioms(final OntologyModule module) {
+		final Set<OWLAxiom> moduleAxioms = newHashSet();
+		final LongPredicate conceptFilter = conceptId -> taxonomy.getConceptMap().getInternalId(conceptId) != InternalIdMap.NO_INTERNAL_ID
+				&& isConcept(conceptId);
+
+		Iterators.addAll(moduleAxioms, new EntityDeclarationAxiomIterator(filter(module.getConceptIds().iterator(), conceptFilter), 
+				this::getConceptClass));
+		Iterators.addAll(moduleAxioms, new ConceptAxiomIterator<>(filter(module.getConceptIds().iterator(), conceptFilter),
+				conceptId -> !taxonomy.getFullyDefinedConcepts().contains(conceptId), 
+				this::getOWLSubClassOfAxiom));
+		Iterators.addAll(moduleAxioms, new ConceptAxiomIterator<>(filter(module.getConceptIds().iterator(), conceptFilter),
+				conceptId -> taxonomy.getFullyDefinedConcepts().contains(conceptId), 
+				this::getOWLEquivalentClassesAxiom));
+		Iterators.addAll(moduleAxioms, new EntityDeclarationAxiomIterator(filter(objectAttributeIdIterator(), module::contains), 
+				this::getConceptObjectProperty));
+		Iterators.addAll(moduleAxioms, new SubPropertyOfAxiomIterator<>(filter(objectAttributeIdIterator(), module::contains), 
+				this::getConceptObjectProperty, 
+				this::getOWLSubObjectPropertyOfAxiom));
+		Iterators.addAll(moduleAxioms, new EntityDeclarationAxiomIterator(filter(dataAttributeIdIterator(), module::contains), 
+				this::getConceptDataProperty));
+		Iterators.addAll(moduleAxioms, new SubPropertyOfAxiomIterator<>(filter(dataAttributeIdIterator(), module::contains), 
+				this::getConceptDataProperty, 
+				this::getOWLSubDataPropertyOfAxiom));
+		Iterators.addAll(moduleAxioms, new ConcreteDomainAttributeIterator(Iterators.filter(concreteDomainLabelIterator(), 
+				typeId -> module.getConcreteDomainTypeIds().contains(typeId))));
+		Iterators.addAll(moduleAxioms, new DisjointUnionAxiomIterator(filter(exhaustiveIdIterator(), module::contains)));
+
+		return moduleAxioms;
+	}
+
+	private static LongIterator filter(final LongIterator delegate, final LongPredicate predicate) {
+		return new AbstractLongIterator() {
+			@Override
+			protected long computeNext() {
+				while (delegate.hasNext()) {
+					final long candidate = delegate.next();
+					if (predicate.test(candidate)) {
+						return candidate;
+					}
+				}
+
+				return endOfData();
+			}
+		};
+	}
+
+	private Iterator<OWLDeclarationAxiom> conceptDeclarationAxioms(final LongIterator conceptIdIterator) {
+		return new EntityDeclarationAxiomIterator(conceptIdIterator, this::getConceptClass);
 	}
 
-	private Iterator<OWLSubClassOfAxiom> conceptSubClassOfAxioms() {
-		return new ConceptAxiomIterator<>(conceptIdIterator(),
+	private Iterator<OWLSubClassOfAxiom> conceptSubClassOfAxioms(final LongIterator conceptIdIterator) {
+		return new ConceptAxiomIterator<>(conceptIdIterator,
 				conceptId -> !taxonomy.getFullyDefinedConcepts()
 				.contains(conceptId), 
 				this::getOWLSubClassOfAxiom);
 	}
 
-	private Iterator<OWLEquivalentClassesAxiom> conceptEquivalentClassesAxioms() {
-		return new ConceptAxiomIterator<>(conceptIdIterator(),
+	private Iterator<OWLEquivalentClassesAxiom> conceptEquivalentClassesAxioms(final LongIterator conceptIdIterator) {
+		return new ConceptAxiomIterator<>(conceptIdIterator,
 				conceptId -> taxonomy.getFullyDefinedConcepts()
 				.contains(conceptId), 
 				this::getOWLEquivalentClassesAxiom);
 	}
 
+	@SuppressWarnings("unchecked")
+	private Iterator<OWLAxiom> propertyAxioms() {
+		return Iterators.concat(objectAttributeDeclarationAxioms(),
+				objectAttributeSubPropertyOfAxioms(),
+				dataAttributeDeclarationAxioms(),
+				dataAttributeSubPropertyOfAxioms(),
+				concreteDomainAttributeAxioms(),
+				disjointUnionAxioms());
+	}
+
 	private Iterator<? extends OWLAxiom> objectAttributeDeclarationAxioms() {
 		return new EntityDeclarationAxiomIterator(objectAttributeIdIterator(), this::getConceptObjectProperty);
 	}
@@ -443,25 +662,15 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 	}
 
 	private LongIterator conceptIdIterator() {
-		return new AbstractLongIterator() {
-			private final LongIterator delegate = taxonomy.getConceptMap().getSctIds();
+		return filter(taxonomy.getConceptMap().getSctIds(), this::isConcept);
+	}
 
-			@Override
-			protected long computeNext() {
-				while (delegate.hasNext()) {
-					final long candidate = delegate.next();
-					final LongSet allAncestors = taxonomy.getStatedAncestors()
-							.getDestinations(candidate, false);
+	private boolean isConcept(final long conceptId) {
+		final LongSet allAncestors = taxonomy.getStatedAncestors()
+				.getDestinations(conceptId, false);
 
-					if (!allAncestors.contains(CONCEPT_MODEL_OBJECT_ATTRIBUTE) 
-							&& !allAncestors.contains(CONCEPT_MODEL_DATA_ATTRIBUTE)) {
-						return candidate;
-					}
-				}
-
-				return endOfData();
-			}
-		};
+		return !allAncestors.contains(CONCEPT_MODEL_OBJECT_ATTRIBUTE) 
+				&& !allAncestors.contains(CONCEPT_MODEL_DATA_ATTRIBUTE);
 	}
 
 	private LongIterator objectAttributeIdIterator() {
@@ -579,6 +788,14 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		return manager.getOWLDataFactory();
 	}
 
+	/**
+	 * @return the prefix manager holding the namespaces used in the IRIs of
+	 *         this ontology's entities
+	 */
+	public PrefixManager getPrefixManager() {
+		return prefixManager;
+	}
+
 	public long getConceptId(final OWLClass conceptClass) {
 		final IRI iri = conceptClass.getIRI();
 		if (iri.toString().startsWith(NAMESPACE_SCT)) {
@@ -596,12 +813,19 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		return getDataFactory().getOWLThing();
 	}
 
-	private OWLObjectProperty getConceptObjectProperty(final long conceptId) {
-		return getOWLObjectProperty(PREFIX_SCT + conceptId);
+	public OWLObjectProperty getConceptObjectProperty(final long conceptId) {
+		final OWLObjectProperty property = objectProperties.get(conceptId);
+		return (property != null) ? property : getOWLObjectProperty(PREFIX_SCT + conceptId);
+	}
+
+	public OWLDataProperty getConceptDataProperty(final long conceptId) {
+		final OWLDataProperty property = dataProperties.get(conceptId);
+		return (property != null) ? property : getDataFactory().getOWLDataProperty(PREFIX_SCT + conceptId, prefixManager);
 	}
 
-	private OWLDataProperty getConceptDataProperty(final long conceptId) {
-		return getDataFactory().getOWLDataProperty(PREFIX_SCT + conceptId, prefixManager);
+	public OWLDataProperty getConcreteDomainProperty(final long typeId) {
+		final OWLDataProperty property = concreteDomainProperties.get(typeId);
+		return (property != null) ? property : getDataFactory().getOWLDataProperty(PREFIX_DATA + typeId, prefixManager);
 	}
 
 	private OWLQuantifiedObjectRestriction getRelationshipExpression(final long typeId, final long destinationId, final boolean destinationNegated, final boolean universal) {
@@ -629,34 +853,80 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 	}
 
 	private Set<OWLClassExpression> getConceptDefinitionExpression(final long conceptId) {
+		return getConceptDefinitionExpression(conceptId, 
+				taxonomy.getStatedAncestors().getDestinations(conceptId, true),
+				taxonomy.getStatedNonIsARelationships().get(conceptId),
+				taxonomy.getStatedConcreteDomainMembers()::get);
+	}
+
+	/**
+	 * Creates the class axiom of a concept from the specified stated
+	 * definition, which is not looked up in the taxonomy of this ontology. This
+	 * allows converting concepts one by one, without building a taxonomy for
+	 * all of them in advance.
+	 * 
+	 * @param conceptId
+	 *            the SCTID of the concept
+	 * @param fullyDefined
+	 *            <code>true</code> if an equivalent classes axiom should be
+	 *            returned, <code>false</code> for a subclass axiom
+	 * @param parentIds
+	 *            the SCTIDs of the concept's stated parents
+	 * @param statedNonIsARelationships
+	 *            the concept's active stated non-IS A relationships
+	 * @param statedConcreteDomainMembers
+	 *            returns the active stated concrete domain members of the
+	 *            concept and its relationships, by referenced component ID
+	 * @return the class axiom describing the concept
+	 */
+	public OWLClassAxiom getConceptAxiom(final long conceptId, 
+			final boolean fullyDefined, 
+			final LongSet parentIds,
+			final Collection<StatementFragment> statedNonIsARelationships,
+			final Function<String, Collection<ConcreteDomainFragment>> statedConcreteDomainMembers) {
+
+		final OWLClass conceptClass = getConceptClass(conceptId);
+		final Set<OWLClassExpression> conceptDefinitionExpression = getConceptDefinitionExpression(conceptId, 
+				parentIds, 
+				statedNonIsARelationships, 
+				statedConcreteDomainMembers);
+
+		final OWLClassExpression definition = !conceptDefinitionExpression.isEmpty() 
+				? getOWLObjectIntersectionOf(conceptDefinitionExpression) 
+				: getOWLThing();
+
+		return fullyDefined 
+				? getOWLEquivalentClassesAxiom(conceptClass, definition) 
+				: getOWLSubClassOfAxiom(conceptClass, definition);
+	}
+
+	private Set<OWLClassExpression> getConceptDefinitionExpression(final long conceptId,
+			final LongSet superTypeIds,
+			final Collection<StatementFragment> statedNonIsAFragments,
+			final Function<String, Collection<ConcreteDomainFragment>> statedConcreteDomainMembers) {
+
 		final Set<OWLClassExpression> intersection = Sets.newHashSet();
-		final LongSet superTypeIds = taxonomy.getStatedAncestors()
-				.getDestinations(conceptId, true);
 
 		for (final LongIterator itr = superTypeIds.iterator(); itr.hasNext(); /* empty */) {
 			final long parentId = itr.next();
 			addParent(parentId, intersection);
 		}
 
-		final Collection<StatementFragment> statedNonIsAFragments = taxonomy.getStatedNonIsARelationships()
-				.get(conceptId);
-
 		statedNonIsAFragments.stream()
 			.filter(r -> isNeverGrouped(r))
 			.collect(Collectors.groupingBy(StatementFragment::getUnionGroup))
 			.entrySet()
 			.stream()
-			.forEachOrdered(ug -> addUnionGroup(ug, intersection));
+			.forEachOrdered(ug -> addUnionGroup(ug, intersection, statedConcreteDomainMembers));
 
 		statedNonIsAFragments.stream()
 			.filter(r -> !isNeverGrouped(r))
 			.collect(Collectors.groupingBy(StatementFragment::getGroup))
 			.entrySet()
 			.stream()
-			.forEachOrdered(g -> addGroup(conceptId, g, intersection));
+			.forEachOrdered(g -> addGroup(conceptId, g, intersection, statedConcreteDomainMembers));
 
-		final Collection<ConcreteDomainFragment> conceptConcreteDomainFragments = taxonomy.getStatedConcreteDomainMembers()
-				.get(Long.toString(conceptId));
+		final Collection<ConcreteDomainFragment> conceptConcreteDomainFragments = statedConcreteDomainMembers.apply(Long.toString(conceptId));
 
 		conceptConcreteDomainFragments.stream()
 			.forEach(c -> addConcreteDomainMember(c, intersection));
@@ -677,7 +947,9 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		return HAS_ACTIVE_INGREDIENT == r.getTypeId() && r.getUnionGroup() == 0;
 	}
 
-	private void addUnionGroup(final Entry<Integer, List<StatementFragment>> unionGroup, final Set<OWLClassExpression> intersection) {
+	private void addUnionGroup(final Entry<Integer, List<StatementFragment>> unionGroup, 
+			final Set<OWLClassExpression> intersection,
+			final Function<String, Collection<ConcreteDomainFragment>> statedConcreteDomainMembers) {
 		if (unionGroup.getKey() > 0) {
 			final long commonTypeId = unionGroup.getValue().get(0).getTypeId();
 			final boolean isUniversal = unionGroup.getValue().get(0).isUniversal();
@@ -707,13 +979,15 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		// Add relationship-referenced concrete domain members alongside the relationships
 		unionGroup.getValue()
 			.stream()
-			.flatMap(r -> taxonomy.getStatedConcreteDomainMembers()
-					.get(Long.toString(r.getStatementId()))
+			.flatMap(r -> statedConcreteDomainMembers.apply(Long.toString(r.getStatementId()))
 					.stream())
 			.forEachOrdered(m -> addConcreteDomainMember(m, intersection));
 	}
 
-	private void addGroup(final long conceptId, final Entry<Integer, List<StatementFragment>> group, final Set<OWLClassExpression> intersection) {
+	private void addGroup(final long conceptId, 
+			final Entry<Integer, List<StatementFragment>> group, 
+			final Set<OWLClassExpression> intersection,
+			final Function<String, Collection<ConcreteDomainFragment>> statedConcreteDomainMembers) {
 		final Set<OWLClassExpression> groupIntersection = Sets.newHashSet();
 
 		group.getValue()
@@ -721,7 +995,7 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 			.collect(Collectors.groupingBy(StatementFragment::getUnionGroup))
 			.entrySet()
 			.stream()
-			.forEachOrdered(ug -> addUnionGroup(ug, groupIntersection));
+			.forEachOrdered(ug -> addUnionGroup(ug, groupIntersection, statedConcreteDomainMembers));
 
 		if (group.getKey() > 0) {
 
@@ -754,10 +1028,10 @@ public final class DelegateOntology extends DelegateOntologyStub implements OWLO
 		final String serializedValue = member.getSerializedValue();
 		final DataType sctDataType = member.getDataType();
 
-		final OWL2Datatype owl2Datatype = getOWL2Datatype(sctDataType);
+		final OWLDatatype datatype = datatypes.get(sctDataType);
 		
-		final OWLDataProperty dataProperty = getDataFactory().getOWLDataProperty(PREFIX_DATA + typeId, prefixManager);
-		final OWLLiteral valueLiteral = getDataFactory().getOWLLiteral(serializedValue, owl2Datatype);
+		final OWLDataProperty dataProperty = getConcreteDomainProperty(typeId);
+		final OWLLiteral valueLiteral = getDataFactory().getOWLLiteral(serializedValue, datatype);
 		final OWLDataHasValue dataExpression = getDataFactory().getOWLDataHasValue(dataProperty, valueLiteral);
 
 		intersection.add(dataExpression);
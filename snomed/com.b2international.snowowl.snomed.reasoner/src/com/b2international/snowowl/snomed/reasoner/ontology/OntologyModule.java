@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.ontology;
+
+import com.b2international.collections.longs.LongSet;
+
+/**
+ * The signature of a syntactic locality-based (&perp;-) module extracted from a
+ * {@link DelegateOntology}. All entailments of the ontology that refer only to
+ * entities in the module signature also hold in the module; in particular, the
+ * module preserves every superclass and every equivalent class of the concepts
+ * in the seed signature the module was extracted for.
+ * 
+ * @see OntologyModuleExtractor
+ * @since 7.1
+ */
+public final class OntologyModule {
+
+	private final LongSet seedConceptIds;
+	private final LongSet conceptIds;
+	private final LongSet concreteDomainTypeIds;
+
+	OntologyModule(final LongSet seedConceptIds, final LongSet conceptIds, final LongSet concreteDomainTypeIds) {
+		this.seedConceptIds = seedConceptIds;
+		this.conceptIds = conceptIds;
+		this.concreteDomainTypeIds = concreteDomainTypeIds;
+	}
+
+	/**
+	 * @return the SCTIDs of the concepts the module was extracted for
+	 */
+	public LongSet getSeedConceptIds() {
+		return seedConceptIds;
+	}
+
+	/**
+	 * @return the SCTIDs of all classes and attributes in the module signature;
+	 *         the axioms describing these entities make up the module
+	 */
+	public LongSet getConceptIds() {
+		return conceptIds;
+	}
+
+	/**
+	 * @return the type IDs of the concrete domain properties in the module signature
+	 */
+	public LongSet getConcreteDomainTypeIds() {
+		return concreteDomainTypeIds;
+	}
+
+	public boolean contains(final long conceptId) {
+		return conceptIds.contains(conceptId);
+	}
+
+	public int size() {
+		return conceptIds.size();
+	}
+
+	@Override
+	public String toString() {
+		return "OntologyModule[" + seedConceptIds.size() + " seed concept(s), " + conceptIds.size() + " concept(s)]";
+	}
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.ontology;
+
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.b2international.collections.PrimitiveLists;
+import com.b2international.collections.PrimitiveMaps;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongDeque;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongKeyMap;
+import com.b2international.collections.longs.LongList;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.snowowl.snomed.core.taxonomy.InternalIdMap;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomy;
+import com.b2international.snowowl.snomed.datastore.ConcreteDomainFragment;
+import com.b2international.snowowl.snomed.datastore.StatementFragment;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Extracts syntactic locality-based (&perp;-) modules from the axioms a
+ * {@link DelegateOntology} would generate for a {@link ReasonerTaxonomy},
+ * without materializing the axioms themselves.
+ * <p>
+ * An axiom is &perp;-local with respect to a signature if it becomes a
+ * tautology when all entities outside the signature are replaced with
+ * <code>owl:Nothing</code>. Starting from the seed signature, non-local axioms
+ * are added to the module and their entities to the signature until a fixpoint
+ * is reached. For the axiom types generated from the taxonomy this means:
+ * <ul>
+ * <li>primitive concept definitions, sub-property axioms and declarations are
+ * non-local if the described entity is in the signature;
+ * <li>full definitions are non-local if the defined concept is in the
+ * signature, or if none of the conjuncts of the definition is equivalent to
+ * <code>owl:Nothing</code>;
+ * <li>disjoint union axioms are non-local if any of the participating concepts
+ * is in the signature.
+ * </ul>
+ * Where checking a conjunct exactly would be involved (role groups, union
+ * groups with negated destinations), the conjunct is treated as non-local. This
+ * only makes the module larger than necessary, it remains a module.
+ * 
+ * @since 7.1
+ */
+public final class OntologyModuleExtractor {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OntologyModuleExtractor.class);
+
+	private final ReasonerTaxonomy taxonomy;
+
+	// Fully defined concepts, keyed by the entities their definition refers to
+	private final LongKeyMap<LongList> definitionsByConceptId = PrimitiveMaps.newLongKeyOpenHashMap();
+	private final LongKeyMap<LongList> definitionsByConcreteDomainTypeId = PrimitiveMaps.newLongKeyOpenHashMap();
+	// Fully defined concepts with definitions that are never equivalent to owl:Nothing
+	private final LongList unconditionalDefinitions = PrimitiveLists.newLongArrayList();
+
+	public OntologyModuleExtractor(final ReasonerTaxonomy taxonomy) {
+		this.taxonomy = taxonomy;
+		indexDefinitions();
+	}
+
+	private void indexDefinitions() {
+		final Extraction emptySignature = new Extraction();
+
+		for (final LongIterator itr = taxonomy.getFullyDefinedConcepts().iterator(); itr.hasNext(); /* empty */) {
+			final long conceptId = itr.next();
+			if (!isClass(conceptId)) {
+				continue;
+			}
+
+			for (final LongIterator parents = getStatedParents(conceptId).iterator(); parents.hasNext(); /* empty */) {
+				register(definitionsByConceptId, parents.next(), conceptId);
+			}
+
+			for (final StatementFragment fragment : getStatedNonIsARelationships(conceptId)) {
+				register(definitionsByConceptId, fragment.getTypeId(), conceptId);
+				register(definitionsByConceptId, fragment.getDestinationId(), conceptId);
+				for (final ConcreteDomainFragment member : getConcreteDomainMembers(fragment.getStatementId())) {
+					register(definitionsByConcreteDomainTypeId, member.getTypeId(), conceptId);
+				}
+			}
+
+			for (final ConcreteDomainFragment member : getConcreteDomainMembers(conceptId)) {
+				register(definitionsByConcreteDomainTypeId, member.getTypeId(), conceptId);
+			}
+
+			if (!emptySignature.isBottom(conceptId)) {
+				unconditionalDefinitions.add(conceptId);
+			}
+		}
+	}
+
+	private static void register(final LongKeyMap<LongList> definitionsById, final long id, final long conceptId) {
+		LongList definitions = definitionsById.get(id);
+		if (definitions == null) {
+			definitions = PrimitiveLists.newLongArrayList();
+			definitionsById.put(id, definitions);
+		}
+		definitions.add(conceptId);
+	}
+
+	/**
+	 * Extracts the &perp;-module of the specified concepts.
+	 * 
+	 * @param seedConceptIds
+	 *            the SCTIDs of the concepts forming the seed signature
+	 * @return the extracted module
+	 */
+	public OntologyModule extract(final LongSet seedConceptIds) {
+		LOGGER.info(">>> Module extraction");
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final Extraction extraction = new Extraction();
+		extraction.addAll(unconditionalDefinitions);
+		extraction.addAll(seedConceptIds);
+		extraction.run();
+
+		final OntologyModule module = new OntologyModule(seedConceptIds, extraction.signature, extraction.concreteDomainSignature);
+		LOGGER.info("<<< Module extraction [{}], {} out of {} concepts in module", stopwatch.stop(), module.size(), taxonomy.getConceptMap().size());
+		return module;
+	}
+
+	private final class Extraction {
+
+		private final LongSet signature = PrimitiveSets.newLongOpenHashSet();
+		private final LongSet concreteDomainSignature = PrimitiveSets.newLongOpenHashSet();
+		private final LongDeque conceptsToProcess = PrimitiveLists.newLongArrayDeque();
+
+		void addAll(final LongList conceptIds) {
+			for (final LongIterator itr = conceptIds.iterator(); itr.hasNext(); /* empty */) {
+				add(itr.next());
+			}
+		}
+
+		void addAll(final LongSet conceptIds) {
+			for (final LongIterator itr = conceptIds.iterator(); itr.hasNext(); /* empty */) {
+				add(itr.next());
+			}
+		}
+
+		void add(final long conceptId) {
+			if (signature.add(conceptId)) {
+				conceptsToProcess.addLast(conceptId);
+			}
+		}
+
+		void addConcreteDomainType(final long typeId) {
+			if (concreteDomainSignature.add(typeId)) {
+				checkDefinitions(definitionsByConcreteDomainTypeId.get(typeId));
+			}
+		}
+
+		void run() {
+			while (!conceptsToProcess.isEmpty()) {
+				final long conceptId = conceptsToProcess.removeLast();
+
+				if (isKnown(conceptId)) {
+					if (isClass(conceptId)) {
+						addDefinition(conceptId);
+					}
+
+					if (isAttribute(conceptId)) {
+						addAll(getStatedParents(conceptId));
+					}
+
+					addDisjointUnions(conceptId);
+				}
+
+				checkDefinitions(definitionsByConceptId.get(conceptId));
+			}
+		}
+
+		private void addDefinition(final long conceptId) {
+			addAll(getStatedParents(conceptId));
+
+			final Collection<StatementFragment> fragments = getStatedNonIsARelationships(conceptId);
+			if (!fragments.isEmpty()) {
+				add(DelegateOntology.ROLE_GROUP);
+			}
+
+			for (final StatementFragment fragment : fragments) {
+				add(fragment.getTypeId());
+				add(fragment.getDestinationId());
+				for (final ConcreteDomainFragment member : getConcreteDomainMembers(fragment.getStatementId())) {
+					addConcreteDomainType(member.getTypeId());
+				}
+			}
+
+			for (final ConcreteDomainFragment member : getConcreteDomainMembers(conceptId)) {
+				addConcreteDomainType(member.getTypeId());
+			}
+		}
+
+		private void addDisjointUnions(final long conceptId) {
+			if (taxonomy.getExhaustiveConcepts().contains(conceptId)) {
+				addDisjointUnion(conceptId);
+			}
+
+			for (final LongIterator parents = getStatedParents(conceptId).iterator(); parents.hasNext(); /* empty */) {
+				final long parentId = parents.next();
+				if (taxonomy.getExhaustiveConcepts().contains(parentId)) {
+					addDisjointUnion(parentId);
+				}
+			}
+		}
+
+		private void addDisjointUnion(final long parentId) {
+			add(parentId);
+			addAll(taxonomy.getStatedDescendants().getDestinations(parentId, true));
+		}
+
+		private void checkDefinitions(final LongList definitions) {
+			if (definitions == null) {
+				return;
+			}
+
+			for (final LongIterator itr = definitions.iterator(); itr.hasNext(); /* empty */) {
+				final long conceptId = itr.next();
+				if (!signature.contains(conceptId) && !isBottom(conceptId)) {
+					add(conceptId);
+				}
+			}
+		}
+
+		/*
+		 * Returns true if the definition of the specified concept becomes equivalent to owl:Nothing when all entities 
+		 * outside the current signature are replaced with owl:Nothing.
+		 */
+		boolean isBottom(final long conceptId) {
+			for (final LongIterator parents = getStatedParents(conceptId).iterator(); parents.hasNext(); /* empty */) {
+				if (!signature.contains(parents.next())) {
+					return true;
+				}
+			}
+
+			// Union groups are only equivalent to owl:Nothing if all of their disjuncts are
+			final LongSet unionGroups = PrimitiveSets.newLongOpenHashSet();
+			final LongSet satisfiableUnionGroups = PrimitiveSets.newLongOpenHashSet();
+
+			for (final StatementFragment fragment : getStatedNonIsARelationships(conceptId)) {
+				final boolean bottom = isBottom(fragment);
+
+				if (fragment.getUnionGroup() > 0) {
+					final long unionGroupKey = ((long) fragment.getGroup() << 32) | fragment.getUnionGroup();
+					unionGroups.add(unionGroupKey);
+					if (!bottom) {
+						satisfiableUnionGroups.add(unionGroupKey);
+					}
+				} else if (bottom) {
+					return true;
+				}
+
+				for (final ConcreteDomainFragment member : getConcreteDomainMembers(fragment.getStatementId())) {
+					if (!concreteDomainSignature.contains(member.getTypeId())) {
+						return true;
+					}
+				}
+			}
+
+			if (unionGroups.size() > satisfiableUnionGroups.size()) {
+				return true;
+			}
+
+			for (final ConcreteDomainFragment member : getConcreteDomainMembers(conceptId)) {
+				if (!concreteDomainSignature.contains(member.getTypeId())) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private boolean isBottom(final StatementFragment fragment) {
+			// Universal restrictions and negated destinations can not be replaced with owl:Nothing
+			if (fragment.isUniversal()) {
+				return false;
+			}
+
+			return !signature.contains(fragment.getTypeId()) 
+					|| (!fragment.isDestinationNegated() && !signature.contains(fragment.getDestinationId()));
+		}
+	}
+
+	private boolean isKnown(final long conceptId) {
+		return taxonomy.getConceptMap().getInternalId(conceptId) != InternalIdMap.NO_INTERNAL_ID;
+	}
+
+	// Mirrors the selection of concepts in DelegateOntology: attribute concepts (except the top attributes) have no class axioms
+	private boolean isClass(final long conceptId) {
+		final LongSet ancestors = taxonomy.getStatedAncestors().getDestinations(conceptId, false);
+		return !ancestors.contains(DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE) 
+				&& !ancestors.contains(DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE);
+	}
+
+	private boolean isAttribute(final long conceptId) {
+		if (conceptId == DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE || conceptId == DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE) {
+			return true;
+		}
+		return !isClass(conceptId);
+	}
+
+	private LongSet getStatedParents(final long conceptId) {
+		return taxonomy.getStatedAncestors().getDestinations(conceptId, true);
+	}
+
+	private Collection<StatementFragment> getStatedNonIsARelationships(final long conceptId) {
+		return taxonomy.getStatedNonIsARelationships().get(conceptId);
+	}
+
+	private Collection<ConcreteDomainFragment> getConcreteDomainMembers(final long referencedComponentId) {
+		return taxonomy.getStatedConcreteDomainMembers().get(Long.toString(referencedComponentId));
+	}
+}
@@ -0,0 +1,484 @@
+/*
+ * Copyright 2018 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.ontology;
+
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument.Expressions.active;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument.Expressions.modules;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry.Expressions.refSetTypes;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry.Expressions.characteristicTypeId;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.functional.renderer.FunctionalSyntaxObjectRenderer;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+import com.b2international.collections.PrimitiveMaps;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongKeyMap;
+import com.b2international.collections.longs.LongSet;
+import com.b2international.index.Hits;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.refset.SnomedRefSetType;
+import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomyBuilder;
+import com.b2international.snowowl.snomed.datastore.ConcreteDomainFragment;
+import com.b2international.snowowl.snomed.datastore.SnomedRefSetUtil;
+import com.b2international.snowowl.snomed.datastore.StatementFragment;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * Writes the stated form of a SNOMED CT branch as an OWL 2 ontology in
+ * functional syntax, without building a {@link ReasonerTaxonomyBuilder
+ * reasoner taxonomy} for the entire terminology first.
+ * <p>
+ * Concepts are scrolled in identifier order, one page at a time; the stated
+ * relationships and concrete domain members of each page are loaded and
+ * converted to axioms with the help of {@link DelegateOntology}, then
+ * discarded. Only the attribute hierarchies, the set of exhaustive concepts and
+ * the concrete domain type identifiers are kept in memory for the entire
+ * export. The resulting axioms are the same as the ones returned by
+ * {@link DelegateOntology#getAxioms()} for a fully built taxonomy.
+ *
+ * @since 7.1
+ */
+public final class StreamingOntologyExporter {
+
+	private static final int DEFAULT_PAGE_SIZE = 10_000;
+
+	private final RevisionSearcher searcher;
+	private final boolean concreteDomainSupportEnabled;
+	private final int pageSize;
+
+	public StreamingOntologyExporter(final RevisionSearcher searcher, final boolean concreteDomainSupportEnabled) {
+		this(searcher, concreteDomainSupportEnabled, DEFAULT_PAGE_SIZE);
+	}
+
+	StreamingOntologyExporter(final RevisionSearcher searcher, final boolean concreteDomainSupportEnabled, final int pageSize) {
+		checkArgument(pageSize > 0, "Page size should be positive, got %s.", pageSize);
+		this.searcher = searcher;
+		this.concreteDomainSupportEnabled = concreteDomainSupportEnabled;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Writes the ontology with the specified IRI to the given writer. The
+	 * writer is flushed, but not closed, when the method returns.
+	 *
+	 * @param ontologyIRI
+	 *            the IRI of the exported ontology
+	 * @param writer
+	 *            the writer to receive the ontology in functional syntax
+	 * @throws IOException
+	 *             if writing the ontology fails
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology used for creating axioms can not be set up
+	 */
+	public void export(final IRI ontologyIRI, final Writer writer) throws IOException, OWLOntologyCreationException {
+		// The delegate ontology is only used as an axiom factory; its taxonomy is empty
+		final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		manager.setOntologyFactories(ImmutableSet.of(new DelegateOntologyFactory(new ReasonerTaxonomyBuilder()
+				.finishConcepts()
+				.build())));
+
+		final DelegateOntology ontology = (DelegateOntology) manager.createOntology(ontologyIRI);
+		final FunctionalSyntaxDocumentFormat format = new FunctionalSyntaxDocumentFormat();
+		format.copyPrefixesFrom(ontology.getPrefixManager());
+		manager.setOntologyFormat(ontology, format);
+
+		final FunctionalSyntaxObjectRenderer renderer = new FunctionalSyntaxObjectRenderer(ontology, writer);
+		final Consumer<OWLAxiom> axiomWriter = axiom -> {
+			axiom.accept(renderer);
+			try {
+				writer.write('\n');
+			} catch (final IOException e) {
+				throw new OWLRuntimeException(e);
+			}
+		};
+
+		try {
+
+			renderer.writePrefixes();
+			writer.write("\n");
+			writer.write("Ontology(<" + ontologyIRI + ">\n");
+
+			final LongSet objectAttributeIds = getConceptAndSubTypes(DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE);
+			final LongSet dataAttributeIds = getConceptAndSubTypes(DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE);
+			final LongSet exhaustiveIds = PrimitiveSets.newLongOpenHashSet();
+			final LongSet concreteDomainTypeIds = PrimitiveSets.newLongOpenHashSet();
+
+			writeConceptAxioms(ontology, objectAttributeIds, dataAttributeIds, exhaustiveIds, concreteDomainTypeIds, axiomWriter);
+			writePropertyAxioms(ontology, objectAttributeIds, dataAttributeIds, concreteDomainTypeIds, axiomWriter);
+			writeDisjointUnionAxioms(ontology, exhaustiveIds, axiomWriter);
+
+			writer.write(")");
+			writer.flush();
+
+		} catch (final OWLRuntimeException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else {
+				throw e;
+			}
+		} finally {
+			manager.removeOntology(ontology);
+		}
+	}
+
+	private void writeConceptAxioms(final DelegateOntology ontology,
+			final LongSet objectAttributeIds,
+			final LongSet dataAttributeIds,
+			final LongSet exhaustiveIds,
+			final LongSet concreteDomainTypeIds,
+			final Consumer<OWLAxiom> axiomWriter) {
+
+		final OWLDataFactory dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+		final Query<String[]> query = Query.select(String[].class)
+				.from(SnomedConceptDocument.class)
+				.fields(SnomedConceptDocument.Fields.ID, // 0
+						SnomedConceptDocument.Fields.PRIMITIVE, // 1
+						SnomedConceptDocument.Fields.EXHAUSTIVE) // 2
+				.where(activeClassifiable())
+				.sortBy(SortBy.field(SnomedConceptDocument.Fields.ID, Order.ASC))
+				.limit(pageSize)
+				.build();
+
+		for (final Hits<String[]> hits : searcher.scroll(query)) {
+			final List<String> conceptIds = newArrayListWithExpectedSize(hits.getHits().size());
+			final LongSet fullyDefinedIds = PrimitiveSets.newLongOpenHashSet();
+
+			for (final String[] concept : hits) {
+				final long conceptId = Long.parseLong(concept[0]);
+				conceptIds.add(concept[0]);
+				if (!Boolean.parseBoolean(concept[1])) { fullyDefinedIds.add(conceptId); }
+				if (Boolean.parseBoolean(concept[2])) { exhaustiveIds.add(conceptId); }
+			}
+
+			final LongKeyMap<LongSet> parentIds = PrimitiveMaps.newLongKeyOpenHashMap();
+			final ListMultimap<Long, StatementFragment> statedNonIsARelationships = ArrayListMultimap.create();
+			final List<String> relationshipIds = newArrayListWithExpectedSize(conceptIds.size());
+			collectStatedRelationships(conceptIds, parentIds, statedNonIsARelationships, relationshipIds);
+
+			final ListMultimap<String, ConcreteDomainFragment> statedConcreteDomainMembers;
+			if (concreteDomainSupportEnabled) {
+				statedConcreteDomainMembers = getStatedConcreteDomainMembers(Iterables.concat(conceptIds, relationshipIds));
+				statedConcreteDomainMembers.values().forEach(member -> concreteDomainTypeIds.add(member.getTypeId()));
+			} else {
+				statedConcreteDomainMembers = ImmutableListMultimap.of();
+			}
+
+			for (final String id : conceptIds) {
+				final long conceptId = Long.parseLong(id);
+				if (isAttribute(conceptId, objectAttributeIds) || isAttribute(conceptId, dataAttributeIds)) {
+					continue;
+				}
+
+				axiomWriter.accept(dataFactory.getOWLDeclarationAxiom(ontology.getConceptClass(conceptId)));
+				axiomWriter.accept(ontology.getConceptAxiom(conceptId,
+						fullyDefinedIds.contains(conceptId),
+						getParentIds(parentIds, conceptId),
+						statedNonIsARelationships.get(conceptId),
+						statedConcreteDomainMembers::get));
+			}
+		}
+	}
+
+	private void writePropertyAxioms(final DelegateOntology ontology,
+			final LongSet objectAttributeIds,
+			final LongSet dataAttributeIds,
+			final LongSet concreteDomainTypeIds,
+			final Consumer<OWLAxiom> axiomWriter) {
+
+		final OWLDataFactory dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+		final LongKeyMap<LongSet> objectAttributeParentIds = getStatedParentIds(objectAttributeIds);
+		final LongKeyMap<LongSet> dataAttributeParentIds = getStatedParentIds(dataAttributeIds);
+
+		for (final LongIterator itr = objectAttributeIds.iterator(); itr.hasNext(); /* empty */) {
+			axiomWriter.accept(dataFactory.getOWLDeclarationAxiom(ontology.getConceptObjectProperty(itr.next())));
+		}
+
+		for (final LongIterator itr = objectAttributeIds.iterator(); itr.hasNext(); /* empty */) {
+			final long childId = itr.next();
+			for (final LongIterator parents = getParentIds(objectAttributeParentIds, childId).iterator(); parents.hasNext(); /* empty */) {
+				axiomWriter.accept(dataFactory.getOWLSubObjectPropertyOfAxiom(ontology.getConceptObjectProperty(childId),
+						ontology.getConceptObjectProperty(parents.next())));
+			}
+		}
+
+		for (final LongIterator itr = dataAttributeIds.iterator(); itr.hasNext(); /* empty */) {
+			axiomWriter.accept(dataFactory.getOWLDeclarationAxiom(ontology.getConceptDataProperty(itr.next())));
+		}
+
+		for (final LongIterator itr = dataAttributeIds.iterator(); itr.hasNext(); /* empty */) {
+			final long childId = itr.next();
+			for (final LongIterator parents = getParentIds(dataAttributeParentIds, childId).iterator(); parents.hasNext(); /* empty */) {
+				axiomWriter.accept(dataFactory.getOWLSubDataPropertyOfAxiom(ontology.getConceptDataProperty(childId),
+						ontology.getConceptDataProperty(parents.next())));
+			}
+		}
+
+		for (final LongIterator itr = concreteDomainTypeIds.iterator(); itr.hasNext(); /* empty */) {
+			axiomWriter.accept(dataFactory.getOWLDeclarationAxiom(ontology.getConcreteDomainProperty(itr.next())));
+		}
+	}
+
+	private void writeDisjointUnionAxioms(final DelegateOntology ontology,
+			final LongSet exhaustiveIds,
+			final Consumer<OWLAxiom> axiomWriter) {
+
+		if (exhaustiveIds.isEmpty()) {
+			return;
+		}
+
+		final OWLDataFactory dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+		final List<String> parentIds = newArrayListWithExpectedSize(exhaustiveIds.size());
+		for (final LongIterator itr = exhaustiveIds.iterator(); itr.hasNext(); /* empty */) {
+			parentIds.add(Long.toString(itr.next()));
+		}
+
+		for (final List<String> page : Iterables.partition(parentIds, pageSize)) {
+			final Multimap<Long, Long> childIds = getStatedChildIds(page);
+			for (final String parentId : page) {
+				final Set<OWLClass> childClasses = newHashSet();
+				for (final Long childId : childIds.get(Long.parseLong(parentId))) {
+					childClasses.add(ontology.getConceptClass(childId));
+				}
+				axiomWriter.accept(dataFactory.getOWLDisjointUnionAxiom(ontology.getConceptClass(Long.parseLong(parentId)), childClasses));
+			}
+		}
+	}
+
+	private static boolean isAttribute(final long conceptId, final LongSet attributeIds) {
+		// The roots of the attribute hierarchies are also declared as classes
+		return conceptId != DelegateOntology.CONCEPT_MODEL_OBJECT_ATTRIBUTE
+				&& conceptId != DelegateOntology.CONCEPT_MODEL_DATA_ATTRIBUTE
+				&& attributeIds.contains(conceptId);
+	}
+
+	private static LongSet getParentIds(final LongKeyMap<LongSet> parentIds, final long conceptId) {
+		final LongSet conceptParentIds = parentIds.get(conceptId);
+		return (conceptParentIds != null) ? conceptParentIds : PrimitiveSets.newLongOpenHashSet();
+	}
+
+	private static Expression activeClassifiable() {
+		return Expressions.builder()
+				.filter(active())
+				.mustNot(modules(Concepts.UK_MODULES_NOCLASSIFY))
+				.build();
+	}
+
+	/*
+	 * Returns the active given concept and its active stated descendants.
+	 */
+	private LongSet getConceptAndSubTypes(final long ancestorId) {
+		final Set<String> ancestorIds = Collections.singleton(Long.toString(ancestorId));
+		final Query<String[]> query = Query.select(String[].class)
+				.from(SnomedConceptDocument.class)
+				.fields(SnomedConceptDocument.Fields.ID)
+				.where(Expressions.builder()
+						.filter(activeClassifiable())
+						.should(SnomedConceptDocument.Expressions.id(Long.toString(ancestorId)))
+						.should(SnomedConceptDocument.Expressions.statedParents(ancestorIds))
+						.should(SnomedConceptDocument.Expressions.statedAncestors(ancestorIds))
+						.setMinimumNumberShouldMatch(1) // required because we also have a filter
+						.build())
+				.limit(pageSize)
+				.build();
+
+		final LongSet conceptAndSubTypes = PrimitiveSets.newLongOpenHashSet();
+		for (final Hits<String[]> hits : searcher.scroll(query)) {
+			for (final String[] concept : hits) {
+				conceptAndSubTypes.add(Long.parseLong(concept[0]));
+			}
+		}
+
+		// Descendants are only included if the ancestor itself is present
+		if (!conceptAndSubTypes.contains(ancestorId)) {
+			conceptAndSubTypes.clear();
+		}
+
+		return conceptAndSubTypes;
+	}
+
+	private LongKeyMap<LongSet> getStatedParentIds(final LongSet conceptIds) {
+		final LongKeyMap<LongSet> parentIds = PrimitiveMaps.newLongKeyOpenHashMap();
+		final List<String> ids = newArrayListWithExpectedSize(conceptIds.size());
+		for (final LongIterator itr = conceptIds.iterator(); itr.hasNext(); /* empty */) {
+			ids.add(Long.toString(itr.next()));
+		}
+
+		for (final List<String> page : Iterables.partition(ids, pageSize)) {
+			collectStatedRelationships(page, parentIds, ArrayListMultimap.create(), newArrayListWithExpectedSize(0));
+		}
+
+		return parentIds;
+	}
+
+	private void collectStatedRelationships(final Collection<String> sourceIds,
+			final LongKeyMap<LongSet> parentIds,
+			final ListMultimap<Long, StatementFragment> statedNonIsARelationships,
+			final List<String> relationshipIds) {
+
+		final Query<String[]> query = Query.select(String[].class)
+				.from(SnomedRelationshipIndexEntry.class)
+				.fields(SnomedRelationshipIndexEntry.Fields.ID, // 0
+						SnomedRelationshipIndexEntry.Fields.SOURCE_ID, // 1
+						SnomedRelationshipIndexEntry.Fields.TYPE_ID, // 2
+						SnomedRelationshipIndexEntry.Fields.DESTINATION_ID, // 3
+						SnomedRelationshipIndexEntry.Fields.DESTINATION_NEGATED, // 4
+						SnomedRelationshipIndexEntry.Fields.GROUP, // 5
+						SnomedRelationshipIndexEntry.Fields.UNION_GROUP, // 6
+						SnomedRelationshipIndexEntry.Fields.MODIFIER_ID) // 7
+				.where(Expressions.builder()
+						.filter(active())
+						.filter(characteristicTypeId(Concepts.STATED_RELATIONSHIP))
+						.filter(SnomedRelationshipIndexEntry.Expressions.sourceIds(sourceIds))
+						.mustNot(modules(Concepts.UK_MODULES_NOCLASSIFY))
+						.build())
+				.sortBy(SortBy.builder()
+						.sortByField(SnomedRelationshipIndexEntry.Fields.SOURCE_ID, Order.ASC)
+						.sortByField(SnomedRelationshipIndexEntry.Fields.TYPE_ID, Order.ASC)
+						.sortByField(SnomedRelationshipIndexEntry.Fields.DESTINATION_ID, Order.ASC)
+						.sortByField(SnomedRelationshipIndexEntry.Fields.GROUP, Order.ASC)
+						.sortByField(SnomedRelationshipIndexEntry.Fields.ID, Order.ASC)
+						.build())
+				.limit(pageSize)
+				.build();
+
+		for (final Hits<String[]> hits : searcher.scroll(query)) {
+			for (final String[] relationship : hits) {
+				final long sourceId = Long.parseLong(relationship[1]);
+				final long destinationId = Long.parseLong(relationship[3]);
+
+				if (Concepts.IS_A.equals(relationship[2])) {
+					LongSet conceptParentIds = parentIds.get(sourceId);
+					if (conceptParentIds == null) {
+						conceptParentIds = PrimitiveSets.newLongOpenHashSet();
+						parentIds.put(sourceId, conceptParentIds);
+					}
+					conceptParentIds.add(destinationId);
+					continue;
+				}
+
+				final long statementId = Long.parseLong(relationship[0]);
+				final long typeId = Long.parseLong(relationship[2]);
+				final boolean destinationNegated = Boolean.parseBoolean(relationship[4]);
+				final int group = Integer.parseInt(relationship[5]);
+				final int unionGroup = Integer.parseInt(relationship[6]);
+				final boolean universal = Concepts.UNIVERSAL_RESTRICTION_MODIFIER.equals(relationship[7]);
+
+				statedNonIsARelationships.put(sourceId, new StatementFragment(
+						typeId,
+						destinationId,
+						destinationNegated,
+						group,
+						unionGroup,
+						universal,
+						statementId,
+						false)); // Stated relationships have no stated pair
+
+				relationshipIds.add(relationship[0]);
+			}
+		}
+	}
+
+	private Multimap<Long, Long> getStatedChildIds(final Collection<String> parentIds) {
+		final Query<String[]> query = Query.select(String[].class)
+				.from(SnomedRelationshipIndexEntry.class)
+				.fields(SnomedRelationshipIndexEntry.Fields.SOURCE_ID, // 0
+						SnomedRelationshipIndexEntry.Fields.DESTINATION_ID) // 1
+				.where(Expressions.builder()
+						.filter(active())
+						.filter(characteristicTypeId(Concepts.STATED_RELATIONSHIP))
+						.filter(SnomedRelationshipIndexEntry.Expressions.typeId(Concepts.IS_A))
+						.filter(SnomedRelationshipIndexEntry.Expressions.destinationIds(parentIds))
+						.mustNot(modules(Concepts.UK_MODULES_NOCLASSIFY))
+						.build())
+				.limit(pageSize)
+				.build();
+
+		final Multimap<Long, Long> childIds = ArrayListMultimap.create();
+		for (final Hits<String[]> hits : searcher.scroll(query)) {
+			for (final String[] relationship : hits) {
+				childIds.put(Long.parseLong(relationship[1]), Long.parseLong(relationship[0]));
+			}
+		}
+
+		return childIds;
+	}
+
+	private ListMultimap<String, ConcreteDomainFragment> getStatedConcreteDomainMembers(final Iterable<String> referencedComponentIds) {
+		final Query<SnomedRefSetMemberIndexEntry> query = Query.select(SnomedRefSetMemberIndexEntry.class)
+				.where(Expressions.builder()
+						.filter(active())
+						.filter(refSetTypes(Collections.singleton(SnomedRefSetType.CONCRETE_DATA_TYPE)))
+						.filter(SnomedRefSetMemberIndexEntry.Expressions.characteristicTypeIds(Collections.singleton(Concepts.STATED_RELATIONSHIP)))
+						.filter(SnomedRefSetMemberIndexEntry.Expressions.referencedComponentIds(ImmutableSet.copyOf(referencedComponentIds)))
+						.mustNot(modules(Concepts.UK_MODULES_NOCLASSIFY))
+						.build())
+				.sortBy(SortBy.field(SnomedRefSetMemberIndexEntry.Fields.REFERENCED_COMPONENT_ID, Order.ASC))
+				.limit(pageSize)
+				.build();
+
+		final ListMultimap<String, ConcreteDomainFragment> members = ArrayListMultimap.create();
+		for (final Hits<SnomedRefSetMemberIndexEntry> hits : searcher.scroll(query)) {
+			for (final SnomedRefSetMemberIndexEntry member : hits) {
+				final String value = SnomedRefSetUtil.serializeValue(member.getDataType(), member.getValue());
+				final long typeId = Long.parseLong(member.getTypeId());
+				final Integer group = member.getRelationshipGroup();
+				final long refsetId = Long.parseLong(member.getReferenceSetId());
+
+				members.put(member.getReferencedComponentId(), new ConcreteDomainFragment(value,
+						typeId,
+						refsetId,
+						group,
+						member.getId()));
+			}
+		}
+
+		return members;
+	}
+}
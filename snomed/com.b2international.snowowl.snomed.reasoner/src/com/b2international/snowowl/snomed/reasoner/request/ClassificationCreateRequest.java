@@ -50,6 +50,8 @@ final class ClassificationCreateRequest implements Request<BranchContext, String
 	@NotNull
 	private List<SnomedConcept> additionalConcepts;
 
+	private boolean equivalenceCheckOnly;
+
 	ClassificationCreateRequest() {}
 
 	void setClassificationId(final String classificationId) {
@@ -68,6 +70,10 @@ final class ClassificationCreateRequest implements Request<BranchContext, String
 		this.additionalConcepts = additionalConcepts;
 	}
 
+	void setEquivalenceCheckOnly(final boolean equivalenceCheckOnly) {
+		this.equivalenceCheckOnly = equivalenceCheckOnly;
+	}
+
 	@Override
 	public String execute(final BranchContext context) {
 		final String repositoryId = context.id();
@@ -79,6 +85,7 @@ final class ClassificationCreateRequest implements Request<BranchContext, String
 		final AsyncRequest<Boolean> runRequest = new ClassificationJobRequestBuilder()
 				.setReasonerId(reasonerId)
 				.addAllConcepts(additionalConcepts)
+				.setEquivalenceCheckOnly(equivalenceCheckOnly)
 				.build(repositoryId, branch.path());
 
 		final SnomedCoreConfiguration config = context.service(SnomedCoreConfiguration.class);
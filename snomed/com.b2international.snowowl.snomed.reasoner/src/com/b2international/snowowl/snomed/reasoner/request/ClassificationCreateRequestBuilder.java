@@ -37,6 +37,7 @@ public final class ClassificationCreateRequestBuilder
 	private String reasonerId;
 	private String userId;
 	private final List<SnomedConcept> additionalConcepts = newArrayList();
+	private boolean equivalenceCheckOnly;
 
 	ClassificationCreateRequestBuilder() {}
 
@@ -65,6 +66,18 @@ public final class ClassificationCreateRequestBuilder
 		return this;
 	}
 
+	/**
+	 * Only checks whether the additional concepts are equivalent to any other
+	 * concept (or unsatisfiable) by classifying the module of the ontology
+	 * relevant to their definitions. Inferred relationship changes are not
+	 * computed, and equivalences not involving the additional concepts may be
+	 * reported incompletely. Has no effect if no additional concepts are given.
+	 */
+	public ClassificationCreateRequestBuilder setEquivalenceCheckOnly(final boolean equivalenceCheckOnly) {
+		this.equivalenceCheckOnly = equivalenceCheckOnly;
+		return this;
+	}
+
 	@Override
 	protected Request<BranchContext, String> doBuild() {
 		final ClassificationCreateRequest request = new ClassificationCreateRequest();
@@ -72,6 +85,7 @@ public final class ClassificationCreateRequestBuilder
 		request.setReasonerId(reasonerId);
 		request.setUserId(userId);
 		request.setAdditionalConcepts(additionalConcepts);
+		request.setEquivalenceCheckOnly(equivalenceCheckOnly);
 		return request;
 	}
 }
@@ -24,9 +24,12 @@ import javax.validation.constraints.NotNull;
 import org.hibernate.validator.constraints.NotEmpty;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongSet;
 import com.b2international.index.revision.RevisionSearcher;
 import com.b2international.snowowl.core.branch.Branch;
 import com.b2international.snowowl.core.domain.BranchContext;
@@ -41,10 +44,13 @@ import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomy;
 import com.b2international.snowowl.snomed.core.taxonomy.ReasonerTaxonomyBuilder;
 import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
 import com.b2international.snowowl.snomed.reasoner.classification.ReasonerTaxonomyInferrer;
+import com.b2international.snowowl.snomed.reasoner.exceptions.OntologyException;
 import com.b2international.snowowl.snomed.reasoner.exceptions.ReasonerApiException;
 import com.b2international.snowowl.snomed.reasoner.index.ClassificationTracker;
 import com.b2international.snowowl.snomed.reasoner.ontology.DelegateOntology;
 import com.b2international.snowowl.snomed.reasoner.ontology.DelegateOntologyFactory;
+import com.b2international.snowowl.snomed.reasoner.ontology.OntologyModule;
+import com.b2international.snowowl.snomed.reasoner.ontology.OntologyModuleExtractor;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -58,6 +64,8 @@ final class ClassificationJobRequest implements Request<BranchContext, Boolean>
 	@NotNull
 	private List<SnomedConcept> additionalConcepts;
 
+	private boolean equivalenceCheckOnly;
+
 	private String classificationId;
 
 	ClassificationJobRequest() {}
@@ -70,6 +78,10 @@ final class ClassificationJobRequest implements Request<BranchContext, Boolean>
 		this.additionalConcepts = additionalConcepts;
 	}
 
+	void setEquivalenceCheckOnly(final boolean equivalenceCheckOnly) {
+		this.equivalenceCheckOnly = equivalenceCheckOnly;
+	}
+
 	@Override
 	public Boolean execute(final BranchContext context) {
 		final RemoteJob job = context.service(RemoteJob.class);
@@ -131,14 +143,33 @@ final class ClassificationJobRequest implements Request<BranchContext, Boolean>
 		try {
 
 			final DelegateOntology ontology = (DelegateOntology) ontologyManager.createOntology(ontologyIRI);
-			final ReasonerTaxonomyInferrer inferrer = new ReasonerTaxonomyInferrer(reasonerId, ontology, context);
-			final ReasonerTaxonomy inferredTaxonomy = inferrer.addInferences(taxonomy);
 
-			tracker.classificationCompleted(classificationId, inferredTaxonomy);
+			if (equivalenceCheckOnly && !additionalConcepts.isEmpty()) {
+				// Classify the module relevant to the additional concepts only
+				final LongSet seedConceptIds = PrimitiveSets.newLongOpenHashSet();
+				additionalConcepts.forEach(c -> seedConceptIds.add(Long.parseLong(c.getId())));
+
+				final OntologyModule module = new OntologyModuleExtractor(taxonomy).extract(seedConceptIds);
+				final OWLOntology moduleOntology = OWLManager.createOWLOntologyManager().createOntology(ontology.getModuleAxioms(module));
+				final ReasonerTaxonomyInferrer inferrer = new ReasonerTaxonomyInferrer(reasonerId, ontology, moduleOntology, context);
+				final ReasonerTaxonomy inferredTaxonomy = inferrer.addInferences(taxonomy);
+
+				tracker.equivalenceCheckCompleted(classificationId, inferredTaxonomy);
+			} else {
+				// The reasoner iterates over the axioms more than once while loading the ontology
+				ontology.materializeAxioms();
+				final ReasonerTaxonomyInferrer inferrer = new ReasonerTaxonomyInferrer(reasonerId, ontology, context);
+				final ReasonerTaxonomy inferredTaxonomy = inferrer.addInferences(taxonomy);
+
+				tracker.classificationCompleted(classificationId, inferredTaxonomy);
+			}
 
 		} catch (final OWLOntologyCreationException e) {
 			tracker.classificationFailed(classificationId);
 			throw new ReasonerApiException("Caught exception while creating ontology instance.", e);
+		} catch (final OntologyException e) {
+			tracker.classificationFailed(classificationId);
+			throw new ReasonerApiException("Caught exception while materializing ontology axioms.", e);
 		} catch (final ReasonerApiException e) {
 			tracker.classificationFailed(classificationId);
 			throw e;
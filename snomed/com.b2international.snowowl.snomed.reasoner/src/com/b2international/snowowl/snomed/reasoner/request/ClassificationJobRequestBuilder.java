@@ -34,6 +34,7 @@ public final class ClassificationJobRequestBuilder
 
 	private String reasonerId;
 	private final List<SnomedConcept> additionalConcepts = newArrayList();
+	private boolean equivalenceCheckOnly;
 
 	ClassificationJobRequestBuilder() {}
 
@@ -47,11 +48,17 @@ public final class ClassificationJobRequestBuilder
 		return this;
 	}
 
+	public ClassificationJobRequestBuilder setEquivalenceCheckOnly(final boolean equivalenceCheckOnly) {
+		this.equivalenceCheckOnly = equivalenceCheckOnly;
+		return this;
+	}
+
 	@Override
 	protected Request<BranchContext, Boolean> doBuild() {
 		final ClassificationJobRequest request = new ClassificationJobRequest();
 		request.setReasonerId(reasonerId);
 		request.setAdditionalConcepts(additionalConcepts);
+		request.setEquivalenceCheckOnly(equivalenceCheckOnly);
 		return request;
 	}
 }
@@ -15,9 +15,14 @@
  */
 package com.b2international.snowowl.snomed.reasoner.request;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import java.util.concurrent.ForkJoinTask;
 
@@ -45,6 +50,7 @@ import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfigurati
 import com.b2international.snowowl.snomed.reasoner.exceptions.OntologyException;
 import com.b2international.snowowl.snomed.reasoner.ontology.DelegateOntology;
 import com.b2international.snowowl.snomed.reasoner.ontology.DelegateOntologyFactory;
+import com.b2international.snowowl.snomed.reasoner.ontology.StreamingOntologyExporter;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -82,6 +88,16 @@ final class OntologyExportRequest implements Request<BranchContext, String> {
 		final SnomedCoreConfiguration config = context.service(SnomedCoreConfiguration.class);
 		final RevisionSearcher revisionSearcher = context.service(RevisionSearcher.class);
 		final boolean concreteDomainSupportEnabled = config.isConcreteDomainSupported();
+		final IRI ontologyIRI = IRI.create(DelegateOntology.NAMESPACE_SCTM + ontologyModuleId);
+
+		// Functional syntax can be written concept by concept, without building the taxonomy first
+		if (Type.FUNCTIONAL.equals(exportType)) {
+			final StreamingOntologyExporter exporter = new StreamingOntologyExporter(revisionSearcher, concreteDomainSupportEnabled);
+			return upload(context, os -> {
+				final Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+				exporter.export(ontologyIRI, writer);
+			});
+		}
 		
 		final ReasonerTaxonomyBuilder taxonomyBuilder = new ReasonerTaxonomyBuilder();
 		taxonomyBuilder.addActiveConceptIds(revisionSearcher);
@@ -98,12 +114,22 @@ final class OntologyExportRequest implements Request<BranchContext, String> {
 		final ReasonerTaxonomy taxonomy = taxonomyBuilder.build();
 		final OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
 		ontologyManager.setOntologyFactories(ImmutableSet.of(new DelegateOntologyFactory(taxonomy)));
-		final IRI ontologyIRI = IRI.create(DelegateOntology.NAMESPACE_SCTM + ontologyModuleId);
 
 		try {
 
 			final OWLOntology ontology = ontologyManager.createOntology(ontologyIRI);
 			final OWLDocumentFormat documentFormat = getOWLDocumentFormat();
+			return upload(context, os -> ontologyManager.saveOntology(ontology, documentFormat, os));
+
+		} catch (final OWLOntologyCreationException e) {
+			throw createExportFailedException(context, e);
+		}
+	}
+
+	private String upload(final BranchContext context, final OntologyWriter ontologyWriter) {
+		
+		try {
+
 			final AttachmentRegistry fileRegistry = context.service(AttachmentRegistry.class);
 
 			final UUID id = UUID.randomUUID();
@@ -113,8 +139,8 @@ final class OntologyExportRequest implements Request<BranchContext, String> {
 			final ForkJoinTask<?> uploadTask = ForkJoinTask.adapt(() -> fileRegistry.upload(id, is));
 			final ForkJoinTask<?> saveTask = ForkJoinTask.adapt(() -> {
 				try {
-					ontologyManager.saveOntology(ontology, documentFormat, os);
-				} catch (final OWLOntologyStorageException e) {
+					ontologyWriter.write(os);
+				} catch (final OWLOntologyCreationException | OWLOntologyStorageException | IOException e) {
 					throw createExportFailedException(context, e);
 				} finally {
 					try {
@@ -128,8 +154,6 @@ final class OntologyExportRequest implements Request<BranchContext, String> {
 			ForkJoinTask.invokeAll(saveTask, uploadTask);
 			return id.toString();
 
-		} catch (final OWLOntologyCreationException e) {
-			throw createExportFailedException(context, e);
 		} catch (final IOException e) {
 			throw createExportFailedException(context, e);
 		}
@@ -147,4 +171,9 @@ final class OntologyExportRequest implements Request<BranchContext, String> {
 			default: throw new IllegalStateException("Unexpected export type '" + exportType + "'.");
 		}
 	}
+
+	@FunctionalInterface
+	private interface OntologyWriter {
+		void write(OutputStream os) throws OWLOntologyCreationException, OWLOntologyStorageException, IOException;
+	}
 }